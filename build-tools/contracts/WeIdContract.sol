@@ -26,6 +26,25 @@ contract WeIdContract{
         changed[identity] = block.number;
     }
     
+    // Sets several attributes in one transaction. The values are concatenated in values, the
+    // length of each one is given in valueLengths. All events link back to the same block.
+    function setAttributes(address identity, bytes32[] keys, bytes values, uint[] valueLengths, int updated) public onlyOwner(identity, msg.sender){
+        require (keys.length == valueLengths.length);
+        uint previousBlock = changed[identity];
+        uint offset = 0;
+        for (uint i = 0; i < keys.length; i++) {
+            require (valueLengths[i] <= values.length - offset);
+            bytes memory value = new bytes(valueLengths[i]);
+            for (uint j = 0; j < valueLengths[i]; j++) {
+                value[j] = values[offset + j];
+            }
+            offset += valueLengths[i];
+            WeIdAttributeChanged(identity, keys[i], value, previousBlock, updated);
+        }
+        require (offset == values.length);
+        changed[identity] = block.number;
+    }
+    
     function isIdentityExist(address identity) public constant returns (bool) {
     	if(0x0 != identity && 0 != changed[identity]){
     		return true;
@@ -109,6 +109,101 @@ public final class WeIdConstant {
      */
     public static final Integer TRANSACTION_RECEIPT_TIMEOUT = 13;
 
+    /**
+     * The Constant max number of WeIdentity DID documents kept in the resolver cache.
+     */
+    public static final Integer WEID_DOCUMENT_CACHE_SIZE = 1000;
+
+    /**
+     * The Constant max number of transaction receipts fetched concurrently by the resolver.
+     */
+    public static final Integer RECEIPT_FETCH_PARALLELISM = 16;
+
+    /**
+     * The Constant max number of signer bound contracts kept loaded.
+     */
+    public static final Integer CONTRACT_CACHE_SIZE = 1000;
+
+    /**
+     * The Constant seconds a signer bound contract is kept loaded without being used.
+     */
+    public static final Long CONTRACT_CACHE_IDLE_SECONDS = 600L;
+
+    /**
+     * The Constant size in bytes of a segment file of the local WeIdentity DID event index.
+     */
+    public static final Integer WEID_INDEX_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * The Constant interval in milliseconds between two polls of the event indexer.
+     */
+    public static final Long WEID_INDEX_POLL_INTERVAL = 1000L;
+
+    /**
+     * The Constant max number of blocks indexed in one poll of the event indexer.
+     */
+    public static final Integer WEID_INDEX_MAX_BLOCKS_PER_POLL = 1000;
+
+    /**
+     * The Constant default max number of transactions a write pipeline keeps in flight.
+     */
+    public static final Integer WRITE_PIPELINE_MAX_IN_FLIGHT = 64;
+
+    /**
+     * The Constant interval in milliseconds between two polls of the receipt tracker.
+     */
+    public static final Long RECEIPT_POLL_INTERVAL = 200L;
+
+    /**
+     * The Constant milliseconds a transaction waits for its block before its receipt is polled.
+     */
+    public static final Long RECEIPT_STRAGGLER_DELAY = 2000L;
+
+    /**
+     * The Constant max interval in milliseconds between two receipt polls of a transaction.
+     */
+    public static final Long RECEIPT_STRAGGLER_MAX_BACKOFF = 8000L;
+
+    /**
+     * The Constant default number of key pairs generated ahead by the key pair pool.
+     */
+    public static final Integer KEY_PAIR_POOL_CAPACITY = 256;
+
+    /**
+     * The Constant max number of loaded Json Schemas kept by the schema validator.
+     */
+    public static final Integer JSON_SCHEMA_CACHE_SIZE = 1000;
+
+    /**
+     * The Constant max number of decoded CPTs kept by the CPT cache.
+     */
+    public static final Integer CPT_CACHE_SIZE = 1000;
+
+    /**
+     * The Constant milliseconds a CPT id found not to exist is kept by the CPT cache.
+     */
+    public static final Long CPT_NOT_EXISTS_CACHE_MILLIS = 10000L;
+
+    /**
+     * The Constant min milliseconds between two subscriptions to the CPT change events.
+     */
+    public static final Long CPT_WATCH_RETRY_INTERVAL = 30000L;
+
+    /**
+     * The Constant max number of decoded public keys kept for signature verification.
+     */
+    public static final Integer PUBLIC_KEY_CACHE_SIZE = 1000;
+
+    /**
+     * The Constant window width in bits of the generator table shared by private key signers.
+     */
+    public static final Integer SIGNER_TABLE_WINDOW_WIDTH = 6;
+
+    /**
+     * The Constant max number of signatures of one issuer verified together in a batch.
+     */
+    public static final Integer SIGNATURE_BATCH_SIZE = 128;
+
     /**
      * The Constant pipeline character.
      */
@@ -119,6 +214,16 @@ public final class WeIdConstant {
      */
     public static final String DEFAULT_CERTIFICATE_CONTEXT = "v1";
 
+    /**
+     * The Constant Certificate Context of the credentials issued in the Merkle batch mode.
+     */
+    public static final String MERKLE_CERTIFICATE_CONTEXT = "v1-merkle";
+
+    /**
+     * The Constant max number of Merkle root signatures kept with their verification result.
+     */
+    public static final Integer MERKLE_ROOT_CACHE_SIZE = 10000;
+
     /**
      * The Constant Max authority issuer name length in Chars.
      */
@@ -13,6 +13,7 @@ import org.bcos.web3j.abi.EventValues;
 import org.bcos.web3j.abi.TypeReference;
 import org.bcos.web3j.abi.datatypes.Address;
 import org.bcos.web3j.abi.datatypes.Bool;
+import org.bcos.web3j.abi.datatypes.DynamicArray;
 import org.bcos.web3j.abi.datatypes.DynamicBytes;
 import org.bcos.web3j.abi.datatypes.Event;
 import org.bcos.web3j.abi.datatypes.Function;
@@ -44,10 +45,10 @@ public final class WeIdContract extends Contract {
      * The Constant ABI.
      */
     public static final String ABI =
-        "[{\"constant\":true,\"inputs\":[{\"name\":\"identity\",\"type\":\"address\"}],\"name\":\"isIdentityExist\",\"outputs\":[{\"name\":\"\",\"type\":\"bool\"}],\"payable\":false,\"type\":\"function\"},{\"constant\":false,\"inputs\":[{\"name\":\"identity\",\"type\":\"address\"},{\"name\":\"key\",\"type\":\"bytes32\"},{\"name\":\"value\",\"type\":\"bytes\"},{\"name\":\"updated\",\"type\":\"int256\"}],\"name\":\"setAttribute\",\"outputs\":[],\"payable\":false,\"type\":\"function\"},{\"constant\":true,\"inputs\":[{\"name\":\"identity\",\"type\":\"address\"}],\"name\":\"getLatestRelatedBlock\",\"outputs\":[{\"name\":\"\",\"type\":\"uint256\"}],\"payable\":false,\"type\":\"function\"},{\"anonymous\":false,\"inputs\":[{\"indexed\":true,\"name\":\"identity\",\"type\":\"address\"},{\"indexed\":false,\"name\":\"key\",\"type\":\"bytes32\"},{\"indexed\":false,\"name\":\"value\",\"type\":\"bytes\"},{\"indexed\":false,\"name\":\"previousBlock\",\"type\":\"uint256\"},{\"indexed\":false,\"name\":\"updated\",\"type\":\"int256\"}],\"name\":\"WeIdAttributeChanged\",\"type\":\"event\"}]";
+        "[{\"constant\":true,\"inputs\":[{\"name\":\"identity\",\"type\":\"address\"}],\"name\":\"isIdentityExist\",\"outputs\":[{\"name\":\"\",\"type\":\"bool\"}],\"payable\":false,\"type\":\"function\"},{\"constant\":false,\"inputs\":[{\"name\":\"identity\",\"type\":\"address\"},{\"name\":\"key\",\"type\":\"bytes32\"},{\"name\":\"value\",\"type\":\"bytes\"},{\"name\":\"updated\",\"type\":\"int256\"}],\"name\":\"setAttribute\",\"outputs\":[],\"payable\":false,\"type\":\"function\"},{\"constant\":false,\"inputs\":[{\"name\":\"identity\",\"type\":\"address\"},{\"name\":\"keys\",\"type\":\"bytes32[]\"},{\"name\":\"values\",\"type\":\"bytes\"},{\"name\":\"valueLengths\",\"type\":\"uint256[]\"},{\"name\":\"updated\",\"type\":\"int256\"}],\"name\":\"setAttributes\",\"outputs\":[],\"payable\":false,\"type\":\"function\"},{\"constant\":true,\"inputs\":[{\"name\":\"identity\",\"type\":\"address\"}],\"name\":\"getLatestRelatedBlock\",\"outputs\":[{\"name\":\"\",\"type\":\"uint256\"}],\"payable\":false,\"type\":\"function\"},{\"anonymous\":false,\"inputs\":[{\"indexed\":true,\"name\":\"identity\",\"type\":\"address\"},{\"indexed\":false,\"name\":\"key\",\"type\":\"bytes32\"},{\"indexed\":false,\"name\":\"value\",\"type\":\"bytes\"},{\"indexed\":false,\"name\":\"previousBlock\",\"type\":\"uint256\"},{\"indexed\":false,\"name\":\"updated\",\"type\":\"int256\"}],\"name\":\"WeIdAttributeChanged\",\"type\":\"event\"}]";
 
     private static String BINARY =
-        "6060604052341561000c57fe5b5b61041a8061001c6000396000f30060606040526000357c0100000000000000000000000000000000000000000000000000000000900463ffffffff168063170abf9c146100515780633cf239db1461009f5780634298ab941461012e575bfe5b341561005957fe5b610085600480803573ffffffffffffffffffffffffffffffffffffffff16906020019091905050610178565b604051808215151515815260200191505060405180910390f35b34156100a757fe5b61012c600480803573ffffffffffffffffffffffffffffffffffffffff169060200190919080356000191690602001909190803590602001908201803590602001908080601f016020809104026020016040519081016040528093929190818152602001838380828437820191505050505050919080359060200190919050506101f9565b005b341561013657fe5b610162600480803573ffffffffffffffffffffffffffffffffffffffff169060200190919050506103a4565b6040518082815260200191505060405180910390f35b60008173ffffffffffffffffffffffffffffffffffffffff166000141580156101e15750600060008373ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff16815260200190815260200160002054600014155b156101ef57600190506101f4565b600090505b919050565b83338173ffffffffffffffffffffffffffffffffffffffff168173ffffffffffffffffffffffffffffffffffffffff161415156102365760006000fd5b8573ffffffffffffffffffffffffffffffffffffffff167fac4dd54786488e78364a1b80c3cb3682c4352995147d8987cbe5210a04261cf48686600060008b73ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff16815260200190815260200160002054876040518085600019166000191681526020018060200184815260200183815260200182810382528581815181526020019150805190602001908083836000831461031a575b80518252602083111561031a576020820191506020810190506020830392506102f6565b505050905090810190601f1680156103465780820380516001836020036101000a031916815260200191505b509550505050505060405180910390a243600060008873ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff168152602001908152602001600020819055505b5b505050505050565b6000600060008373ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff1681526020019081526020016000205490505b9190505600a165627a7a723058201b7ab5e5bb9720b2c6744299fc4c37ae5218af7f91d970d94a02efb326b037fe0029";
+        "6060604052341561000c57fe5b5b6105188061001c6000396000f30060606040526000357c0100000000000000000000000000000000000000000000000000000000900463ffffffff168063170abf9c1461005c5780633cf239db146100aa5780634298ab9414610139578063d83cd189146103f9575bfe5b341561006457fe5b610090600480803573ffffffffffffffffffffffffffffffffffffffff16906020019091905050610183565b604051808215151515815260200191505060405180910390f35b34156100b257fe5b610137600480803573ffffffffffffffffffffffffffffffffffffffff169060200190919080356000191690602001909190803590602001908201803590602001908080601f01602080910402602001604051908101604052809392919081815260200183838082843782019150505050505091908035906020019091905050610204565b005b341561014157fe5b61016d600480803573ffffffffffffffffffffffffffffffffffffffff169060200190919050506103af565b6040518082815260200191505060405180910390f35b60008173ffffffffffffffffffffffffffffffffffffffff166000141580156101ec5750600060008373ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff16815260200190815260200160002054600014155b156101fa57600190506101ff565b600090505b919050565b83338173ffffffffffffffffffffffffffffffffffffffff168173ffffffffffffffffffffffffffffffffffffffff161415156102415760006000fd5b8573ffffffffffffffffffffffffffffffffffffffff167fac4dd54786488e78364a1b80c3cb3682c4352995147d8987cbe5210a04261cf48686600060008b73ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff168152602001908152602001600020548760405180856000191660001916815260200180602001848152602001838152602001828103825285818151815260200191508051906020019080838360008314610325575b80518252602083111561032557602082019150602081019050602083039250610301565b505050905090810190601f1680156103515780820380516001836020036101000a031916815260200191505b509550505050505060405180910390a243600060008873ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff168152602001908152602001600020819055505b5b505050505050565b6000600060008373ffffffffffffffffffffffffffffffffffffffff1673ffffffffffffffffffffffffffffffffffffffff1681526020019081526020016000205490505b919050565b341561040157fe5b60043573ffffffffffffffffffffffffffffffffffffffff1680331461042657600080fd5b602435600401606435600401803582351461044057600080fd5b60443560040183600052600060205260406000208054600060005b863581101561050657806020028601602001358286350381111561047e57600080fd5b604051826020028901602001358152608081602001528481604001526084358160600152600082601f0160209004602002820160800152818160800152818488016020018260a00137897fac4dd54786488e78364a1b80c3cb3682c4352995147d8987cbe5210a04261cf483601f016020900460200260a00183a2509060010191019061045b565b8435821461051357600080fd5b43845500";
 
     private WeIdContract(
         String contractAddress,
@@ -353,6 +354,55 @@ public final class WeIdContract extends Contract {
         executeTransactionAsync(function, callback);
     }
 
+    /**
+     * Sets several attributes in one transaction.
+     *
+     * @param identity the identity
+     * @param keys the keys
+     * @param values the values, concatenated
+     * @param valueLengths the length of each value
+     * @param updated the updated
+     * @return the future
+     */
+    public Future<TransactionReceipt> setAttributes(
+        Address identity,
+        DynamicArray<Bytes32> keys,
+        DynamicBytes values,
+        DynamicArray<Uint256> valueLengths,
+        Int256 updated) {
+        Function function =
+            new Function(
+                "setAttributes",
+                Arrays.<Type>asList(identity, keys, values, valueLengths, updated),
+                Collections.<TypeReference<?>>emptyList());
+        return executeTransactionAsync(function);
+    }
+
+    /**
+     * Sets several attributes in one transaction.
+     *
+     * @param identity the identity
+     * @param keys the keys
+     * @param values the values, concatenated
+     * @param valueLengths the length of each value
+     * @param updated the updated
+     * @param callback the callback
+     */
+    public void setAttributes(
+        Address identity,
+        DynamicArray<Bytes32> keys,
+        DynamicBytes values,
+        DynamicArray<Uint256> valueLengths,
+        Int256 updated,
+        TransactionSucCallback callback) {
+        Function function =
+            new Function(
+                "setAttributes",
+                Arrays.<Type>asList(identity, keys, values, valueLengths, updated),
+                Collections.<TypeReference<?>>emptyList());
+        executeTransactionAsync(function, callback);
+    }
+
     /**
      * Gets the latest related block.
      *
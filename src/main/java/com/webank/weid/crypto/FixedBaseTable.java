@@ -0,0 +1,160 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.bcos.web3j.crypto.Hash;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECPoint;
+import org.bouncycastle.math.raw.Nat256;
+
+/**
+ * The multiples of a fixed base point of a 256-bit curve, one row per window of the scalar
+ * bits: row i holds j * 2^(i * width) * base + offset for j from 0 to 2^width - 1, in affine
+ * coordinates. A scalar multiplication then takes one point addition per window and no
+ * doubling. The offset keeps every entry a finite point, so a zero digit is added like any
+ * other, and the sum of the offsets is taken off at the end.
+ *
+ * <p>A lookup reads every entry of the row and keeps the wanted one with a mask, so neither
+ * the branches nor the memory accesses of the lookups depend on the scalar. The point
+ * additions and the normalization of the product are the ones of Bouncy Castle, as in its
+ * generic multiplier. The table only holds public points and can be shared by threads.
+ *
+ * @author tonychen 2018.12
+ */
+final class FixedBaseTable {
+
+    private static final int COORD_INTS = 8;
+
+    /**
+     * The multiplier of the base giving the offset, a hash with no structure, so the additions
+     * meet equal or opposite points as rarely as a guess of the scalar.
+     */
+    private static final BigInteger OFFSET_MULTIPLIER =
+        new BigInteger(1, Hash.sha3("FixedBaseTable offset".getBytes(StandardCharsets.UTF_8)));
+
+    private final ECCurve curve;
+
+    private final int width;
+
+    private final int windows;
+
+    private final int rowSize;
+
+    /**
+     * The x then the y of each entry, row after row, as Nat256 little endian ints.
+     */
+    private final int[] coords;
+
+    private final ECPoint offsetCorrection;
+
+    /**
+     * Precompute the table of a base point.
+     *
+     * @param base the base point
+     * @param scalarBits the max bit length of the scalars, at most 256
+     * @param width the window width in bits, from 1 to 8
+     */
+    FixedBaseTable(ECPoint base, int scalarBits, int width) {
+
+        if (width < 1 || width > 8) {
+            throw new IllegalArgumentException("window width must be from 1 to 8.");
+        }
+        if (scalarBits > 256) {
+            throw new IllegalArgumentException("scalars must be of at most 256 bits.");
+        }
+        this.curve = base.getCurve();
+        this.width = width;
+        this.windows = (scalarBits + width - 1) / width;
+        this.rowSize = 1 << width;
+
+        ECPoint windowBase = base.normalize();
+        ECPoint offset = windowBase.multiply(OFFSET_MULTIPLIER).normalize();
+        ECPoint[] points = new ECPoint[windows * rowSize];
+        for (int i = 0; i < windows; i++) {
+            int row = i * rowSize;
+            points[row] = offset;
+            for (int j = 1; j < rowSize; j++) {
+                points[row + j] = points[row + j - 1].add(windowBase);
+            }
+            windowBase = windowBase.timesPow2(width).normalize();
+        }
+        curve.normalizeAll(points);
+
+        this.coords = new int[points.length * 2 * COORD_INTS];
+        for (int i = 0; i < points.length; i++) {
+            System.arraycopy(Nat256.fromBigInteger(points[i].getAffineXCoord().toBigInteger()),
+                0, coords, i * 2 * COORD_INTS, COORD_INTS);
+            System.arraycopy(Nat256.fromBigInteger(points[i].getAffineYCoord().toBigInteger()),
+                0, coords, i * 2 * COORD_INTS + COORD_INTS, COORD_INTS);
+        }
+        this.offsetCorrection =
+            offset.multiply(BigInteger.valueOf(windows)).negate().normalize();
+    }
+
+    /**
+     * Multiply the base point.
+     *
+     * @param k the scalar, of at most the scalar bits of the table
+     * @return the product, not normalized
+     */
+    ECPoint multiply(BigInteger k) {
+
+        // one spare int for the bits of the last window past the scalar
+        int[] scalar = Arrays.copyOf(Nat256.fromBigInteger(k), COORD_INTS + 1);
+        int[] x = new int[COORD_INTS];
+        int[] y = new int[COORD_INTS];
+        ECPoint result = null;
+        for (int i = 0; i < windows; i++) {
+            int digit = 0;
+            int offset = i * width;
+            for (int bit = width - 1; bit >= 0; bit--) {
+                int position = offset + bit;
+                digit = (digit << 1) | ((scalar[position >>> 5] >>> (position & 31)) & 1);
+            }
+            select(i, digit, x, y);
+            ECPoint entry = curve.createPoint(Nat256.toBigInteger(x), Nat256.toBigInteger(y));
+            result = (0 == i) ? entry : result.add(entry);
+        }
+        return result.add(offsetCorrection);
+    }
+
+    /**
+     * Copy the coordinates of an entry of a row, reading all the entries of the row.
+     */
+    private void select(int row, int digit, int[] x, int[] y) {
+
+        Arrays.fill(x, 0);
+        Arrays.fill(y, 0);
+        int start = row * rowSize * 2 * COORD_INTS;
+        for (int j = 0; j < rowSize; j++) {
+            // all ones for the entry of the digit, zero for the others
+            int mask = ((j ^ digit) - 1) >> 31;
+            int at = start + j * 2 * COORD_INTS;
+            for (int w = 0; w < COORD_INTS; w++) {
+                x[w] |= coords[at + w] & mask;
+                y[w] |= coords[at + COORD_INTS + w] & mask;
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.util.List;
+
+import org.bouncycastle.crypto.digests.KeccakDigest;
+
+/**
+ * A Merkle tree over 32 byte leaf hashes, with Keccak-256 nodes. A leaf node is the hash of
+ * a zero byte and the leaf hash, an inner node the hash of a one byte and its two children, so
+ * that a leaf can not pass for an inner node. A node without a sibling is carried up as is.
+ * The inclusion proof of a leaf lists the siblings on its path up to the root, each as a side
+ * byte, zero if the sibling is on the left and one if on the right, and the sibling hash.
+ *
+ * @author tonychen 2018.12
+ */
+public final class MerkleTree {
+
+    /**
+     * The length of the hashes and of the nodes.
+     */
+    public static final int HASH_LENGTH = 32;
+
+    /**
+     * The length of a step of an inclusion proof, the side byte and the sibling hash.
+     */
+    public static final int PROOF_STEP_LENGTH = HASH_LENGTH + 1;
+
+    private static final byte LEAF_PREFIX = 0;
+
+    private static final byte NODE_PREFIX = 1;
+
+    private static final byte LEFT = 0;
+
+    private static final byte RIGHT = 1;
+
+    /**
+     * The nodes of each level, from the leaves up to the root.
+     */
+    private final byte[][][] levels;
+
+    /**
+     * Build the tree of the given leaf hashes.
+     *
+     * @param leafHashes the leaf hashes, at least one
+     */
+    public MerkleTree(List<byte[]> leafHashes) {
+
+        if (leafHashes.isEmpty()) {
+            throw new IllegalArgumentException("A Merkle tree needs at least one leaf.");
+        }
+        int depth = 1;
+        for (int width = leafHashes.size(); width > 1; width = (width + 1) / 2) {
+            depth++;
+        }
+        levels = new byte[depth][][];
+        NodeHasher hasher = new NodeHasher();
+        byte[][] leaves = new byte[leafHashes.size()][];
+        for (int i = 0; i < leaves.length; i++) {
+            byte[] leafHash = leafHashes.get(i);
+            if (leafHash.length != HASH_LENGTH) {
+                throw new IllegalArgumentException("A leaf hash must be 32 bytes in length.");
+            }
+            leaves[i] = hasher.leaf(leafHash);
+        }
+        levels[0] = leaves;
+        for (int level = 1; level < depth; level++) {
+            byte[][] children = levels[level - 1];
+            byte[][] nodes = new byte[(children.length + 1) / 2][];
+            for (int i = 0; i < nodes.length; i++) {
+                nodes[i] = 2 * i + 1 < children.length
+                    ? hasher.node(children[2 * i], children[2 * i + 1])
+                    : children[2 * i];
+            }
+            levels[level] = nodes;
+        }
+    }
+
+    /**
+     * Get the root of the tree.
+     *
+     * @return the root
+     */
+    public byte[] getRoot() {
+        return levels[levels.length - 1][0].clone();
+    }
+
+    /**
+     * Get the inclusion proof of a leaf.
+     *
+     * @param index the index of the leaf
+     * @return the inclusion proof
+     */
+    public byte[] getProof(int index) {
+
+        int steps = 0;
+        for (int level = 0, i = index; level < levels.length - 1; level++, i >>= 1) {
+            if ((i ^ 1) < levels[level].length) {
+                steps++;
+            }
+        }
+        byte[] proof = new byte[steps * PROOF_STEP_LENGTH];
+        int offset = 0;
+        for (int level = 0, i = index; level < levels.length - 1; level++, i >>= 1) {
+            int sibling = i ^ 1;
+            if (sibling < levels[level].length) {
+                proof[offset] = (i & 1) == 1 ? LEFT : RIGHT;
+                System.arraycopy(levels[level][sibling], 0, proof, offset + 1, HASH_LENGTH);
+                offset += PROOF_STEP_LENGTH;
+            }
+        }
+        return proof;
+    }
+
+    /**
+     * Compute the root of the tree a leaf hash belongs to from its inclusion proof.
+     *
+     * @param leafHash the leaf hash
+     * @param proof the inclusion proof of the leaf
+     * @return the root, null if the proof is malformed
+     */
+    public static byte[] computeRoot(byte[] leafHash, byte[] proof) {
+
+        if (null == leafHash || leafHash.length != HASH_LENGTH
+            || null == proof || proof.length % PROOF_STEP_LENGTH != 0) {
+            return null;
+        }
+        NodeHasher hasher = new NodeHasher();
+        byte[] node = hasher.leaf(leafHash);
+        byte[] sibling = new byte[HASH_LENGTH];
+        for (int offset = 0; offset < proof.length; offset += PROOF_STEP_LENGTH) {
+            System.arraycopy(proof, offset + 1, sibling, 0, HASH_LENGTH);
+            if (proof[offset] == LEFT) {
+                node = hasher.node(sibling, node);
+            } else if (proof[offset] == RIGHT) {
+                node = hasher.node(node, sibling);
+            } else {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Hashes the prefixed nodes, over a message buffer of its own.
+     */
+    private static final class NodeHasher {
+
+        private final KeccakDigest keccak = new KeccakDigest(256);
+
+        private final byte[] message = new byte[1 + 2 * HASH_LENGTH];
+
+        byte[] leaf(byte[] leafHash) {
+
+            message[0] = LEAF_PREFIX;
+            System.arraycopy(leafHash, 0, message, 1, HASH_LENGTH);
+            return hash(1 + HASH_LENGTH);
+        }
+
+        byte[] node(byte[] left, byte[] right) {
+
+            message[0] = NODE_PREFIX;
+            System.arraycopy(left, 0, message, 1, HASH_LENGTH);
+            System.arraycopy(right, 0, message, 1 + HASH_LENGTH, HASH_LENGTH);
+            return hash(message.length);
+        }
+
+        private byte[] hash(int length) {
+
+            byte[] node = new byte[HASH_LENGTH];
+            keccak.update(message, 0, length);
+            keccak.doFinal(node, 0);
+            return node;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import org.bcos.web3j.crypto.Hash;
+import org.bcos.web3j.crypto.Keys;
+import org.bcos.web3j.crypto.Sign;
+import org.bcos.web3j.utils.Numeric;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.bouncycastle.math.ec.ECPoint;
+
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.util.HashUtils;
+import com.webank.weid.util.WeIdUtils;
+
+/**
+ * Signs messages with one private key, for issuers signing many credentials with the same
+ * key. The public key, the address and the WeIdentity DID are derived once, and the nonce
+ * point is computed from a table of precomputed multiples of the generator, built on first use
+ * and shared by all signers. The signature v is taken from the nonce point, where
+ * SignatureUtils recovers the public key up to four times to find it. The signatures are the
+ * ones of SignatureUtils.signMessage, nonces are derived from the key and the message as RFC
+ * 6979 specifies. A signer can be shared by threads.
+ *
+ * @author tonychen 2018.12
+ */
+public class PrivateKeySigner implements AutoCloseable {
+
+    private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+
+    private static final BigInteger HALF_CURVE_ORDER = CURVE_PARAMS.getN().shiftRight(1);
+
+    private final BigInteger publicKey;
+
+    private final String address;
+
+    private final String weId;
+
+    private volatile BigInteger privateKey;
+
+    /**
+     * Instantiates a new signer.
+     *
+     * @param privateKey the private key in Decimal String BigInt
+     */
+    public PrivateKeySigner(String privateKey) {
+
+        BigInteger key = new BigInteger(privateKey);
+        if (key.signum() <= 0 || key.compareTo(CURVE_PARAMS.getN()) >= 0) {
+            throw new IllegalArgumentException("private key out of range.");
+        }
+        this.privateKey = key;
+
+        byte[] encoded = GeneratorTable.TABLE.multiply(key).normalize().getEncoded(false);
+        this.publicKey = new BigInteger(1, Arrays.copyOfRange(encoded, 1, 65));
+        this.address = "0x" + Keys.getAddress(publicKey);
+        this.weId = WeIdUtils.convertAddressToWeId(address);
+    }
+
+    public BigInteger getPublicKey() {
+        return publicKey;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public String getWeId() {
+        return weId;
+    }
+
+    /**
+     * Sign a message, the same as SignatureUtils.signMessage. The message passed in WILL BE
+     * HASHED.
+     *
+     * @param message the message
+     * @return SignatureData
+     */
+    public Sign.SignatureData signMessage(String message) {
+        return signMessageHash(HashUtils.sha3(message.getBytes()));
+    }
+
+    /**
+     * Sign a message hash, the same as SignatureUtils.signMessageHash.
+     *
+     * @param messageHash the Keccak-256 hash of the message
+     * @return SignatureData
+     */
+    public Sign.SignatureData signMessageHash(byte[] messageHash) {
+
+        BigInteger key = privateKey;
+        if (null == key) {
+            throw new IllegalStateException("the signer is closed.");
+        }
+        byte[] digest = Hash.sha3(messageHash);
+        BigInteger n = CURVE_PARAMS.getN();
+        BigInteger e = new BigInteger(1, digest);
+        HMacDSAKCalculator kCalculator = new HMacDSAKCalculator(new SHA256Digest());
+        kCalculator.init(n, key, digest);
+
+        BigInteger k;
+        BigInteger r;
+        BigInteger s;
+        ECPoint point;
+        do {
+            do {
+                k = kCalculator.nextK();
+                point = GeneratorTable.TABLE.multiply(k).normalize();
+                r = point.getAffineXCoord().toBigInteger().mod(n);
+            } while (r.signum() == 0);
+            s = k.modInverse(n).multiply(e.add(key.multiply(r))).mod(n);
+        } while (s.signum() == 0);
+
+        // the recovery id: parity of the y of R, plus 2 if the x of R is not below the order
+        int recId = point.getAffineYCoord().testBitZero() ? 1 : 0;
+        if (s.compareTo(HALF_CURVE_ORDER) > 0) {
+            // the canonical signature negates s and thus R
+            s = n.subtract(s);
+            recId ^= 1;
+        }
+        if (!point.getAffineXCoord().toBigInteger().equals(r)) {
+            recId += 2;
+        }
+        return new Sign.SignatureData(
+            (byte) (recId + 27),
+            Numeric.toBytesPadded(r, 32),
+            Numeric.toBytesPadded(s, 32));
+    }
+
+    /**
+     * Close the signer, dropping its private key. The signer can not sign afterwards.
+     */
+    @Override
+    public void close() {
+        privateKey = null;
+    }
+
+    /**
+     * The table of the generator, built by the first signer.
+     */
+    private static final class GeneratorTable {
+
+        private static final FixedBaseTable TABLE = new FixedBaseTable(
+            CURVE_PARAMS.getG(),
+            CURVE_PARAMS.getN().bitLength(),
+            WeIdConstant.SIGNER_TABLE_WINDOW_WIDTH);
+    }
+}
@@ -0,0 +1,823 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import org.bcos.web3j.utils.Assertions;
+
+/**
+ * Public key recovery and signature verification on secp256k1, without the generic curve
+ * arithmetic of BouncyCastle. The double scalar multiplication u1 * G + u2 * Q splits both
+ * scalars in halves of about 128 bits with the endomorphism (x, y) -> (beta * x, y) of the
+ * curve, and runs the four half multiplications at once over their width-w NAFs, sharing the
+ * doublings. Points are in Jacobian coordinates over the field limbs of Secp256k1Field, the
+ * precomputed odd multiples in affine coordinates so that each addition is a mixed one.
+ * The odd multiples of G are computed once, those of a public key when it is decoded.
+ * Signatures of one public key can be verified in a batch, their verification equations
+ * combined with random coefficients into a single multi scalar multiplication.
+ *
+ * @author tonychen 2018.12
+ */
+public final class Secp256k1 {
+
+    /**
+     * The order of the group.
+     */
+    static final BigInteger N = new BigInteger(
+        "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEBAAEDCE6AF48A03BBFD25E8CD0364141", 16);
+
+    private static final BigInteger HALF_N = N.shiftRight(1);
+
+    private static final BigInteger P = Secp256k1Field.P;
+
+    private static final int[] CURVE_B = Secp256k1Field.fromBigInteger(BigInteger.valueOf(7L));
+
+    private static final BigInteger GX = new BigInteger(
+        "79BE667EF9DCBBAC55A06295CE870B07029BFCDB2DCE28D959F2815B16F81798", 16);
+
+    private static final BigInteger GY = new BigInteger(
+        "483ADA7726A3C4655DA4FBFC0E1108A8FD17B448A68554199C47D08FFB10D4B8", 16);
+
+    /**
+     * A cube root of unity modulo p, (beta * x, y) is lambda times the point (x, y).
+     */
+    static final int[] BETA = Secp256k1Field.fromBigInteger(new BigInteger(
+        "7AE96A2B657C07106E64479EAC3434E99CF0497512F58995C1396C28719501EE", 16));
+
+    /**
+     * A cube root of unity modulo n.
+     */
+    static final BigInteger LAMBDA = new BigInteger(
+        "5363AD4CC05C30E0A5261C028812645A122E22EA20816678DF02967C1B23BD72", 16);
+
+    /**
+     * A short basis (a1, b1), (a2, b2) of the lattice of the (k1, k2) such that
+     * k1 + k2 * lambda = 0 (mod n).
+     */
+    private static final BigInteger A1 = new BigInteger("3086D221A7D46BCDE86C90E49284EB15", 16);
+
+    private static final BigInteger B1 =
+        new BigInteger("E4437ED6010E88286F547FA90ABFE4C3", 16).negate();
+
+    private static final BigInteger A2 =
+        new BigInteger("114CA50F7A8E2F3F657C1108D9D44CFD8", 16);
+
+    private static final BigInteger B2 = A1;
+
+    /**
+     * The NAF width of the multiples of G, 2^(w - 2) odd multiples are precomputed.
+     */
+    private static final int G_WIDTH = 8;
+
+    /**
+     * The NAF width of the multiples of a point recovered from a signature, computed for a
+     * single multiplication.
+     */
+    private static final int POINT_WIDTH = 5;
+
+    /**
+     * The NAF width of the multiples of a decoded public key, computed once for many
+     * verifications.
+     */
+    private static final int PUBLIC_KEY_WIDTH = 7;
+
+    /**
+     * The bit length of the random coefficients of a batch verification, an invalid batch
+     * passes with a probability of about 2^-127.
+     */
+    private static final int BATCH_COEFFICIENT_BITS = 128;
+
+    private static final int[][] NO_DIGITS = new int[0][];
+
+    private static final OddMultiples[] NO_MULTIPLES = new OddMultiples[0];
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final OddMultiples G_MULTIPLES = new Multiplier().oddMultiples(
+        Secp256k1Field.fromBigInteger(GX), Secp256k1Field.fromBigInteger(GY), G_WIDTH);
+
+    private Secp256k1() {
+    }
+
+    /**
+     * A public key decoded for verification, with its odd multiples precomputed. Immutable,
+     * so it can be shared and cached.
+     */
+    public static final class PublicKey {
+
+        private final OddMultiples multiples;
+
+        private PublicKey(OddMultiples multiples) {
+            this.multiples = multiples;
+        }
+    }
+
+    /**
+     * The odd multiples P, 3P, ..., (2^(w - 1) - 1)P of a point in affine coordinates, the
+     * x coordinates of their images by the endomorphism, null if not needed, and their
+     * negated y coordinates.
+     */
+    private static final class OddMultiples {
+
+        private final int width;
+
+        private final int[][] x;
+
+        private final int[][] y;
+
+        private final int[][] betaX;
+
+        private final int[][] negatedY;
+
+        private OddMultiples(int width, int[][] x, int[][] y, int[][] betaX, int[][] negatedY) {
+            this.width = width;
+            this.x = x;
+            this.y = y;
+            this.betaX = betaX;
+            this.negatedY = negatedY;
+        }
+    }
+
+    /**
+     * Recover the public key from a signature over a digest. Same result as the
+     * recoverFromSignature of web3j, including its null result and its exceptions.
+     *
+     * @param recId the recovery id, the header byte of the signature minus 27
+     * @param r the r of the signature
+     * @param s the s of the signature
+     * @param digest the signed digest
+     * @return the public key as x || y, null if r does not give the x coordinate of a point
+     */
+    public static BigInteger recoverFromSignature(
+        int recId, BigInteger r, BigInteger s, byte[] digest) {
+
+        Assertions.verifyPrecondition(recId >= 0, "recId must be positive");
+        Assertions.verifyPrecondition(r.signum() >= 0, "r must be positive");
+        Assertions.verifyPrecondition(s.signum() >= 0, "s must be positive");
+        Assertions.verifyPrecondition(digest != null, "message cannot be null");
+
+        BigInteger x = BigInteger.valueOf((long) recId / 2).multiply(N).add(r);
+        if (x.compareTo(P) >= 0) {
+            return null;
+        }
+        Multiplier multiplier = new Multiplier();
+        int[] pointX = Secp256k1Field.fromBigInteger(x);
+        int[] pointY = Secp256k1Field.create();
+        if (!multiplier.decompress(pointX, (recId & 1) == 1, pointY)) {
+            throw new IllegalArgumentException("Invalid point compression");
+        }
+
+        BigInteger e = new BigInteger(1, digest);
+        BigInteger eInv = BigInteger.ZERO.subtract(e).mod(N);
+        BigInteger rInv = r.modInverse(N);
+        BigInteger srInv = rInv.multiply(s).mod(N);
+        BigInteger eInvrInv = rInv.multiply(eInv).mod(N);
+
+        OddMultiples multiples = multiplier.oddMultiples(pointX, pointY, POINT_WIDTH);
+        int[] qx = Secp256k1Field.create();
+        int[] qy = Secp256k1Field.create();
+        if (!multiplier.sumOfMultiples(eInvrInv, srInv, multiples, qx, qy)) {
+            // the encoding of the point at infinity
+            return BigInteger.ZERO;
+        }
+        byte[] encoded = new byte[64];
+        Secp256k1Field.toBytes(qx, encoded, 0);
+        Secp256k1Field.toBytes(qy, encoded, 32);
+        return new BigInteger(1, encoded);
+    }
+
+    /**
+     * Check whether a public key can be recovered from a signature with the given r and
+     * recovery id, i.e. whether recoverFromSignature neither returns null nor throws: r is not
+     * 0 modulo n, and r with the recovery id gives the x coordinate of a point.
+     *
+     * @param recId the recovery id, the header byte of the signature minus 27
+     * @param r the r of the signature
+     * @return true if the public key can be recovered
+     */
+    public static boolean isRecoverable(int recId, BigInteger r) {
+
+        if (recId < 0 || r.signum() < 0 || r.mod(N).signum() == 0) {
+            return false;
+        }
+        BigInteger x = BigInteger.valueOf((long) recId / 2).multiply(N).add(r);
+        if (x.compareTo(P) >= 0) {
+            return false;
+        }
+        return new Multiplier().decompress(
+            Secp256k1Field.fromBigInteger(x), (recId & 1) == 1, Secp256k1Field.create());
+    }
+
+    /**
+     * Decode a public key given as x || y.
+     *
+     * @param publicKey the public key
+     * @return the decoded public key, null if it is not a point of the curve
+     */
+    public static PublicKey decodePublicKey(BigInteger publicKey) {
+
+        if (null == publicKey || publicKey.signum() <= 0 || publicKey.bitLength() > 512) {
+            return null;
+        }
+        BigInteger x = publicKey.shiftRight(256);
+        BigInteger y = publicKey.subtract(x.shiftLeft(256));
+        if (x.compareTo(P) >= 0 || y.compareTo(P) >= 0) {
+            return null;
+        }
+        Multiplier multiplier = new Multiplier();
+        int[] pointX = Secp256k1Field.fromBigInteger(x);
+        int[] pointY = Secp256k1Field.fromBigInteger(y);
+        if (!multiplier.isOnCurve(pointX, pointY)) {
+            return null;
+        }
+        return new PublicKey(multiplier.oddMultiples(pointX, pointY, PUBLIC_KEY_WIDTH));
+    }
+
+    /**
+     * Verify a signature over a digest against a public key. Same outcome as recovering the
+     * public key with the recovery id and comparing it, including the check of the parity of
+     * R the recovery id carries, but without decompressing R.
+     *
+     * @param digest the signed digest
+     * @param recId the recovery id, the header byte of the signature minus 27
+     * @param r the r of the signature
+     * @param s the s of the signature
+     * @param publicKey the public key
+     * @return true if the signature is the one of the public key
+     */
+    public static boolean verify(
+        byte[] digest, int recId, BigInteger r, BigInteger s, PublicKey publicKey) {
+
+        if (r.mod(N).signum() == 0 || s.mod(N).signum() == 0) {
+            return false;
+        }
+        // the x coordinate of R, as recovered from r and the recovery id
+        BigInteger x = r.add(BigInteger.valueOf(recId / 2).multiply(N));
+        if (x.compareTo(P) >= 0) {
+            return false;
+        }
+
+        BigInteger w = s.modInverse(N);
+        BigInteger u1 = new BigInteger(1, digest).multiply(w).mod(N);
+        BigInteger u2 = r.multiply(w).mod(N);
+        Multiplier multiplier = new Multiplier();
+        int[] pointX = Secp256k1Field.create();
+        int[] pointY = Secp256k1Field.create();
+        return multiplier.sumOfMultiples(u1, u2, publicKey.multiples, pointX, pointY)
+            && multiplier.field.equal(pointX, Secp256k1Field.fromBigInteger(x))
+            && multiplier.field.isOdd(pointY) == ((recId & 1) == 1);
+    }
+
+    /**
+     * Verify signatures over digests against one public key at once, with the outcome of
+     * verify for each of them. R is decompressed from r and the recovery id of each signature,
+     * and the sum of the z * (u1 * G + u2 * Q - R) of the signatures, z random coefficients
+     * of 128 bits, is computed with a single multi scalar multiplication sharing the doublings:
+     * it is the point at infinity if all the signatures are valid, and with a negligible
+     * probability if one is not. Otherwise the signatures are verified one by one to find
+     * the invalid ones.
+     *
+     * @param digests the signed digests
+     * @param recIds the recovery ids, the header bytes of the signatures minus 27
+     * @param r the r of the signatures
+     * @param s the s of the signatures
+     * @param publicKey the public key
+     * @return for each signature, true if it is the one of the public key
+     */
+    public static boolean[] verifyBatch(
+        byte[][] digests, int[] recIds, BigInteger[] r, BigInteger[] s, PublicKey publicKey) {
+
+        int count = digests.length;
+        boolean[] results = new boolean[count];
+        // the signatures whose R can be decompressed, the others are invalid
+        int[] candidates = new int[count];
+        int[][] pointX = new int[count][];
+        int[][] pointY = new int[count][];
+        int size = 0;
+        Multiplier multiplier = new Multiplier();
+        for (int i = 0; i < count; i++) {
+            if (r[i].mod(N).signum() == 0 || s[i].mod(N).signum() == 0) {
+                continue;
+            }
+            BigInteger x = r[i].add(BigInteger.valueOf(recIds[i] / 2).multiply(N));
+            if (x.compareTo(P) >= 0) {
+                continue;
+            }
+            int[] px = Secp256k1Field.fromBigInteger(x);
+            int[] py = Secp256k1Field.create();
+            if (!multiplier.decompress(px, (recIds[i] & 1) == 1, py)) {
+                continue;
+            }
+            candidates[size] = i;
+            pointX[size] = px;
+            pointY[size] = py;
+            size++;
+        }
+        if (size < 2) {
+            for (int k = 0; k < size; k++) {
+                int i = candidates[k];
+                results[i] = verify(digests[i], recIds[i], r[i], s[i], publicKey);
+            }
+            return results;
+        }
+
+        BigInteger[] w = new BigInteger[size];
+        for (int k = 0; k < size; k++) {
+            w[k] = s[candidates[k]];
+        }
+        invertAll(w);
+        BigInteger u1 = BigInteger.ZERO;
+        BigInteger u2 = BigInteger.ZERO;
+        int[][] digits = new int[size][];
+        for (int k = 0; k < size; k++) {
+            int i = candidates[k];
+            BigInteger z = new BigInteger(BATCH_COEFFICIENT_BITS - 1, RANDOM)
+                .setBit(BATCH_COEFFICIENT_BITS - 1);
+            BigInteger zw = z.multiply(w[k]).mod(N);
+            u1 = u1.add(new BigInteger(1, digests[i]).multiply(zw));
+            u2 = u2.add(r[i].multiply(zw));
+            digits[k] = wnaf(z.negate(), POINT_WIDTH);
+        }
+        multiplier.accumulate(
+            u1.mod(N),
+            u2.mod(N),
+            publicKey.multiples,
+            digits,
+            multiplier.oddMultiples(
+                Arrays.copyOf(pointX, size), Arrays.copyOf(pointY, size), POINT_WIDTH, false));
+        boolean batchValid = multiplier.infinity;
+        for (int k = 0; k < size; k++) {
+            int i = candidates[k];
+            results[i] = batchValid || verify(digests[i], recIds[i], r[i], s[i], publicKey);
+        }
+        return results;
+    }
+
+    /**
+     * Invert values not zero modulo n in place, with a single modular inversion.
+     */
+    private static void invertAll(BigInteger[] values) {
+
+        int count = values.length;
+        BigInteger[] products = new BigInteger[count];
+        products[0] = values[0].mod(N);
+        for (int i = 1; i < count; i++) {
+            products[i] = products[i - 1].multiply(values[i]).mod(N);
+        }
+        BigInteger inverse = products[count - 1].modInverse(N);
+        for (int i = count - 1; i > 0; i--) {
+            BigInteger value = values[i];
+            values[i] = inverse.multiply(products[i - 1]).mod(N);
+            inverse = inverse.multiply(value).mod(N);
+        }
+        values[0] = inverse;
+    }
+
+    /**
+     * Split a scalar k below n into k1 + k2 * lambda (mod n), k1 and k2 of about 128 bits.
+     */
+    static BigInteger[] decompose(BigInteger k) {
+
+        BigInteger c1 = roundDivide(B2.multiply(k));
+        BigInteger c2 = roundDivide(B1.negate().multiply(k));
+        BigInteger k1 = k.subtract(c1.multiply(A1)).subtract(c2.multiply(A2));
+        BigInteger k2 = c1.multiply(B1).add(c2.multiply(B2)).negate();
+        return new BigInteger[]{k1, k2};
+    }
+
+    /**
+     * The nearest integer to a / n, a not negative.
+     */
+    private static BigInteger roundDivide(BigInteger a) {
+        return a.add(HALF_N).divide(N);
+    }
+
+    /**
+     * The width-w NAF of a scalar, least significant digit first: the digits are zero or odd
+     * and below 2^(w - 1) in absolute value, and any w consecutive ones have one non zero.
+     */
+    static int[] wnaf(BigInteger k, int width) {
+
+        int sign = k.signum();
+        BigInteger magnitude = k.abs();
+        int length = magnitude.bitLength() + 1;
+        int[] words = new int[(length + 31) / 32 + 1];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = magnitude.shiftRight(32 * i).intValue();
+        }
+        int[] digits = new int[length];
+        int carry = 0;
+        int bit = 0;
+        while (bit < length) {
+            if (bits(words, bit, 1) == carry) {
+                bit++;
+                continue;
+            }
+            int count = Math.min(width, length - bit);
+            int digit = bits(words, bit, count) + carry;
+            carry = (digit >> (width - 1)) & 1;
+            digit -= carry << width;
+            digits[bit] = sign * digit;
+            bit += count;
+        }
+        return digits;
+    }
+
+    /**
+     * The count bits of a little endian word array from a bit position, count below 32.
+     */
+    private static int bits(int[] words, int bit, int count) {
+
+        int index = bit >>> 5;
+        long pair = words[index] & 0xFFFFFFFFL;
+        if (index + 1 < words.length) {
+            pair |= (long) words[index + 1] << 32;
+        }
+        return (int) (pair >>> (bit & 31)) & ((1 << count) - 1);
+    }
+
+    /**
+     * The point arithmetic, over temporaries of its own, so an instance serves one thread.
+     */
+    private static final class Multiplier {
+
+        private final Secp256k1Field field = new Secp256k1Field();
+
+        /**
+         * The accumulator, in Jacobian coordinates.
+         */
+        private final int[] x = Secp256k1Field.create();
+
+        private final int[] y = Secp256k1Field.create();
+
+        private final int[] z = Secp256k1Field.create();
+
+        private final int[][] t = new int[9][];
+
+        private boolean infinity;
+
+        Multiplier() {
+            for (int i = 0; i < t.length; i++) {
+                t[i] = Secp256k1Field.create();
+            }
+        }
+
+        /**
+         * Compute u1 * G + u2 * P in affine coordinates.
+         *
+         * @return false if the sum is the point at infinity
+         */
+        boolean sumOfMultiples(
+            BigInteger u1, BigInteger u2, OddMultiples multiples, int[] sumX, int[] sumY) {
+
+            accumulate(u1, u2, multiples, NO_DIGITS, NO_MULTIPLES);
+            if (infinity) {
+                return false;
+            }
+            int[] zInverse = t[0];
+            int[] zInverse2 = t[1];
+            field.invert(z, zInverse);
+            field.square(zInverse, zInverse2);
+            field.multiply(x, zInverse2, sumX);
+            field.multiply(zInverse2, zInverse, zInverse2);
+            field.multiply(y, zInverse2, sumY);
+            return true;
+        }
+
+        /**
+         * Compute u1 * G + u2 * P plus the sum of other points, each multiplied by a scalar
+         * given as its NAF digits, into the accumulator.
+         */
+        void accumulate(
+            BigInteger u1,
+            BigInteger u2,
+            OddMultiples multiples,
+            int[][] digits,
+            OddMultiples[] points) {
+
+            BigInteger[] g = decompose(u1);
+            BigInteger[] p = decompose(u2);
+            int[] g1 = wnaf(g[0], G_WIDTH);
+            int[] g2 = wnaf(g[1], G_WIDTH);
+            int[] p1 = wnaf(p[0], multiples.width);
+            int[] p2 = wnaf(p[1], multiples.width);
+            int length = Math.max(Math.max(g1.length, g2.length), Math.max(p1.length, p2.length));
+            for (int[] pointDigits : digits) {
+                length = Math.max(length, pointDigits.length);
+            }
+
+            infinity = true;
+            for (int i = length - 1; i >= 0; i--) {
+                if (!infinity) {
+                    twice(x, y, z);
+                }
+                addDigit(g1, i, G_MULTIPLES.x, G_MULTIPLES);
+                addDigit(g2, i, G_MULTIPLES.betaX, G_MULTIPLES);
+                addDigit(p1, i, multiples.x, multiples);
+                addDigit(p2, i, multiples.betaX, multiples);
+                for (int k = 0; k < digits.length; k++) {
+                    addDigit(digits[k], i, points[k].x, points[k]);
+                }
+            }
+        }
+
+        private void addDigit(int[] digits, int i, int[][] pointX, OddMultiples multiples) {
+
+            if (i >= digits.length || digits[i] == 0) {
+                return;
+            }
+            int digit = digits[i];
+            if (digit > 0) {
+                int index = (digit - 1) >>> 1;
+                addAffine(pointX[index], multiples.y[index]);
+            } else {
+                int index = (-digit - 1) >>> 1;
+                addAffine(pointX[index], multiples.negatedY[index]);
+            }
+        }
+
+        /**
+         * Compute the odd multiples of an affine point, not the point at infinity.
+         */
+        OddMultiples oddMultiples(int[] pointX, int[] pointY, int width) {
+            return oddMultiples(new int[][]{pointX}, new int[][]{pointY}, width, true)[0];
+        }
+
+        /**
+         * Compute the odd multiples of affine points, none the point at infinity, with a
+         * single inversion, and the images of the multiples by the endomorphism if asked for.
+         */
+        OddMultiples[] oddMultiples(
+            int[][] pointX, int[][] pointY, int width, boolean endomorphism) {
+
+            int count = 1 << (width - 2);
+            int[][] px = new int[pointX.length * count][];
+            int[][] py = new int[px.length][];
+            int[][] pz = new int[px.length][];
+            for (int k = 0; k < pointX.length; k++) {
+                int first = k * count;
+                px[first] = pointX[k].clone();
+                py[first] = pointY[k].clone();
+                pz[first] = Secp256k1Field.create();
+                Secp256k1Field.setOne(pz[first]);
+
+                int[] dx = px[first].clone();
+                int[] dy = py[first].clone();
+                int[] dz = pz[first].clone();
+                twice(dx, dy, dz);
+                for (int i = first + 1; i < first + count; i++) {
+                    px[i] = px[i - 1].clone();
+                    py[i] = py[i - 1].clone();
+                    pz[i] = pz[i - 1].clone();
+                    add(px[i], py[i], pz[i], dx, dy, dz);
+                }
+            }
+            normalizeAll(px, py, pz);
+
+            OddMultiples[] multiples = new OddMultiples[pointX.length];
+            for (int k = 0; k < pointX.length; k++) {
+                int first = k * count;
+                int[][] multipleX = Arrays.copyOfRange(px, first, first + count);
+                int[][] multipleY = Arrays.copyOfRange(py, first, first + count);
+                int[][] betaX = endomorphism ? new int[count][] : null;
+                int[][] negatedY = new int[count][];
+                for (int i = 0; i < count; i++) {
+                    if (endomorphism) {
+                        betaX[i] = Secp256k1Field.create();
+                        field.multiply(multipleX[i], BETA, betaX[i]);
+                    }
+                    negatedY[i] = Secp256k1Field.create();
+                    Secp256k1Field.negate(multipleY[i], negatedY[i]);
+                }
+                multiples[k] = new OddMultiples(width, multipleX, multipleY, betaX, negatedY);
+            }
+            return multiples;
+        }
+
+        /**
+         * Turn Jacobian points, none at infinity, into affine ones with a single inversion.
+         */
+        private void normalizeAll(int[][] px, int[][] py, int[][] pz) {
+
+            int count = pz.length;
+            int[][] products = new int[count][];
+            products[0] = pz[0].clone();
+            for (int i = 1; i < count; i++) {
+                products[i] = Secp256k1Field.create();
+                field.multiply(products[i - 1], pz[i], products[i]);
+            }
+            int[] inverse = t[0];
+            int[] zInverse = t[1];
+            int[] zInverse2 = t[2];
+            field.invert(products[count - 1], inverse);
+            for (int i = count - 1; i >= 0; i--) {
+                if (i > 0) {
+                    field.multiply(inverse, products[i - 1], zInverse);
+                    field.multiply(inverse, pz[i], inverse);
+                } else {
+                    Secp256k1Field.copy(inverse, zInverse);
+                }
+                field.square(zInverse, zInverse2);
+                field.multiply(px[i], zInverse2, px[i]);
+                field.multiply(zInverse2, zInverse, zInverse2);
+                field.multiply(py[i], zInverse2, py[i]);
+                Secp256k1Field.setOne(pz[i]);
+            }
+        }
+
+        /**
+         * Find the y coordinate of the given parity of a point from its x coordinate.
+         *
+         * @return false if x is not the x coordinate of a point
+         */
+        boolean decompress(int[] pointX, boolean odd, int[] pointY) {
+
+            int[] rhs = t[0];
+            field.square(pointX, rhs);
+            field.multiply(rhs, pointX, rhs);
+            Secp256k1Field.add(rhs, CURVE_B, rhs);
+            if (!field.sqrt(rhs, pointY)) {
+                return false;
+            }
+            if (field.isOdd(pointY) != odd) {
+                Secp256k1Field.negate(pointY, pointY);
+            }
+            return true;
+        }
+
+        boolean isOnCurve(int[] pointX, int[] pointY) {
+
+            int[] rhs = t[0];
+            int[] lhs = t[1];
+            field.square(pointX, rhs);
+            field.multiply(rhs, pointX, rhs);
+            Secp256k1Field.add(rhs, CURVE_B, rhs);
+            field.square(pointY, lhs);
+            return field.equal(lhs, rhs);
+        }
+
+        /**
+         * Double a Jacobian point, not the point at infinity, in place, a = 0 (dbl-2009-l).
+         */
+        private void twice(int[] px, int[] py, int[] pz) {
+
+            int[] a = t[0];
+            int[] b = t[1];
+            int[] c = t[2];
+            int[] d = t[3];
+            int[] e = t[4];
+            int[] f = t[5];
+            field.square(px, a);
+            field.square(py, b);
+            field.square(b, c);
+            Secp256k1Field.add(px, b, d);
+            field.square(d, d);
+            Secp256k1Field.subtract(d, a, d);
+            Secp256k1Field.subtract(d, c, d);
+            Secp256k1Field.twice(d, d);
+            Secp256k1Field.multiply(a, 3, e);
+            field.square(e, f);
+
+            field.multiply(py, pz, pz);
+            Secp256k1Field.twice(pz, pz);
+            Secp256k1Field.twice(d, px);
+            Secp256k1Field.subtract(f, px, px);
+            Secp256k1Field.subtract(d, px, d);
+            field.multiply(e, d, py);
+            Secp256k1Field.multiply(c, 8, c);
+            Secp256k1Field.subtract(py, c, py);
+        }
+
+        /**
+         * Add an affine point to the accumulator (madd-2007-bl).
+         */
+        private void addAffine(int[] qx, int[] qy) {
+
+            if (infinity) {
+                Secp256k1Field.copy(qx, x);
+                Secp256k1Field.copy(qy, y);
+                Secp256k1Field.setOne(z);
+                infinity = false;
+                return;
+            }
+            int[] zz = t[0];
+            int[] h = t[1];
+            int[] r = t[2];
+            int[] hh = t[3];
+            int[] i = t[4];
+            int[] j = t[5];
+            int[] x3 = t[6];
+            field.square(z, zz);
+            field.multiply(qx, zz, h);
+            Secp256k1Field.subtract(h, x, h);
+            field.multiply(qy, z, r);
+            field.multiply(r, zz, r);
+            Secp256k1Field.subtract(r, y, r);
+            Secp256k1Field.twice(r, r);
+            if (Secp256k1Field.isZero(h)) {
+                if (Secp256k1Field.isZero(r)) {
+                    twice(x, y, z);
+                } else {
+                    infinity = true;
+                }
+                return;
+            }
+            field.square(h, hh);
+            Secp256k1Field.multiply(hh, 4, i);
+            field.multiply(h, i, j);
+            int[] v = i;
+            field.multiply(x, i, v);
+
+            field.square(r, x3);
+            Secp256k1Field.subtract(x3, j, x3);
+            Secp256k1Field.subtract(x3, v, x3);
+            Secp256k1Field.subtract(x3, v, x3);
+            Secp256k1Field.subtract(v, x3, v);
+            field.multiply(r, v, v);
+            field.multiply(y, j, j);
+            Secp256k1Field.twice(j, j);
+            Secp256k1Field.subtract(v, j, y);
+            Secp256k1Field.add(z, h, z);
+            field.square(z, z);
+            Secp256k1Field.subtract(z, zz, z);
+            Secp256k1Field.subtract(z, hh, z);
+            Secp256k1Field.copy(x3, x);
+        }
+
+        /**
+         * Add a Jacobian point to another in place, both not the point at infinity and
+         * their sum neither (add-2007-bl).
+         */
+        private void add(int[] px, int[] py, int[] pz, int[] qx, int[] qy, int[] qz) {
+
+            int[] pzz = t[0];
+            int[] qzz = t[1];
+            int[] u1 = t[2];
+            int[] h = t[3];
+            int[] s1 = t[4];
+            int[] r = t[5];
+            int[] i = t[6];
+            int[] j = t[7];
+            int[] x3 = t[8];
+            field.square(pz, pzz);
+            field.square(qz, qzz);
+            field.multiply(px, qzz, u1);
+            field.multiply(qx, pzz, h);
+            Secp256k1Field.subtract(h, u1, h);
+            field.multiply(py, qz, s1);
+            field.multiply(s1, qzz, s1);
+            field.multiply(qy, pz, r);
+            field.multiply(r, pzz, r);
+            Secp256k1Field.subtract(r, s1, r);
+            Secp256k1Field.twice(r, r);
+            if (Secp256k1Field.isZero(h)) {
+                if (!Secp256k1Field.isZero(r)) {
+                    throw new IllegalStateException("Unexpected point at infinity");
+                }
+                twice(px, py, pz);
+                return;
+            }
+            Secp256k1Field.twice(h, i);
+            field.square(i, i);
+            field.multiply(h, i, j);
+            int[] v = u1;
+            field.multiply(u1, i, v);
+
+            field.square(r, x3);
+            Secp256k1Field.subtract(x3, j, x3);
+            Secp256k1Field.subtract(x3, v, x3);
+            Secp256k1Field.subtract(x3, v, x3);
+            Secp256k1Field.subtract(v, x3, v);
+            field.multiply(r, v, v);
+            field.multiply(s1, j, s1);
+            Secp256k1Field.twice(s1, s1);
+            Secp256k1Field.subtract(v, s1, py);
+            Secp256k1Field.add(pz, qz, pz);
+            field.square(pz, pz);
+            Secp256k1Field.subtract(pz, pzz, pz);
+            Secp256k1Field.subtract(pz, qzz, pz);
+            field.multiply(pz, h, pz);
+            Secp256k1Field.copy(x3, px);
+        }
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo the secp256k1 field prime p = 2^256 - 2^32 - 977. A field element is an
+ * int[10] of 26-bit limbs, least significant first, the top one of 22 bits. The operations
+ * keep the elements weakly reduced only: the limbs below 2^26, the top one below 2^23, the
+ * value maybe not below p. So a product of limbs fits 52 bits and a column of ten of them a
+ * long, without any carry until the column sums are reduced, folding the bits above 2^256
+ * back with 2^256 = 2^32 + 977 (mod p). The elements are fully reduced only to be compared
+ * or encoded. An instance holds the scratch space of the products and of the comparisons,
+ * so it is not thread safe; the other operations are static.
+ *
+ * @author tonychen 2018.12
+ */
+final class Secp256k1Field {
+
+    static final BigInteger P = new BigInteger(
+        "FFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFFEFFFFFC2F", 16);
+
+    private static final int LIMBS = 10;
+
+    private static final int M26 = 0x3FFFFFF;
+
+    private static final int M22 = 0x3FFFFF;
+
+    /**
+     * 2^260 mod p, less its 2^36 part.
+     */
+    private static final long R260 = 0x3D10L;
+
+    private static final int[] P_LIMBS = fromBigInteger(P);
+
+    private static final int[] TWO_P_LIMBS = fromBigInteger(P.shiftLeft(1));
+
+    /**
+     * 4p, limb by limb, each limb above the ones of a weakly reduced element.
+     */
+    private static final int[] FOUR_P = {
+        0xFFFF0BC, 0xFFFFEFC, 0xFFFFFFC, 0xFFFFFFC, 0xFFFFFFC,
+        0xFFFFFFC, 0xFFFFFFC, 0xFFFFFFC, 0xFFFFFFC, 0xFFFFFC
+    };
+
+    private final long[] columns = new long[19];
+
+    private final int[] normalized = create();
+
+    private final int[] difference = create();
+
+    private final int[] t1 = create();
+
+    private final int[] t2 = create();
+
+    private final int[] x2 = create();
+
+    private final int[] x3 = create();
+
+    private final int[] x22 = create();
+
+    private final int[] x223 = create();
+
+    static int[] create() {
+        return new int[LIMBS];
+    }
+
+    static int[] fromBigInteger(BigInteger value) {
+
+        int[] z = create();
+        for (int i = 0; i < LIMBS; i++) {
+            z[i] = value.shiftRight(26 * i).intValue() & M26;
+        }
+        return z;
+    }
+
+    static BigInteger toBigInteger(int[] x) {
+
+        byte[] bytes = new byte[32];
+        toBytes(x, bytes, 0);
+        return new BigInteger(1, bytes);
+    }
+
+    /**
+     * Write a field element as 32 big endian bytes.
+     */
+    static void toBytes(int[] x, byte[] bytes, int offset) {
+
+        int[] z = create();
+        normalize(x, z);
+        long buffer = 0;
+        int bits = 0;
+        int position = offset + 31;
+        for (int i = 0; i < LIMBS; i++) {
+            buffer |= (long) z[i] << bits;
+            bits += 26;
+            while (bits >= 8 && position >= offset) {
+                bytes[position--] = (byte) buffer;
+                buffer >>>= 8;
+                bits -= 8;
+            }
+        }
+    }
+
+    static void copy(int[] x, int[] z) {
+        System.arraycopy(x, 0, z, 0, LIMBS);
+    }
+
+    static void setOne(int[] z) {
+
+        z[0] = 1;
+        for (int i = 1; i < LIMBS; i++) {
+            z[i] = 0;
+        }
+    }
+
+    /**
+     * Whether x is zero. A weakly reduced element is below 2^257 and has a single limb
+     * representation, so it is zero when its limbs are the ones of 0, p or 2p.
+     */
+    static boolean isZero(int[] x) {
+
+        int zero = 0;
+        int p = 0;
+        int twoP = 0;
+        for (int i = 0; i < LIMBS; i++) {
+            zero |= x[i];
+            p |= x[i] ^ P_LIMBS[i];
+            twoP |= x[i] ^ TWO_P_LIMBS[i];
+        }
+        return zero == 0 || p == 0 || twoP == 0;
+    }
+
+    boolean equal(int[] x, int[] y) {
+
+        subtract(x, y, difference);
+        return isZero(difference);
+    }
+
+    boolean isOdd(int[] x) {
+
+        normalize(x, normalized);
+        return (normalized[0] & 1) != 0;
+    }
+
+    /**
+     * z = x + y.
+     */
+    static void add(int[] x, int[] y, int[] z) {
+
+        for (int i = 0; i < LIMBS; i++) {
+            z[i] = x[i] + y[i];
+        }
+        carry(z);
+    }
+
+    /**
+     * z = 2 * x.
+     */
+    static void twice(int[] x, int[] z) {
+
+        for (int i = 0; i < LIMBS; i++) {
+            z[i] = x[i] << 1;
+        }
+        carry(z);
+    }
+
+    /**
+     * z = k * x, k from 0 to 16.
+     */
+    static void multiply(int[] x, int k, int[] z) {
+
+        for (int i = 0; i < LIMBS; i++) {
+            z[i] = x[i] * k;
+        }
+        carry(z);
+    }
+
+    /**
+     * z = x - y, as x + 4p - y so that no limb goes negative.
+     */
+    static void subtract(int[] x, int[] y, int[] z) {
+
+        for (int i = 0; i < LIMBS; i++) {
+            z[i] = x[i] + FOUR_P[i] - y[i];
+        }
+        carry(z);
+    }
+
+    /**
+     * z = -x.
+     */
+    static void negate(int[] x, int[] z) {
+
+        for (int i = 0; i < LIMBS; i++) {
+            z[i] = FOUR_P[i] - x[i];
+        }
+        carry(z);
+    }
+
+    /**
+     * Fully reduce x below p into z.
+     */
+    static void normalize(int[] x, int[] z) {
+
+        copy(x, z);
+        // below 2^256 + 2^22 after a carry, below 2^256 after a second one
+        carry(z);
+        if (z[9] > M22) {
+            carry(z);
+        }
+        // z >= p if and only if z + 2^256 - p carries out of 2^256
+        int c = z[0] + 0x3D1;
+        c = (c >> 26) + z[1] + 0x40;
+        for (int i = 2; i < LIMBS; i++) {
+            c = (c >> 26) + z[i];
+        }
+        if ((c >> 22) != 0) {
+            z[0] += 0x3D1;
+            z[1] += 0x40;
+            c = 0;
+            for (int i = 0; i < 9; i++) {
+                c += z[i];
+                z[i] = c & M26;
+                c >>= 26;
+            }
+            z[9] = (z[9] + c) & M22;
+        }
+    }
+
+    /**
+     * Propagate the carries of limbs below 2^31 so that z is weakly reduced, folding the
+     * bits of the top limb above 2^22 back into the low limbs.
+     */
+    private static void carry(int[] z) {
+
+        int c = 0;
+        for (int i = 0; i < 9; i++) {
+            c += z[i];
+            z[i] = c & M26;
+            c >>= 26;
+        }
+        c += z[9];
+        z[9] = c & M22;
+        int top = c >> 22;
+        // top * 2^256 = top * 977 + top * 2^32 (mod p)
+        c = z[0] + top * 0x3D1;
+        z[0] = c & M26;
+        c = (c >> 26) + z[1] + (top << 6);
+        z[1] = c & M26;
+        c >>= 26;
+        for (int i = 2; i < 9 && c != 0; i++) {
+            c += z[i];
+            z[i] = c & M26;
+            c >>= 26;
+        }
+        z[9] += c;
+    }
+
+    /**
+     * z = x * y.
+     */
+    void multiply(int[] x, int[] y, int[] z) {
+
+        long x0 = x[0];
+        long x1 = x[1];
+        long x2 = x[2];
+        long x3 = x[3];
+        long x4 = x[4];
+        long x5 = x[5];
+        long x6 = x[6];
+        long x7 = x[7];
+        long x8 = x[8];
+        long x9 = x[9];
+        long y0 = y[0];
+        long y1 = y[1];
+        long y2 = y[2];
+        long y3 = y[3];
+        long y4 = y[4];
+        long y5 = y[5];
+        long y6 = y[6];
+        long y7 = y[7];
+        long y8 = y[8];
+        long y9 = y[9];
+        long[] c = columns;
+        c[0] = x0 * y0;
+        c[1] = x0 * y1 + x1 * y0;
+        c[2] = x0 * y2 + x1 * y1 + x2 * y0;
+        c[3] = x0 * y3 + x1 * y2 + x2 * y1 + x3 * y0;
+        c[4] = x0 * y4 + x1 * y3 + x2 * y2 + x3 * y1 + x4 * y0;
+        c[5] = x0 * y5 + x1 * y4 + x2 * y3 + x3 * y2 + x4 * y1 + x5 * y0;
+        c[6] = x0 * y6 + x1 * y5 + x2 * y4 + x3 * y3 + x4 * y2 + x5 * y1 + x6 * y0;
+        c[7] = x0 * y7 + x1 * y6 + x2 * y5 + x3 * y4 + x4 * y3 + x5 * y2 + x6 * y1 + x7 * y0;
+        c[8] = x0 * y8 + x1 * y7 + x2 * y6 + x3 * y5 + x4 * y4 + x5 * y3 + x6 * y2 + x7 * y1
+            + x8 * y0;
+        c[9] = x0 * y9 + x1 * y8 + x2 * y7 + x3 * y6 + x4 * y5 + x5 * y4 + x6 * y3 + x7 * y2
+            + x8 * y1 + x9 * y0;
+        c[10] = x1 * y9 + x2 * y8 + x3 * y7 + x4 * y6 + x5 * y5 + x6 * y4 + x7 * y3 + x8 * y2
+            + x9 * y1;
+        c[11] = x2 * y9 + x3 * y8 + x4 * y7 + x5 * y6 + x6 * y5 + x7 * y4 + x8 * y3 + x9 * y2;
+        c[12] = x3 * y9 + x4 * y8 + x5 * y7 + x6 * y6 + x7 * y5 + x8 * y4 + x9 * y3;
+        c[13] = x4 * y9 + x5 * y8 + x6 * y7 + x7 * y6 + x8 * y5 + x9 * y4;
+        c[14] = x5 * y9 + x6 * y8 + x7 * y7 + x8 * y6 + x9 * y5;
+        c[15] = x6 * y9 + x7 * y8 + x8 * y7 + x9 * y6;
+        c[16] = x7 * y9 + x8 * y8 + x9 * y7;
+        c[17] = x8 * y9 + x9 * y8;
+        c[18] = x9 * y9;
+        reduce(c, z);
+    }
+
+    /**
+     * z = x * x, each cross product computed once and doubled.
+     */
+    void square(int[] x, int[] z) {
+
+        long x0 = x[0];
+        long x1 = x[1];
+        long x2 = x[2];
+        long x3 = x[3];
+        long x4 = x[4];
+        long x5 = x[5];
+        long x6 = x[6];
+        long x7 = x[7];
+        long x8 = x[8];
+        long x9 = x[9];
+        long d0 = x0 << 1;
+        long d1 = x1 << 1;
+        long d2 = x2 << 1;
+        long d3 = x3 << 1;
+        long d4 = x4 << 1;
+        long d5 = x5 << 1;
+        long d6 = x6 << 1;
+        long d7 = x7 << 1;
+        long d8 = x8 << 1;
+        long[] c = columns;
+        c[0] = x0 * x0;
+        c[1] = d0 * x1;
+        c[2] = d0 * x2 + x1 * x1;
+        c[3] = d0 * x3 + d1 * x2;
+        c[4] = d0 * x4 + d1 * x3 + x2 * x2;
+        c[5] = d0 * x5 + d1 * x4 + d2 * x3;
+        c[6] = d0 * x6 + d1 * x5 + d2 * x4 + x3 * x3;
+        c[7] = d0 * x7 + d1 * x6 + d2 * x5 + d3 * x4;
+        c[8] = d0 * x8 + d1 * x7 + d2 * x6 + d3 * x5 + x4 * x4;
+        c[9] = d0 * x9 + d1 * x8 + d2 * x7 + d3 * x6 + d4 * x5;
+        c[10] = d1 * x9 + d2 * x8 + d3 * x7 + d4 * x6 + x5 * x5;
+        c[11] = d2 * x9 + d3 * x8 + d4 * x7 + d5 * x6;
+        c[12] = d3 * x9 + d4 * x8 + d5 * x7 + x6 * x6;
+        c[13] = d4 * x9 + d5 * x8 + d6 * x7;
+        c[14] = d5 * x9 + d6 * x8 + x7 * x7;
+        c[15] = d6 * x9 + d7 * x8;
+        c[16] = d7 * x9 + x8 * x8;
+        c[17] = d8 * x9;
+        c[18] = x9 * x9;
+        reduce(c, z);
+    }
+
+    /**
+     * z = x^(2^n).
+     */
+    void squareN(int[] x, int n, int[] z) {
+
+        square(x, z);
+        for (int i = 1; i < n; i++) {
+            square(z, z);
+        }
+    }
+
+    /**
+     * z = 1 / x, x not zero.
+     */
+    void invert(int[] x, int[] z) {
+
+        powerChain(x);
+        // x^(p - 2)
+        squareN(x223, 23, t1);
+        multiply(t1, x22, t1);
+        squareN(t1, 5, t1);
+        multiply(t1, x, t1);
+        squareN(t1, 3, t1);
+        multiply(t1, x2, t1);
+        squareN(t1, 2, t1);
+        multiply(t1, x, z);
+    }
+
+    /**
+     * z = a square root of x.
+     *
+     * @return whether x is a square, z is meaningless otherwise
+     */
+    boolean sqrt(int[] x, int[] z) {
+
+        powerChain(x);
+        // x^((p + 1) / 4)
+        squareN(x223, 23, t1);
+        multiply(t1, x22, t1);
+        squareN(t1, 6, t1);
+        multiply(t1, x2, t1);
+        squareN(t1, 2, t2);
+        square(t2, t1);
+        boolean isSquare = equal(t1, x);
+        copy(t2, z);
+        return isSquare;
+    }
+
+    /**
+     * Compute x2, x3, x22 and x223, x raised to 2^k - 1 for k = 2, 3, 22 and 223, the blocks
+     * of the exponents of the inversion and of the square root.
+     */
+    private void powerChain(int[] x) {
+
+        int[] x6 = t1;
+        int[] x9 = t2;
+        square(x, x2);
+        multiply(x2, x, x2);
+        square(x2, x3);
+        multiply(x3, x, x3);
+        squareN(x3, 3, x6);
+        multiply(x6, x3, x6);
+        squareN(x6, 3, x9);
+        multiply(x9, x3, x9);
+        int[] x11 = x9;
+        squareN(x9, 2, x11);
+        multiply(x11, x2, x11);
+        squareN(x11, 11, x22);
+        multiply(x22, x11, x22);
+        int[] x44 = t1;
+        squareN(x22, 22, x44);
+        multiply(x44, x22, x44);
+        int[] x88 = x223;
+        squareN(x44, 44, x88);
+        multiply(x88, x44, x88);
+        int[] x176 = t2;
+        squareN(x88, 88, x176);
+        multiply(x176, x88, x176);
+        int[] x220 = x223;
+        squareN(x176, 44, x220);
+        multiply(x220, x44, x220);
+        squareN(x220, 3, x223);
+        multiply(x223, x3, x223);
+    }
+
+    /**
+     * z = the sum of the column sums c[k] * 2^(26 * k), c[k] below 2^57.
+     */
+    private static void reduce(long[] c, int[] z) {
+
+        // split the high columns in 26-bit ones, the last one carrying into a tenth
+        for (int k = 10; k < 18; k++) {
+            c[k + 1] += c[k] >>> 26;
+            c[k] &= M26;
+        }
+        long top = c[18] >>> 26;
+        c[18] &= M26;
+        // column k >= 10 weighs 2^(26 * (k - 10)) * 2^260, 2^260 = 2^36 + R260 (mod p)
+        c[9] += top * R260;
+        c[10] += top << 10;
+        for (int k = 18; k >= 10; k--) {
+            c[k - 10] += c[k] * R260;
+            c[k - 9] += c[k] << 10;
+        }
+
+        long d = 0;
+        for (int i = 0; i < 9; i++) {
+            d += c[i];
+            z[i] = (int) d & M26;
+            d >>>= 26;
+        }
+        d += c[9];
+        z[9] = (int) d & M22;
+        top = d >>> 22;
+        // top * 2^256 = top * 977 + top * 2^32 (mod p)
+        d = z[0] + top * 0x3D1L;
+        z[0] = (int) d & M26;
+        d = (d >>> 26) + z[1] + (top << 6);
+        z[1] = (int) d & M26;
+        d >>>= 26;
+        for (int i = 2; i < 9 && d != 0; i++) {
+            d += z[i];
+            z[i] = (int) d & M26;
+            d >>>= 26;
+        }
+        z[9] += (int) d;
+    }
+}
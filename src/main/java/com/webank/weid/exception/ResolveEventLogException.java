@@ -0,0 +1,44 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.exception;
+
+import com.webank.weid.constant.ErrorCode;
+
+/**
+ * Thrown when blocks or receipts can not be fetched while resolving event logs from chain.
+ *
+ * @author tonychen
+ */
+@SuppressWarnings("serial")
+public class ResolveEventLogException extends WeIdBaseException {
+
+    public ResolveEventLogException(String msg, Throwable cause) {
+        super(msg, cause);
+    }
+
+    public ResolveEventLogException(String msg) {
+        super(msg);
+    }
+
+    @Override
+    public ErrorCode getErrorCode() {
+        return ErrorCode.TRANSACTION_EXECUTE_ERROR;
+    }
+}
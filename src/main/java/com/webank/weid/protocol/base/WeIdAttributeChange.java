@@ -0,0 +1,61 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.protocol.base;
+
+import lombok.Data;
+
+/**
+ * The base data structure for one decoded WeIdAttributeChanged event of a WeIdentity DID.
+ *
+ * @author tonychen 2018.12
+ */
+@Data
+public class WeIdAttributeChange {
+
+    /**
+     * Required: The WeIdentity DID the attribute belongs to.
+     */
+    private String weId;
+
+    /**
+     * Required: The attribute key.
+     */
+    private String key;
+
+    /**
+     * Required: The attribute value.
+     */
+    private String value;
+
+    /**
+     * Required: The time the attribute was set.
+     */
+    private Long updated;
+
+    /**
+     * Required: The block the event was emitted in.
+     */
+    private Integer blockNumber;
+
+    /**
+     * Required: The previous block holding an event of the same WeIdentity DID, 0 if none.
+     */
+    private Integer previousBlock;
+}
@@ -0,0 +1,47 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.protocol.base;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * The base data structure for the changes of a WeIdentity DID document in one block.
+ *
+ * @author tonychen 2018.12
+ */
+@Data
+public class WeIdDocumentChange {
+
+    /**
+     * Required: The WeIdentity DID whose document changed.
+     */
+    private String weId;
+
+    /**
+     * Required: The block the changes were made in.
+     */
+    private Integer blockNumber;
+
+    /**
+     * Required: The attribute changes of the block, in the order they were made.
+     */
+    private List<WeIdAttributeChange> changes;
+}
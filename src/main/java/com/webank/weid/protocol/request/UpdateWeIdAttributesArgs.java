@@ -0,0 +1,60 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.protocol.request;
+
+import java.util.List;
+
+import com.webank.weid.protocol.base.WeIdPrivateKey;
+
+import lombok.Data;
+
+/**
+ * The Arguments when setting several attributes in one transaction. The WeIdentity DID and
+ * private key of the nested arguments are not read, those of this object are used.
+ *
+ * @author tonychen 2018.12
+ */
+@Data
+public class UpdateWeIdAttributesArgs {
+
+    /**
+     * Required: The WeIdentity DID.
+     */
+    private String weId;
+
+    /**
+     * Optional: The public keys to set.
+     */
+    private List<SetPublicKeyArgs> publicKeys;
+
+    /**
+     * Optional: The authentications to set.
+     */
+    private List<SetAuthenticationArgs> authentications;
+
+    /**
+     * Optional: The services to set.
+     */
+    private List<SetServiceArgs> services;
+
+    /**
+     * Required: The WeIdentity DID private key.
+     */
+    private WeIdPrivateKey userWeIdPrivateKey;
+}
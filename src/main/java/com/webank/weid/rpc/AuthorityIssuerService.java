@@ -19,6 +19,8 @@
 
 package com.webank.weid.rpc;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.webank.weid.protocol.base.AuthorityIssuer;
 import com.webank.weid.protocol.request.RegisterAuthorityIssuerArgs;
 import com.webank.weid.protocol.request.RemoveAuthorityIssuerArgs;
@@ -67,4 +69,39 @@ public interface AuthorityIssuerService {
      * @return authority issuer info
      */
     ResponseData<AuthorityIssuer> queryAuthorityIssuerInfo(String weId);
+
+    /**
+     * Register a new Authority Issuer on Chain without blocking the caller.
+     *
+     * @param args the args
+     * @return true if succeeds, false otherwise
+     */
+    CompletableFuture<ResponseData<Boolean>> registerAuthorityIssuerAsync(
+        RegisterAuthorityIssuerArgs args);
+
+    /**
+     * Remove a new Authority Issuer on Chain without blocking the caller.
+     *
+     * @param args the args
+     * @return true if succeeds, false otherwise
+     */
+    CompletableFuture<ResponseData<Boolean>> removeAuthorityIssuerAsync(
+        RemoveAuthorityIssuerArgs args);
+
+    /**
+     * Check whether the given WeIdentity DID is an authority issuer without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return true if yes, false otherwise
+     */
+    CompletableFuture<ResponseData<Boolean>> isAuthorityIssuerAsync(String weId);
+
+    /**
+     * Query the authority issuer information from a given WeIdentity DID without blocking the
+     * caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return authority issuer info
+     */
+    CompletableFuture<ResponseData<AuthorityIssuer>> queryAuthorityIssuerInfoAsync(String weId);
 }
@@ -19,6 +19,8 @@
 
 package com.webank.weid.rpc;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.webank.weid.protocol.base.Cpt;
 import com.webank.weid.protocol.base.CptBaseInfo;
 import com.webank.weid.protocol.request.RegisterCptArgs;
@@ -55,4 +57,28 @@ public interface CptService {
      * @return The updated CPT info
      */
     ResponseData<CptBaseInfo> updateCpt(UpdateCptArgs args);
+
+    /**
+     * Register a new CPT to the blockchain without blocking the caller.
+     *
+     * @param args the args
+     * @return The registered CPT info, completed once the transaction is mined
+     */
+    CompletableFuture<ResponseData<CptBaseInfo>> registerCptAsync(RegisterCptArgs args);
+
+    /**
+     * Query the latest CPT version without blocking the caller.
+     *
+     * @param cptId the cpt id
+     * @return The registered CPT info
+     */
+    CompletableFuture<ResponseData<Cpt>> queryCptAsync(Integer cptId);
+
+    /**
+     * Update the data fields of a registered CPT without blocking the caller.
+     *
+     * @param args the args
+     * @return The updated CPT info, completed once the transaction is mined
+     */
+    CompletableFuture<ResponseData<CptBaseInfo>> updateCptAsync(UpdateCptArgs args);
 }
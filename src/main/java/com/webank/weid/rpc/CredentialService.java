@@ -19,6 +19,9 @@
 
 package com.webank.weid.rpc;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 import com.webank.weid.protocol.base.Credential;
 import com.webank.weid.protocol.request.CreateCredentialArgs;
 import com.webank.weid.protocol.request.VerifyCredentialArgs;
@@ -27,6 +30,10 @@ import com.webank.weid.protocol.response.ResponseData;
 /**
  * Service interface for operations on Credentials.
  *
+ * <p>The async verifications complete on web3sdk's blocking Async executor that fetched the
+ * issuer's document and the CPT, or on the calling thread when both are cached. Blocking work
+ * chained on them belongs on an executor of your own.
+ *
  * @author chaoxinhu 2018.10
  */
 public interface CredentialService {
@@ -39,6 +46,26 @@ public interface CredentialService {
      */
     ResponseData<Credential> createCredential(CreateCredentialArgs args);
 
+    /**
+     * Generate a batch of credentials, signed the same as by createCredential.
+     *
+     * @param args the args of each credential
+     * @return the credential of each args, in the order of the input
+     */
+    ResponseData<List<ResponseData<Credential>>> createCredentials(
+        List<CreateCredentialArgs> args);
+
+    /**
+     * Generate a batch of credentials in the Merkle batch mode, marked by their context: each
+     * issuer signs once the Merkle root of the fields hashes of its credentials, and each
+     * credential carries the root signature and its inclusion proof as its signature.
+     *
+     * @param args the args of each credential
+     * @return the credential of each args, in the order of the input
+     */
+    ResponseData<List<ResponseData<Credential>>> createMerkleCredentials(
+        List<CreateCredentialArgs> args);
+
     /**
      * Verify the validity of a credential. Public key will be fetched from chain.
      *
@@ -56,4 +83,35 @@ public interface CredentialService {
      * in ResponseData
      */
     ResponseData<Boolean> verifyCredentialWithSpecifiedPubKey(VerifyCredentialArgs args);
+
+    /**
+     * Verify the validity of a credential without blocking the caller. Public key will be
+     * fetched from chain.
+     *
+     * @param args the args
+     * @return the verification result. True if yes, false otherwise with exact verify error codes
+     * in ResponseData
+     */
+    CompletableFuture<ResponseData<Boolean>> verifyCredentialAsync(Credential args);
+
+    /**
+     * Verify the validity of a credential without blocking the caller. Public key must be
+     * provided.
+     *
+     * @param args the args
+     * @return the verification result. True if yes, false otherwise with exact verify error codes
+     * in ResponseData
+     */
+    CompletableFuture<ResponseData<Boolean>> verifyCredentialWithSpecifiedPubKeyAsync(
+        VerifyCredentialArgs args);
+
+    /**
+     * Verify the validity of a batch of credentials. Public keys will be fetched from chain,
+     * once per issuer, and each CPT is queried once.
+     *
+     * @param credentials the credentials
+     * @return the verification result of each credential, in the order of the input. True if
+     * yes, false otherwise with exact verify error codes in ResponseData
+     */
+    ResponseData<List<ResponseData<Boolean>>> verifyCredentials(List<Credential> credentials);
 }
@@ -19,17 +19,30 @@
 
 package com.webank.weid.rpc;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import rx.Observable;
+
+import com.webank.weid.protocol.base.WeIdAttributeChange;
 import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.base.WeIdDocumentChange;
 import com.webank.weid.protocol.request.CreateWeIdArgs;
 import com.webank.weid.protocol.request.SetAuthenticationArgs;
 import com.webank.weid.protocol.request.SetPublicKeyArgs;
 import com.webank.weid.protocol.request.SetServiceArgs;
+import com.webank.weid.protocol.request.UpdateWeIdAttributesArgs;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
 
 /**
  * Service interface for operations on WeIdentity DID.
  *
+ * <p>The futures of the async methods complete on web3sdk's blocking Async executor, or on the
+ * receipt tracker thread for transactions. Use the async stages of CompletableFuture with an
+ * executor of your own for blocking work chained on them.
+ *
  * @author tonychen
  */
 public interface WeIdService {
@@ -65,6 +78,25 @@ public interface WeIdService {
      */
     ResponseData<WeIdDocument> getWeIdDocument(String weId);
 
+    /**
+     * Query the WeIdentity DID documents of several WeIdentity DIDs at once. The block walks of
+     * all the WeIdentity DIDs are merged, so every block and receipt is fetched at most once.
+     *
+     * @param weIds the WeIdentity DIDs
+     * @return the documents with their own error codes, in the order of the input
+     */
+    ResponseData<List<ResponseData<WeIdDocument>>> getWeIdDocuments(List<String> weIds);
+
+    /**
+     * Query the attribute change history of a WeIdentity DID, newest first. Blocks are fetched
+     * lazily while the iterator is consumed, so callers may stop early. The iterator throws
+     * ResolveEventLogException if a block or receipt can not be fetched.
+     *
+     * @param weId the WeIdentity DID
+     * @return the attribute change history
+     */
+    ResponseData<Iterator<WeIdAttributeChange>> getWeIdAttributeHistory(String weId);
+
     /**
      * Set public key in the WeIdentity DID Document.
      *
@@ -89,10 +121,105 @@ public interface WeIdService {
      */
     ResponseData<Boolean> setAuthentication(SetAuthenticationArgs setAuthenticationArgs);
 
+    /**
+     * Set public keys, authentications and services of a WeIdentity DID in one transaction, so
+     * they all land in one block.
+     *
+     * @param updateWeIdAttributesArgs the attributes and the private key
+     * @return true if the "set" operation succeeds, false otherwise.
+     */
+    ResponseData<Boolean> updateWeIdAttributes(UpdateWeIdAttributesArgs updateWeIdAttributesArgs);
+
     /**
      * Check if the WeIdentity DID exists on chain.
      *
      * @return true if exists, false otherwise.
      */
     ResponseData<Boolean> isWeIdExist(String weId);
+
+    /**
+     * Create a WeIdentity DID with a new key pair without blocking the caller.
+     *
+     * @return a data set including a WeIdentity DID and a key pair
+     */
+    CompletableFuture<ResponseData<CreateWeIdDataResult>> createWeIdAsync();
+
+    /**
+     * Create a WeIdentity DID from the provided public key without blocking the caller.
+     *
+     * @param createWeIdArgs you need to input a public key
+     * @return WeIdentity DID
+     */
+    CompletableFuture<ResponseData<String>> createWeIdAsync(CreateWeIdArgs createWeIdArgs);
+
+    /**
+     * Query WeIdentity DID document without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return WeIdentity document in json type
+     */
+    CompletableFuture<ResponseData<String>> getWeIdDocumentJsonAsync(String weId);
+
+    /**
+     * Query WeIdentity DID document without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return weId document in java object type
+     */
+    CompletableFuture<ResponseData<WeIdDocument>> getWeIdDocumentAsync(String weId);
+
+    /**
+     * Set public key in the WeIdentity DID document without blocking the caller.
+     *
+     * @param setPublicKeyArgs the set public key args
+     * @return true if the "set" operation succeeds, false otherwise.
+     */
+    CompletableFuture<ResponseData<Boolean>> setPublicKeyAsync(SetPublicKeyArgs setPublicKeyArgs);
+
+    /**
+     * Set service properties without blocking the caller.
+     *
+     * @param setServiceArgs your service name and endpoint
+     * @return true if the "set" operation succeeds, false otherwise.
+     */
+    CompletableFuture<ResponseData<Boolean>> setServiceAsync(SetServiceArgs setServiceArgs);
+
+    /**
+     * Set authentications in WeIdentity DID without blocking the caller.
+     *
+     * @param setAuthenticationArgs A public key is needed.
+     * @return true if the "set" operation succeeds, false otherwise.
+     */
+    CompletableFuture<ResponseData<Boolean>> setAuthenticationAsync(
+        SetAuthenticationArgs setAuthenticationArgs);
+
+    /**
+     * Check if the WeIdentity DID exists on chain without blocking the caller.
+     *
+     * @param weId The WeIdentity DID.
+     * @return true if exists, false otherwise.
+     */
+    CompletableFuture<ResponseData<Boolean>> isWeIdExistAsync(String weId);
+
+    /**
+     * Set public keys, authentications and services of a WeIdentity DID in one transaction,
+     * without blocking the caller.
+     *
+     * @param updateWeIdAttributesArgs the attributes and the private key
+     * @return true if the "set" operation succeeds, false otherwise.
+     */
+    CompletableFuture<ResponseData<Boolean>> updateWeIdAttributesAsync(
+        UpdateWeIdAttributesArgs updateWeIdAttributesArgs);
+
+    /**
+     * Observe the document changes of WeIdentity DIDs as new blocks are sealed. The stream
+     * supports backpressure, a block is only read once more changes are requested.
+     *
+     * @param weIds the WeIdentity DIDs to observe, null or empty for all of them
+     * @param fromBlock the first block to emit the changes of, the block after the last one
+     *     processed to resume a stream
+     * @return the document changes, one per WeIdentity DID and block, in block order
+     */
+    ResponseData<Observable<WeIdDocumentChange>> observeWeIdDocumentChanges(
+        List<String> weIds, int fromBlock);
 }
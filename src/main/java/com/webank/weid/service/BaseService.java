@@ -22,24 +22,58 @@ package com.webank.weid.service;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import org.bcos.channel.client.Service;
 import org.bcos.contract.tools.ToolConf;
+import org.bcos.web3j.abi.FunctionEncoder;
+import org.bcos.web3j.abi.datatypes.Function;
 import org.bcos.web3j.crypto.Credentials;
 import org.bcos.web3j.crypto.ECKeyPair;
 import org.bcos.web3j.crypto.GenCredential;
 import org.bcos.web3j.protocol.Web3j;
 import org.bcos.web3j.protocol.channel.ChannelEthereumService;
+import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.bcos.web3j.tx.Contract;
+import org.bcos.web3j.tx.TransactionManager;
+import org.bcos.web3j.utils.Numeric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
 
+import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.contract.AuthorityIssuerController;
+import com.webank.weid.contract.AuthorityIssuerData;
+import com.webank.weid.contract.CommitteeMemberController;
+import com.webank.weid.contract.CommitteeMemberData;
+import com.webank.weid.contract.CptController;
+import com.webank.weid.contract.CptData;
+import com.webank.weid.contract.RoleController;
+import com.webank.weid.contract.WeIdContract;
 import com.webank.weid.exception.InitWeb3jException;
 import com.webank.weid.exception.LoadContractException;
 import com.webank.weid.exception.PrivateKeyIllegalException;
+import com.webank.weid.exception.WeIdBaseException;
+import com.webank.weid.service.pipeline.ReceiptTracker;
+import com.webank.weid.service.pipeline.TrackedTransactionManager;
+import com.webank.weid.util.HashUtils;
 
 /**
  * The BaseService for other RPC classes.
@@ -56,8 +90,58 @@ public abstract class BaseService {
 
     private static Web3j web3j;
 
+    /**
+     * The tracker resolving the receipts of every transaction sent.
+     */
+    private static ReceiptTracker receiptTracker;
+
+    /**
+     * The loaders of the contract classes, resolved without reflection.
+     */
+    private static final Map<Class<?>, ContractLoader> contractLoaders =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The contracts bound to a signer, keyed by contract class, address and signer digest.
+     * Contracts of idle signers are evicted, dropping their credentials.
+     */
+    private static final Cache<String, Contract> contractCache =
+        CacheBuilder.newBuilder()
+            .maximumSize(WeIdConstant.CONTRACT_CACHE_SIZE)
+            .expireAfterAccess(WeIdConstant.CONTRACT_CACHE_IDLE_SECONDS, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * The transaction managers of the signers, keyed by signer digest.
+     */
+    private static final Cache<String, TrackedTransactionManager> transactionManagers =
+        CacheBuilder.newBuilder()
+            .maximumSize(WeIdConstant.CONTRACT_CACHE_SIZE)
+            .expireAfterAccess(WeIdConstant.CONTRACT_CACHE_IDLE_SECONDS, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * The timer failing asynchronous chain calls that take longer than
+     * TRANSACTION_RECEIPT_TIMEOUT.
+     */
+    private static final ScheduledExecutorService asyncTimer =
+        Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("weid-async-timer-%d")
+                .setDaemon(true)
+                .build());
+
     static {
         context = new ClassPathXmlApplicationContext("applicationContext.xml");
+
+        contractLoaders.put(WeIdContract.class, WeIdContract::load);
+        contractLoaders.put(CptController.class, CptController::load);
+        contractLoaders.put(CptData.class, CptData::load);
+        contractLoaders.put(AuthorityIssuerController.class, AuthorityIssuerController::load);
+        contractLoaders.put(AuthorityIssuerData.class, AuthorityIssuerData::load);
+        contractLoaders.put(CommitteeMemberController.class, CommitteeMemberController::load);
+        contractLoaders.put(CommitteeMemberData.class, CommitteeMemberData::load);
+        contractLoaders.put(RoleController.class, RoleController::load);
     }
 
     private static boolean initWeb3j() {
@@ -109,34 +193,100 @@ public abstract class BaseService {
         return web3j;
     }
 
+    /**
+     * Gets the receipt tracker.
+     *
+     * @return the receipt tracker
+     */
+    private static synchronized ReceiptTracker getReceiptTracker() {
+        if (null == receiptTracker) {
+            receiptTracker = new ReceiptTracker(getWeb3j());
+        }
+        return receiptTracker;
+    }
+
+    /**
+     * Gets the transaction manager of a signer, its transactions resolved by the receipt
+     * tracker.
+     *
+     * @param privateKey the private key of the signer
+     * @return the transaction manager
+     */
+    private static TrackedTransactionManager getTransactionManager(String privateKey) {
+
+        String signerKey = toSignerKey(privateKey);
+        TrackedTransactionManager cached = transactionManagers.getIfPresent(signerKey);
+        if (null != cached) {
+            return cached;
+        }
+        Credentials credentials;
+        try {
+            ECKeyPair keyPair = ECKeyPair.create(new BigInteger(privateKey));
+            credentials = Credentials.create(keyPair);
+        } catch (Exception e) {
+            throw new PrivateKeyIllegalException(e);
+        }
+        TrackedTransactionManager transactionManager =
+            new TrackedTransactionManager(getWeb3j(), credentials, getReceiptTracker());
+        transactionManagers.put(signerKey, transactionManager);
+        return transactionManager;
+    }
+
+    /**
+     * Get the digest a signer is keyed by, so the cache keys hold no private key.
+     */
+    private static String toSignerKey(String privateKey) {
+        return Numeric.toHexString(
+            HashUtils.sha3(String.valueOf(privateKey).getBytes(StandardCharsets.UTF_8)));
+    }
+
     private static Object loadContract(
         String contractAddress,
-        Credentials credentials,
-        Class<?> cls) throws NoSuchMethodException, IllegalAccessException,
-        InvocationTargetException {
-        Object contract;
+        TransactionManager transactionManager,
+        Class<?> cls) throws NoSuchMethodException {
+
+        return getContractLoader(cls).load(
+            contractAddress,
+            getWeb3j(),
+            transactionManager,
+            WeIdConstant.GAS_PRICE,
+            WeIdConstant.GAS_LIMIT
+        );
+    }
+
+    /**
+     * Gets the loader of a contract class, resolving the static load method of a class that is
+     * not registered only once.
+     */
+    private static ContractLoader getContractLoader(Class<?> cls) throws NoSuchMethodException {
+
+        ContractLoader loader = contractLoaders.get(cls);
+        if (null != loader) {
+            return loader;
+        }
         Method method = cls.getMethod(
             "load",
             String.class,
             Web3j.class,
-            Credentials.class,
+            TransactionManager.class,
             BigInteger.class,
             BigInteger.class
         );
-
-        contract = method.invoke(
-            null,
-            contractAddress,
-            getWeb3j(),
-            credentials,
-            WeIdConstant.GAS_PRICE,
-            WeIdConstant.GAS_LIMIT
-        );
-        return contract;
+        loader = (contractAddress, web3j, transactionManager, gasPrice, gasLimit) -> {
+            try {
+                return (Contract) method.invoke(
+                    null, contractAddress, web3j, transactionManager, gasPrice, gasLimit);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new LoadContractException(e);
+            }
+        };
+        contractLoaders.putIfAbsent(cls, loader);
+        return loader;
     }
 
     /**
-     * Reload contract.
+     * Reload contract. The contract bound to the same signer is cached, so repeated writes of
+     * the same signer neither parse the private key nor load the contract again.
      *
      * @param contractAddress the contract address
      * @param cls the class
@@ -146,18 +296,24 @@ public abstract class BaseService {
         String contractAddress,
         String privateKey,
         Class<?> cls) {
-        Credentials credentials;
-        try {
-            ECKeyPair keyPair = ECKeyPair.create(new BigInteger(privateKey));
-            credentials = Credentials.create(keyPair);
-        } catch (Exception e) {
-            throw new PrivateKeyIllegalException(e);
+
+        String cacheKey = new StringBuilder()
+            .append(cls.getName())
+            .append(WeIdConstant.PIPELINE)
+            .append(contractAddress)
+            .append(WeIdConstant.PIPELINE)
+            .append(toSignerKey(privateKey))
+            .toString();
+        Contract cached = contractCache.getIfPresent(cacheKey);
+        if (null != cached) {
+            return cached;
         }
 
+        TransactionManager transactionManager = getTransactionManager(privateKey);
         Object contract = null;
         try {
             // load contract
-            contract = loadContract(contractAddress, credentials, cls);
+            contract = loadContract(contractAddress, transactionManager, cls);
             logger.info(cls.getSimpleName() + " init succ");
         } catch (Exception e) {
             logger.error("load contract :{} failed. Error message is :{}",
@@ -168,6 +324,7 @@ public abstract class BaseService {
         if (contract == null) {
             throw new LoadContractException();
         }
+        contractCache.put(cacheKey, (Contract) contract);
         return (Contract) contract;
     }
 
@@ -186,7 +343,10 @@ public abstract class BaseService {
         	if(null == credentials) {
         		initCredentials();
         	}
-            contract = loadContract(contractAddress, credentials, cls);
+            contract = loadContract(
+                contractAddress,
+                new TrackedTransactionManager(getWeb3j(), credentials, getReceiptTracker()),
+                cls);
             logger.info(cls.getSimpleName() + " init succ");
 
         } catch (Exception e) {
@@ -200,4 +360,99 @@ public abstract class BaseService {
         }
         return (Contract) contract;
     }
+
+    /**
+     * Send a transaction calling a contract, signed by the given key. No thread waits for the
+     * receipt, which is resolved by the receipt tracker.
+     *
+     * @param contractAddress the contract address
+     * @param privateKey the private key of the signer
+     * @param function the function called
+     * @return the future of the receipt, failing with a TimeoutException after
+     *     TRANSACTION_RECEIPT_TIMEOUT
+     */
+    protected static CompletableFuture<TransactionReceipt> sendTransaction(
+        String contractAddress,
+        String privateKey,
+        Function function) {
+
+        return getTransactionManager(privateKey)
+            .executeTransactionAsync(contractAddress, FunctionEncoder.encode(function));
+    }
+
+    /**
+     * Adapt a chain call to a CompletableFuture failing with a TimeoutException after
+     * TRANSACTION_RECEIPT_TIMEOUT. The caller thread does not wait, but the chain call itself
+     * still blocks a thread: web3sdk runs sendAsync and the contract wrapper calls on the
+     * blocking executor of its Async class, and a plain Future is waited on in the common pool.
+     * Non-async stages chained on the result run on that thread, or on the timer on a timeout.
+     *
+     * @param future the future returned by a contract wrapper or a web3j request
+     * @return the CompletableFuture
+     */
+    @SuppressWarnings("unchecked")
+    protected static <T> CompletableFuture<T> toCompletableFuture(Future<T> future) {
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (future instanceof CompletableFuture) {
+            ((CompletableFuture<T>) future).whenComplete((value, e) -> {
+                if (null != e) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(value);
+                }
+            });
+        } else {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    result.complete(future.get());
+                } catch (InterruptedException | ExecutionException e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        }
+        ScheduledFuture<?> timeout = asyncTimer.schedule(
+            () -> result.completeExceptionally(new TimeoutException()),
+            WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT,
+            TimeUnit.SECONDS);
+        result.whenComplete((value, e) -> timeout.cancel(false));
+        return result;
+    }
+
+    /**
+     * Get the error code of a failed asynchronous chain call.
+     *
+     * @param e the failure
+     * @return TRANSACTION_TIMEOUT on timeout, the error code of a WeIdBaseException, otherwise
+     *     TRANSACTION_EXECUTE_ERROR
+     */
+    protected static ErrorCode toErrorCode(Throwable e) {
+
+        Throwable cause = e;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException)
+            && null != cause.getCause()) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof TimeoutException) {
+            return ErrorCode.TRANSACTION_TIMEOUT;
+        }
+        if (cause instanceof WeIdBaseException) {
+            return ((WeIdBaseException) cause).getErrorCode();
+        }
+        return ErrorCode.TRANSACTION_EXECUTE_ERROR;
+    }
+
+    /**
+     * The static load method of a contract class.
+     */
+    @FunctionalInterface
+    private interface ContractLoader {
+
+        Contract load(
+            String contractAddress,
+            Web3j web3j,
+            TransactionManager transactionManager,
+            BigInteger gasPrice,
+            BigInteger gasLimit);
+    }
 }
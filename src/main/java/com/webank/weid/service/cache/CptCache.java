@@ -0,0 +1,171 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.protocol.base.Cpt;
+import com.webank.weid.protocol.response.ResponseData;
+
+/**
+ * Keeps the decoded CPTs queried from the chain, and for a short while the CPT ids found not
+ * to exist. An entry is dropped when the CPT is registered or updated, the owner reports
+ * those changes by calling onCptChanged. The CPTs are copied in and out, so the callers can
+ * not alter the cached ones.
+ *
+ * @author tonychen 2018.12
+ */
+public class CptCache {
+
+    private final Cache<Integer, Cpt> cpts;
+
+    private final Cache<Integer, Boolean> notExists;
+
+    /**
+     * Bumped on every invalidation, a query started before it does not fill the cache.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Instantiates a new cpt cache.
+     */
+    public CptCache() {
+        this(
+            WeIdConstant.CPT_CACHE_SIZE,
+            WeIdConstant.CPT_NOT_EXISTS_CACHE_MILLIS,
+            Ticker.systemTicker());
+    }
+
+    CptCache(int maximumSize, long notExistsMillis, Ticker ticker) {
+
+        this.cpts = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .build();
+        this.notExists = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(notExistsMillis, TimeUnit.MILLISECONDS)
+            .ticker(ticker)
+            .build();
+    }
+
+    /**
+     * Get the cached query result of a CPT.
+     *
+     * @param cptId the cpt id
+     * @return the CPT or CPT_NOT_EXISTS, null if nothing is cached for the cpt id
+     */
+    public ResponseData<Cpt> get(Integer cptId) {
+
+        Cpt cpt = cpts.getIfPresent(cptId);
+        if (null != cpt) {
+            return new ResponseData<>(copy(cpt), ErrorCode.SUCCESS);
+        }
+        if (null != notExists.getIfPresent(cptId)) {
+            return new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
+        }
+        return null;
+    }
+
+    /**
+     * Get the generation to pass to put, read before querying the chain.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Cache the query result of a CPT, if it is a CPT or CPT_NOT_EXISTS and nothing was
+     * invalidated since the query started.
+     *
+     * @param cptId the cpt id
+     * @param responseData the query result
+     * @param queryGeneration the generation read before the query
+     */
+    public void put(Integer cptId, ResponseData<Cpt> responseData, long queryGeneration) {
+
+        if (null == cptId || null == responseData || null == responseData.getErrorCode()) {
+            return;
+        }
+        synchronized (generation) {
+            if (queryGeneration != generation.get()) {
+                return;
+            }
+            int errorCode = responseData.getErrorCode();
+            if (errorCode == ErrorCode.SUCCESS.getCode() && null != responseData.getResult()) {
+                cpts.put(cptId, copy(responseData.getResult()));
+            } else if (errorCode == ErrorCode.CPT_NOT_EXISTS.getCode()) {
+                notExists.put(cptId, Boolean.TRUE);
+            }
+        }
+    }
+
+    /**
+     * Drop the cached result of a CPT registered or updated on the chain, unless the cached
+     * CPT already has the given version.
+     *
+     * @param cptId the cpt id
+     * @param cptVersion the cpt version after the change, null if unknown
+     */
+    public void onCptChanged(Integer cptId, Integer cptVersion) {
+
+        synchronized (generation) {
+            generation.incrementAndGet();
+            notExists.invalidate(cptId);
+            Cpt cpt = cpts.getIfPresent(cptId);
+            if (null != cpt && (null == cptVersion || !cptVersion.equals(cpt.getCptVersion()))) {
+                cpts.invalidate(cptId);
+            }
+        }
+    }
+
+    /**
+     * Drop all the cached results, when some changes may have been missed.
+     */
+    public void invalidateAll() {
+
+        synchronized (generation) {
+            generation.incrementAndGet();
+            notExists.invalidateAll();
+            cpts.invalidateAll();
+        }
+    }
+
+    private static Cpt copy(Cpt cpt) {
+
+        Cpt copy = new Cpt();
+        copy.setCptId(cpt.getCptId());
+        copy.setCptVersion(cpt.getCptVersion());
+        copy.setCptJsonSchema(cpt.getCptJsonSchema());
+        copy.setCptPublisher(cpt.getCptPublisher());
+        copy.setCptSignature(cpt.getCptSignature());
+        copy.setCreated(cpt.getCreated());
+        copy.setUpdated(cpt.getUpdated());
+        return copy;
+    }
+}
@@ -20,17 +20,22 @@
 package com.webank.weid.service.impl;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.abi.TypeReference;
 import org.bcos.web3j.abi.datatypes.Address;
 import org.bcos.web3j.abi.datatypes.Bool;
 import org.bcos.web3j.abi.datatypes.DynamicArray;
 import org.bcos.web3j.abi.datatypes.DynamicBytes;
+import org.bcos.web3j.abi.datatypes.Function;
 import org.bcos.web3j.abi.datatypes.Type;
 import org.bcos.web3j.abi.datatypes.generated.Bytes32;
 import org.bcos.web3j.abi.datatypes.generated.Int256;
@@ -86,19 +91,6 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
         authorityIssuerControllerAddress = config.getIssuerAddress();
     }
 
-    /**
-     * Use the cpt publisher's private key to send the transaction to call the contract.
-     *
-     * @param privateKey the private key
-     */
-    private static void reloadContract(String privateKey) {
-        authorityIssuerController = (AuthorityIssuerController) reloadContract(
-            authorityIssuerControllerAddress,
-            privateKey,
-            AuthorityIssuerController.class
-        );
-    }
-
     /**
      * Register a new Authority Issuer on Chain.
      *
@@ -107,7 +99,6 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
      */
     @Override
     public ResponseData<Boolean> registerAuthorityIssuer(RegisterAuthorityIssuerArgs args) {
-        ResponseData<Boolean> responseData = new ResponseData<Boolean>();
 
         ResponseData<Boolean> innerResponseData = checkRegisterAuthorityIssuerArgs(args);
         if (!innerResponseData.getResult()) {
@@ -115,41 +106,15 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
                 false, innerResponseData.getErrorCode(), innerResponseData.getErrorMessage());
         }
 
-        AuthorityIssuer authorityIssuer = args.getAuthorityIssuer();
-        String weAddress = WeIdUtils.convertWeIdToAddress(authorityIssuer.getWeId());
-        String[] stringAttributes = loadNameToStringAttributes(authorityIssuer.getName());
-        long[] longAttributes = new long[16];
-        Long createDate = System.currentTimeMillis();
-        longAttributes[0] = createDate;
-        DynamicBytes accValue = new DynamicBytes(authorityIssuer.getAccValue().getBytes());
-        Address addr = new Address(weAddress);
+        Address addr =
+            new Address(WeIdUtils.convertWeIdToAddress(args.getAuthorityIssuer().getWeId()));
         try {
-            reloadContract(args.getWeIdPrivateKey().getPrivateKey());
-            Future<TransactionReceipt> future = authorityIssuerController.addAuthorityIssuer(
-                addr,
-                DataTypetUtils.stringArrayToBytes32StaticArray(stringAttributes),
-                DataTypetUtils.longArrayToInt256StaticArray(longAttributes),
-                accValue
-            );
-            TransactionReceipt receipt = future.get(
+            TransactionReceipt receipt = sendAddAuthorityIssuer(args).get(
                 WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT,
                 TimeUnit.SECONDS
             );
-            List<AuthorityIssuerRetLogEventResponse> eventList =
-                AuthorityIssuerController.getAuthorityIssuerRetLogEvents(receipt);
-
-            AuthorityIssuerRetLogEventResponse event = eventList.get(0);
-            if (event != null) {
-                responseData = verifyAuthorityIssuerRelatedEvent(
-                    event,
-                    addr,
-                    WeIdConstant.ADD_AUTHORITY_ISSUER_OPCODE
-                );
-            } else {
-                logger.error(
-                    "register authority issuer failed due to transcation event decoding failure.");
-                return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
-            }
+            return resolveAuthorityIssuerEvent(
+                receipt, addr, WeIdConstant.ADD_AUTHORITY_ISSUER_OPCODE);
         } catch (TimeoutException e) {
             logger.error("register authority issuer failed due to system timeout. ", e);
             return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
@@ -160,7 +125,42 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
             logger.error("register authority issuer failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
-        return responseData;
+    }
+
+    /**
+     * Register a new Authority Issuer on Chain without blocking the caller.
+     *
+     * @param args the args
+     * @return the Boolean response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> registerAuthorityIssuerAsync(
+        RegisterAuthorityIssuerArgs args) {
+
+        ResponseData<Boolean> innerResponseData = checkRegisterAuthorityIssuerArgsFormat(args);
+        if (!innerResponseData.getResult()) {
+            return CompletableFuture.completedFuture(new ResponseData<>(
+                false, innerResponseData.getErrorCode(), innerResponseData.getErrorMessage()));
+        }
+
+        Address addr =
+            new Address(WeIdUtils.convertWeIdToAddress(args.getAuthorityIssuer().getWeId()));
+        return weIdService
+            .isWeIdExistAsync(args.getAuthorityIssuer().getWeId())
+            .thenCompose(isWeIdExist -> {
+                // Need an extra check for the existence of WeIdentity DID on chain.
+                if (!isWeIdExist.getResult()) {
+                    return CompletableFuture.completedFuture(
+                        new ResponseData<>(false, ErrorCode.WEID_INVALID));
+                }
+                return sendAddAuthorityIssuer(args)
+                    .thenApply(receipt -> resolveAuthorityIssuerEvent(
+                        receipt, addr, WeIdConstant.ADD_AUTHORITY_ISSUER_OPCODE));
+            })
+            .exceptionally(e -> {
+                logger.error("register authority issuer failed. ", e);
+                return new ResponseData<>(false, toErrorCode(e));
+            });
     }
 
     /**
@@ -171,7 +171,6 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
      */
     @Override
     public ResponseData<Boolean> removeAuthorityIssuer(RemoveAuthorityIssuerArgs args) {
-        ResponseData<Boolean> responseData = new ResponseData<Boolean>();
 
         ResponseData<Boolean> innerResponseData = checkRemoveAuthorityIssuerArgs(args);
         if (!innerResponseData.getResult()) {
@@ -182,28 +181,12 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
             );
         }
 
-        String weId = args.getWeId();
-        Address addr = new Address(WeIdUtils.convertWeIdToAddress(weId));
+        Address addr = new Address(WeIdUtils.convertWeIdToAddress(args.getWeId()));
         try {
-            reloadContract(args.getWeIdPrivateKey().getPrivateKey());
-            Future<TransactionReceipt> future = authorityIssuerController
-                .removeAuthorityIssuer(addr);
-            TransactionReceipt receipt =
-                future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-            List<AuthorityIssuerRetLogEventResponse> eventList =
-                AuthorityIssuerController.getAuthorityIssuerRetLogEvents(receipt);
-
-            AuthorityIssuerRetLogEventResponse event = eventList.get(0);
-            if (event != null) {
-                responseData = verifyAuthorityIssuerRelatedEvent(
-                    event,
-                    addr,
-                    WeIdConstant.REMOVE_AUTHORITY_ISSUER_OPCODE
-                );
-            } else {
-                logger.error("remove authority issuer failed, transcation event decoding failure.");
-                return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
-            }
+            TransactionReceipt receipt = sendRemoveAuthorityIssuer(args)
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            return resolveAuthorityIssuerEvent(
+                receipt, addr, WeIdConstant.REMOVE_AUTHORITY_ISSUER_OPCODE);
         } catch (TimeoutException e) {
             logger.error("remove authority issuer failed due to system timeout. ", e);
             return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
@@ -214,7 +197,38 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
             logger.error("remove authority issuer failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
-        return responseData;
+    }
+
+    /**
+     * Remove a new Authority Issuer on Chain without blocking the caller.
+     *
+     * @param args the args
+     * @return the Boolean response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> removeAuthorityIssuerAsync(
+        RemoveAuthorityIssuerArgs args) {
+
+        ResponseData<Boolean> innerResponseData = checkRemoveAuthorityIssuerArgs(args);
+        if (!innerResponseData.getResult()) {
+            return CompletableFuture.completedFuture(new ResponseData<>(
+                false, innerResponseData.getErrorCode(), innerResponseData.getErrorMessage()));
+        }
+
+        Address addr = new Address(WeIdUtils.convertWeIdToAddress(args.getWeId()));
+        try {
+            return sendRemoveAuthorityIssuer(args)
+                .thenApply(receipt -> resolveAuthorityIssuerEvent(
+                    receipt, addr, WeIdConstant.REMOVE_AUTHORITY_ISSUER_OPCODE))
+                .exceptionally(e -> {
+                    logger.error("remove authority issuer failed. ", e);
+                    return new ResponseData<>(false, toErrorCode(e));
+                });
+        } catch (Exception e) {
+            logger.error("remove authority issuer failed.", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR));
+        }
     }
 
     /**
@@ -225,7 +239,6 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
      */
     @Override
     public ResponseData<Boolean> isAuthorityIssuer(String weId) {
-        ResponseData<Boolean> responseData = new ResponseData<Boolean>();
 
         if (!WeIdUtils.isWeIdValid(weId)) {
             return new ResponseData<>(false, ErrorCode.WEID_INVALID);
@@ -233,18 +246,8 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
         Address addr = new Address(WeIdUtils.convertWeIdToAddress(weId));
         try {
             Future<Bool> future = authorityIssuerController.isAuthorityIssuer(addr);
-            Boolean result =
-                future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS).getValue();
-            responseData.setResult(result);
-            if (result) {
-                responseData.setErrorCode(ErrorCode.SUCCESS.getCode());
-                responseData.setErrorMessage(ErrorCode.SUCCESS.getCodeDesc());
-            } else {
-                responseData
-                    .setErrorCode(ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS.getCode());
-                responseData.setErrorMessage(
-                    ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS.getCodeDesc());
-            }
+            return toIsAuthorityIssuerResponse(
+                future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS));
         } catch (TimeoutException e) {
             logger.error("check authority issuer id failed due to system timeout. ", e);
             return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
@@ -255,7 +258,28 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
             logger.error("check authority issuer id failed.", e);
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
-        return responseData;
+    }
+
+    /**
+     * Check whether the given weId is an authority issuer without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return the Boolean response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> isAuthorityIssuerAsync(String weId) {
+
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.WEID_INVALID));
+        }
+        Address addr = new Address(WeIdUtils.convertWeIdToAddress(weId));
+        return toCompletableFuture(authorityIssuerController.isAuthorityIssuer(addr))
+            .thenApply(this::toIsAuthorityIssuerResponse)
+            .exceptionally(e -> {
+                logger.error("check authority issuer id failed. ", e);
+                return new ResponseData<>(false, toErrorCode(e));
+            });
     }
 
     /**
@@ -266,7 +290,6 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
      */
     @Override
     public ResponseData<AuthorityIssuer> queryAuthorityIssuerInfo(String weId) {
-        ResponseData<AuthorityIssuer> responseData = new ResponseData<AuthorityIssuer>();
 
         if (!WeIdUtils.isWeIdValid(weId)) {
             return new ResponseData<AuthorityIssuer>(null, ErrorCode.WEID_INVALID);
@@ -277,27 +300,7 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
                 authorityIssuerController
                     .getAuthorityIssuerInfoNonAccValue(addr)
                     .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-            if (rawResult == null) {
-                return new ResponseData<AuthorityIssuer>(null, ErrorCode.AUTHORITY_ISSUER_ERROR);
-            }
-
-            DynamicArray<Bytes32> bytes32Attributes = (DynamicArray<Bytes32>) rawResult.get(0);
-            DynamicArray<Int256> int256Attributes = (DynamicArray<Int256>) rawResult.get(1);
-
-            AuthorityIssuer result = new AuthorityIssuer();
-            result.setWeId(weId);
-            String name = extractNameFromBytes32Attributes(bytes32Attributes.getValue());
-            Long createDate = Long
-                .valueOf(int256Attributes.getValue().get(0).getValue().longValue());
-            if (StringUtils.isEmpty(name) && createDate.equals(new Long(0))) {
-                return new ResponseData<AuthorityIssuer>(
-                    null, ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS);
-            }
-            result.setName(name);
-            result.setCreated(createDate);
-            // Accumulator Value is unable to load due to Solidity 0.4.4 restrictions - left blank.
-            result.setAccValue("");
-            responseData.setResult(result);
+            return buildAuthorityIssuer(weId, rawResult);
         } catch (TimeoutException e) {
             logger.error("query authority issuer failed due to system timeout. ", e);
             return new ResponseData<AuthorityIssuer>(null, ErrorCode.TRANSACTION_TIMEOUT);
@@ -308,10 +311,147 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
             logger.error("query authority issuer failed.", e);
             return new ResponseData<AuthorityIssuer>(null, ErrorCode.AUTHORITY_ISSUER_ERROR);
         }
+    }
+
+    /**
+     * Query the authority issuer information given weId without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return the AuthorityIssuer response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<AuthorityIssuer>> queryAuthorityIssuerInfoAsync(
+        String weId) {
+
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<AuthorityIssuer>(null, ErrorCode.WEID_INVALID));
+        }
+        Address addr = new Address(WeIdUtils.convertWeIdToAddress(weId));
+        return toCompletableFuture(
+            authorityIssuerController.getAuthorityIssuerInfoNonAccValue(addr))
+            .thenApply(rawResult -> buildAuthorityIssuer(weId, rawResult))
+            .exceptionally(e -> {
+                logger.error("query authority issuer failed. ", e);
+                return new ResponseData<AuthorityIssuer>(null, toErrorCode(e));
+            });
+    }
+
+    /**
+     * Send the transaction adding an authority issuer, signed by the sender's private key. The
+     * shared authorityIssuerController is left untouched, so writes of different senders can run
+     * concurrently.
+     */
+    private CompletableFuture<TransactionReceipt> sendAddAuthorityIssuer(
+        RegisterAuthorityIssuerArgs args) {
+
+        AuthorityIssuer authorityIssuer = args.getAuthorityIssuer();
+        String weAddress = WeIdUtils.convertWeIdToAddress(authorityIssuer.getWeId());
+        String[] stringAttributes = loadNameToStringAttributes(authorityIssuer.getName());
+        long[] longAttributes = new long[16];
+        Long createDate = System.currentTimeMillis();
+        longAttributes[0] = createDate;
+        DynamicBytes accValue = new DynamicBytes(authorityIssuer.getAccValue().getBytes());
+        Function function = new Function(
+            "addAuthorityIssuer",
+            Arrays.<Type>asList(
+                new Address(weAddress),
+                DataTypetUtils.stringArrayToBytes32StaticArray(stringAttributes),
+                DataTypetUtils.longArrayToInt256StaticArray(longAttributes),
+                accValue),
+            Collections.<TypeReference<?>>emptyList());
+        return sendTransaction(
+            authorityIssuerControllerAddress,
+            args.getWeIdPrivateKey().getPrivateKey(),
+            function);
+    }
+
+    private CompletableFuture<TransactionReceipt> sendRemoveAuthorityIssuer(
+        RemoveAuthorityIssuerArgs args) {
+
+        Address addr = new Address(WeIdUtils.convertWeIdToAddress(args.getWeId()));
+        Function function = new Function(
+            "removeAuthorityIssuer",
+            Arrays.<Type>asList(addr),
+            Collections.<TypeReference<?>>emptyList());
+        return sendTransaction(
+            authorityIssuerControllerAddress,
+            args.getWeIdPrivateKey().getPrivateKey(),
+            function);
+    }
+
+    private ResponseData<Boolean> resolveAuthorityIssuerEvent(
+        TransactionReceipt receipt, Address addr, Integer opcode) {
+
+        List<AuthorityIssuerRetLogEventResponse> eventList =
+            AuthorityIssuerController.getAuthorityIssuerRetLogEvents(receipt);
+        if (eventList.isEmpty() || null == eventList.get(0)) {
+            logger.error("authority issuer operation :{} failed, transcation event decoding "
+                + "failure.", opcode);
+            return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_ERROR);
+        }
+        return verifyAuthorityIssuerRelatedEvent(eventList.get(0), addr, opcode);
+    }
+
+    private ResponseData<Boolean> toIsAuthorityIssuerResponse(Bool isAuthorityIssuer) {
+
+        ResponseData<Boolean> responseData = new ResponseData<Boolean>();
+        Boolean result = isAuthorityIssuer.getValue();
+        responseData.setResult(result);
+        if (result) {
+            responseData.setErrorCode(ErrorCode.SUCCESS.getCode());
+            responseData.setErrorMessage(ErrorCode.SUCCESS.getCodeDesc());
+        } else {
+            responseData
+                .setErrorCode(ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS.getCode());
+            responseData.setErrorMessage(
+                ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS.getCodeDesc());
+        }
         return responseData;
     }
 
+    @SuppressWarnings("unchecked")
+    private ResponseData<AuthorityIssuer> buildAuthorityIssuer(String weId, List<Type> rawResult) {
+
+        if (rawResult == null) {
+            return new ResponseData<AuthorityIssuer>(null, ErrorCode.AUTHORITY_ISSUER_ERROR);
+        }
+
+        DynamicArray<Bytes32> bytes32Attributes = (DynamicArray<Bytes32>) rawResult.get(0);
+        DynamicArray<Int256> int256Attributes = (DynamicArray<Int256>) rawResult.get(1);
+
+        AuthorityIssuer result = new AuthorityIssuer();
+        result.setWeId(weId);
+        String name = extractNameFromBytes32Attributes(bytes32Attributes.getValue());
+        Long createDate = Long
+            .valueOf(int256Attributes.getValue().get(0).getValue().longValue());
+        if (StringUtils.isEmpty(name) && createDate.equals(new Long(0))) {
+            return new ResponseData<AuthorityIssuer>(
+                null, ErrorCode.AUTHORITY_ISSUER_CONTRACT_ERROR_NOT_EXISTS);
+        }
+        result.setName(name);
+        result.setCreated(createDate);
+        // Accumulator Value is unable to load due to Solidity 0.4.4 restrictions - left blank.
+        result.setAccValue("");
+        return new ResponseData<>(result, ErrorCode.SUCCESS);
+    }
+
     private ResponseData<Boolean> checkRegisterAuthorityIssuerArgs(
+        RegisterAuthorityIssuerArgs args) {
+        ResponseData<Boolean> responseData = checkRegisterAuthorityIssuerArgsFormat(args);
+        if (!responseData.getResult()) {
+            return responseData;
+        }
+        // Need an extra check for the existence of WeIdentity DID on chain, in Register Case.
+        ResponseData<Boolean> innerResponseData = weIdService
+            .isWeIdExist(args.getAuthorityIssuer().getWeId());
+        if (!innerResponseData.getResult()) {
+            return new ResponseData<>(false, ErrorCode.WEID_INVALID);
+        }
+        return responseData;
+    }
+
+    private ResponseData<Boolean> checkRegisterAuthorityIssuerArgsFormat(
         RegisterAuthorityIssuerArgs args) {
         ResponseData<Boolean> responseData = new ResponseData<Boolean>();
         if (args == null) {
@@ -332,13 +472,6 @@ public class AuthorityIssuerServiceImpl extends BaseService implements Authority
             || StringUtils.isEmpty(args.getWeIdPrivateKey().getPrivateKey())) {
             return new ResponseData<>(false, ErrorCode.AUTHORITY_ISSUER_PRIVATE_KEY_ILLEGAL);
         }
-        // Need an extra check for the existence of WeIdentity DID on chain, in Register Case.
-        ResponseData<Boolean> innerResponseData = weIdService
-            .isWeIdExist(args.getAuthorityIssuer().getWeId());
-        if (!innerResponseData.getResult()) {
-            return new ResponseData<>(false, ErrorCode.WEID_INVALID);
-        }
-
         responseData.setResult(true);
         return responseData;
     }
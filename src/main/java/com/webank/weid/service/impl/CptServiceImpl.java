@@ -20,15 +20,20 @@
 package com.webank.weid.service.impl;
 
 import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.abi.TypeReference;
 import org.bcos.web3j.abi.datatypes.Address;
 import org.bcos.web3j.abi.datatypes.DynamicArray;
+import org.bcos.web3j.abi.datatypes.Function;
 import org.bcos.web3j.abi.datatypes.StaticArray;
 import org.bcos.web3j.abi.datatypes.Type;
 import org.bcos.web3j.abi.datatypes.generated.Bytes32;
@@ -38,10 +43,13 @@ import org.bcos.web3j.abi.datatypes.generated.Uint8;
 import org.bcos.web3j.crypto.Keys;
 import org.bcos.web3j.crypto.Sign;
 import org.bcos.web3j.crypto.Sign.SignatureData;
+import org.bcos.web3j.protocol.core.DefaultBlockParameterName;
 import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import rx.Observable;
+import rx.Subscription;
 
 import com.google.common.base.Splitter;
 import com.webank.weid.config.ContractConfig;
@@ -59,6 +67,7 @@ import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.protocol.response.RsvSignature;
 import com.webank.weid.rpc.CptService;
 import com.webank.weid.service.BaseService;
+import com.webank.weid.service.cache.CptCache;
 import com.webank.weid.util.DataTypetUtils;
 import com.webank.weid.util.JsonSchemaValidatorUtils;
 import com.webank.weid.util.SignatureUtils;
@@ -77,6 +86,21 @@ public class CptServiceImpl extends BaseService implements CptService {
     private static CptController cptController;
     private static String cptControllerAddress;
 
+    private static final CptCache cptCache = new CptCache();
+
+    /**
+     * The subscription to the CPT register and update events, the cache is bypassed while it
+     * is not active.
+     */
+    private static Subscription cptChangeSubscription;
+
+    /**
+     * Whether cptChangeSubscription is active, read without the lock by every cached query.
+     */
+    private static volatile boolean cptChangesWatched;
+
+    private static volatile long cptWatchFailedAt;
+
     /**
      * Instantiates a new cpt service impl.
      */
@@ -91,11 +115,6 @@ public class CptServiceImpl extends BaseService implements CptService {
             CptController.class);
     }
 
-    private static void reloadContract(String privateKey) {
-        cptController =
-            (CptController) reloadContract(cptControllerAddress, privateKey, CptController.class);
-    }
-
     /**
      * This is used to register a new CPT to the blockchain.
      *
@@ -111,63 +130,9 @@ public class CptServiceImpl extends BaseService implements CptService {
                 return responseData;
             }
 
-            Address publisher = new Address(WeIdUtils.convertWeIdToAddress(args.getCptPublisher()));
-
-            long[] longArray = new long[WeIdConstant.LONG_ARRAY_LENGTH];
-            long created = System.currentTimeMillis();
-            longArray[1] = created;
-            StaticArray<Int256> intArray = DataTypetUtils.longArrayToInt256StaticArray(longArray);
-
-            String[] stringArray = new String[WeIdConstant.STRING_ARRAY_LENGTH];
-            StaticArray<Bytes32> bytes32Array = DataTypetUtils.stringArrayToBytes32StaticArray(
-                stringArray
-            );
-
-            List<String> stringList = Splitter
-                .fixedLength(WeIdConstant.BYTES32_FIXED_LENGTH)
-                .splitToList(args.getCptJsonSchema());
-            String[] jsonSchemaArray = new String[WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH];
-            for (int i = 0; i < stringList.size(); i++) {
-                jsonSchemaArray[i] = stringList.get(i);
-            }
-            StaticArray<Bytes32> jsonSchema =
-                DataTypetUtils.stringArrayToBytes32StaticArray(jsonSchemaArray);
-
-            RsvSignature rsvSignature =
-                sign(args.getCptPublisher(), args.getCptJsonSchema(),
-                    args.getCptPublisherPrivateKey());
-
-            reloadContract(args.getCptPublisherPrivateKey().getPrivateKey());
-            TransactionReceipt transactionReceipt = cptController.registerCpt(
-                publisher,
-                intArray,
-                bytes32Array,
-                jsonSchema,
-                rsvSignature.getV(),
-                rsvSignature.getR(),
-                rsvSignature.getS()
-            ).get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-
-            List<RegisterCptRetLogEventResponse> event = CptController.getRegisterCptRetLogEvents(
-                transactionReceipt
-            );
-            if (CollectionUtils.isNotEmpty(event)) {
-                if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
-                    == ErrorCode.CPT_ID_AUTHORITY_ISSUER_EXCEED_MAX.getCode()) {
-                    responseData = new ResponseData<>(null,
-                        ErrorCode.CPT_ID_AUTHORITY_ISSUER_EXCEED_MAX);
-                } else if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
-                    == ErrorCode.CPT_PUBLISHER_NOT_EXIST.getCode()) {
-                    responseData = new ResponseData<>(null, ErrorCode.CPT_PUBLISHER_NOT_EXIST);
-                } else {
-                    CptBaseInfo result = new CptBaseInfo();
-                    result.setCptId(DataTypetUtils.uint256ToInt(event.get(0).cptId));
-                    result.setCptVersion(DataTypetUtils.int256ToInt(event.get(0).cptVersion));
-                    responseData.setResult(result);
-                }
-            } else {
-                responseData = new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
-            }
+            TransactionReceipt transactionReceipt = sendRegisterCpt(args)
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            responseData = resolveRegisterCptEvent(transactionReceipt);
         } catch (InterruptedException | ExecutionException e) {
             responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
             logger.error(
@@ -201,56 +166,25 @@ public class CptServiceImpl extends BaseService implements CptService {
                 return responseData;
             }
 
-            typeList = cptController.queryCpt(DataTypetUtils.intToUint256(cptId)).get();
-
-            if (typeList != null) {
-                if (WeIdConstant.EMPTY_ADDRESS.equals(((Address) typeList.get(0)).toString())) {
-                    responseData = new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
-                    logger.error("Query cpt id : {} does not exist.", cptId);
-                    return responseData;
-                }
-                Cpt cpt = new Cpt();
-                cpt.setCptId(cptId);
-
-                cpt.setCptPublisher(
-                    WeIdUtils.convertAddressToWeId(((Address) typeList.get(0)).toString()));
-
-                long[] longArray = DataTypetUtils.int256DynamicArrayToLongArray(
-                    (DynamicArray<Int256>) typeList.get(1)
-                );
-                cpt.setCptVersion((int) longArray[0]);
-                cpt.setCreated(longArray[1]);
-                cpt.setUpdated(longArray[2]);
-
-                String[] jsonSchemaArray =
-                    DataTypetUtils.bytes32DynamicArrayToStringArrayWithoutTrim(
-                        (DynamicArray<Bytes32>) typeList.get(3)
-                    );
-                String jsonSchema = StringUtils.EMPTY;
-                for (int i = 0; i < jsonSchemaArray.length; i++) {
-                    jsonSchema = jsonSchema + jsonSchemaArray[i];
-                }
-                cpt.setCptJsonSchema(jsonSchema.trim());
-
-                int v = DataTypetUtils.uint8ToInt((Uint8) typeList.get(4));
-                byte[] r = DataTypetUtils.bytes32ToBytesArray((Bytes32) typeList.get(5));
-                byte[] s = DataTypetUtils.bytes32ToBytesArray((Bytes32) typeList.get(6));
-                Sign.SignatureData signatureData = SignatureUtils
-                    .rawSignatureDeserialization(v, r, s);
-                String cptSignature =
-                    new String(
-                        SignatureUtils.base64Encode(
-                            SignatureUtils.simpleSignatureSerialization(signatureData)));
-                cpt.setCptSignature(cptSignature);
-
-                responseData.setResult(cpt);
+            ResponseData<Cpt> cached = getCachedCpt(cptId);
+            if (null != cached) {
+                return cached;
             }
+            long generation = cptCache.getGeneration();
+            typeList = cptController.queryCpt(DataTypetUtils.intToUint256(cptId))
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+
+            responseData = buildCpt(cptId, typeList);
+            cptCache.put(cptId, responseData, generation);
         } catch (InterruptedException | ExecutionException e) {
             responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
             logger.error(
                 "[CptServiceImpl] query cpt failed due to transaction execution error. ",
                 e
             );
+        } catch (TimeoutException e) {
+            responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT);
+            logger.error("[CptServiceImpl] query cpt failed due to transaction timeout. ", e);
         } catch (Exception e) {
             responseData = new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
             logger.error("[CptServiceImpl] query cpt failed due to unknown error. ", e);
@@ -274,80 +208,385 @@ public class CptServiceImpl extends BaseService implements CptService {
                 return responseData;
             }
 
-            Uint256 cptId = DataTypetUtils.intToUint256(args.getCptId());
+            TransactionReceipt transactionReceipt = sendUpdateCpt(args)
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            responseData = resolveUpdateCptEvent(args.getCptId(), transactionReceipt);
+        } catch (InterruptedException | ExecutionException e) {
+            responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
+            logger.error(
+                "[CptServiceImpl] update cpt failed due to transaction execution error. ",
+                e
+            );
+        } catch (TimeoutException e) {
+            responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT);
+            logger.error("[CptServiceImpl] update cpt failed due to transaction timeout. ", e);
+        } catch (Exception e) {
+            responseData = new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
+            logger.error("[CptServiceImpl] update cpt failed due to unkown error. ", e);
+        }
+
+        return responseData;
+    }
 
-            Address publisher = new Address(WeIdUtils.convertWeIdToAddress(args.getCptPublisher()));
+    /**
+     * Register a new CPT to the blockchain without blocking the caller.
+     *
+     * @param args the args
+     * @return the response data
+     */
+    public CompletableFuture<ResponseData<CptBaseInfo>> registerCptAsync(RegisterCptArgs args) {
 
-            long[] longArray = new long[WeIdConstant.LONG_ARRAY_LENGTH];
-            long updated = System.currentTimeMillis();
-            longArray[2] = updated;
-            StaticArray<Int256> intArray = DataTypetUtils.longArrayToInt256StaticArray(longArray);
+        try {
+            ResponseData<CptBaseInfo> responseData =
+                validateRegisterCptArgs(args, new ResponseData<CptBaseInfo>());
+            if (responseData.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return CompletableFuture.completedFuture(responseData);
+            }
+            return sendRegisterCpt(args)
+                .thenApply(this::resolveRegisterCptEvent)
+                .exceptionally(e -> {
+                    logger.error("[CptServiceImpl] register cpt failed. ", e);
+                    return new ResponseData<>(null, toErrorCode(e));
+                });
+        } catch (Exception e) {
+            logger.error("[CptServiceImpl] register cpt failed due to unknown error. ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(null, ErrorCode.UNKNOW_ERROR));
+        }
+    }
 
-            String[] stringArray = new String[WeIdConstant.STRING_ARRAY_LENGTH];
-            StaticArray<Bytes32> bytes32Array =
-                DataTypetUtils.stringArrayToBytes32StaticArray(stringArray);
+    /**
+     * Query the latest CPT version without blocking the caller.
+     *
+     * @param cptId the cpt id
+     * @return the response data
+     */
+    public CompletableFuture<ResponseData<Cpt>> queryCptAsync(Integer cptId) {
 
-            List<String> stringList = Splitter
-                .fixedLength(WeIdConstant.BYTES32_FIXED_LENGTH)
-                .splitToList(args.getCptJsonSchema());
-            String[] jsonSchemaArray = new String[WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH];
-            for (int i = 0; i < stringList.size(); i++) {
-                jsonSchemaArray[i] = stringList.get(i);
+        if (cptId == null || cptId < 0) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT));
+        }
+        ResponseData<Cpt> cached = getCachedCpt(cptId);
+        if (null != cached) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long generation = cptCache.getGeneration();
+        return toCompletableFuture(cptController.queryCpt(DataTypetUtils.intToUint256(cptId)))
+            .thenApply(typeList -> {
+                ResponseData<Cpt> responseData = buildCpt(cptId, typeList);
+                cptCache.put(cptId, responseData, generation);
+                return responseData;
+            })
+            .exceptionally(e -> {
+                logger.error("[CptServiceImpl] query cpt failed. ", e);
+                return new ResponseData<>(null, toErrorCode(e));
+            });
+    }
+
+    /**
+     * Update a CPT data which has been register without blocking the caller.
+     *
+     * @param args the args
+     * @return the response data
+     */
+    public CompletableFuture<ResponseData<CptBaseInfo>> updateCptAsync(UpdateCptArgs args) {
+
+        try {
+            ResponseData<CptBaseInfo> responseData =
+                validateUpdateCptArgs(args, new ResponseData<CptBaseInfo>());
+            if (responseData.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                return CompletableFuture.completedFuture(responseData);
             }
-            StaticArray<Bytes32> jsonSchema = DataTypetUtils.stringArrayToBytes32StaticArray(
-                jsonSchemaArray
-            );
+            return sendUpdateCpt(args)
+                .thenApply(receipt -> resolveUpdateCptEvent(args.getCptId(), receipt))
+                .exceptionally(e -> {
+                    logger.error("[CptServiceImpl] update cpt failed. ", e);
+                    return new ResponseData<>(null, toErrorCode(e));
+                });
+        } catch (Exception e) {
+            logger.error("[CptServiceImpl] update cpt failed due to unknown error. ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(null, ErrorCode.UNKNOW_ERROR));
+        }
+    }
 
-            RsvSignature rsvSignature = sign(
-                args.getCptPublisher(),
-                args.getCptJsonSchema(),
-                args.getCptPublisherPrivateKey()
-            );
+    /**
+     * Get the cached query result of a CPT, null if it is not cached or the CPT changes are not
+     * watched. A change made by another SDK instance is seen once the event filter is polled.
+     */
+    private static ResponseData<Cpt> getCachedCpt(Integer cptId) {
 
-            reloadContract(args.getCptPublisherPrivateKey().getPrivateKey());
-            TransactionReceipt transactionReceipt = cptController.updateCpt(
-                cptId,
+        return watchCptChanges() ? cptCache.get(cptId) : null;
+    }
+
+    /**
+     * Subscribe to the CPT register and update events once, dropping the cached CPTs they
+     * change. After a failure the subscription is retried at most once per retry interval. The
+     * lock is only taken to start the subscription.
+     *
+     * @return whether the CPT changes are watched
+     */
+    private static boolean watchCptChanges() {
+
+        if (cptChangesWatched) {
+            return true;
+        }
+        if (System.currentTimeMillis() - cptWatchFailedAt
+            < WeIdConstant.CPT_WATCH_RETRY_INTERVAL) {
+            return false;
+        }
+        return startWatchingCptChanges();
+    }
+
+    private static synchronized boolean startWatchingCptChanges() {
+
+        if (cptChangesWatched) {
+            return true;
+        }
+        if (System.currentTimeMillis() - cptWatchFailedAt
+            < WeIdConstant.CPT_WATCH_RETRY_INTERVAL) {
+            return false;
+        }
+        // changes made while not watching are unknown
+        cptCache.invalidateAll();
+        try {
+            cptChangeSubscription = Observable
+                .merge(
+                    cptController
+                        .registerCptRetLogEventObservable(
+                            DefaultBlockParameterName.LATEST, DefaultBlockParameterName.LATEST)
+                        .map(event -> toCptBaseInfo(event.cptId, event.cptVersion)),
+                    cptController
+                        .updateCptRetLogEventObservable(
+                            DefaultBlockParameterName.LATEST, DefaultBlockParameterName.LATEST)
+                        .map(event -> toCptBaseInfo(event.cptId, event.cptVersion)))
+                .subscribe(
+                    info -> cptCache.onCptChanged(info.getCptId(), info.getCptVersion()),
+                    CptServiceImpl::onWatchCptChangesFailed,
+                    () -> onWatchCptChangesFailed(
+                        new IllegalStateException("cpt change events completed.")));
+        } catch (Exception e) {
+            onWatchCptChangesFailed(e);
+            return false;
+        }
+        cptChangesWatched = !cptChangeSubscription.isUnsubscribed();
+        return cptChangesWatched;
+    }
+
+    private static synchronized void onWatchCptChangesFailed(Throwable e) {
+
+        logger.error("[CptServiceImpl] watch cpt changes failed, cpt cache bypassed. ", e);
+        cptChangesWatched = false;
+        cptWatchFailedAt = System.currentTimeMillis();
+        cptCache.invalidateAll();
+    }
+
+    private static CptBaseInfo toCptBaseInfo(Uint256 cptId, Int256 cptVersion) {
+
+        CptBaseInfo info = new CptBaseInfo();
+        info.setCptId(DataTypetUtils.uint256ToInt(cptId));
+        info.setCptVersion(DataTypetUtils.int256ToInt(cptVersion));
+        return info;
+    }
+
+    /**
+     * Send the transaction registering a cpt, signed by the cpt publisher's private key. The
+     * shared cptController is left untouched, so writes of different publishers can run
+     * concurrently.
+     */
+    private CompletableFuture<TransactionReceipt> sendRegisterCpt(RegisterCptArgs args)
+        throws Exception {
+
+        Address publisher = new Address(WeIdUtils.convertWeIdToAddress(args.getCptPublisher()));
+
+        long[] longArray = new long[WeIdConstant.LONG_ARRAY_LENGTH];
+        long created = System.currentTimeMillis();
+        longArray[1] = created;
+        StaticArray<Int256> intArray = DataTypetUtils.longArrayToInt256StaticArray(longArray);
+
+        String[] stringArray = new String[WeIdConstant.STRING_ARRAY_LENGTH];
+        StaticArray<Bytes32> bytes32Array = DataTypetUtils.stringArrayToBytes32StaticArray(
+            stringArray
+        );
+
+        List<String> stringList = Splitter
+            .fixedLength(WeIdConstant.BYTES32_FIXED_LENGTH)
+            .splitToList(args.getCptJsonSchema());
+        String[] jsonSchemaArray = new String[WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH];
+        for (int i = 0; i < stringList.size(); i++) {
+            jsonSchemaArray[i] = stringList.get(i);
+        }
+        StaticArray<Bytes32> jsonSchema =
+            DataTypetUtils.stringArrayToBytes32StaticArray(jsonSchemaArray);
+
+        RsvSignature rsvSignature =
+            sign(args.getCptPublisher(), args.getCptJsonSchema(),
+                args.getCptPublisherPrivateKey());
+
+        Function function = new Function(
+            "registerCpt",
+            Arrays.<Type>asList(
                 publisher,
                 intArray,
                 bytes32Array,
                 jsonSchema,
                 rsvSignature.getV(),
                 rsvSignature.getR(),
-                rsvSignature.getS()
-            ).get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+                rsvSignature.getS()),
+            Collections.<TypeReference<?>>emptyList());
+        return sendTransaction(
+            cptControllerAddress,
+            args.getCptPublisherPrivateKey().getPrivateKey(),
+            function);
+    }
 
-            List<UpdateCptRetLogEventResponse> event = CptController.getUpdateCptRetLogEvents(
-                transactionReceipt
-            );
-            if (CollectionUtils.isNotEmpty(event)) {
-                if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
-                    == ErrorCode.CPT_NOT_EXISTS.getCode()) {
-                    responseData = new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
-                    logger.error("Update cpt id : {} does not exist.", args.getCptId());
-                } else if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
-                    == ErrorCode.CPT_PUBLISHER_NOT_EXIST.getCode()) {
-                    responseData = new ResponseData<>(null, ErrorCode.CPT_PUBLISHER_NOT_EXIST);
-                } else {
-                    CptBaseInfo result = new CptBaseInfo();
-                    result.setCptId(DataTypetUtils.uint256ToInt(event.get(0).cptId));
-                    result.setCptVersion(DataTypetUtils.int256ToInt(event.get(0).cptVersion));
-                    responseData.setResult(result);
-                }
+    private ResponseData<CptBaseInfo> resolveRegisterCptEvent(
+        TransactionReceipt transactionReceipt) {
+
+        ResponseData<CptBaseInfo> responseData;
+        List<RegisterCptRetLogEventResponse> event = CptController.getRegisterCptRetLogEvents(
+            transactionReceipt
+        );
+        if (CollectionUtils.isNotEmpty(event)) {
+            if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
+                == ErrorCode.CPT_ID_AUTHORITY_ISSUER_EXCEED_MAX.getCode()) {
+                responseData = new ResponseData<>(null,
+                    ErrorCode.CPT_ID_AUTHORITY_ISSUER_EXCEED_MAX);
+            } else if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
+                == ErrorCode.CPT_PUBLISHER_NOT_EXIST.getCode()) {
+                responseData = new ResponseData<>(null, ErrorCode.CPT_PUBLISHER_NOT_EXIST);
+            } else {
+                CptBaseInfo result = toCptBaseInfo(event.get(0).cptId, event.get(0).cptVersion);
+                cptCache.onCptChanged(result.getCptId(), result.getCptVersion());
+                responseData = new ResponseData<>(result, ErrorCode.SUCCESS);
             }
-        } catch (InterruptedException | ExecutionException e) {
-            responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
-            logger.error(
-                "[CptServiceImpl] update cpt failed due to transaction execution error. ",
-                e
-            );
-        } catch (TimeoutException e) {
-            responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT);
-            logger.error("[CptServiceImpl] update cpt failed due to transaction timeout. ", e);
-        } catch (Exception e) {
+        } else {
             responseData = new ResponseData<>(null, ErrorCode.UNKNOW_ERROR);
-            logger.error("[CptServiceImpl] update cpt failed due to unkown error. ", e);
         }
+        return responseData;
+    }
+
+    private CompletableFuture<TransactionReceipt> sendUpdateCpt(UpdateCptArgs args)
+        throws Exception {
+
+        Uint256 cptId = DataTypetUtils.intToUint256(args.getCptId());
+
+        Address publisher = new Address(WeIdUtils.convertWeIdToAddress(args.getCptPublisher()));
+
+        long[] longArray = new long[WeIdConstant.LONG_ARRAY_LENGTH];
+        long updated = System.currentTimeMillis();
+        longArray[2] = updated;
+        StaticArray<Int256> intArray = DataTypetUtils.longArrayToInt256StaticArray(longArray);
+
+        String[] stringArray = new String[WeIdConstant.STRING_ARRAY_LENGTH];
+        StaticArray<Bytes32> bytes32Array =
+            DataTypetUtils.stringArrayToBytes32StaticArray(stringArray);
+
+        List<String> stringList = Splitter
+            .fixedLength(WeIdConstant.BYTES32_FIXED_LENGTH)
+            .splitToList(args.getCptJsonSchema());
+        String[] jsonSchemaArray = new String[WeIdConstant.JSON_SCHEMA_ARRAY_LENGTH];
+        for (int i = 0; i < stringList.size(); i++) {
+            jsonSchemaArray[i] = stringList.get(i);
+        }
+        StaticArray<Bytes32> jsonSchema = DataTypetUtils.stringArrayToBytes32StaticArray(
+            jsonSchemaArray
+        );
+
+        RsvSignature rsvSignature = sign(
+            args.getCptPublisher(),
+            args.getCptJsonSchema(),
+            args.getCptPublisherPrivateKey()
+        );
+
+        Function function = new Function(
+            "updateCpt",
+            Arrays.<Type>asList(
+                cptId,
+                publisher,
+                intArray,
+                bytes32Array,
+                jsonSchema,
+                rsvSignature.getV(),
+                rsvSignature.getR(),
+                rsvSignature.getS()),
+            Collections.<TypeReference<?>>emptyList());
+        return sendTransaction(
+            cptControllerAddress,
+            args.getCptPublisherPrivateKey().getPrivateKey(),
+            function);
+    }
+
+    private ResponseData<CptBaseInfo> resolveUpdateCptEvent(
+        Integer cptId, TransactionReceipt transactionReceipt) {
+
+        ResponseData<CptBaseInfo> responseData = new ResponseData<>();
+        List<UpdateCptRetLogEventResponse> event = CptController.getUpdateCptRetLogEvents(
+            transactionReceipt
+        );
+        if (CollectionUtils.isNotEmpty(event)) {
+            if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
+                == ErrorCode.CPT_NOT_EXISTS.getCode()) {
+                responseData = new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
+                logger.error("Update cpt id : {} does not exist.", cptId);
+            } else if (DataTypetUtils.uint256ToInt(event.get(0).retCode)
+                == ErrorCode.CPT_PUBLISHER_NOT_EXIST.getCode()) {
+                responseData = new ResponseData<>(null, ErrorCode.CPT_PUBLISHER_NOT_EXIST);
+            } else {
+                CptBaseInfo result = toCptBaseInfo(event.get(0).cptId, event.get(0).cptVersion);
+                cptCache.onCptChanged(result.getCptId(), result.getCptVersion());
+                responseData = new ResponseData<>(result, ErrorCode.SUCCESS);
+            }
+        }
+        return responseData;
+    }
+
+    private ResponseData<Cpt> buildCpt(Integer cptId, List<Type> typeList) {
 
+        ResponseData<Cpt> responseData = new ResponseData<Cpt>();
+        if (typeList != null) {
+            if (WeIdConstant.EMPTY_ADDRESS.equals(((Address) typeList.get(0)).toString())) {
+                responseData = new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS);
+                logger.error("Query cpt id : {} does not exist.", cptId);
+                return responseData;
+            }
+            Cpt cpt = new Cpt();
+            cpt.setCptId(cptId);
+    
+            cpt.setCptPublisher(
+                WeIdUtils.convertAddressToWeId(((Address) typeList.get(0)).toString()));
+    
+            long[] longArray = DataTypetUtils.int256DynamicArrayToLongArray(
+                (DynamicArray<Int256>) typeList.get(1)
+            );
+            cpt.setCptVersion((int) longArray[0]);
+            cpt.setCreated(longArray[1]);
+            cpt.setUpdated(longArray[2]);
+    
+            String[] jsonSchemaArray =
+                DataTypetUtils.bytes32DynamicArrayToStringArrayWithoutTrim(
+                    (DynamicArray<Bytes32>) typeList.get(3)
+                );
+            String jsonSchema = StringUtils.EMPTY;
+            for (int i = 0; i < jsonSchemaArray.length; i++) {
+                jsonSchema = jsonSchema + jsonSchemaArray[i];
+            }
+            cpt.setCptJsonSchema(jsonSchema.trim());
+    
+            int v = DataTypetUtils.uint8ToInt((Uint8) typeList.get(4));
+            byte[] r = DataTypetUtils.bytes32ToBytesArray((Bytes32) typeList.get(5));
+            byte[] s = DataTypetUtils.bytes32ToBytesArray((Bytes32) typeList.get(6));
+            Sign.SignatureData signatureData = SignatureUtils
+                .rawSignatureDeserialization(v, r, s);
+            String cptSignature =
+                new String(
+                    SignatureUtils.base64Encode(
+                        SignatureUtils.simpleSignatureSerialization(signatureData)));
+            cpt.setCptSignature(cptSignature);
+    
+            responseData.setResult(cpt);
+        }
         return responseData;
     }
 
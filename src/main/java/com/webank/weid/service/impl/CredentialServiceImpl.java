@@ -21,18 +21,36 @@ package com.webank.weid.service.impl;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.crypto.ECKeyPair;
 import org.bcos.web3j.crypto.Sign;
+import org.bouncycastle.util.encoders.Hex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.crypto.MerkleTree;
+import com.webank.weid.crypto.PrivateKeySigner;
 import com.webank.weid.protocol.base.AuthenticationProperty;
 import com.webank.weid.protocol.base.Cpt;
 import com.webank.weid.protocol.base.Credential;
@@ -60,6 +78,20 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
 
     private static final Logger logger = LoggerFactory.getLogger(CredentialServiceImpl.class);
 
+    /**
+     * The length of a serialized signature, followed by the inclusion proof in the signature
+     * of a credential issued in the Merkle batch mode.
+     */
+    private static final int SIGNATURE_LENGTH = 65;
+
+    /**
+     * The verification results of the Merkle root signatures, by root, signature and public
+     * key, so the credentials of a batch after the first are verified by hashing only.
+     */
+    private static final Cache<String, Boolean> merkleRootResults = CacheBuilder.newBuilder()
+        .maximumSize(WeIdConstant.MERKLE_ROOT_CACHE_SIZE)
+        .build();
+
     @Autowired
     private CptService cptService;
 
@@ -85,22 +117,12 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
                     null, innerResponse.getErrorCode(), innerResponse.getErrorMessage());
             }
 
-            Credential result = new Credential();
-            String context = CredentialUtils.getDefaultCredentialContext();
-            result.setContext(context);
-            result.setId(UUID.randomUUID().toString());
-            result.setCptId(args.getCptId());
-            result.setIssuer(args.getIssuer());
-            result.setIssuranceDate(new Long(System.currentTimeMillis()));
-            result.setExpirationDate(new Long(args.getExpirationDate()));
-            result.setClaim(args.getClaim());
-            String rawData = CredentialUtils.getCredentialFields(result);
+            Credential result =
+                buildCredential(args, CredentialUtils.getDefaultCredentialContext());
+            byte[] rawDataHash = CredentialUtils.getCredentialFieldsHash(result);
             String privateKey = args.getWeIdPrivateKey().getPrivateKey();
-            Sign.SignatureData sigData = SignatureUtils.signMessage(rawData, privateKey);
-            result.setSignature(
-                new String(
-                    SignatureUtils
-                        .base64Encode(SignatureUtils.simpleSignatureSerialization(sigData))));
+            Sign.SignatureData sigData = SignatureUtils.signMessageHash(rawDataHash, privateKey);
+            setSignature(result, sigData);
             responseData.setResult(result);
         } catch (Exception e) {
             logger.error("Generate Credential failed due to system error. ", e);
@@ -109,6 +131,192 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
         return responseData;
     }
 
+    /**
+     * Generate a batch of credentials. Each issuer private key gets one PrivateKeySigner, and
+     * the credentials are signed in parallel. Each credential is signed as createCredential
+     * signs it.
+     *
+     * @param args the args of each credential
+     * @return the Credential response data of each credential, in the order of the input
+     */
+    @Override
+    public ResponseData<List<ResponseData<Credential>>> createCredentials(
+        List<CreateCredentialArgs> args) {
+
+        if (args == null) {
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        try {
+            List<ResponseData<Boolean>> formatResults = new ArrayList<>(args.size());
+            Set<String> privateKeys = new HashSet<>();
+            for (CreateCredentialArgs arg : args) {
+                ResponseData<Boolean> formatResult = checkCreateCredentialArgsValidity(arg, true);
+                formatResults.add(formatResult);
+                if (formatResult.getResult()) {
+                    privateKeys.add(arg.getWeIdPrivateKey().getPrivateKey());
+                }
+            }
+            Map<String, PrivateKeySigner> signers = new ConcurrentHashMap<>();
+            try {
+                privateKeys.parallelStream().forEach(privateKey -> {
+                    try {
+                        signers.put(privateKey, new PrivateKeySigner(privateKey));
+                    } catch (IllegalArgumentException e) {
+                        logger.error("Generate Credentials failed due to illegal private key. ", e);
+                    }
+                });
+                return new ResponseData<>(signCredentials(args, formatResults, signers),
+                    ErrorCode.SUCCESS);
+            } finally {
+                signers.values().forEach(PrivateKeySigner::close);
+            }
+        } catch (Exception e) {
+            logger.error("Generate Credentials failed due to system error. ", e);
+            return new ResponseData<>(null, ErrorCode.CREDENTIAL_ERROR);
+        }
+    }
+
+    /**
+     * Sign the credentials of the valid args in parallel, each with the signer of its issuer
+     * private key.
+     */
+    private static List<ResponseData<Credential>> signCredentials(
+        List<CreateCredentialArgs> args,
+        List<ResponseData<Boolean>> formatResults,
+        Map<String, PrivateKeySigner> signers) {
+
+        return IntStream
+            .range(0, args.size())
+            .parallel()
+            .mapToObj(i -> {
+                ResponseData<Boolean> formatResult = formatResults.get(i);
+                if (!formatResult.getResult()) {
+                    logger.error("Generate Credential input format error!");
+                    return new ResponseData<Credential>(
+                        null, formatResult.getErrorCode(), formatResult.getErrorMessage());
+                }
+                CreateCredentialArgs arg = args.get(i);
+                PrivateKeySigner signer = signers.get(arg.getWeIdPrivateKey().getPrivateKey());
+                if (null == signer) {
+                    return new ResponseData<Credential>(null, ErrorCode.CREDENTIAL_ERROR);
+                }
+                try {
+                    Credential result =
+                        buildCredential(arg, CredentialUtils.getDefaultCredentialContext());
+                    byte[] rawDataHash = CredentialUtils.getCredentialFieldsHash(result);
+                    setSignature(result, signer.signMessageHash(rawDataHash));
+                    return new ResponseData<>(result, ErrorCode.SUCCESS);
+                } catch (Exception e) {
+                    logger.error("Generate Credential failed due to system error. ", e);
+                    return new ResponseData<Credential>(null, ErrorCode.CREDENTIAL_ERROR);
+                }
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Generate a batch of credentials in the Merkle batch mode. The credentials of each issuer
+     * private key make a Merkle tree over their fields hashes, whose root is signed once, and
+     * the signature of each credential is the root signature followed by its inclusion proof.
+     *
+     * @param args the args of each credential
+     * @return the Credential response data of each credential, in the order of the input
+     */
+    @Override
+    public ResponseData<List<ResponseData<Credential>>> createMerkleCredentials(
+        List<CreateCredentialArgs> args) {
+
+        if (args == null) {
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        try {
+            List<ResponseData<Credential>> results =
+                new ArrayList<>(Collections.nCopies(args.size(), null));
+            Map<String, List<Integer>> indexesByPrivateKey = new HashMap<>();
+            for (int i = 0; i < args.size(); i++) {
+                CreateCredentialArgs arg = args.get(i);
+                ResponseData<Boolean> formatResult = checkCreateCredentialArgsValidity(arg, true);
+                if (!formatResult.getResult()) {
+                    logger.error("Generate Credential input format error!");
+                    results.set(i, new ResponseData<Credential>(
+                        null, formatResult.getErrorCode(), formatResult.getErrorMessage()));
+                    continue;
+                }
+                indexesByPrivateKey
+                    .computeIfAbsent(
+                        arg.getWeIdPrivateKey().getPrivateKey(), privateKey -> new ArrayList<>())
+                    .add(i);
+            }
+            for (Map.Entry<String, List<Integer>> entry : indexesByPrivateKey.entrySet()) {
+                createMerkleBatch(args, entry.getKey(), entry.getValue(), results);
+            }
+            return new ResponseData<>(results, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Generate Credentials failed due to system error. ", e);
+            return new ResponseData<>(null, ErrorCode.CREDENTIAL_ERROR);
+        }
+    }
+
+    /**
+     * Generate the credentials of one issuer private key under a single root signature.
+     */
+    private static void createMerkleBatch(
+        List<CreateCredentialArgs> args,
+        String privateKey,
+        List<Integer> indexes,
+        List<ResponseData<Credential>> results) {
+
+        try {
+            ECKeyPair keyPair = SignatureUtils.createKeyPairFromPrivate(new BigInteger(privateKey));
+            String context = CredentialUtils.getMerkleCredentialContext();
+            List<Credential> credentials = indexes
+                .stream()
+                .map(i -> buildCredential(args.get(i), context))
+                .collect(Collectors.toList());
+            List<byte[]> hashes = credentials
+                .parallelStream()
+                .map(CredentialUtils::getCredentialFieldsHash)
+                .collect(Collectors.toList());
+            MerkleTree tree = new MerkleTree(hashes);
+            byte[] rootSignature = SignatureUtils.simpleSignatureSerialization(
+                SignatureUtils.signMessageHash(tree.getRoot(), keyPair));
+            for (int k = 0; k < credentials.size(); k++) {
+                byte[] proof = tree.getProof(k);
+                byte[] signature = Arrays.copyOf(rootSignature, SIGNATURE_LENGTH + proof.length);
+                System.arraycopy(proof, 0, signature, SIGNATURE_LENGTH, proof.length);
+                Credential credential = credentials.get(k);
+                credential.setSignature(new String(SignatureUtils.base64Encode(signature)));
+                results.set(indexes.get(k), new ResponseData<>(credential, ErrorCode.SUCCESS));
+            }
+        } catch (Exception e) {
+            logger.error("Generate Credentials failed due to illegal private key. ", e);
+            for (Integer i : indexes) {
+                results.set(i, new ResponseData<Credential>(null, ErrorCode.CREDENTIAL_ERROR));
+            }
+        }
+    }
+
+    private static Credential buildCredential(CreateCredentialArgs args, String context) {
+
+        Credential result = new Credential();
+        result.setContext(context);
+        result.setId(UUID.randomUUID().toString());
+        result.setCptId(args.getCptId());
+        result.setIssuer(args.getIssuer());
+        result.setIssuranceDate(new Long(System.currentTimeMillis()));
+        result.setExpirationDate(new Long(args.getExpirationDate()));
+        result.setClaim(args.getClaim());
+        return result;
+    }
+
+    private static void setSignature(Credential credential, Sign.SignatureData sigData) {
+
+        credential.setSignature(
+            new String(
+                SignatureUtils
+                    .base64Encode(SignatureUtils.simpleSignatureSerialization(sigData))));
+    }
+
     /**
      * Verify the validity of a credential without public key provided.
      *
@@ -138,6 +346,306 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
             args.getWeIdPublicKey().getPublicKey());
     }
 
+    /**
+     * Verify the validity of a credential without public key provided, without blocking the
+     * caller.
+     *
+     * @param args the args
+     * @return the Boolean response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> verifyCredentialAsync(Credential args) {
+        return verifyCredentialContentAsync(args, null);
+    }
+
+    /**
+     * Verify the validity of a credential with public key provided, without blocking the
+     * caller.
+     *
+     * @param args the args
+     * @return the Boolean response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> verifyCredentialWithSpecifiedPubKeyAsync(
+        VerifyCredentialArgs args) {
+        if (args == null) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<Boolean>(false, ErrorCode.ILLEGAL_INPUT));
+        }
+        if (args.getWeIdPublicKey() == null) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<Boolean>(false, ErrorCode.CREDENTIAL_ISSUER_MISMATCH));
+        }
+        return verifyCredentialContentAsync(args.getCredential(),
+            args.getWeIdPublicKey().getPublicKey());
+    }
+
+    /**
+     * Verify the validity of a batch of credentials. The issuers and CPTs are queried once each
+     * and concurrently, the signatures of the credentials sharing an issuer are verified in
+     * batches against its first authentication public key, then the credentials are checked
+     * in parallel. A credential signed with another key of its issuer is verified on its own.
+     *
+     * @param credentials the credentials
+     * @return the Boolean response data of each credential
+     */
+    @Override
+    public ResponseData<List<ResponseData<Boolean>>> verifyCredentials(
+        List<Credential> credentials) {
+
+        if (credentials == null) {
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        try {
+            List<ResponseData<Boolean>> formatResults = new ArrayList<>(credentials.size());
+            Map<String, CompletableFuture<ResponseData<WeIdDocument>>> issuerFutures =
+                new HashMap<>();
+            Map<Integer, CompletableFuture<ResponseData<JsonSchema>>> schemaFutures =
+                new HashMap<>();
+            for (Credential credential : credentials) {
+                ResponseData<Boolean> formatResult = checkCredentialArgsValidity(credential);
+                formatResults.add(formatResult);
+                if (formatResult.getResult()) {
+                    issuerFutures.computeIfAbsent(credential.getIssuer(), this::queryIssuerAsync);
+                    schemaFutures.computeIfAbsent(credential.getCptId(), this::querySchemaAsync);
+                }
+            }
+            List<CompletableFuture<?>> queries = new ArrayList<>(issuerFutures.values());
+            queries.addAll(schemaFutures.values());
+            CompletableFuture.allOf(queries.toArray(new CompletableFuture<?>[0])).join();
+            Boolean[] signatureResults =
+                verifySignaturesByIssuer(credentials, formatResults, issuerFutures);
+
+            List<ResponseData<Boolean>> results = IntStream
+                .range(0, credentials.size())
+                .parallel()
+                .mapToObj(i -> {
+                    if (!formatResults.get(i).getResult()) {
+                        logger.error("Credential input format error!");
+                        ResponseData<Boolean> formatResult = formatResults.get(i);
+                        return new ResponseData<>(false,
+                            formatResult.getErrorCode(), formatResult.getErrorMessage());
+                    }
+                    Credential credential = credentials.get(i);
+                    return verifyCredentialInBatch(
+                        credential,
+                        issuerFutures.get(credential.getIssuer()).join(),
+                        schemaFutures.get(credential.getCptId()).join(),
+                        signatureResults[i]);
+                })
+                .collect(Collectors.toList());
+            return new ResponseData<>(results, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error("Verify Credentials failed due to generic error: ", e);
+            return new ResponseData<>(null, ErrorCode.CREDENTIAL_ERROR);
+        }
+    }
+
+    /**
+     * Run the checks of verifyCredentialContent against the issuer document and the CPT schema
+     * queried for the whole batch, the signature check settled by the batch verification of
+     * the signatures if it gave a result.
+     */
+    private ResponseData<Boolean> verifyCredentialInBatch(
+        Credential credential,
+        ResponseData<WeIdDocument> issuerResponse,
+        ResponseData<JsonSchema> schemaResponse,
+        Boolean signatureResult) {
+
+        try {
+            if (issuerResponse.getErrorCode() == ErrorCode.CREDENTIAL_ISSUER_NOT_EXISTS.getCode()) {
+                return new ResponseData<>(false, ErrorCode.CREDENTIAL_ISSUER_NOT_EXISTS);
+            }
+            ResponseData<Boolean> responseData = verifyClaim(credential, schemaResponse);
+            if (!responseData.getResult()) {
+                return responseData;
+            }
+            responseData = verifyNotExpired(credential);
+            if (!responseData.getResult()) {
+                return responseData;
+            }
+            if (Boolean.TRUE.equals(signatureResult)) {
+                return new ResponseData<>(true, ErrorCode.SUCCESS);
+            }
+            if (Boolean.FALSE.equals(signatureResult)) {
+                return new ResponseData<>(false, ErrorCode.CREDENTIAL_ISSUER_MISMATCH);
+            }
+            return verifySignatureWithWeIdDocument(credential, issuerResponse);
+        } catch (Exception e) {
+            logger.error("Verify Credential failed due to generic error: ", e);
+            return new ResponseData<>(false, ErrorCode.CREDENTIAL_ERROR);
+        }
+    }
+
+    /**
+     * Verify the signatures of the credentials sharing an issuer in batches, against the first
+     * authentication public key of the issuer. The batches are verified in parallel.
+     *
+     * @return for each credential, true if the signature is the one of the issuer, false if
+     *     it is not, null if the signature is left to be verified on its own
+     */
+    private Boolean[] verifySignaturesByIssuer(
+        List<Credential> credentials,
+        List<ResponseData<Boolean>> formatResults,
+        Map<String, CompletableFuture<ResponseData<WeIdDocument>>> issuerFutures) {
+
+        Map<String, List<Integer>> indexesByIssuer = new HashMap<>();
+        for (int i = 0; i < credentials.size(); i++) {
+            if (formatResults.get(i).getResult()) {
+                indexesByIssuer
+                    .computeIfAbsent(credentials.get(i).getIssuer(), issuer -> new ArrayList<>())
+                    .add(i);
+            }
+        }
+        List<List<Integer>> batches = new ArrayList<>();
+        for (List<Integer> indexes : indexesByIssuer.values()) {
+            if (indexes.size() < 2) {
+                continue;
+            }
+            for (int from = 0; from < indexes.size(); from += WeIdConstant.SIGNATURE_BATCH_SIZE) {
+                batches.add(indexes.subList(
+                    from, Math.min(indexes.size(), from + WeIdConstant.SIGNATURE_BATCH_SIZE)));
+            }
+        }
+        Boolean[] results = new Boolean[credentials.size()];
+        batches.parallelStream().forEach(indexes -> verifySignatureBatch(
+            credentials,
+            indexes,
+            issuerFutures.get(credentials.get(indexes.get(0)).getIssuer()).join(),
+            results));
+        return results;
+    }
+
+    /**
+     * Verify the signatures of credentials of one issuer in a batch. A credential whose
+     * signature is malformed or has no recoverable public key is left to be verified on its
+     * own, which reports the error, so is one issued in the Merkle batch mode.
+     *
+     * <p>Only the first authentication public key of the issuer is checked. A failed signature
+     * is final when the issuer has that key alone. When the issuer has several keys, each
+     * credential that fails is verified on its own against all of them. So an issuer signing
+     * with any key but its first gets no speedup from the batch, and pays for the failed batch
+     * check on top.
+     */
+    private void verifySignatureBatch(
+        List<Credential> credentials,
+        List<Integer> indexes,
+        ResponseData<WeIdDocument> issuerResponse,
+        Boolean[] results) {
+
+        if (issuerResponse.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+            return;
+        }
+        try {
+            List<BigInteger> publicKeys = getAuthenticationPublicKeys(issuerResponse.getResult());
+            if (publicKeys.isEmpty()) {
+                return;
+            }
+            List<Integer> batchIndexes = new ArrayList<>(indexes.size());
+            List<byte[]> hashes = new ArrayList<>(indexes.size());
+            List<Sign.SignatureData> signatures = new ArrayList<>(indexes.size());
+            for (Integer index : indexes) {
+                Credential credential = credentials.get(index);
+                if (CredentialUtils.isMerkleCredential(credential)) {
+                    // checked against its cached root signature on its own
+                    continue;
+                }
+                try {
+                    Sign.SignatureData signatureData =
+                        SignatureUtils.simpleSignatureDeserialization(
+                            SignatureUtils.base64Decode(credential.getSignature().getBytes()));
+                    int header = signatureData.getV() & 0xFF;
+                    if (header < 27 || header > 34) {
+                        continue;
+                    }
+                    hashes.add(CredentialUtils.getCredentialFieldsHash(credential));
+                    signatures.add(signatureData);
+                    batchIndexes.add(index);
+                } catch (Exception e) {
+                    logger.debug("Signature left out of the batch verification: " + e);
+                }
+            }
+            boolean[] batchResults =
+                SignatureUtils.verifyMessageHashes(hashes, signatures, publicKeys.get(0));
+            for (int i = 0; i < batchResults.length; i++) {
+                if (batchResults[i]) {
+                    results[batchIndexes.get(i)] = true;
+                } else if (publicKeys.size() == 1
+                    && SignatureUtils.isRecoverable(signatures.get(i))) {
+                    results[batchIndexes.get(i)] = false;
+                }
+            }
+        } catch (Exception e) {
+            logger.error(
+                "Generic error occurred during batch verify signature when verifyCredentials: "
+                    + e);
+        }
+    }
+
+    /**
+     * Query the document of an issuer, failing with CREDENTIAL_ISSUER_NOT_EXISTS if the issuer
+     * does not exist.
+     */
+    private CompletableFuture<ResponseData<WeIdDocument>> queryIssuerAsync(String issuer) {
+
+        return weIdService.isWeIdExistAsync(issuer)
+            .thenCompose(existResponse -> {
+                if (existResponse == null || !existResponse.getResult()) {
+                    return CompletableFuture.completedFuture(new ResponseData<WeIdDocument>(
+                        null, ErrorCode.CREDENTIAL_ISSUER_NOT_EXISTS));
+                }
+                return weIdService.getWeIdDocumentAsync(issuer);
+            });
+    }
+
+    /**
+     * Query a CPT and load its Json Schema.
+     */
+    private CompletableFuture<ResponseData<JsonSchema>> querySchemaAsync(Integer cptId) {
+
+        return cptService.queryCptAsync(cptId).thenApply(cptResponse -> {
+            Cpt cpt = cptResponse.getResult();
+            if (cpt == null) {
+                logger.error(ErrorCode.CREDENTIAL_CPT_NOT_EXISTS.getCodeDesc());
+                return new ResponseData<>(null, ErrorCode.CREDENTIAL_CPT_NOT_EXISTS);
+            }
+            try {
+                JsonSchema schema = JsonSchemaValidatorUtils.loadCptJsonSchema(
+                    cpt.getCptId(), cpt.getCptVersion(), cpt.getCptJsonSchema());
+                if (null == schema) {
+                    logger.error(ErrorCode.CPT_JSON_SCHEMA_INVALID.getCodeDesc());
+                    return new ResponseData<>(null, ErrorCode.CPT_JSON_SCHEMA_INVALID);
+                }
+                return new ResponseData<>(schema, ErrorCode.SUCCESS);
+            } catch (Exception e) {
+                logger.error(
+                    "Generic error occurred during load cpt schema when verifyCredentials: " + e);
+                return new ResponseData<>(null, ErrorCode.CREDENTIAL_ERROR);
+            }
+        });
+    }
+
+    private ResponseData<Boolean> verifyClaim(
+        Credential credential, ResponseData<JsonSchema> schemaResponse) {
+
+        if (schemaResponse.getResult() == null) {
+            return new ResponseData<>(
+                false, schemaResponse.getErrorCode(), schemaResponse.getErrorMessage());
+        }
+        try {
+            if (!JsonSchemaValidatorUtils.validateJsonVersusSchema(
+                credential.getClaim(), schemaResponse.getResult())) {
+                logger.error(ErrorCode.CREDENTIAL_CLAIM_DATA_ILLEGAL.getCodeDesc());
+                return new ResponseData<>(false, ErrorCode.CREDENTIAL_CLAIM_DATA_ILLEGAL);
+            }
+            return new ResponseData<>(true, ErrorCode.SUCCESS);
+        } catch (Exception e) {
+            logger.error(
+                "Generic error occurred during verify cpt format when verifyCredential: " + e);
+            return new ResponseData<>(false, ErrorCode.CREDENTIAL_ERROR);
+        }
+    }
+
     private ResponseData<Boolean> verifyCredentialContent(Credential credential, String publicKey) {
         ResponseData<Boolean> responseData = new ResponseData<Boolean>();
 
@@ -169,6 +677,60 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
         }
     }
 
+    /**
+     * Run the checks of verifyCredentialContent, querying the issuer and the CPT concurrently.
+     */
+    private CompletableFuture<ResponseData<Boolean>> verifyCredentialContentAsync(
+        Credential credential, String publicKey) {
+
+        try {
+            ResponseData<Boolean> innerResponse = checkCredentialArgsValidity(credential);
+            if (!innerResponse.getResult()) {
+                logger.error("Credential input format error!");
+                return CompletableFuture.completedFuture(new ResponseData<>(
+                    false, innerResponse.getErrorCode(), innerResponse.getErrorMessage()));
+            }
+
+            CompletableFuture<ResponseData<Boolean>> issuerFuture =
+                weIdService.isWeIdExistAsync(credential.getIssuer());
+            CompletableFuture<ResponseData<Cpt>> cptFuture =
+                cptService.queryCptAsync(credential.getCptId());
+            return issuerFuture
+                .thenCombine(cptFuture, (issuerResponse, cptResponse) -> {
+                    if (issuerResponse == null || !issuerResponse.getResult()) {
+                        return new ResponseData<>(false, ErrorCode.CREDENTIAL_ISSUER_NOT_EXISTS);
+                    }
+                    ResponseData<Boolean> responseData =
+                        verifyCptFormat(credential, cptResponse.getResult());
+                    if (!responseData.getResult()) {
+                        return responseData;
+                    }
+                    return verifyNotExpired(credential);
+                })
+                .thenCompose(responseData -> {
+                    if (!responseData.getResult()) {
+                        return CompletableFuture.completedFuture(responseData);
+                    }
+                    if (StringUtils.isEmpty(publicKey)) {
+                        return weIdService
+                            .getWeIdDocumentAsync(credential.getIssuer())
+                            .thenApply(innerResponseData ->
+                                verifySignatureWithWeIdDocument(credential, innerResponseData));
+                    }
+                    return CompletableFuture.completedFuture(
+                        verifySignatureWithPublicKey(credential, publicKey));
+                })
+                .exceptionally(e -> {
+                    logger.error("Verify Credential failed due to generic error: ", e);
+                    return new ResponseData<>(false, ErrorCode.CREDENTIAL_ERROR);
+                });
+        } catch (Exception e) {
+            logger.error("Verify Credential failed due to generic error: ", e);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.CREDENTIAL_ERROR));
+        }
+    }
+
     private ResponseData<Boolean> checkCreateCredentialArgsValidity(
         CreateCredentialArgs args, boolean privateKeyRequired) {
         ResponseData<Boolean> responseData = new ResponseData<Boolean>();
@@ -281,21 +843,26 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
     }
 
     private ResponseData<Boolean> verifyCptFormat(Credential credential) {
+        Cpt cpt = cptService.queryCpt(credential.getCptId()).getResult();
+        return verifyCptFormat(credential, cpt);
+    }
+
+    private ResponseData<Boolean> verifyCptFormat(Credential credential, Cpt cpt) {
         ResponseData<Boolean> responseData = new ResponseData<Boolean>();
         String claim = credential.getClaim();
-        Integer cptId = credential.getCptId();
-        Cpt cpt = cptService.queryCpt(cptId).getResult();
         if (cpt == null) {
             logger.error(ErrorCode.CREDENTIAL_CPT_NOT_EXISTS.getCodeDesc());
             return new ResponseData<>(false, ErrorCode.CREDENTIAL_CPT_NOT_EXISTS);
         }
-        String cptJsonSchema = cpt.getCptJsonSchema();
         try {
-            if (!JsonSchemaValidatorUtils.isCptJsonSchemaValid(cptJsonSchema)) {
+            // the schema is checked and compiled once per cpt version, only the claim is parsed
+            JsonSchema schema = JsonSchemaValidatorUtils.loadCptJsonSchema(
+                cpt.getCptId(), cpt.getCptVersion(), cpt.getCptJsonSchema());
+            if (null == schema) {
                 logger.error(ErrorCode.CPT_JSON_SCHEMA_INVALID.getCodeDesc());
                 return new ResponseData<>(false, ErrorCode.CPT_JSON_SCHEMA_INVALID);
             }
-            if (!JsonSchemaValidatorUtils.validateJsonVersusSchema(claim, cptJsonSchema)) {
+            if (!JsonSchemaValidatorUtils.validateJsonVersusSchema(claim, schema)) {
                 logger.error(ErrorCode.CREDENTIAL_CLAIM_DATA_ILLEGAL.getCodeDesc());
                 return new ResponseData<>(false, ErrorCode.CREDENTIAL_CLAIM_DATA_ILLEGAL);
             }
@@ -322,69 +889,114 @@ public class CredentialServiceImpl extends BaseService implements CredentialServ
     }
 
     private ResponseData<Boolean> verifySignature(Credential credential, String publicKey) {
-    
+
+        if (StringUtils.isEmpty(publicKey)) {
+            // Fetch public key from chain
+            return verifySignatureWithWeIdDocument(
+                credential, weIdService.getWeIdDocument(credential.getIssuer()));
+        }
+        return verifySignatureWithPublicKey(credential, publicKey);
+    }
+
+    private ResponseData<Boolean> verifySignatureWithWeIdDocument(
+        Credential credential, ResponseData<WeIdDocument> innerResponseData) {
+
         ResponseData<Boolean> responseData = new ResponseData<Boolean>();
         try {
-            String hashedRawData = CredentialUtils.getCredentialFields(credential);
-            Sign.SignatureData signatureData =
-                SignatureUtils.simpleSignatureDeserialization(
-                    SignatureUtils.base64Decode(credential.getSignature().getBytes()));
-
-            if (StringUtils.isEmpty(publicKey)) {
-                // Fetch public key from chain
-                String credentialIssuer = credential.getIssuer();
-                ResponseData<WeIdDocument> innerResponseData =
-                    weIdService.getWeIdDocument(credentialIssuer);
-                if (innerResponseData.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
-                    logger.error(
-                        "Error occurred when fetching WeIdentity DID document for: "
-                            + credentialIssuer
-                            + ", msg: "
-                            + innerResponseData.getErrorMessage());
-                    return new ResponseData<>(false, ErrorCode.CREDENTIAL_WEID_DOCUMENT_ILLEGAL);
-                } else {
-                    // Traverse public key list indexed Authentication key list
-                    WeIdDocument weIdDocument = innerResponseData.getResult();
-
-                    List<String> publicKeysListToVerify = new ArrayList<String>();
-                    for (AuthenticationProperty authenticationProperty : weIdDocument
-                        .getAuthentication()) {
-                        String index = authenticationProperty.getPublicKey();
-                        for (PublicKeyProperty publicKeyProperty : weIdDocument.getPublicKey()) {
-                            if (publicKeyProperty.getId().equalsIgnoreCase(index)) {
-                                publicKeysListToVerify.add(publicKeyProperty.getPublicKey());
-                            }
-                        }
-                    }
-                    boolean result = false;
-                    for (String publicKeyItem : publicKeysListToVerify) {
-                        if (!StringUtils.isEmpty(publicKeyItem)) {
-                            result =
-                                result
-                                    || SignatureUtils.verifySignature(
-                                    hashedRawData, signatureData, new BigInteger(publicKeyItem));
-                        }
-                    }
-                    responseData.setResult(result);
-                    if (!result) {
-                        responseData.setErrorCode(ErrorCode.CREDENTIAL_ISSUER_MISMATCH.getCode());
-                        responseData
-                            .setErrorMessage(ErrorCode.CREDENTIAL_ISSUER_MISMATCH.getCodeDesc());
-                    }
-                    return responseData;
-                }
-            } else {
-                boolean result =
-                    SignatureUtils
-                        .verifySignature(hashedRawData, signatureData, new BigInteger(publicKey));
-                responseData.setResult(result);
-                if (!result) {
-                    responseData.setErrorCode(ErrorCode.CREDENTIAL_SIGNATURE_BROKEN.getCode());
-                    responseData
-                        .setErrorMessage(ErrorCode.CREDENTIAL_SIGNATURE_BROKEN.getCodeDesc());
+            String credentialIssuer = credential.getIssuer();
+            if (innerResponseData.getErrorCode() != ErrorCode.SUCCESS.getCode()) {
+                logger.error(
+                    "Error occurred when fetching WeIdentity DID document for: "
+                        + credentialIssuer
+                        + ", msg: "
+                        + innerResponseData.getErrorMessage());
+                return new ResponseData<>(false, ErrorCode.CREDENTIAL_WEID_DOCUMENT_ILLEGAL);
+            }
+            List<BigInteger> publicKeysListToVerify =
+                getAuthenticationPublicKeys(innerResponseData.getResult());
+            boolean result = verifyCredentialSignature(credential, publicKeysListToVerify);
+            responseData.setResult(result);
+            if (!result) {
+                responseData.setErrorCode(ErrorCode.CREDENTIAL_ISSUER_MISMATCH.getCode());
+                responseData.setErrorMessage(ErrorCode.CREDENTIAL_ISSUER_MISMATCH.getCodeDesc());
+            }
+            return responseData;
+        } catch (Exception e) {
+            logger.error(
+                "Generic error occurred during verify signature when verifyCredential: " + e);
+            return new ResponseData<>(false, ErrorCode.CREDENTIAL_ERROR);
+        }
+    }
+
+    /**
+     * Verify whether the signature of a credential is the one of one of the given public keys.
+     * The signature of a credential issued in the Merkle batch mode is the one of the Merkle
+     * root computed from the fields hash and the inclusion proof of the credential, and its
+     * verification result is cached.
+     */
+    private static boolean verifyCredentialSignature(
+        Credential credential, List<BigInteger> publicKeys) throws Exception {
+
+        byte[] hashedRawData = CredentialUtils.getCredentialFieldsHash(credential);
+        byte[] signature = SignatureUtils.base64Decode(credential.getSignature().getBytes());
+        Sign.SignatureData signatureData =
+            SignatureUtils.simpleSignatureDeserialization(signature);
+        if (!CredentialUtils.isMerkleCredential(credential)) {
+            // the public key is recovered from the signature at most once for all the keys
+            return SignatureUtils.verifyMessageHash(hashedRawData, signatureData, publicKeys);
+        }
+        byte[] root = MerkleTree.computeRoot(
+            hashedRawData, Arrays.copyOfRange(signature, SIGNATURE_LENGTH, signature.length));
+        if (null == root) {
+            return false;
+        }
+        String rootKey = Hex.toHexString(root)
+            + Hex.toHexString(Arrays.copyOf(signature, SIGNATURE_LENGTH))
+            + WeIdConstant.PIPELINE;
+        for (BigInteger publicKey : publicKeys) {
+            if (merkleRootResults.get(
+                rootKey + publicKey.toString(16),
+                () -> SignatureUtils.verifyMessageHash(
+                    root, signatureData, Collections.singletonList(publicKey)))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the public keys of a WeIdentity DID document its Authentication list indexes.
+     */
+    private static List<BigInteger> getAuthenticationPublicKeys(WeIdDocument weIdDocument) {
+
+        // Traverse public key list indexed Authentication key list
+        List<BigInteger> publicKeys = new ArrayList<BigInteger>();
+        for (AuthenticationProperty authenticationProperty : weIdDocument.getAuthentication()) {
+            String index = authenticationProperty.getPublicKey();
+            for (PublicKeyProperty publicKeyProperty : weIdDocument.getPublicKey()) {
+                String publicKeyItem = publicKeyProperty.getPublicKey();
+                if (publicKeyProperty.getId().equalsIgnoreCase(index)
+                    && !StringUtils.isEmpty(publicKeyItem)) {
+                    publicKeys.add(new BigInteger(publicKeyItem));
                 }
-                return responseData;
             }
+        }
+        return publicKeys;
+    }
+
+    private ResponseData<Boolean> verifySignatureWithPublicKey(
+        Credential credential, String publicKey) {
+
+        ResponseData<Boolean> responseData = new ResponseData<Boolean>();
+        try {
+            boolean result = verifyCredentialSignature(
+                credential, Collections.singletonList(new BigInteger(publicKey)));
+            responseData.setResult(result);
+            if (!result) {
+                responseData.setErrorCode(ErrorCode.CREDENTIAL_SIGNATURE_BROKEN.getCode());
+                responseData.setErrorMessage(ErrorCode.CREDENTIAL_SIGNATURE_BROKEN.getCodeDesc());
+            }
+            return responseData;
         } catch (Exception e) {
             logger.error(
                 "Generic error occurred during verify signature when verifyCredential: " + e);
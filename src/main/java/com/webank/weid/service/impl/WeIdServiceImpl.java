@@ -19,25 +19,47 @@
 
 package com.webank.weid.service.impl;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.ListUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.bcos.web3j.abi.EventEncoder;
 import org.bcos.web3j.abi.TypeReference;
 import org.bcos.web3j.abi.datatypes.Address;
 import org.bcos.web3j.abi.datatypes.Bool;
+import org.bcos.web3j.abi.datatypes.DynamicArray;
 import org.bcos.web3j.abi.datatypes.DynamicBytes;
 import org.bcos.web3j.abi.datatypes.Event;
+import org.bcos.web3j.abi.datatypes.Function;
+import org.bcos.web3j.abi.datatypes.Type;
 import org.bcos.web3j.abi.datatypes.generated.Bytes32;
 import org.bcos.web3j.abi.datatypes.generated.Int256;
 import org.bcos.web3j.abi.datatypes.generated.Uint256;
@@ -45,13 +67,14 @@ import org.bcos.web3j.crypto.ECKeyPair;
 import org.bcos.web3j.crypto.Keys;
 import org.bcos.web3j.protocol.core.DefaultBlockParameterNumber;
 import org.bcos.web3j.protocol.core.methods.response.EthBlock;
-import org.bcos.web3j.protocol.core.methods.response.EthGetTransactionReceipt;
 import org.bcos.web3j.protocol.core.methods.response.Log;
 import org.bcos.web3j.protocol.core.methods.response.Transaction;
 import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.bcos.web3j.utils.Numeric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import rx.Observable;
 
 import com.webank.weid.config.ContractConfig;
 import com.webank.weid.constant.ErrorCode;
@@ -60,22 +83,30 @@ import com.webank.weid.constant.WeIdEventConstant;
 import com.webank.weid.contract.WeIdContract;
 import com.webank.weid.contract.WeIdContract.WeIdAttributeChangedEventResponse;
 import com.webank.weid.exception.PrivateKeyIllegalException;
+import com.webank.weid.exception.ResolveEventLogException;
 import com.webank.weid.protocol.base.AuthenticationProperty;
 import com.webank.weid.protocol.base.PublicKeyProperty;
 import com.webank.weid.protocol.base.ServiceProperty;
+import com.webank.weid.protocol.base.WeIdAttributeChange;
 import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.base.WeIdDocumentChange;
 import com.webank.weid.protocol.base.WeIdPrivateKey;
 import com.webank.weid.protocol.base.WeIdPublicKey;
 import com.webank.weid.protocol.request.CreateWeIdArgs;
 import com.webank.weid.protocol.request.SetAuthenticationArgs;
 import com.webank.weid.protocol.request.SetPublicKeyArgs;
 import com.webank.weid.protocol.request.SetServiceArgs;
+import com.webank.weid.protocol.request.UpdateWeIdAttributesArgs;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.rpc.WeIdService;
 import com.webank.weid.service.BaseService;
+import com.webank.weid.service.indexer.WeIdDocumentChangeFeed;
+import com.webank.weid.service.indexer.WeIdEventIndexer;
+import com.webank.weid.service.keypair.KeyPairPool;
 import com.webank.weid.util.DataTypetUtils;
 import com.webank.weid.util.DateUtils;
+import com.webank.weid.util.LogsBloomUtils;
 import com.webank.weid.util.WeIdUtils;
 
 /**
@@ -106,6 +137,52 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
      */
     private static HashMap<String, String> topicMap;
 
+    /**
+     * The topic of the WeIdAttributeChanged event.
+     */
+    private static String attributeChangedTopic;
+
+    /**
+     * The local event index, null if none is configured.
+     */
+    private static WeIdEventIndexer eventIndexer;
+
+    /**
+     * The pool of key pairs generated ahead, null if none is configured.
+     */
+    private static KeyPairPool keyPairPool;
+
+    /**
+     * The feed of WeIdentity DID document changes.
+     */
+    private static WeIdDocumentChangeFeed changeFeed;
+
+    private static final int METHOD_ID_HEX_LENGTH = 8;
+
+    private static final int ADDRESS_ARGUMENT_HEX_LENGTH = 64;
+
+    private static final int ADDRESS_HEX_LENGTH = 40;
+
+    /**
+     * The resolved attribute history of recently queried WeIdentity DIDs, keyed by address.
+     */
+    private static final Cache<String, ResolvedHistory> resolvedHistoryCache =
+        CacheBuilder.newBuilder()
+            .maximumSize(WeIdConstant.WEID_DOCUMENT_CACHE_SIZE)
+            .build();
+
+    /**
+     * The shared pool fetching transaction receipts while resolving a block. Its size bounds the
+     * number of receipt requests in flight.
+     */
+    private static final ExecutorService receiptFetcher =
+        Executors.newFixedThreadPool(
+            WeIdConstant.RECEIPT_FETCH_PARALLELISM,
+            new ThreadFactoryBuilder()
+                .setNameFormat("weid-receipt-fetcher-%d")
+                .setDaemon(true)
+                .build());
+
     /**
      * Instantiates a new WeIdentity DID service.
      */
@@ -122,6 +199,46 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
 
         // initialize the event topic
         initEventTopic();
+        changeFeed = new WeIdDocumentChangeFeed(
+            weIdContractAddress, attributeChangedTopic, WeIdConstant.WEID_INDEX_POLL_INTERVAL);
+
+        // start the local event index if one is configured
+        initEventIndexer();
+
+        // start generating key pairs ahead if a pool is configured
+        initKeyPairPool();
+    }
+
+    private static void initKeyPairPool() {
+
+        if (null != keyPairPool) {
+            return;
+        }
+        for (KeyPairPool pool : context.getBeansOfType(KeyPairPool.class).values()) {
+            pool.start();
+            keyPairPool = pool;
+            break;
+        }
+    }
+
+    private static void initEventIndexer() {
+
+        if (null != eventIndexer) {
+            return;
+        }
+        for (WeIdEventIndexer indexer : context.getBeansOfType(WeIdEventIndexer.class).values()) {
+            if (indexer.start(weIdContractAddress)) {
+                eventIndexer = indexer;
+            }
+            break;
+        }
+    }
+
+    /**
+     * Check whether the local event index has reached the given block.
+     */
+    private static boolean isIndexedUpTo(int blockNumber) {
+        return null != eventIndexer && eventIndexer.getIndexedBlock() >= blockNumber;
     }
 
     private static void initEventTopic() {
@@ -141,31 +258,40 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
                     },
                     new TypeReference<Int256>() {
                     }));
-        topicMap.put(EventEncoder.encode(event), WeIdEventConstant.WEID_EVENT_ATTRIBUTE_CHANGE);
+        attributeChangedTopic = EventEncoder.encode(event);
+        topicMap.put(attributeChangedTopic, WeIdEventConstant.WEID_EVENT_ATTRIBUTE_CHANGE);
     }
 
-    private static int resolveAttributeEvent(
-        String weId, TransactionReceipt receipt, WeIdDocument result) {
+    private static boolean hasAttributeChangedTopic(TransactionReceipt receipt) {
 
-        List<WeIdAttributeChangedEventResponse> eventlog =
-            WeIdContract.getWeIdAttributeChangedEvents(receipt);
-        if (CollectionUtils.isNotEmpty(eventlog)) {
-            WeIdAttributeChangedEventResponse res = eventlog.get(0);
-            String identity = res.identity.toString();
-            if (null == result.getUpdated()) {
-                long timeStamp = res.updated.getValue().longValue();
-                result.setUpdated(timeStamp);
+        for (Log log : receipt.getLogs()) {
+            if (CollectionUtils.isEmpty(log.getTopics())) {
+                continue;
             }
-            String weAddress = WeIdUtils.convertWeIdToAddress(weId);
-            if (StringUtils.equals(weAddress, identity)) {
-                String key = DataTypetUtils.bytes32ToString(res.key);
-                String value = DataTypetUtils.dynamicBytesToString(res.value);
-                int previousBlock = res.previousBlock.getValue().intValue();
-                buildupWeIdAttribute(key, value, weId, result);
-                return previousBlock;
+            String event = topicMap.get(log.getTopics().get(0));
+            if (StringUtils.equals(event, WeIdEventConstant.WEID_EVENT_ATTRIBUTE_CHANGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build up the WeIdentity DID document by replaying the resolved attribute history. The
+     * history must be ordered newest first, so that the latest value of an attribute wins.
+     */
+    private static WeIdDocument buildupWeIdDocument(
+        String weId, List<WeIdAttributeChange> history) {
+
+        WeIdDocument result = new WeIdDocument();
+        result.setId(weId);
+        for (WeIdAttributeChange change : history) {
+            if (null == result.getUpdated()) {
+                result.setUpdated(change.getUpdated());
             }
+            buildupWeIdAttribute(change.getKey(), change.getValue(), weId, result);
         }
-        return -1;
+        return result;
     }
 
     private static void buildupWeIdAttribute(
@@ -262,69 +388,392 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
         }
     }
 
-    private static int resolveEventLog(
-        String weId, Log log, TransactionReceipt receipt, WeIdDocument result) {
-        String topic = log.getTopics().get(0);
-        String event = topicMap.get(topic);
+    /**
+     * Resolve the attribute history of a WeIdentity DID up to its latest related block. It is
+     * read from the local event index when the index has reached that block. Otherwise only the
+     * blocks newer than the cached history are walked, the rest is taken from the cache.
+     *
+     * @param weId the WeIdentity DID
+     * @param latestBlockNumber the latest related block of the WeIdentity DID
+     * @return the attribute history, newest first
+     */
+    private static List<WeIdAttributeChange> resolveHistory(String weId, int latestBlockNumber) {
+
+        if (isIndexedUpTo(latestBlockNumber)) {
+            return eventIndexer.getHistory(weId, latestBlockNumber);
+        }
 
-        if (StringUtils.isNotBlank(event)) {
-            switch (event) {
-                case WeIdEventConstant.WEID_EVENT_ATTRIBUTE_CHANGE:
-                    return resolveAttributeEvent(weId, receipt, result);
-                default:
-            }
+        String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
+        ResolvedHistory cached = resolvedHistoryCache.getIfPresent(identityAddr);
+        if (null != cached && cached.getBlockNumber() == latestBlockNumber) {
+            return cached.getEvents();
+        }
+
+        int stopBlockNumber = 0;
+        if (null != cached && cached.getBlockNumber() < latestBlockNumber) {
+            stopBlockNumber = cached.getBlockNumber();
+        }
+        List<WeIdAttributeChange> history = new ArrayList<>();
+        new WeIdAttributeHistoryIterator(weId, latestBlockNumber, stopBlockNumber)
+            .forEachRemaining(history::add);
+        if (stopBlockNumber != 0) {
+            history.addAll(cached.getEvents());
         }
-        return -1;
+        resolvedHistoryCache.put(identityAddr, new ResolvedHistory(latestBlockNumber, history));
+        return history;
     }
 
-    private static void resolveTransaction(String weId, int blockNumber, WeIdDocument result) {
+    /**
+     * Resolve the attribute history of a WeIdentity DID like resolveHistory, without blocking
+     * the caller. Each block is requested once the previous one has been decoded.
+     *
+     * @param weId the WeIdentity DID
+     * @param latestBlockNumber the latest related block of the WeIdentity DID
+     * @return the attribute history, newest first
+     */
+    private static CompletableFuture<List<WeIdAttributeChange>> resolveHistoryAsync(
+        String weId, int latestBlockNumber) {
+
+        if (isIndexedUpTo(latestBlockNumber)) {
+            return CompletableFuture.completedFuture(
+                eventIndexer.getHistory(weId, latestBlockNumber));
+        }
+
+        String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
+        ResolvedHistory cached = resolvedHistoryCache.getIfPresent(identityAddr);
+        if (null != cached && cached.getBlockNumber() == latestBlockNumber) {
+            return CompletableFuture.completedFuture(cached.getEvents());
+        }
+
+        int stopBlockNumber =
+            (null != cached && cached.getBlockNumber() < latestBlockNumber)
+                ? cached.getBlockNumber() : 0;
+        CompletableFuture<List<WeIdAttributeChange>> result = new CompletableFuture<>();
+        walkHistoryAsync(
+            weId,
+            Collections.singletonMap(
+                StringUtils.lowerCase(identityAddr), buildEventBloom(identityAddr)),
+            latestBlockNumber,
+            stopBlockNumber,
+            new ArrayList<>(),
+            result);
+        return result.thenApply(history -> {
+            if (stopBlockNumber != 0) {
+                history.addAll(cached.getEvents());
+            }
+            resolvedHistoryCache.put(
+                identityAddr, new ResolvedHistory(latestBlockNumber, history));
+            return history;
+        });
+    }
 
-        if (blockNumber == 0) {
+    /**
+     * Walk the attribute change chain from the given block down to the stop block, completing
+     * the result from the last callback instead of nesting one future per block.
+     */
+    private static void walkHistoryAsync(
+        String weId,
+        Map<String, byte[]> eventBloom,
+        int blockNumber,
+        int stopBlockNumber,
+        List<WeIdAttributeChange> history,
+        CompletableFuture<List<WeIdAttributeChange>> result) {
+
+        if (blockNumber <= stopBlockNumber) {
+            result.complete(history);
+            return;
+        }
+        CompletableFuture<List<WeIdAttributeChangedEventResponse>> blockEvents;
+        try {
+            blockEvents = resolveBlockEventsAsync(blockNumber, eventBloom);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
             return;
         }
+        blockEvents.whenComplete((events, e) -> {
+            if (null != e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            // events within a block are emitted oldest first, add them newest first
+            for (int i = events.size() - 1; i >= 0; i--) {
+                history.add(toWeIdAttributeChange(weId, events.get(i), blockNumber));
+            }
+            walkHistoryAsync(
+                weId,
+                eventBloom,
+                getPreviousBlock(events, blockNumber),
+                stopBlockNumber,
+                history,
+                result);
+        });
+    }
+
+    private static int getLatestRelatedBlock(String weId)
+        throws InterruptedException, ExecutionException, TimeoutException {
+
+        String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
+        return weIdContract
+            .getLatestRelatedBlock(new Address(identityAddr))
+            .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS)
+            .getValue()
+            .intValue();
+    }
+
+    private static byte[] buildEventBloom(String weAddress) {
+
+        return LogsBloomUtils.buildBloom(
+            Numeric.hexStringToByteArray(weIdContractAddress),
+            Numeric.hexStringToByteArray(attributeChangedTopic),
+            LogsBloomUtils.addressToTopic(weAddress));
+    }
+
+    /**
+     * Fetch a block and decode the WeIdAttributeChanged events it holds for the given
+     * identities.
+     *
+     * @param blockNumber the block number
+     * @param eventBlooms the logs bloom bits of each identity, keyed by lower case address
+     * @return the decoded events, in the order they were emitted
+     */
+    private static List<WeIdAttributeChangedEventResponse> resolveBlockEvents(
+        int blockNumber, Map<String, byte[]> eventBlooms) {
+
+        EthBlock latestBlock = fetchBlock(blockNumber);
+        checkEventBlooms(blockNumber, latestBlock, eventBlooms);
+        List<Transaction> transList = selectRelatedTransactions(latestBlock, eventBlooms);
+        return decodeBlockEvents(fetchReceipts(blockNumber, transList), eventBlooms);
+    }
+
+    private static EthBlock fetchBlock(int blockNumber) {
+
         EthBlock latestBlock = null;
         try {
-            latestBlock =
-                getWeb3j().ethGetBlockByNumber(new DefaultBlockParameterNumber(blockNumber), true)
-                    .send();
+            latestBlock = getWeb3j()
+                .ethGetBlockByNumber(new DefaultBlockParameterNumber(blockNumber), true)
+                .send();
         } catch (IOException e) {
             logger.error(
-                "[resolveTransaction]:get block by number :{} failed. Exception message:{}",
+                "[resolveBlockEvents]:get block by number :{} failed. Exception message:{}",
                 blockNumber,
                 e);
+            throw new ResolveEventLogException("get block " + blockNumber + " failed.", e);
         }
-        List<Transaction> transList =
-            latestBlock
-                .getBlock()
-                .getTransactions()
-                .stream()
-                .map(transactionResult -> (Transaction) transactionResult.get())
-                .collect(Collectors.toList());
+        checkBlockExists(blockNumber, latestBlock);
+        return latestBlock;
+    }
 
-        int previousBlock = 0;
+    /**
+     * Fetch a block and decode the WeIdAttributeChanged events it holds for the given
+     * identities, without blocking the caller. The block is requested asynchronously and its
+     * receipts are fetched on the receipt fetcher pool, which bounds the requests in flight.
+     *
+     * @param blockNumber the block number
+     * @param eventBlooms the logs bloom bits of each identity, keyed by lower case address
+     * @return the decoded events, in the order they were emitted
+     */
+    private static CompletableFuture<List<WeIdAttributeChangedEventResponse>>
+        resolveBlockEventsAsync(int blockNumber, Map<String, byte[]> eventBlooms) {
+
+        return toCompletableFuture(getWeb3j()
+            .ethGetBlockByNumber(new DefaultBlockParameterNumber(blockNumber), true)
+            .sendAsync())
+            .thenCompose(latestBlock -> {
+                checkBlockExists(blockNumber, latestBlock);
+                checkEventBlooms(blockNumber, latestBlock, eventBlooms);
+                List<CompletableFuture<TransactionReceipt>> receiptFutures =
+                    selectRelatedTransactions(latestBlock, eventBlooms)
+                        .stream()
+                        .map(transaction -> CompletableFuture.supplyAsync(
+                            () -> fetchReceipt(transaction.getHash()), receiptFetcher))
+                        .collect(Collectors.toList());
+                return CompletableFuture
+                    .allOf(receiptFutures.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(nothing -> decodeBlockEvents(
+                        receiptFutures
+                            .stream()
+                            .map(CompletableFuture::join)
+                            .collect(Collectors.toList()),
+                        eventBlooms));
+            });
+    }
+
+    private static void checkBlockExists(int blockNumber, EthBlock latestBlock) {
+
+        if (null == latestBlock.getBlock()) {
+            throw new ResolveEventLogException("block " + blockNumber + " does not exist.");
+        }
+    }
+
+    /**
+     * Check that the logs bloom of a block may hold the events of all the given identities. The
+     * block is reached through their attribute change chains, so it does hold an event of each
+     * of them. A mismatch means the chain can not be walked any further, and skipping the block
+     * would cut the history short.
+     */
+    private static void checkEventBlooms(
+        int blockNumber, EthBlock latestBlock, Map<String, byte[]> eventBlooms) {
+
+        Set<String> mismatches = findBloomMismatches(blockNumber, latestBlock, eventBlooms);
+        if (!mismatches.isEmpty()) {
+            throw new ResolveEventLogException(
+                "logs bloom of block " + blockNumber + " holds no event of " + mismatches + ".");
+        }
+    }
+
+    /**
+     * Find the identities whose events the logs bloom of a block can not hold.
+     */
+    private static Set<String> findBloomMismatches(
+        int blockNumber, EthBlock latestBlock, Map<String, byte[]> eventBlooms) {
+
+        Set<String> mismatches = new HashSet<>();
+        for (Map.Entry<String, byte[]> entry : eventBlooms.entrySet()) {
+            if (!LogsBloomUtils.mightContain(latestBlock.getBlock().getLogsBloom(),
+                entry.getValue())) {
+                logger.error(
+                    "[resolveBlockEvents]:logs bloom of block :{} holds no event of :{}.",
+                    blockNumber, entry.getKey());
+                mismatches.add(entry.getKey());
+            }
+        }
+        return mismatches;
+    }
+
+    private static List<Transaction> selectRelatedTransactions(
+        EthBlock latestBlock, Map<String, byte[]> candidates) {
+
+        return latestBlock
+            .getBlock()
+            .getTransactions()
+            .stream()
+            .map(transactionResult -> (Transaction) transactionResult.get())
+            .filter(transaction -> isRelatedTransaction(transaction, candidates.keySet()))
+            .collect(Collectors.toList());
+    }
+
+    private static List<WeIdAttributeChangedEventResponse> decodeBlockEvents(
+        List<TransactionReceipt> receipts, Map<String, byte[]> candidates) {
+
+        List<WeIdAttributeChangedEventResponse> events = new ArrayList<>();
+        for (TransactionReceipt receipt : receipts) {
+            boolean mightContain = candidates.values().stream().anyMatch(
+                bloom -> LogsBloomUtils.mightContain(receipt.getLogsBloom(), bloom));
+            if (!mightContain || !hasAttributeChangedTopic(receipt)) {
+                continue;
+            }
+            for (WeIdAttributeChangedEventResponse res :
+                WeIdContract.getWeIdAttributeChangedEvents(receipt)) {
+                if (candidates.containsKey(StringUtils.lowerCase(res.identity.toString()))) {
+                    events.add(res);
+                }
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Fetch the receipts of the given transactions concurrently, in transaction order.
+     */
+    private static List<TransactionReceipt> fetchReceipts(
+        int blockNumber, List<Transaction> transList) {
+
+        List<Future<TransactionReceipt>> receiptFutures = new ArrayList<>(transList.size());
         for (Transaction transaction : transList) {
             String transHash = transaction.getHash();
+            receiptFutures.add(receiptFetcher.submit(() -> fetchReceipt(transHash)));
+        }
+
+        List<TransactionReceipt> receipts = new ArrayList<>(transList.size());
+        for (int i = 0; i < transList.size(); i++) {
+            String transHash = transList.get(i).getHash();
             try {
-                EthGetTransactionReceipt rec1 = getWeb3j().ethGetTransactionReceipt(transHash)
-                    .send();
-                TransactionReceipt receipt = rec1.getTransactionReceipt().get();
-                List<Log> logs = rec1.getResult().getLogs();
-                for (Log log : logs) {
-                    int returnValue = resolveEventLog(weId, log, receipt, result);
-                    if (returnValue != -1) {
-                        previousBlock = returnValue;
-                    }
-                }
-            } catch (IOException e) {
+                receipts.add(receiptFutures
+                    .get(i)
+                    .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS));
+            } catch (ExecutionException | TimeoutException e) {
                 logger.error(
-                    "[resolveTransaction]:get TransactionReceipt by hash :{} failed. Exception "
+                    "[fetchReceipts]:get TransactionReceipt by hash :{} failed. Exception "
                         + "message:{}",
                     transHash,
                     e);
+                receiptFutures.forEach(future -> future.cancel(true));
+                throw new ResolveEventLogException("get receipt " + transHash + " failed.", e);
+            } catch (InterruptedException e) {
+                receiptFutures.forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new ResolveEventLogException(
+                    "interrupted while resolving block " + blockNumber + ".", e);
+            }
+        }
+        return receipts;
+    }
+
+    private static TransactionReceipt fetchReceipt(String transHash) {
+
+        try {
+            return getWeb3j()
+                .ethGetTransactionReceipt(transHash)
+                .send()
+                .getTransactionReceipt()
+                .orElseThrow(() -> new ResolveEventLogException(
+                    "receipt " + transHash + " does not exist."));
+        } catch (IOException e) {
+            throw new ResolveEventLogException("get receipt " + transHash + " failed.", e);
+        }
+    }
+
+    /**
+     * Check whether a transaction may have emitted an event of one of the given identities. Only
+     * transactions sent to the WeIdContract can, and every WeIdContract transaction takes the
+     * identity as its first argument, so the input tells the other identities apart before any
+     * receipt is fetched.
+     */
+    private static boolean isRelatedTransaction(Transaction transaction, Set<String> weAddresses) {
+
+        if (!StringUtils.equalsIgnoreCase(weIdContractAddress, transaction.getTo())) {
+            return false;
+        }
+        String input = StringUtils.removeStart(transaction.getInput(), "0x");
+        if (StringUtils.length(input) < METHOD_ID_HEX_LENGTH + ADDRESS_ARGUMENT_HEX_LENGTH) {
+            return true;
+        }
+        String identity = input.substring(
+            METHOD_ID_HEX_LENGTH + ADDRESS_ARGUMENT_HEX_LENGTH - ADDRESS_HEX_LENGTH,
+            METHOD_ID_HEX_LENGTH + ADDRESS_ARGUMENT_HEX_LENGTH);
+        return weAddresses.contains("0x" + StringUtils.lowerCase(identity));
+    }
+
+    /**
+     * Get the block an identity was changed in before the given block, from the events of that
+     * identity in the given block. Later events in the same block point back at the block
+     * itself, so the oldest link below it is taken.
+     */
+    private static int getPreviousBlock(
+        List<WeIdAttributeChangedEventResponse> events, int blockNumber) {
+
+        int previousBlock = 0;
+        for (WeIdAttributeChangedEventResponse res : events) {
+            int eventPreviousBlock = res.previousBlock.getValue().intValue();
+            if (eventPreviousBlock < blockNumber
+                && (previousBlock == 0 || eventPreviousBlock < previousBlock)) {
+                previousBlock = eventPreviousBlock;
             }
         }
+        return previousBlock;
+    }
 
-        resolveTransaction(weId, previousBlock, result);
+    private static WeIdAttributeChange toWeIdAttributeChange(
+        String weId, WeIdAttributeChangedEventResponse res, int blockNumber) {
+
+        WeIdAttributeChange change = new WeIdAttributeChange();
+        change.setWeId(weId);
+        change.setKey(DataTypetUtils.bytes32ToString(res.key));
+        change.setValue(DataTypetUtils.dynamicBytesToString(res.value));
+        change.setUpdated(res.updated.getValue().longValue());
+        change.setBlockNumber(blockNumber);
+        change.setPreviousBlock(res.previousBlock.getValue().intValue());
+        return change;
     }
 
     /**
@@ -335,46 +784,20 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
     @Override
     public ResponseData<CreateWeIdDataResult> createWeId() {
 
-        ResponseData<CreateWeIdDataResult> responseData = new ResponseData<CreateWeIdDataResult>();
-        CreateWeIdDataResult result = new CreateWeIdDataResult();
-        ECKeyPair keyPair = null;
-
-        try {
-            keyPair = Keys.createEcKeyPair();
-        } catch (Exception e) {
-            logger.error("Create weId failed.", e);
-            return new ResponseData<>(null, ErrorCode.WEID_KEYPAIR_CREATE_FAILED);
+        ResponseData<CreateWeIdDataResult> responseData = createKeyPair();
+        if (null == responseData.getResult()) {
+            return responseData;
         }
+        CreateWeIdDataResult result = responseData.getResult();
 
-        String publicKey = String.valueOf(keyPair.getPublicKey());
-        String privateKey = String.valueOf(keyPair.getPrivateKey());
-        String weId = WeIdUtils.convertPublicKeyToWeId(publicKey);
-        WeIdPublicKey userWeIdPublicKey = new WeIdPublicKey();
-        userWeIdPublicKey.setPublicKey(publicKey);
-        result.setUserWeIdPublicKey(userWeIdPublicKey);
-        WeIdPrivateKey userWeIdPrivateKey = new WeIdPrivateKey();
-        userWeIdPrivateKey.setPrivateKey(privateKey);
-        result.setUserWeIdPrivateKey(userWeIdPrivateKey);
-        result.setWeId(weId);
-        responseData.setResult(result);
-
-        WeIdContract weIdContract = (WeIdContract) reloadContract(
-            weIdContractAddress,
-            privateKey,
-            WeIdContract.class);
-        Future<TransactionReceipt> future =
-            weIdContract.setAttribute(
-                new Address(WeIdUtils.convertWeIdToAddress(weId)),
-                DataTypetUtils.stringToBytes32(WeIdConstant.WEID_DOC_CREATED),
-                DataTypetUtils.stringToDynamicBytes(DateUtils.getCurrentTimeStampString()),
-                DateUtils.getCurrentTimeStampInt256());
+        Future<TransactionReceipt> future = sendAttribute(
+            result.getUserWeIdPrivateKey().getPrivateKey(),
+            buildCreatedAttribute(result.getWeId()));
 
         try {
             TransactionReceipt receipt =
                 future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-            List<WeIdAttributeChangedEventResponse> response =
-                WeIdContract.getWeIdAttributeChangedEvents(receipt);
-            if (CollectionUtils.isEmpty(response)) {
+            if (!hasAttributeChanged(receipt)) {
                 logger.error(
                     "The input private key does not match the current weid, operation of "
                         + "modifying weid is not allowed.");
@@ -391,6 +814,69 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
         return responseData;
     }
 
+    /**
+     * Create a WeIdentity DID with null input param, without blocking the caller.
+     *
+     * @return the response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<CreateWeIdDataResult>> createWeIdAsync() {
+
+        ResponseData<CreateWeIdDataResult> responseData = createKeyPair();
+        if (null == responseData.getResult()) {
+            return CompletableFuture.completedFuture(responseData);
+        }
+        CreateWeIdDataResult result = responseData.getResult();
+
+        try {
+            return sendAttribute(
+                result.getUserWeIdPrivateKey().getPrivateKey(),
+                buildCreatedAttribute(result.getWeId()))
+                .thenApply(receipt -> {
+                    if (!hasAttributeChanged(receipt)) {
+                        logger.error(
+                            "The input private key does not match the current weid, operation "
+                                + "of modifying weid is not allowed.");
+                        return new ResponseData<CreateWeIdDataResult>(
+                            null, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
+                    }
+                    return responseData;
+                })
+                .exceptionally(e -> {
+                    logger.error("Create weId failed. Error message :{}", e);
+                    return new ResponseData<>(null, toErrorCode(e));
+                });
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(null, ErrorCode.UNKNOW_ERROR));
+        }
+    }
+
+    private static ResponseData<CreateWeIdDataResult> createKeyPair() {
+
+        ECKeyPair keyPair = null;
+        try {
+            keyPair = null != keyPairPool ? keyPairPool.take() : Keys.createEcKeyPair();
+        } catch (Exception e) {
+            logger.error("Create weId failed.", e);
+            return new ResponseData<>(null, ErrorCode.WEID_KEYPAIR_CREATE_FAILED);
+        }
+
+        String publicKey = String.valueOf(keyPair.getPublicKey());
+        String privateKey = String.valueOf(keyPair.getPrivateKey());
+        CreateWeIdDataResult result = new CreateWeIdDataResult();
+        WeIdPublicKey userWeIdPublicKey = new WeIdPublicKey();
+        userWeIdPublicKey.setPublicKey(publicKey);
+        result.setUserWeIdPublicKey(userWeIdPublicKey);
+        WeIdPrivateKey userWeIdPrivateKey = new WeIdPrivateKey();
+        userWeIdPrivateKey.setPrivateKey(privateKey);
+        result.setUserWeIdPrivateKey(userWeIdPrivateKey);
+        result.setWeId(WeIdUtils.convertPublicKeyToWeId(publicKey));
+        ResponseData<CreateWeIdDataResult> responseData = new ResponseData<CreateWeIdDataResult>();
+        responseData.setResult(result);
+        return responseData;
+    }
+
     /**
      * Create a WeIdentity DID.
      *
@@ -400,106 +886,386 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
     @Override
     public ResponseData<String> createWeId(CreateWeIdArgs createWeIdArgs) {
 
-        if (null == createWeIdArgs) {
-            logger.error("[createWeId]: input parameter createWeIdArgs is null.");
-            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.ILLEGAL_INPUT);
+        ResponseData<String> checkResp = checkCreateWeIdArgs(createWeIdArgs);
+        if (ErrorCode.SUCCESS.getCode() != checkResp.getErrorCode().intValue()) {
+            return checkResp;
         }
-        ResponseData<String> responseData = new ResponseData<String>();
-        if (!WeIdUtils.isPrivateKeyValid(createWeIdArgs.getWeIdPrivateKey())) {
-            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_PRIVATEKEY_INVALID);
+        String weId = checkResp.getResult();
+        ResponseData<Boolean> isWeIdExistResp = this.isWeIdExist(weId);
+        if (null == isWeIdExistResp.getResult() || isWeIdExistResp.getResult()) {
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_ALREADY_EXIST);
         }
         String privateKey = createWeIdArgs.getWeIdPrivateKey().getPrivateKey();
-        String publicKey = createWeIdArgs.getPublicKey();
-        if (StringUtils.isNotBlank(publicKey)) {
-            if (!WeIdUtils.isKeypairMatch(privateKey, publicKey)) {
-                return new ResponseData<>(
-                    StringUtils.EMPTY, ErrorCode.WEID_PUBLICKEY_AND_PRIVATEKEY_NOT_MATCHED);
-            }
-            String weId = WeIdUtils.convertPublicKeyToWeId(publicKey);
-            ResponseData<Boolean> isWeIdExistResp = this.isWeIdExist(weId);
-            if (null == isWeIdExistResp.getResult() || isWeIdExistResp.getResult()) {
-                return new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_ALREADY_EXIST);
-            }
-            responseData.setResult(weId);
-            try {
-                WeIdContract weIdContract = (WeIdContract) reloadContract(
-                    weIdContractAddress,
-                    privateKey,
-                    WeIdContract.class);
-                Future<TransactionReceipt> future =
-                    weIdContract.setAttribute(
-                        new Address(WeIdUtils.convertWeIdToAddress(weId)),
-                        DataTypetUtils.stringToBytes32(WeIdConstant.WEID_DOC_CREATED),
-                        DataTypetUtils.stringToDynamicBytes(DateUtils.getCurrentTimeStampString()),
-                        DateUtils.getCurrentTimeStampInt256());
-
-                TransactionReceipt receipt =
-                    future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-                List<WeIdAttributeChangedEventResponse> response =
-                    WeIdContract.getWeIdAttributeChangedEvents(receipt);
-                if (CollectionUtils.isEmpty(response)) {
-                    return new ResponseData<>(StringUtils.EMPTY,
-                        ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                logger.error("create weid failed. Error message :{}", e);
+        try {
+            TransactionReceipt receipt = sendAttribute(privateKey, buildCreatedAttribute(weId))
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            if (!hasAttributeChanged(receipt)) {
                 return new ResponseData<>(StringUtils.EMPTY,
                     ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
-            } catch (TimeoutException e) {
-                return new ResponseData<>(StringUtils.EMPTY, ErrorCode.TRANSACTION_TIMEOUT);
-            } catch (PrivateKeyIllegalException e) {
-                return new ResponseData<>(StringUtils.EMPTY, e.getErrorCode());
-            } catch (Exception e) {
-                return new ResponseData<>(StringUtils.EMPTY, ErrorCode.UNKNOW_ERROR);
             }
-        } else {
-            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_PUBLICKEY_INVALID);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("create weid failed. Error message :{}", e);
+            return new ResponseData<>(StringUtils.EMPTY,
+                ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
+        } catch (TimeoutException e) {
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.TRANSACTION_TIMEOUT);
+        } catch (PrivateKeyIllegalException e) {
+            return new ResponseData<>(StringUtils.EMPTY, e.getErrorCode());
+        } catch (Exception e) {
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.UNKNOW_ERROR);
         }
-        return responseData;
+        return checkResp;
     }
 
     /**
-     * Get a WeIdentity DID Document.
+     * Create a WeIdentity DID without blocking the caller.
      *
-     * @param weId the WeIdentity DID
-     * @return the WeIdentity DID document
+     * @param createWeIdArgs the create WeIdentity DID args
+     * @return the response data
      */
     @Override
-    public ResponseData<WeIdDocument> getWeIdDocument(String weId) {
-        ResponseData<WeIdDocument> responseData = new ResponseData<WeIdDocument>();
-        WeIdDocument result = new WeIdDocument();
-        result.setId(weId);
+    public CompletableFuture<ResponseData<String>> createWeIdAsync(
+        CreateWeIdArgs createWeIdArgs) {
 
-        if (!WeIdUtils.isWeIdValid(weId)) {
-            logger.error("Input weId : {} is invalid.", weId);
-            responseData = new ResponseData<>(null, ErrorCode.WEID_INVALID);
-            return responseData;
+        ResponseData<String> checkResp = checkCreateWeIdArgs(createWeIdArgs);
+        if (ErrorCode.SUCCESS.getCode() != checkResp.getErrorCode().intValue()) {
+            return CompletableFuture.completedFuture(checkResp);
         }
-
-        int latestBlockNumber = 0;
-        try {
-            String identityAddr = WeIdUtils.convertWeIdToAddress(weId);
-            latestBlockNumber =
-                weIdContract
-                    .getLatestRelatedBlock(new Address(identityAddr))
-                    .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS)
-                    .getValue()
-                    .intValue();
+        String weId = checkResp.getResult();
+        String privateKey = createWeIdArgs.getWeIdPrivateKey().getPrivateKey();
+        return this.isWeIdExistAsync(weId)
+            .thenCompose(isWeIdExistResp -> {
+                if (null == isWeIdExistResp.getResult() || isWeIdExistResp.getResult()) {
+                    return CompletableFuture.completedFuture(
+                        new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_ALREADY_EXIST));
+                }
+                return sendAttribute(privateKey, buildCreatedAttribute(weId))
+                    .thenApply(receipt -> hasAttributeChanged(receipt)
+                        ? checkResp
+                        : new ResponseData<>(
+                            StringUtils.EMPTY, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH));
+            })
+            .exceptionally(e -> {
+                logger.error("create weid failed. Error message :{}", e);
+                ErrorCode errorCode = toErrorCode(e);
+                if (ErrorCode.TRANSACTION_EXECUTE_ERROR == errorCode) {
+                    errorCode = ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH;
+                }
+                return new ResponseData<>(StringUtils.EMPTY, errorCode);
+            });
+    }
+
+    /**
+     * Check the create WeIdentity DID args.
+     *
+     * @return the WeIdentity DID of the public key, or the error code of the illegal input
+     */
+    private static ResponseData<String> checkCreateWeIdArgs(CreateWeIdArgs createWeIdArgs) {
+
+        if (null == createWeIdArgs) {
+            logger.error("[createWeId]: input parameter createWeIdArgs is null.");
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.ILLEGAL_INPUT);
+        }
+        if (!WeIdUtils.isPrivateKeyValid(createWeIdArgs.getWeIdPrivateKey())) {
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_PRIVATEKEY_INVALID);
+        }
+        String privateKey = createWeIdArgs.getWeIdPrivateKey().getPrivateKey();
+        String publicKey = createWeIdArgs.getPublicKey();
+        if (StringUtils.isBlank(publicKey)) {
+            return new ResponseData<>(StringUtils.EMPTY, ErrorCode.WEID_PUBLICKEY_INVALID);
+        }
+        if (!WeIdUtils.isKeypairMatch(privateKey, publicKey)) {
+            return new ResponseData<>(
+                StringUtils.EMPTY, ErrorCode.WEID_PUBLICKEY_AND_PRIVATEKEY_NOT_MATCHED);
+        }
+        return new ResponseData<>(WeIdUtils.convertPublicKeyToWeId(publicKey), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * Get a WeIdentity DID Document.
+     *
+     * @param weId the WeIdentity DID
+     * @return the WeIdentity DID document
+     */
+    @Override
+    public ResponseData<WeIdDocument> getWeIdDocument(String weId) {
+        ResponseData<WeIdDocument> responseData = new ResponseData<WeIdDocument>();
+
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            logger.error("Input weId : {} is invalid.", weId);
+            responseData = new ResponseData<>(null, ErrorCode.WEID_INVALID);
+            return responseData;
+        }
+
+        int latestBlockNumber = 0;
+        try {
+            latestBlockNumber = getLatestRelatedBlock(weId);
             if (0 == latestBlockNumber) {
                 return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
             }
+            List<WeIdAttributeChange> history = resolveHistory(weId, latestBlockNumber);
+            responseData.setResult(buildupWeIdDocument(weId, history));
         } catch (InterruptedException | ExecutionException e) {
             logger.error("Set weId service failed. Error message :{}", e);
             return responseData = new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
         } catch (TimeoutException e) {
             return new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT);
+        } catch (ResolveEventLogException e) {
+            logger.error("Resolve weId document failed. Error message :{}", e);
+            return new ResponseData<>(null, e.getErrorCode());
         }
-
-        resolveTransaction(weId, latestBlockNumber, result);
-        responseData.setResult(result);
         return responseData;
     }
 
+    /**
+     * Get a WeIdentity DID Document without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return the WeIdentity DID document
+     */
+    @Override
+    public CompletableFuture<ResponseData<WeIdDocument>> getWeIdDocumentAsync(String weId) {
+
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            logger.error("Input weId : {} is invalid.", weId);
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(null, ErrorCode.WEID_INVALID));
+        }
+
+        return toCompletableFuture(weIdContract
+            .getLatestRelatedBlock(new Address(WeIdUtils.convertWeIdToAddress(weId))))
+            .thenCompose(latestBlock -> {
+                int latestBlockNumber = latestBlock.getValue().intValue();
+                if (0 == latestBlockNumber) {
+                    return CompletableFuture.completedFuture(
+                        new ResponseData<WeIdDocument>(null, ErrorCode.WEID_DOES_NOT_EXIST));
+                }
+                return resolveHistoryAsync(weId, latestBlockNumber)
+                    .thenApply(history -> new ResponseData<>(
+                        buildupWeIdDocument(weId, history), ErrorCode.SUCCESS));
+            })
+            .exceptionally(e -> {
+                logger.error("Resolve weId document failed. Error message :{}", e);
+                return new ResponseData<>(null, toErrorCode(e));
+            });
+    }
+
+    /**
+     * Get the WeIdentity DID Documents of several WeIdentity DIDs, sharing the block and receipt
+     * fetches among them.
+     *
+     * @param weIds the WeIdentity DIDs
+     * @return the WeIdentity DID documents, in the order of the input
+     */
+    @Override
+    public ResponseData<List<ResponseData<WeIdDocument>>> getWeIdDocuments(List<String> weIds) {
+
+        if (null == weIds) {
+            logger.error("Input weIds is null.");
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+
+        Map<String, BatchResolution> resolutions = new LinkedHashMap<>();
+        Map<BatchResolution, Future<Uint256>> latestBlockFutures = new LinkedHashMap<>();
+        for (String weId : weIds) {
+            if (resolutions.containsKey(weId)) {
+                continue;
+            }
+            BatchResolution resolution = new BatchResolution(weId);
+            resolutions.put(weId, resolution);
+            if (!WeIdUtils.isWeIdValid(weId)) {
+                logger.error("Input weId : {} is invalid.", weId);
+                resolution.result = new ResponseData<>(null, ErrorCode.WEID_INVALID);
+                continue;
+            }
+            latestBlockFutures.put(resolution,
+                weIdContract.getLatestRelatedBlock(new Address(resolution.weAddress)));
+        }
+
+        TreeMap<Integer, List<BatchResolution>> blockWalk = new TreeMap<>();
+        for (Map.Entry<BatchResolution, Future<Uint256>> entry : latestBlockFutures.entrySet()) {
+            BatchResolution resolution = entry.getKey();
+            try {
+                resolution.latestBlockNumber = entry
+                    .getValue()
+                    .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS)
+                    .getValue()
+                    .intValue();
+            } catch (InterruptedException | ExecutionException e) {
+                logger.error("Get latest related block of weId : {} failed. Error message :{}",
+                    resolution.weId, e);
+                resolution.result = new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
+                continue;
+            } catch (TimeoutException e) {
+                resolution.result = new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT);
+                continue;
+            }
+            if (0 == resolution.latestBlockNumber) {
+                resolution.result = new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
+                continue;
+            }
+            if (isIndexedUpTo(resolution.latestBlockNumber)) {
+                resolution.result = new ResponseData<>(
+                    buildupWeIdDocument(resolution.weId,
+                        eventIndexer.getHistory(resolution.weId, resolution.latestBlockNumber)),
+                    ErrorCode.SUCCESS);
+                continue;
+            }
+            resolution.cached = resolvedHistoryCache.getIfPresent(resolution.weAddress);
+            if (null != resolution.cached
+                && resolution.cached.getBlockNumber() == resolution.latestBlockNumber) {
+                resolution.result = new ResponseData<>(
+                    buildupWeIdDocument(resolution.weId, resolution.cached.getEvents()),
+                    ErrorCode.SUCCESS);
+                continue;
+            }
+            if (null != resolution.cached
+                && resolution.cached.getBlockNumber() < resolution.latestBlockNumber) {
+                resolution.stopBlockNumber = resolution.cached.getBlockNumber();
+            }
+            blockWalk
+                .computeIfAbsent(resolution.latestBlockNumber, k -> new ArrayList<>())
+                .add(resolution);
+        }
+
+        // walk the merged chains from the newest block, each block is fetched once for all the
+        // WeIdentity DIDs waiting on it
+        while (!blockWalk.isEmpty()) {
+            Map.Entry<Integer, List<BatchResolution>> entry = blockWalk.pollLastEntry();
+            int blockNumber = entry.getKey();
+            Map<String, List<BatchResolution>> waiting = new HashMap<>();
+            Map<String, byte[]> eventBlooms = new HashMap<>();
+            for (BatchResolution resolution : entry.getValue()) {
+                String identity = StringUtils.lowerCase(resolution.weAddress);
+                waiting.computeIfAbsent(identity, k -> new ArrayList<>()).add(resolution);
+                eventBlooms.computeIfAbsent(identity, k -> buildEventBloom(resolution.weAddress));
+            }
+
+            List<WeIdAttributeChangedEventResponse> events;
+            try {
+                EthBlock latestBlock = fetchBlock(blockNumber);
+                // a mismatch fails only the WeIdentity DIDs whose chains it breaks
+                for (String identity :
+                    findBloomMismatches(blockNumber, latestBlock, eventBlooms)) {
+                    eventBlooms.remove(identity);
+                    waiting.remove(identity).forEach(resolution -> resolution.result =
+                        new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR));
+                }
+                if (eventBlooms.isEmpty()) {
+                    continue;
+                }
+                List<Transaction> transList = selectRelatedTransactions(latestBlock, eventBlooms);
+                events = decodeBlockEvents(fetchReceipts(blockNumber, transList), eventBlooms);
+            } catch (ResolveEventLogException e) {
+                logger.error("Resolve block : {} failed. Error message :{}", blockNumber, e);
+                waiting.values().forEach(waitingResolutions -> waitingResolutions.forEach(
+                    resolution -> resolution.result = new ResponseData<>(null, e.getErrorCode())));
+                continue;
+            }
+
+            Map<String, List<WeIdAttributeChangedEventResponse>> dispatched = new HashMap<>();
+            for (WeIdAttributeChangedEventResponse res : events) {
+                dispatched
+                    .computeIfAbsent(StringUtils.lowerCase(res.identity.toString()),
+                        k -> new ArrayList<>())
+                    .add(res);
+            }
+            for (Map.Entry<String, List<BatchResolution>> waitingEntry : waiting.entrySet()) {
+                List<WeIdAttributeChangedEventResponse> identityEvents =
+                    dispatched.getOrDefault(waitingEntry.getKey(), Collections.emptyList());
+                int previousBlock = getPreviousBlock(identityEvents, blockNumber);
+                for (BatchResolution resolution : waitingEntry.getValue()) {
+                    // events within a block are emitted oldest first, keep the history newest
+                    // first
+                    for (int i = identityEvents.size() - 1; i >= 0; i--) {
+                        resolution.history.add(
+                            toWeIdAttributeChange(resolution.weId, identityEvents.get(i),
+                                blockNumber));
+                    }
+                    if (previousBlock > resolution.stopBlockNumber) {
+                        blockWalk
+                            .computeIfAbsent(previousBlock, k -> new ArrayList<>())
+                            .add(resolution);
+                    } else {
+                        completeBatchResolution(resolution);
+                    }
+                }
+            }
+        }
+
+        List<ResponseData<WeIdDocument>> documents = new ArrayList<>(weIds.size());
+        for (String weId : weIds) {
+            documents.add(resolutions.get(weId).result);
+        }
+        return new ResponseData<>(documents, ErrorCode.SUCCESS);
+    }
+
+    private static void completeBatchResolution(BatchResolution resolution) {
+
+        List<WeIdAttributeChange> history = resolution.history;
+        if (resolution.stopBlockNumber != 0) {
+            history.addAll(resolution.cached.getEvents());
+        }
+        resolvedHistoryCache.put(
+            resolution.weAddress, new ResolvedHistory(resolution.latestBlockNumber, history));
+        resolution.result = new ResponseData<>(
+            buildupWeIdDocument(resolution.weId, history), ErrorCode.SUCCESS);
+    }
+
+    /**
+     * Get the attribute change history of a WeIdentity DID, newest first.
+     *
+     * @param weId the WeIdentity DID
+     * @return the lazily resolved attribute history
+     */
+    @Override
+    public ResponseData<Iterator<WeIdAttributeChange>> getWeIdAttributeHistory(String weId) {
+
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            logger.error("Input weId : {} is invalid.", weId);
+            return new ResponseData<>(null, ErrorCode.WEID_INVALID);
+        }
+        try {
+            int latestBlockNumber = getLatestRelatedBlock(weId);
+            if (0 == latestBlockNumber) {
+                return new ResponseData<>(null, ErrorCode.WEID_DOES_NOT_EXIST);
+            }
+            return new ResponseData<>(
+                new WeIdAttributeHistoryIterator(weId, latestBlockNumber, 0), ErrorCode.SUCCESS);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Get weId attribute history failed. Error message :{}", e);
+            return new ResponseData<>(null, ErrorCode.TRANSACTION_EXECUTE_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT);
+        }
+    }
+
+    /**
+     * Observe the document changes of WeIdentity DIDs as new blocks are sealed.
+     *
+     * @param weIds the WeIdentity DIDs to observe, null or empty for all of them
+     * @param fromBlock the first block to emit the changes of
+     * @return the document changes
+     */
+    @Override
+    public ResponseData<Observable<WeIdDocumentChange>> observeWeIdDocumentChanges(
+        List<String> weIds, int fromBlock) {
+
+        if (fromBlock < 0) {
+            logger.error("[observeWeIdDocumentChanges]: fromBlock :{} is illegal.", fromBlock);
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        if (null != weIds) {
+            for (String weId : weIds) {
+                if (!WeIdUtils.isWeIdValid(weId)) {
+                    logger.error("Input weId : {} is invalid.", weId);
+                    return new ResponseData<>(null, ErrorCode.WEID_INVALID);
+                }
+            }
+        }
+        return new ResponseData<>(changeFeed.observe(weIds, fromBlock), ErrorCode.SUCCESS);
+    }
+
     /**
      * Get a WeIdentity DID Document Json.
      *
@@ -509,7 +1275,24 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
     @Override
     public ResponseData<String> getWeIdDocumentJson(String weId) {
 
-        ResponseData<WeIdDocument> responseData = this.getWeIdDocument(weId);
+        return toWeIdDocumentJson(this.getWeIdDocument(weId));
+    }
+
+    /**
+     * Get a WeIdentity DID Document Json without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return the WeIdentity DID document json
+     */
+    @Override
+    public CompletableFuture<ResponseData<String>> getWeIdDocumentJsonAsync(String weId) {
+
+        return this.getWeIdDocumentAsync(weId).thenApply(WeIdServiceImpl::toWeIdDocumentJson);
+    }
+
+    private static ResponseData<String> toWeIdDocumentJson(
+        ResponseData<WeIdDocument> responseData) {
+
         WeIdDocument result = responseData.getResult();
 
         if (null == result) {
@@ -547,19 +1330,66 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
     @Override
     public ResponseData<Boolean> setPublicKey(SetPublicKeyArgs setPublicKeyArgs) {
 
+        ResponseData<WeIdAttributeChange> attribute = buildPublicKeyAttribute(setPublicKeyArgs);
+        if (null == attribute.getResult()) {
+            return new ResponseData<>(false, attribute.getErrorCode(), attribute.getErrorMessage());
+        }
+        String privateKey = setPublicKeyArgs.getUserWeIdPrivateKey().getPrivateKey();
+        try {
+            TransactionReceipt receipt = sendAttribute(privateKey, attribute.getResult())
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            return toSetAttributeResponse(receipt);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Set public key failed. Error message :{}", e);
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
+        } catch (PrivateKeyIllegalException e) {
+            return new ResponseData<>(false, e.getErrorCode());
+        } catch (Exception e) {
+            return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
+        }
+    }
+
+    /**
+     * Set Public Key without blocking the caller.
+     *
+     * @param setPublicKeyArgs the set public key args
+     * @return the response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> setPublicKeyAsync(
+        SetPublicKeyArgs setPublicKeyArgs) {
+
+        ResponseData<WeIdAttributeChange> attribute = buildPublicKeyAttribute(setPublicKeyArgs);
+        if (null == attribute.getResult()) {
+            return CompletableFuture.completedFuture(new ResponseData<>(
+                false, attribute.getErrorCode(), attribute.getErrorMessage()));
+        }
+        return setAttributeAsync(
+            setPublicKeyArgs.getUserWeIdPrivateKey().getPrivateKey(), attribute.getResult());
+    }
+
+    private ResponseData<WeIdAttributeChange> buildPublicKeyAttribute(
+        SetPublicKeyArgs setPublicKeyArgs) {
+
         if (!verifySetPublicKeyArgs(setPublicKeyArgs)) {
             logger.error("[setPublicKey]: input parameter setPublicKeyArgs is illegal.");
-            return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
         }
         if (!WeIdUtils.isPrivateKeyValid(setPublicKeyArgs.getUserWeIdPrivateKey())) {
-            return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_INVALID);
+            return new ResponseData<>(null, ErrorCode.WEID_PRIVATEKEY_INVALID);
         }
-        ResponseData<Boolean> responseData = new ResponseData<Boolean>();
-        String weId = setPublicKeyArgs.getWeId();
+        return buildPublicKeyAttribute(setPublicKeyArgs.getWeId(), setPublicKeyArgs);
+    }
+
+    private ResponseData<WeIdAttributeChange> buildPublicKeyAttribute(
+        String weId, SetPublicKeyArgs setPublicKeyArgs) {
+
         String weAddress = WeIdUtils.convertWeIdToAddress(weId);
         if (StringUtils.isEmpty(weAddress)) {
             logger.error("setPublicKey: weId : {} is invalid.", weId);
-            return new ResponseData<>(false, ErrorCode.WEID_INVALID);
+            return new ResponseData<>(null, ErrorCode.WEID_INVALID);
         }
         String owner = setPublicKeyArgs.getOwner();
         if (StringUtils.isEmpty(owner)) {
@@ -569,7 +1399,7 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
                 owner = WeIdUtils.convertWeIdToAddress(owner);
             } else {
                 logger.error("setPublicKey: owner : {} is invalid.", owner);
-                return new ResponseData<>(false, ErrorCode.WEID_INVALID);
+                return new ResponseData<>(null, ErrorCode.WEID_INVALID);
             }
         }
         String pubKey = setPublicKeyArgs.getPublicKey();
@@ -581,46 +1411,24 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
                 .append("/")
                 .append("base64")
                 .toString();
-        String privateKey = setPublicKeyArgs.getUserWeIdPrivateKey().getPrivateKey();
-        try {
-            WeIdContract weIdContract = (WeIdContract) reloadContract(
-                weIdContractAddress,
-                privateKey,
-                WeIdContract.class);
-            Future<TransactionReceipt> future =
-                weIdContract.setAttribute(
-                    new Address(weAddress),
-                    DataTypetUtils.stringToBytes32(attributeKey),
-                    DataTypetUtils.stringToDynamicBytes(
-                        new StringBuffer().append(pubKey).append("/").append(owner).toString()),
-                    DateUtils.getCurrentTimeStampInt256());
-            TransactionReceipt receipt =
-                future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-            List<WeIdAttributeChangedEventResponse> response =
-                WeIdContract.getWeIdAttributeChangedEvents(receipt);
-            if (CollectionUtils.isNotEmpty(response)) {
-                return new ResponseData<>(true, ErrorCode.SUCCESS);
-            } else {
-                return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
-            }
-        } catch (InterruptedException | ExecutionException e) {
-            logger.error("Set public key failed. Error message :{}", e);
-            responseData = new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
-        } catch (TimeoutException e) {
-            return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
-        } catch (PrivateKeyIllegalException e) {
-            return new ResponseData<>(false, e.getErrorCode());
-        } catch (Exception e) {
-            return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
-        }
-        return responseData;
+        return new ResponseData<>(
+            buildAttribute(
+                weId,
+                attributeKey,
+                new StringBuffer().append(pubKey).append("/").append(owner).toString()),
+            ErrorCode.SUCCESS);
     }
 
     private boolean verifySetPublicKeyArgs(SetPublicKeyArgs setPublicKeyArgs) {
 
+        return verifyPublicKeyProperty(setPublicKeyArgs)
+            && null != setPublicKeyArgs.getUserWeIdPrivateKey();
+    }
+
+    private boolean verifyPublicKeyProperty(SetPublicKeyArgs setPublicKeyArgs) {
+
         return !(null == setPublicKeyArgs
             || null == setPublicKeyArgs.getType()
-            || null == setPublicKeyArgs.getUserWeIdPrivateKey()
             || null == setPublicKeyArgs.getPublicKey()
         );
     }
@@ -634,62 +1442,83 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
     @Override
     public ResponseData<Boolean> setService(SetServiceArgs setServiceArgs) {
 
+        ResponseData<WeIdAttributeChange> attribute = buildServiceAttribute(setServiceArgs);
+        if (null == attribute.getResult()) {
+            return new ResponseData<>(false, attribute.getErrorCode(), attribute.getErrorMessage());
+        }
+        String privateKey = setServiceArgs.getUserWeIdPrivateKey().getPrivateKey();
+        try {
+            TransactionReceipt receipt = sendAttribute(privateKey, attribute.getResult())
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            return toSetAttributeResponse(receipt);
+        } catch (InterruptedException | ExecutionException e) {
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
+        } catch (PrivateKeyIllegalException e) {
+            return new ResponseData<>(false, e.getErrorCode());
+        } catch (Exception e) {
+            logger.error("Set weId service failed. Error message :{}", e);
+            return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
+        }
+    }
+
+    /**
+     * Set Service without blocking the caller.
+     *
+     * @param setServiceArgs the set service args
+     * @return the response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> setServiceAsync(
+        SetServiceArgs setServiceArgs) {
+
+        ResponseData<WeIdAttributeChange> attribute = buildServiceAttribute(setServiceArgs);
+        if (null == attribute.getResult()) {
+            return CompletableFuture.completedFuture(new ResponseData<>(
+                false, attribute.getErrorCode(), attribute.getErrorMessage()));
+        }
+        return setAttributeAsync(
+            setServiceArgs.getUserWeIdPrivateKey().getPrivateKey(), attribute.getResult());
+    }
+
+    private ResponseData<WeIdAttributeChange> buildServiceAttribute(
+        SetServiceArgs setServiceArgs) {
+
         if (!verifySetServiceArgs(setServiceArgs)) {
             logger.error("[setService]: input parameter setServiceArgs is illegal.");
-            return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
         }
         if (!WeIdUtils.isPrivateKeyValid(setServiceArgs.getUserWeIdPrivateKey())) {
-            return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_INVALID);
-        }
-        ResponseData<Boolean> responseData = new ResponseData<>();
-        String weId = setServiceArgs.getWeId();
-        String serviceType = setServiceArgs.getType();
-        String serviceEndpoint = setServiceArgs.getServiceEndpoint();
-        if (WeIdUtils.isWeIdValid(weId)) {
-            String privateKey = setServiceArgs.getUserWeIdPrivateKey().getPrivateKey();
-            try {
-                WeIdContract weIdContract = (WeIdContract) reloadContract(
-                    weIdContractAddress,
-                    privateKey,
-                    WeIdContract.class);
-                Future<TransactionReceipt> future =
-                    weIdContract.setAttribute(
-                        new Address(WeIdUtils.convertWeIdToAddress(weId)),
-                        DataTypetUtils.stringToBytes32(
-                            WeIdConstant.WEID_DOC_SERVICE_PREFIX + "/" + serviceType),
-                        DataTypetUtils.stringToDynamicBytes(serviceEndpoint),
-                        DateUtils.getCurrentTimeStampInt256());
-
-                TransactionReceipt receipt =
-                    future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-                List<WeIdAttributeChangedEventResponse> response =
-                    WeIdContract.getWeIdAttributeChangedEvents(receipt);
-                if (CollectionUtils.isNotEmpty(response)) {
-                    return new ResponseData<>(true, ErrorCode.SUCCESS);
-                } else {
-                    return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                responseData = new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
-            } catch (TimeoutException e) {
-                return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
-            } catch (PrivateKeyIllegalException e) {
-                return new ResponseData<>(false, e.getErrorCode());
-            } catch (Exception e) {
-                logger.error("Set weId service failed. Error message :{}", e);
-                return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
-            }
-        } else {
-            responseData = new ResponseData<>(false, ErrorCode.WEID_INVALID);
+            return new ResponseData<>(null, ErrorCode.WEID_PRIVATEKEY_INVALID);
         }
-        return responseData;
+        return buildServiceAttribute(setServiceArgs.getWeId(), setServiceArgs);
+    }
+
+    private ResponseData<WeIdAttributeChange> buildServiceAttribute(
+        String weId, SetServiceArgs setServiceArgs) {
+
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            return new ResponseData<>(null, ErrorCode.WEID_INVALID);
+        }
+        return new ResponseData<>(
+            buildAttribute(
+                weId,
+                WeIdConstant.WEID_DOC_SERVICE_PREFIX + "/" + setServiceArgs.getType(),
+                setServiceArgs.getServiceEndpoint()),
+            ErrorCode.SUCCESS);
     }
 
     private boolean verifySetServiceArgs(SetServiceArgs setServiceArgs) {
 
+        return verifyServiceProperty(setServiceArgs)
+            && null != setServiceArgs.getUserWeIdPrivateKey();
+    }
+
+    private boolean verifyServiceProperty(SetServiceArgs setServiceArgs) {
+
         return !(null == setServiceArgs
             || null == setServiceArgs.getType()
-            || null == setServiceArgs.getUserWeIdPrivateKey()
             || null == setServiceArgs.getServiceEndpoint()
         );
     }
@@ -703,80 +1532,326 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
     @Override
     public ResponseData<Boolean> setAuthentication(SetAuthenticationArgs setAuthenticationArgs) {
 
+        ResponseData<WeIdAttributeChange> attribute =
+            buildAuthenticationAttribute(setAuthenticationArgs);
+        if (null == attribute.getResult()) {
+            return new ResponseData<>(false, attribute.getErrorCode(), attribute.getErrorMessage());
+        }
+        String privateKey = setAuthenticationArgs.getUserWeIdPrivateKey().getPrivateKey();
+        try {
+            TransactionReceipt receipt = sendAttribute(privateKey, attribute.getResult())
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            return toSetAttributeResponse(receipt);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Set authenticate failed. Error message :{}", e);
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
+        } catch (PrivateKeyIllegalException e) {
+            return new ResponseData<>(false, e.getErrorCode());
+        } catch (Exception e) {
+            return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
+        }
+    }
+
+    /**
+     * Set Authentication without blocking the caller.
+     *
+     * @param setAuthenticationArgs the set authentication args
+     * @return the response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> setAuthenticationAsync(
+        SetAuthenticationArgs setAuthenticationArgs) {
+
+        ResponseData<WeIdAttributeChange> attribute =
+            buildAuthenticationAttribute(setAuthenticationArgs);
+        if (null == attribute.getResult()) {
+            return CompletableFuture.completedFuture(new ResponseData<>(
+                false, attribute.getErrorCode(), attribute.getErrorMessage()));
+        }
+        return setAttributeAsync(
+            setAuthenticationArgs.getUserWeIdPrivateKey().getPrivateKey(),
+            attribute.getResult());
+    }
+
+    private ResponseData<WeIdAttributeChange> buildAuthenticationAttribute(
+        SetAuthenticationArgs setAuthenticationArgs) {
+
         if (!verifySetAuthenticationArgs(setAuthenticationArgs)) {
             logger.error("[setAuthentication]: input parameter setAuthenticationArgs is illegal.");
-            return new ResponseData<>(false, ErrorCode.ILLEGAL_INPUT);
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
         }
         if (!WeIdUtils.isPrivateKeyValid(setAuthenticationArgs.getUserWeIdPrivateKey())) {
-            return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_INVALID);
+            return new ResponseData<>(null, ErrorCode.WEID_PRIVATEKEY_INVALID);
         }
-        ResponseData<Boolean> responseData = new ResponseData<>();
-        String weId = setAuthenticationArgs.getWeId();
-        if (WeIdUtils.isWeIdValid(weId)) {
-            String weAddress = WeIdUtils.convertWeIdToAddress(weId);
+        return buildAuthenticationAttribute(setAuthenticationArgs.getWeId(), setAuthenticationArgs);
+    }
+
+    private ResponseData<WeIdAttributeChange> buildAuthenticationAttribute(
+        String weId, SetAuthenticationArgs setAuthenticationArgs) {
 
-            String owner = setAuthenticationArgs.getOwner();
-            if (StringUtils.isEmpty(owner)) {
-                owner = weAddress;
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            return new ResponseData<>(null, ErrorCode.WEID_INVALID);
+        }
+        String owner = setAuthenticationArgs.getOwner();
+        if (StringUtils.isEmpty(owner)) {
+            owner = WeIdUtils.convertWeIdToAddress(weId);
+        } else {
+            if (WeIdUtils.isWeIdValid(owner)) {
+                owner = WeIdUtils.convertWeIdToAddress(owner);
             } else {
-                if (WeIdUtils.isWeIdValid(owner)) {
-                    owner = WeIdUtils.convertWeIdToAddress(owner);
-                } else {
-                    logger.error("setPublicKey: owner : {} is invalid.", owner);
-                    return new ResponseData<>(false, ErrorCode.WEID_INVALID);
-                }
-            }
-            String privateKey = setAuthenticationArgs.getUserWeIdPrivateKey().getPrivateKey();
-            try {
-                WeIdContract weIdContract = (WeIdContract) reloadContract(
-                    weIdContractAddress,
-                    privateKey,
-                    WeIdContract.class);
-                Future<TransactionReceipt> future =
-                    weIdContract.setAttribute(
-                        new Address(weAddress),
-                        DataTypetUtils.stringToBytes32(WeIdConstant.WEID_DOC_AUTHENTICATE_PREFIX),
-                        DataTypetUtils.stringToDynamicBytes(
-                            new StringBuffer()
-                                .append(setAuthenticationArgs.getPublicKey())
-                                .append("/")
-                                .append(owner)
-                                .toString()),
-                        DateUtils.getCurrentTimeStampInt256());
-                TransactionReceipt receipt =
-                    future.get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
-                List<WeIdAttributeChangedEventResponse> response =
-                    WeIdContract.getWeIdAttributeChangedEvents(receipt);
-                if (CollectionUtils.isNotEmpty(response)) {
-                    responseData = new ResponseData<>(true, ErrorCode.SUCCESS);
-                } else {
-                    return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
-                }
-            } catch (InterruptedException | ExecutionException e) {
-                logger.error("Set authenticate failed. Error message :{}", e);
-                responseData = new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
-            } catch (TimeoutException e) {
-                return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
-            } catch (PrivateKeyIllegalException e) {
-                return new ResponseData<>(false, e.getErrorCode());
-            } catch (Exception e) {
-                return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
+                logger.error("setPublicKey: owner : {} is invalid.", owner);
+                return new ResponseData<>(null, ErrorCode.WEID_INVALID);
             }
-        } else {
-            responseData = new ResponseData<>(false, ErrorCode.WEID_INVALID);
         }
-        return responseData;
+        return new ResponseData<>(
+            buildAttribute(
+                weId,
+                WeIdConstant.WEID_DOC_AUTHENTICATE_PREFIX,
+                new StringBuffer()
+                    .append(setAuthenticationArgs.getPublicKey())
+                    .append("/")
+                    .append(owner)
+                    .toString()),
+            ErrorCode.SUCCESS);
     }
 
     private boolean verifySetAuthenticationArgs(SetAuthenticationArgs setAuthenticationArgs) {
 
+        return verifyAuthenticationProperty(setAuthenticationArgs)
+            && null != setAuthenticationArgs.getUserWeIdPrivateKey();
+    }
+
+    private boolean verifyAuthenticationProperty(SetAuthenticationArgs setAuthenticationArgs) {
+
         return !(null == setAuthenticationArgs
             || null == setAuthenticationArgs.getType()
-            || null == setAuthenticationArgs.getUserWeIdPrivateKey()
             || StringUtils.isEmpty(setAuthenticationArgs.getPublicKey())
         );
     }
 
+    /**
+     * Set several attributes in one transaction.
+     *
+     * @param updateWeIdAttributesArgs the update WeIdentity DID attributes args
+     * @return the response data
+     */
+    @Override
+    public ResponseData<Boolean> updateWeIdAttributes(
+        UpdateWeIdAttributesArgs updateWeIdAttributesArgs) {
+
+        ResponseData<List<WeIdAttributeChange>> attributes =
+            buildAttributes(updateWeIdAttributesArgs);
+        if (null == attributes.getResult()) {
+            return new ResponseData<>(
+                false, attributes.getErrorCode(), attributes.getErrorMessage());
+        }
+        String privateKey = updateWeIdAttributesArgs.getUserWeIdPrivateKey().getPrivateKey();
+        try {
+            TransactionReceipt receipt = sendAttributes(
+                privateKey, updateWeIdAttributesArgs.getWeId(), attributes.getResult())
+                .get(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+            return toSetAttributeResponse(receipt);
+        } catch (InterruptedException | ExecutionException e) {
+            logger.error("Update weId attributes failed. Error message :{}", e);
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_EXECUTE_ERROR);
+        } catch (TimeoutException e) {
+            return new ResponseData<>(false, ErrorCode.TRANSACTION_TIMEOUT);
+        } catch (PrivateKeyIllegalException e) {
+            return new ResponseData<>(false, e.getErrorCode());
+        } catch (Exception e) {
+            return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
+        }
+    }
+
+    /**
+     * Set several attributes in one transaction without blocking the caller.
+     *
+     * @param updateWeIdAttributesArgs the update WeIdentity DID attributes args
+     * @return the response data
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> updateWeIdAttributesAsync(
+        UpdateWeIdAttributesArgs updateWeIdAttributesArgs) {
+
+        ResponseData<List<WeIdAttributeChange>> attributes =
+            buildAttributes(updateWeIdAttributesArgs);
+        if (null == attributes.getResult()) {
+            return CompletableFuture.completedFuture(new ResponseData<>(
+                false, attributes.getErrorCode(), attributes.getErrorMessage()));
+        }
+        String privateKey = updateWeIdAttributesArgs.getUserWeIdPrivateKey().getPrivateKey();
+        try {
+            return sendAttributes(
+                privateKey, updateWeIdAttributesArgs.getWeId(), attributes.getResult())
+                .thenApply(WeIdServiceImpl::toSetAttributeResponse)
+                .exceptionally(e -> {
+                    logger.error("Update weId attributes failed. Error message :{}", e);
+                    return new ResponseData<>(false, toErrorCode(e));
+                });
+        } catch (PrivateKeyIllegalException e) {
+            return CompletableFuture.completedFuture(new ResponseData<>(false, e.getErrorCode()));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.UNKNOW_ERROR));
+        }
+    }
+
+    /**
+     * Build the attributes of the update WeIdentity DID attributes args, public keys first,
+     * then authentications, then services.
+     */
+    private ResponseData<List<WeIdAttributeChange>> buildAttributes(
+        UpdateWeIdAttributesArgs updateWeIdAttributesArgs) {
+
+        if (null == updateWeIdAttributesArgs
+            || null == updateWeIdAttributesArgs.getUserWeIdPrivateKey()) {
+            logger.error("[updateWeIdAttributes]: input parameter is illegal.");
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+        if (!WeIdUtils.isPrivateKeyValid(updateWeIdAttributesArgs.getUserWeIdPrivateKey())) {
+            return new ResponseData<>(null, ErrorCode.WEID_PRIVATEKEY_INVALID);
+        }
+        String weId = updateWeIdAttributesArgs.getWeId();
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            return new ResponseData<>(null, ErrorCode.WEID_INVALID);
+        }
+
+        List<ResponseData<WeIdAttributeChange>> attributes = new ArrayList<>();
+        for (SetPublicKeyArgs publicKeyArgs :
+            ListUtils.emptyIfNull(updateWeIdAttributesArgs.getPublicKeys())) {
+            if (!verifyPublicKeyProperty(publicKeyArgs)) {
+                return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+            }
+            attributes.add(buildPublicKeyAttribute(weId, publicKeyArgs));
+        }
+        for (SetAuthenticationArgs authenticationArgs :
+            ListUtils.emptyIfNull(updateWeIdAttributesArgs.getAuthentications())) {
+            if (!verifyAuthenticationProperty(authenticationArgs)) {
+                return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+            }
+            attributes.add(buildAuthenticationAttribute(weId, authenticationArgs));
+        }
+        for (SetServiceArgs serviceArgs :
+            ListUtils.emptyIfNull(updateWeIdAttributesArgs.getServices())) {
+            if (!verifyServiceProperty(serviceArgs)) {
+                return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+            }
+            attributes.add(buildServiceAttribute(weId, serviceArgs));
+        }
+        if (attributes.isEmpty()) {
+            logger.error("[updateWeIdAttributes]: no attribute to set.");
+            return new ResponseData<>(null, ErrorCode.ILLEGAL_INPUT);
+        }
+
+        List<WeIdAttributeChange> result = new ArrayList<>(attributes.size());
+        for (ResponseData<WeIdAttributeChange> attribute : attributes) {
+            if (null == attribute.getResult()) {
+                return new ResponseData<>(
+                    null, attribute.getErrorCode(), attribute.getErrorMessage());
+            }
+            result.add(attribute.getResult());
+        }
+        return new ResponseData<>(result, ErrorCode.SUCCESS);
+    }
+
+    private static WeIdAttributeChange buildCreatedAttribute(String weId) {
+
+        return buildAttribute(
+            weId, WeIdConstant.WEID_DOC_CREATED, DateUtils.getCurrentTimeStampString());
+    }
+
+    private static WeIdAttributeChange buildAttribute(String weId, String key, String value) {
+
+        WeIdAttributeChange attribute = new WeIdAttributeChange();
+        attribute.setWeId(weId);
+        attribute.setKey(key);
+        attribute.setValue(value);
+        return attribute;
+    }
+
+    /**
+     * Send the transaction setting an attribute of a WeIdentity DID, signed by the given key.
+     */
+    private static CompletableFuture<TransactionReceipt> sendAttribute(
+        String privateKey, WeIdAttributeChange attribute) {
+
+        Function function = new Function(
+            "setAttribute",
+            Arrays.<Type>asList(
+                new Address(WeIdUtils.convertWeIdToAddress(attribute.getWeId())),
+                DataTypetUtils.stringToBytes32(attribute.getKey()),
+                DataTypetUtils.stringToDynamicBytes(attribute.getValue()),
+                DateUtils.getCurrentTimeStampInt256()),
+            Collections.<TypeReference<?>>emptyList());
+        return sendTransaction(weIdContractAddress, privateKey, function);
+    }
+
+    /**
+     * Send the transaction setting several attributes of a WeIdentity DID at once. The values
+     * are passed concatenated along with their lengths, as the contract can not take an array of
+     * bytes.
+     */
+    private static CompletableFuture<TransactionReceipt> sendAttributes(
+        String privateKey, String weId, List<WeIdAttributeChange> attributes) {
+
+        List<Bytes32> keys = new ArrayList<>(attributes.size());
+        List<Uint256> valueLengths = new ArrayList<>(attributes.size());
+        ByteArrayOutputStream values = new ByteArrayOutputStream();
+        for (WeIdAttributeChange attribute : attributes) {
+            byte[] value = attribute.getValue().getBytes();
+            keys.add(DataTypetUtils.stringToBytes32(attribute.getKey()));
+            valueLengths.add(new Uint256(value.length));
+            values.write(value, 0, value.length);
+        }
+        Function function = new Function(
+            "setAttributes",
+            Arrays.<Type>asList(
+                new Address(WeIdUtils.convertWeIdToAddress(weId)),
+                new DynamicArray<Bytes32>(keys),
+                new DynamicBytes(values.toByteArray()),
+                new DynamicArray<Uint256>(valueLengths),
+                DateUtils.getCurrentTimeStampInt256()),
+            Collections.<TypeReference<?>>emptyList());
+        return sendTransaction(weIdContractAddress, privateKey, function);
+    }
+
+    private static CompletableFuture<ResponseData<Boolean>> setAttributeAsync(
+        String privateKey, WeIdAttributeChange attribute) {
+
+        try {
+            return sendAttribute(privateKey, attribute)
+                .thenApply(WeIdServiceImpl::toSetAttributeResponse)
+                .exceptionally(e -> {
+                    logger.error("Set weId attribute failed. Error message :{}", e);
+                    return new ResponseData<>(false, toErrorCode(e));
+                });
+        } catch (PrivateKeyIllegalException e) {
+            return CompletableFuture.completedFuture(new ResponseData<>(false, e.getErrorCode()));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.UNKNOW_ERROR));
+        }
+    }
+
+    /**
+     * An attribute is set only if the receipt holds the WeIdAttributeChanged event, the contract
+     * refuses the change silently when the signer does not own the WeIdentity DID.
+     */
+    private static boolean hasAttributeChanged(TransactionReceipt receipt) {
+
+        return CollectionUtils.isNotEmpty(WeIdContract.getWeIdAttributeChangedEvents(receipt));
+    }
+
+    private static ResponseData<Boolean> toSetAttributeResponse(TransactionReceipt receipt) {
+
+        if (hasAttributeChanged(receipt)) {
+            return new ResponseData<>(true, ErrorCode.SUCCESS);
+        }
+        return new ResponseData<>(false, ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH);
+    }
+
     /**
      * Check if WeIdentity DID exists on Chain.
      *
@@ -788,6 +1863,10 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
         if (!WeIdUtils.isWeIdValid(weId)) {
             return new ResponseData<>(false, ErrorCode.WEID_INVALID);
         }
+        // an indexed WeIdentity DID exists for good, others may just not be indexed yet
+        if (null != eventIndexer && eventIndexer.contains(weId)) {
+            return new ResponseData<>(true, ErrorCode.SUCCESS);
+        }
         try {
             Bool isExist = weIdContract
                 .isIdentityExist(new Address(WeIdUtils.convertWeIdToAddress(weId)))
@@ -802,4 +1881,149 @@ public class WeIdServiceImpl extends BaseService implements WeIdService {
             return new ResponseData<>(false, ErrorCode.UNKNOW_ERROR);
         }
     }
+
+    /**
+     * Check if WeIdentity DID exists on Chain without blocking the caller.
+     *
+     * @param weId the WeIdentity DID
+     * @return true if exists, false otherwise
+     */
+    @Override
+    public CompletableFuture<ResponseData<Boolean>> isWeIdExistAsync(String weId) {
+        if (!WeIdUtils.isWeIdValid(weId)) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.WEID_INVALID));
+        }
+        if (null != eventIndexer && eventIndexer.contains(weId)) {
+            return CompletableFuture.completedFuture(new ResponseData<>(true, ErrorCode.SUCCESS));
+        }
+        try {
+            return toCompletableFuture(weIdContract
+                .isIdentityExist(new Address(WeIdUtils.convertWeIdToAddress(weId))))
+                .thenApply(isExist -> new ResponseData<>(isExist.getValue(), ErrorCode.SUCCESS))
+                .exceptionally(e -> new ResponseData<>(false, toErrorCode(e)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(
+                new ResponseData<>(false, ErrorCode.UNKNOW_ERROR));
+        }
+    }
+
+    /**
+     * The attribute history of a WeIdentity DID resolved at a given latest related block.
+     */
+    private static final class ResolvedHistory {
+
+        /**
+         * The latest related block the history was resolved at.
+         */
+        private final int blockNumber;
+
+        /**
+         * The attribute change events, newest first.
+         */
+        private final List<WeIdAttributeChange> events;
+
+        ResolvedHistory(int blockNumber, List<WeIdAttributeChange> events) {
+            this.blockNumber = blockNumber;
+            this.events = Collections.unmodifiableList(events);
+        }
+
+        int getBlockNumber() {
+            return blockNumber;
+        }
+
+        List<WeIdAttributeChange> getEvents() {
+            return events;
+        }
+    }
+
+    /**
+     * Walks the attribute change chain of a WeIdentity DID backwards, one block at a time. A
+     * block is only fetched once the events of the newer blocks have been consumed, so the stack
+     * depth and the memory held stay constant however long the history is.
+     */
+    private static final class WeIdAttributeHistoryIterator
+        implements Iterator<WeIdAttributeChange> {
+
+        private final String weId;
+
+        /**
+         * The logs bloom bits of this WeIdentity DID, keyed by its address.
+         */
+        private final Map<String, byte[]> eventBloom;
+
+        /**
+         * The block that has been resolved already, the walk stops before reaching it.
+         */
+        private final int stopBlockNumber;
+
+        /**
+         * The next block to fetch, 0 once the chain is exhausted.
+         */
+        private int nextBlockNumber;
+
+        /**
+         * The events of the current block that are not consumed yet, newest first.
+         */
+        private final Deque<WeIdAttributeChange> pending = new ArrayDeque<>();
+
+        WeIdAttributeHistoryIterator(String weId, int latestBlockNumber, int stopBlockNumber) {
+            String weAddress = WeIdUtils.convertWeIdToAddress(weId);
+            this.weId = weId;
+            this.eventBloom = Collections.singletonMap(
+                StringUtils.lowerCase(weAddress), buildEventBloom(weAddress));
+            this.stopBlockNumber = stopBlockNumber;
+            this.nextBlockNumber = latestBlockNumber;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (pending.isEmpty() && nextBlockNumber > stopBlockNumber) {
+                List<WeIdAttributeChangedEventResponse> events =
+                    resolveBlockEvents(nextBlockNumber, eventBloom);
+                // events within a block are emitted oldest first, push them newest first
+                for (WeIdAttributeChangedEventResponse res : events) {
+                    pending.push(toWeIdAttributeChange(weId, res, nextBlockNumber));
+                }
+                nextBlockNumber = getPreviousBlock(events, nextBlockNumber);
+            }
+            return !pending.isEmpty();
+        }
+
+        @Override
+        public WeIdAttributeChange next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return pending.poll();
+        }
+    }
+
+    /**
+     * The state of one WeIdentity DID in a batch resolution.
+     */
+    private static final class BatchResolution {
+
+        private final String weId;
+
+        private final String weAddress;
+
+        private int latestBlockNumber;
+
+        private int stopBlockNumber;
+
+        private ResolvedHistory cached;
+
+        /**
+         * The events walked in this resolution, newest first.
+         */
+        private final List<WeIdAttributeChange> history = new ArrayList<>();
+
+        private ResponseData<WeIdDocument> result;
+
+        BatchResolution(String weId) {
+            this.weId = weId;
+            this.weAddress = WeIdUtils.convertWeIdToAddress(weId);
+        }
+    }
 }
@@ -0,0 +1,442 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.indexer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.utils.Numeric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.protocol.base.WeIdAttributeChange;
+import com.webank.weid.util.WeIdUtils;
+
+/**
+ * A local store of WeIdAttributeChanged events keyed by identity address. Events are appended
+ * in chain order to memory-mapped segment files, and the last block flushed is kept in a
+ * checkpoint file, so a reopened store resumes right after it.
+ *
+ * <p>A record is laid out as: record length, identity address, block number, previous block,
+ * updated, key length, key, value length, value. The length is written last, so a record cut
+ * short by a crash reads as the end of the data.
+ *
+ * @author tonychen 2018.12
+ */
+public class WeIdAttributeStore implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdAttributeStore.class);
+
+    private static final String SEGMENT_FILE_FORMAT = "segment-%05d.dat";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final String CHECKPOINT_TEMP_FILE = "checkpoint.tmp";
+
+    private static final int ADDRESS_BYTE_LENGTH = 20;
+
+    /**
+     * The bytes of a record besides its key and value.
+     */
+    private static final int RECORD_FIXED_LENGTH =
+        Integer.BYTES + ADDRESS_BYTE_LENGTH + Integer.BYTES + Integer.BYTES + Long.BYTES
+            + Integer.BYTES + Integer.BYTES;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * The record positions of each identity in chain order, the segment index in the high 32
+     * bits and the offset in the low 32 bits.
+     */
+    private final Map<String, List<Long>> positions = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int writeSegment;
+
+    private int writeOffset;
+
+    /**
+     * The first segment written since the last flush.
+     */
+    private int dirtySegment;
+
+    /**
+     * The last block appended.
+     */
+    private int indexedBlock;
+
+    /**
+     * Open a store, creating it if the directory holds none. Records appended after the last
+     * flush are dropped.
+     *
+     * @param directory the directory of the segment files
+     * @param segmentSize the size of a segment file in bytes
+     * @throws IOException if the files can not be read or mapped
+     */
+    public WeIdAttributeStore(Path directory, int segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        this.indexedBlock = readCheckpoint();
+        recover();
+    }
+
+    private int readCheckpoint() throws IOException {
+
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return 0;
+        }
+        String content = new String(Files.readAllBytes(checkpoint), StandardCharsets.UTF_8);
+        return Integer.parseInt(StringUtils.trim(content));
+    }
+
+    private void recover() throws IOException {
+
+        for (int i = 0; Files.exists(segmentPath(i)); i++) {
+            segments.add(mapSegment(i));
+        }
+        if (segments.isEmpty()) {
+            segments.add(mapSegment(0));
+        }
+
+        int segment = 0;
+        int offset = 0;
+        while (true) {
+            MappedByteBuffer buffer = segments.get(segment);
+            int length = offset + Integer.BYTES <= segmentSize ? buffer.getInt(offset) : 0;
+            if (length == 0 && segment + 1 < segments.size()) {
+                segment++;
+                offset = 0;
+                continue;
+            }
+            if (length < RECORD_FIXED_LENGTH || offset + length > segmentSize
+                || buffer.getInt(offset + Integer.BYTES + ADDRESS_BYTE_LENGTH) > indexedBlock) {
+                break;
+            }
+            String identity = readAddress(buffer, offset);
+            positions
+                .computeIfAbsent(identity, k -> new ArrayList<>())
+                .add(toPosition(segment, offset));
+            offset += length;
+        }
+
+        // drop whatever follows the last record flushed
+        MappedByteBuffer buffer = segments.get(segment);
+        for (int i = offset; i < segmentSize; i++) {
+            buffer.put(i, (byte) 0);
+        }
+        buffer.force();
+        while (segments.size() > segment + 1) {
+            segments.remove(segments.size() - 1);
+            Files.delete(segmentPath(segments.size()));
+        }
+        writeSegment = segment;
+        writeOffset = offset;
+        dirtySegment = segment;
+        logger.info("[WeIdAttributeStore] opened at block :{}, {} identities.",
+            indexedBlock, positions.size());
+    }
+
+    private Path segmentPath(int segment) {
+        return directory.resolve(String.format(SEGMENT_FILE_FORMAT, segment));
+    }
+
+    private MappedByteBuffer mapSegment(int segment) throws IOException {
+
+        try (RandomAccessFile file = new RandomAccessFile(segmentPath(segment).toFile(), "rw")) {
+            file.setLength(segmentSize);
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private static long toPosition(int segment, int offset) {
+        return ((long) segment << Integer.SIZE) | offset;
+    }
+
+    private static String readAddress(ByteBuffer buffer, int offset) {
+
+        byte[] address = new byte[ADDRESS_BYTE_LENGTH];
+        ByteBuffer view = buffer.duplicate();
+        view.position(offset + Integer.BYTES);
+        view.get(address);
+        return Numeric.toHexString(address);
+    }
+
+    /**
+     * Append the events of a block. Blocks must be appended in increasing order. A block is
+     * appended whole or not at all: every event is encoded and every segment it needs is
+     * mapped before any of them is written.
+     *
+     * @param blockNumber the block number
+     * @param changes the events of the block in the order they were emitted
+     * @throws IOException if a new segment can not be mapped
+     * @throws IllegalArgumentException if an event can not be stored, as it does not fit in
+     *     a segment
+     */
+    public void append(int blockNumber, List<WeIdAttributeChange> changes) throws IOException {
+
+        lock.writeLock().lock();
+        try {
+            if (blockNumber <= indexedBlock) {
+                throw new IOException(
+                    "block " + blockNumber + " is not after the indexed block " + indexedBlock);
+            }
+            List<Record> records = new ArrayList<>(changes.size());
+            for (WeIdAttributeChange change : changes) {
+                records.add(encodeRecord(blockNumber, change));
+            }
+            mapSegmentsFor(records);
+            for (Record record : records) {
+                writeRecord(record);
+            }
+            indexedBlock = blockNumber;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Record encodeRecord(int blockNumber, WeIdAttributeChange change) {
+
+        String identity = StringUtils.lowerCase(WeIdUtils.convertWeIdToAddress(change.getWeId()));
+        byte[] address = Numeric.hexStringToByteArray(identity);
+        byte[] key = StringUtils.defaultString(change.getKey()).getBytes(StandardCharsets.UTF_8);
+        byte[] value =
+            StringUtils.defaultString(change.getValue()).getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_FIXED_LENGTH + key.length + value.length;
+        if (address.length != ADDRESS_BYTE_LENGTH || length > segmentSize) {
+            throw new IllegalArgumentException("event of " + identity + " in block "
+                + blockNumber + " can not be stored.");
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        bytes.putInt(length);
+        bytes.put(address);
+        bytes.putInt(blockNumber);
+        bytes.putInt(change.getPreviousBlock());
+        bytes.putLong(change.getUpdated());
+        bytes.putInt(key.length);
+        bytes.put(key);
+        bytes.putInt(value.length);
+        bytes.put(value);
+        return new Record(identity, bytes.array());
+    }
+
+    /**
+     * Map the segments the records need past the one being written, removing them again if
+     * one of them can not be mapped.
+     */
+    private void mapSegmentsFor(List<Record> records) throws IOException {
+
+        int segment = writeSegment;
+        int offset = writeOffset;
+        for (Record record : records) {
+            if (offset + record.bytes.length > segmentSize) {
+                segment++;
+                offset = 0;
+            }
+            offset += record.bytes.length;
+        }
+
+        int mapped = segments.size();
+        try {
+            while (segments.size() <= segment) {
+                segments.add(mapSegment(segments.size()));
+            }
+        } catch (IOException e) {
+            while (segments.size() > mapped) {
+                segments.remove(segments.size() - 1);
+                try {
+                    Files.deleteIfExists(segmentPath(segments.size()));
+                } catch (IOException deleteException) {
+                    e.addSuppressed(deleteException);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void writeRecord(Record record) {
+
+        int length = record.bytes.length;
+        if (writeOffset + length > segmentSize) {
+            writeSegment++;
+            writeOffset = 0;
+        }
+
+        // the length goes last, so a record cut short reads as the end of the data
+        ByteBuffer view = segments.get(writeSegment).duplicate();
+        view.position(writeOffset + Integer.BYTES);
+        view.put(record.bytes, Integer.BYTES, length - Integer.BYTES);
+        segments.get(writeSegment).putInt(writeOffset, length);
+
+        positions
+            .computeIfAbsent(record.identity, k -> new ArrayList<>())
+            .add(toPosition(writeSegment, writeOffset));
+        writeOffset += length;
+    }
+
+    /**
+     * Force the appended events to disk and move the checkpoint to the last block appended.
+     *
+     * @throws IOException if the checkpoint can not be written
+     */
+    public void flush() throws IOException {
+
+        lock.writeLock().lock();
+        try {
+            for (int i = dirtySegment; i <= writeSegment; i++) {
+                segments.get(i).force();
+            }
+            dirtySegment = writeSegment;
+            Path temp = directory.resolve(CHECKPOINT_TEMP_FILE);
+            Files.write(temp, String.valueOf(indexedBlock).getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Get the last block appended.
+     *
+     * @return the block number, 0 if nothing was appended
+     */
+    public int getIndexedBlock() {
+
+        lock.readLock().lock();
+        try {
+            return indexedBlock;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Check whether any event of a WeIdentity DID has been appended.
+     *
+     * @param weId the WeIdentity DID
+     * @return true if the WeIdentity DID has events
+     */
+    public boolean contains(String weId) {
+
+        String identity = StringUtils.lowerCase(WeIdUtils.convertWeIdToAddress(weId));
+        lock.readLock().lock();
+        try {
+            return positions.containsKey(identity);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Get the events of a WeIdentity DID up to a block, newest first.
+     *
+     * @param weId the WeIdentity DID
+     * @param toBlock the last block to include
+     * @return the events, empty if the WeIdentity DID has none
+     */
+    public List<WeIdAttributeChange> getHistory(String weId, int toBlock) {
+
+        String identity = StringUtils.lowerCase(WeIdUtils.convertWeIdToAddress(weId));
+        lock.readLock().lock();
+        try {
+            List<Long> identityPositions = positions.get(identity);
+            if (null == identityPositions) {
+                return Collections.emptyList();
+            }
+            List<WeIdAttributeChange> history = new ArrayList<>(identityPositions.size());
+            for (int i = identityPositions.size() - 1; i >= 0; i--) {
+                WeIdAttributeChange change = readRecord(weId, identityPositions.get(i));
+                if (change.getBlockNumber() <= toBlock) {
+                    history.add(change);
+                }
+            }
+            return history;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private WeIdAttributeChange readRecord(String weId, long position) {
+
+        ByteBuffer view = segments.get((int) (position >>> Integer.SIZE)).duplicate();
+        view.position((int) position + Integer.BYTES + ADDRESS_BYTE_LENGTH);
+        WeIdAttributeChange change = new WeIdAttributeChange();
+        change.setWeId(weId);
+        change.setBlockNumber(view.getInt());
+        change.setPreviousBlock(view.getInt());
+        change.setUpdated(view.getLong());
+        byte[] key = new byte[view.getInt()];
+        view.get(key);
+        change.setKey(new String(key, StandardCharsets.UTF_8));
+        byte[] value = new byte[view.getInt()];
+        view.get(value);
+        change.setValue(new String(value, StandardCharsets.UTF_8));
+        return change;
+    }
+
+    /**
+     * Flush the store. The mapped segments are released once they are garbage collected.
+     *
+     * @throws IOException if the checkpoint can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+
+    /**
+     * An event encoded as a record, length first.
+     */
+    private static final class Record {
+
+        private final String identity;
+
+        private final byte[] bytes;
+
+        Record(String identity, byte[] bytes) {
+            this.identity = identity;
+            this.bytes = bytes;
+        }
+    }
+}
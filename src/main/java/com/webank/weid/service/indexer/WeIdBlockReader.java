@@ -0,0 +1,113 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.service.indexer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.bcos.web3j.protocol.core.methods.response.EthBlock;
+import org.bcos.web3j.protocol.core.methods.response.Transaction;
+import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+
+import com.webank.weid.contract.WeIdContract;
+import com.webank.weid.contract.WeIdContract.WeIdAttributeChangedEventResponse;
+import com.webank.weid.exception.ResolveEventLogException;
+import com.webank.weid.protocol.base.WeIdAttributeChange;
+import com.webank.weid.service.BaseService;
+import com.webank.weid.util.DataTypetUtils;
+import com.webank.weid.util.LogsBloomUtils;
+import com.webank.weid.util.WeIdUtils;
+
+/**
+ * Reads the WeIdAttributeChanged events of the WeIdContract block by block.
+ *
+ * @author tonychen 2018.12
+ */
+class WeIdBlockReader extends BaseService {
+
+    private final String contractAddress;
+
+    WeIdBlockReader(String contractAddress) {
+        this.contractAddress = contractAddress;
+    }
+
+    /**
+     * Get the latest block number of the chain.
+     *
+     * @return the block number
+     * @throws IOException if the node can not be reached
+     */
+    int getLatestBlock() throws IOException {
+        return getWeb3j().ethBlockNumber().send().getBlockNumber().intValue();
+    }
+
+    /**
+     * Decode the WeIdAttributeChanged events of a block. The receipts are only fetched if the
+     * logs bloom of the block matches one of the given blooms.
+     *
+     * @param blockNumber the block number
+     * @param blooms the logs bloom bits of the events wanted
+     * @return the events, in the order they were emitted
+     * @throws IOException if the node can not be reached
+     */
+    List<WeIdAttributeChange> readBlock(int blockNumber, Collection<byte[]> blooms)
+        throws IOException {
+
+        EthBlock.Block block = getWeb3j()
+            .ethGetBlockByNumber(new DefaultBlockParameterNumber(blockNumber), true)
+            .send()
+            .getBlock();
+        if (null == block) {
+            throw new ResolveEventLogException("block " + blockNumber + " does not exist.");
+        }
+        List<WeIdAttributeChange> changes = new ArrayList<>();
+        if (blooms.stream().noneMatch(
+            bloom -> LogsBloomUtils.mightContain(block.getLogsBloom(), bloom))) {
+            return changes;
+        }
+        for (EthBlock.TransactionResult<?> transactionResult : block.getTransactions()) {
+            Transaction transaction = (Transaction) transactionResult.get();
+            if (!StringUtils.equalsIgnoreCase(contractAddress, transaction.getTo())) {
+                continue;
+            }
+            TransactionReceipt receipt = getWeb3j()
+                .ethGetTransactionReceipt(transaction.getHash())
+                .send()
+                .getTransactionReceipt()
+                .orElseThrow(() -> new ResolveEventLogException(
+                    "receipt " + transaction.getHash() + " does not exist."));
+            for (WeIdAttributeChangedEventResponse res :
+                WeIdContract.getWeIdAttributeChangedEvents(receipt)) {
+                WeIdAttributeChange change = new WeIdAttributeChange();
+                change.setWeId(WeIdUtils.convertAddressToWeId(res.identity.toString()));
+                change.setKey(DataTypetUtils.bytes32ToString(res.key));
+                change.setValue(DataTypetUtils.dynamicBytesToString(res.value));
+                change.setUpdated(res.updated.getValue().longValue());
+                change.setBlockNumber(blockNumber);
+                change.setPreviousBlock(res.previousBlock.getValue().intValue());
+                changes.add(change);
+            }
+        }
+        return changes;
+    }
+}
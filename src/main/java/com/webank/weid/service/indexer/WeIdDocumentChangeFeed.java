@@ -0,0 +1,207 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.service.indexer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.utils.Numeric;
+import rx.Observable;
+import rx.observables.SyncOnSubscribe;
+import rx.schedulers.Schedulers;
+
+import com.webank.weid.exception.ResolveEventLogException;
+import com.webank.weid.protocol.base.WeIdAttributeChange;
+import com.webank.weid.protocol.base.WeIdDocumentChange;
+import com.webank.weid.util.LogsBloomUtils;
+import com.webank.weid.util.WeIdUtils;
+
+/**
+ * Streams the changes of WeIdentity DID documents block by block, from a given block on and
+ * following new blocks as they are sealed. A block is only read once the subscriber requests
+ * more changes, so a slow subscriber holds the feed back instead of having changes buffered.
+ *
+ * @author tonychen 2018.12
+ */
+public class WeIdDocumentChangeFeed {
+
+    private final WeIdBlockReader reader;
+
+    private final String contractAddress;
+
+    private final String attributeChangedTopic;
+
+    /**
+     * The interval in milliseconds between two polls for a block that is not sealed yet.
+     */
+    private final long pollInterval;
+
+    /**
+     * Instantiates a new change feed.
+     *
+     * @param contractAddress the WeIdContract address
+     * @param attributeChangedTopic the topic of the WeIdAttributeChanged event
+     * @param pollInterval the interval in milliseconds between two polls for new blocks
+     */
+    public WeIdDocumentChangeFeed(
+        String contractAddress, String attributeChangedTopic, long pollInterval) {
+
+        this.reader = new WeIdBlockReader(contractAddress);
+        this.contractAddress = contractAddress;
+        this.attributeChangedTopic = attributeChangedTopic;
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Observe the document changes of the given WeIdentity DIDs, or of all of them. The
+     * changes of a block are emitted before those of the next block, so a subscriber resumes
+     * from the block after the last one it has processed. Blocks are polled on the io
+     * scheduler, a failure to read a block terminates the stream with a
+     * ResolveEventLogException.
+     *
+     * @param weIds the WeIdentity DIDs, null or empty for all of them
+     * @param fromBlock the first block to emit the changes of
+     * @return the document changes, one per WeIdentity DID and block
+     */
+    public Observable<WeIdDocumentChange> observe(Collection<String> weIds, int fromBlock) {
+
+        Set<String> weAddresses = new HashSet<>();
+        List<byte[]> blooms = new ArrayList<>();
+        if (null == weIds || weIds.isEmpty()) {
+            blooms.add(LogsBloomUtils.buildBloom(Numeric.hexStringToByteArray(contractAddress)));
+        } else {
+            for (String weId : weIds) {
+                String weAddress = WeIdUtils.convertWeIdToAddress(weId);
+                weAddresses.add(StringUtils.lowerCase(weAddress));
+                blooms.add(LogsBloomUtils.buildBloom(
+                    Numeric.hexStringToByteArray(contractAddress),
+                    Numeric.hexStringToByteArray(attributeChangedTopic),
+                    LogsBloomUtils.addressToTopic(weAddress)));
+            }
+        }
+
+        return Observable
+            .create(SyncOnSubscribe.<BlockCursor, Integer>createStateful(
+                () -> new BlockCursor(fromBlock),
+                (cursor, observer) -> {
+                    try {
+                        observer.onNext(awaitBlock(cursor));
+                    } catch (IOException e) {
+                        observer.onError(
+                            new ResolveEventLogException("get latest block failed.", e));
+                    } catch (InterruptedException e) {
+                        // unsubscribed while waiting for the next block
+                        Thread.currentThread().interrupt();
+                        observer.onCompleted();
+                    }
+                    return cursor;
+                }))
+            .concatMapIterable(block -> toDocumentChanges(readBlock(block, blooms), weAddresses))
+            .subscribeOn(Schedulers.io());
+    }
+
+    /**
+     * Wait until the next block of the cursor is sealed.
+     *
+     * @return the block number
+     */
+    private int awaitBlock(BlockCursor cursor) throws IOException, InterruptedException {
+
+        while (cursor.nextBlock > cursor.latestBlock) {
+            int latestBlock = reader.getLatestBlock();
+            if (latestBlock >= cursor.nextBlock) {
+                cursor.latestBlock = latestBlock;
+            } else {
+                Thread.sleep(pollInterval);
+            }
+        }
+        return cursor.nextBlock++;
+    }
+
+    private List<WeIdAttributeChange> readBlock(int blockNumber, List<byte[]> blooms) {
+
+        try {
+            return reader.readBlock(blockNumber, blooms);
+        } catch (IOException e) {
+            throw new ResolveEventLogException("get block " + blockNumber + " failed.", e);
+        }
+    }
+
+    /**
+     * Group the changes of a block by WeIdentity DID, keeping the subscribed ones.
+     *
+     * @param changes the changes of a block, in the order they were made
+     * @param weAddresses the lower case addresses of the subscribed WeIdentity DIDs, empty for
+     *     all of them
+     * @return the document changes, in the order of the first change of each WeIdentity DID
+     */
+    static List<WeIdDocumentChange> toDocumentChanges(
+        List<WeIdAttributeChange> changes, Set<String> weAddresses) {
+
+        if (changes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<String, WeIdDocumentChange> documentChanges = new LinkedHashMap<>();
+        for (WeIdAttributeChange change : changes) {
+            String weAddress =
+                StringUtils.lowerCase(WeIdUtils.convertWeIdToAddress(change.getWeId()));
+            if (!weAddresses.isEmpty() && !weAddresses.contains(weAddress)) {
+                continue;
+            }
+            WeIdDocumentChange documentChange = documentChanges.get(weAddress);
+            if (null == documentChange) {
+                documentChange = new WeIdDocumentChange();
+                documentChange.setWeId(change.getWeId());
+                documentChange.setBlockNumber(change.getBlockNumber());
+                documentChange.setChanges(new ArrayList<>());
+                documentChanges.put(weAddress, documentChange);
+            }
+            documentChange.getChanges().add(change);
+        }
+        return new ArrayList<>(documentChanges.values());
+    }
+
+    /**
+     * The position of a subscription in the chain.
+     */
+    private static final class BlockCursor {
+
+        /**
+         * The next block to emit.
+         */
+        private int nextBlock;
+
+        /**
+         * The latest sealed block seen, the blocks up to it are emitted without polling.
+         */
+        private int latestBlock = -1;
+
+        BlockCursor(int nextBlock) {
+            this.nextBlock = nextBlock;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.indexer;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.bcos.web3j.utils.Numeric;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.protocol.base.WeIdAttributeChange;
+import com.webank.weid.service.BaseService;
+import com.webank.weid.util.LogsBloomUtils;
+
+/**
+ * Follows new blocks and appends the WeIdAttributeChanged events emitted by the WeIdContract
+ * to a local WeIdAttributeStore, so WeIdentity DID documents can be read without walking the
+ * chain. Declare it as a bean in applicationContext.xml to enable it.
+ *
+ * @author tonychen 2018.12
+ */
+public class WeIdEventIndexer extends BaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WeIdEventIndexer.class);
+
+    /**
+     * The directory of the index files.
+     */
+    private String indexPath;
+
+    /**
+     * The interval in milliseconds between two polls for new blocks.
+     */
+    private long pollInterval = WeIdConstant.WEID_INDEX_POLL_INTERVAL;
+
+    private WeIdBlockReader reader;
+
+    private List<byte[]> contractBloom;
+
+    private WeIdAttributeStore store;
+
+    private ScheduledExecutorService scheduler;
+
+    public void setIndexPath(String indexPath) {
+        this.indexPath = indexPath;
+    }
+
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Open the index and start following new blocks. Calling it again once started does
+     * nothing.
+     *
+     * @param weIdContractAddress the WeIdContract address
+     * @return true if the indexer is running, false if the index can not be opened
+     */
+    public synchronized boolean start(String weIdContractAddress) {
+
+        if (null != scheduler) {
+            return true;
+        }
+        try {
+            store = new WeIdAttributeStore(
+                Paths.get(indexPath), WeIdConstant.WEID_INDEX_SEGMENT_SIZE);
+        } catch (IOException | RuntimeException e) {
+            logger.error("[WeIdEventIndexer] open index :{} failed. Error message :{}",
+                indexPath, e);
+            return false;
+        }
+        reader = new WeIdBlockReader(weIdContractAddress);
+        contractBloom = Collections.singletonList(LogsBloomUtils.buildBloom(
+            Numeric.hexStringToByteArray(weIdContractAddress)));
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("weid-event-indexer-%d")
+                .setDaemon(true)
+                .build());
+        scheduler.scheduleWithFixedDelay(this::poll, 0, pollInterval, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Stop following new blocks and flush the index.
+     */
+    public synchronized void stop() {
+
+        if (null == scheduler) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.error("[WeIdEventIndexer] close index failed. Error message :{}", e);
+        }
+        scheduler = null;
+    }
+
+    /**
+     * Get the last block indexed.
+     *
+     * @return the block number
+     */
+    public int getIndexedBlock() {
+        return store.getIndexedBlock();
+    }
+
+    /**
+     * Check whether the WeIdentity DID has any indexed event.
+     *
+     * @param weId the WeIdentity DID
+     * @return true if the WeIdentity DID has events in the index
+     */
+    public boolean contains(String weId) {
+        return store.contains(weId);
+    }
+
+    /**
+     * Get the indexed events of a WeIdentity DID up to a block, newest first.
+     *
+     * @param weId the WeIdentity DID
+     * @param toBlock the last block to include
+     * @return the events
+     */
+    public List<WeIdAttributeChange> getHistory(String weId, int toBlock) {
+        return store.getHistory(weId, toBlock);
+    }
+
+    private void poll() {
+
+        try {
+            int latestBlock = reader.getLatestBlock();
+            int toBlock = Math.min(latestBlock,
+                store.getIndexedBlock() + WeIdConstant.WEID_INDEX_MAX_BLOCKS_PER_POLL);
+            for (int block = store.getIndexedBlock() + 1; block <= toBlock; block++) {
+                store.append(block, reader.readBlock(block, contractBloom));
+            }
+        } catch (IllegalArgumentException e) {
+            // reading the block again would fail the same way, the documents changed after
+            // the indexed block are read from the chain from now on
+            logger.error("[WeIdEventIndexer] the index stops at block :{}. Error message :{}",
+                store.getIndexedBlock(), e);
+            scheduler.shutdown();
+        } catch (Exception e) {
+            logger.error("[WeIdEventIndexer] index blocks failed. Error message :{}", e);
+        }
+        try {
+            store.flush();
+        } catch (IOException e) {
+            logger.error("[WeIdEventIndexer] flush index failed. Error message :{}", e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.keypair;
+
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.bcos.web3j.crypto.ECKeyPair;
+import org.bcos.web3j.crypto.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.constant.WeIdConstant;
+
+/**
+ * Generates secp256k1 key pairs ahead in background threads of the lowest priority, so creating
+ * a WeIdentity DID does not wait for the random number generator and the point multiplication.
+ * The key pairs wait in a bounded in-memory queue as serialized bytes, wiped when taken or when
+ * the pool stops. Declare it as a bean in applicationContext.xml to enable it.
+ *
+ * @author tonychen 2018.12
+ */
+public class KeyPairPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(KeyPairPool.class);
+
+    /**
+     * The max number of key pairs generated ahead.
+     */
+    private int capacity = WeIdConstant.KEY_PAIR_POOL_CAPACITY;
+
+    /**
+     * The number of generating threads, all cores but one by default.
+     */
+    private int workers = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    private BlockingQueue<byte[]> keyPairs;
+
+    private ExecutorService generators;
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    /**
+     * Start generating key pairs. Calling it again once started does nothing.
+     */
+    public synchronized void start() {
+
+        if (null != generators) {
+            return;
+        }
+        keyPairs = new ArrayBlockingQueue<>(capacity);
+        generators = Executors.newFixedThreadPool(
+            workers,
+            new ThreadFactoryBuilder()
+                .setNameFormat("weid-key-pair-pool-%d")
+                .setDaemon(true)
+                .setPriority(Thread.MIN_PRIORITY)
+                .build());
+        for (int i = 0; i < workers; i++) {
+            generators.execute(this::generate);
+        }
+    }
+
+    /**
+     * Stop generating key pairs and wipe the ones not taken.
+     */
+    public synchronized void stop() {
+
+        if (null == generators) {
+            return;
+        }
+        generators.shutdownNow();
+        try {
+            generators.awaitTermination(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] keyPair;
+        while (null != (keyPair = keyPairs.poll())) {
+            Arrays.fill(keyPair, (byte) 0);
+        }
+        generators = null;
+    }
+
+    /**
+     * Take a key pair generated ahead, or generate one at once if the pool is empty or not
+     * started. A key pair is never handed out twice.
+     *
+     * @return the key pair
+     * @throws GeneralSecurityException if a key pair can not be generated
+     */
+    public ECKeyPair take() throws GeneralSecurityException {
+
+        BlockingQueue<byte[]> ready = keyPairs;
+        byte[] keyPair = null == ready ? null : ready.poll();
+        if (null == keyPair) {
+            return Keys.createEcKeyPair();
+        }
+        return toKeyPair(keyPair);
+    }
+
+    /**
+     * Get the number of key pairs ready to be taken.
+     *
+     * @return the number of key pairs in the pool
+     */
+    public int getReady() {
+
+        BlockingQueue<byte[]> ready = keyPairs;
+        return null == ready ? 0 : ready.size();
+    }
+
+    private void generate() {
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                keyPairs.put(Keys.serialize(Keys.createEcKeyPair()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (GeneralSecurityException e) {
+            logger.error("[KeyPairPool] generate key pair failed. ", e);
+        }
+    }
+
+    /**
+     * Deserialize a pooled key pair and wipe its bytes.
+     */
+    static ECKeyPair toKeyPair(byte[] keyPair) {
+
+        try {
+            return Keys.deserialize(keyPair);
+        } finally {
+            Arrays.fill(keyPair, (byte) 0);
+        }
+    }
+}
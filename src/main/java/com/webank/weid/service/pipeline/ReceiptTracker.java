@@ -0,0 +1,288 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.pipeline;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.protocol.Web3j;
+import org.bcos.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.bcos.web3j.protocol.core.methods.response.EthBlock;
+import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.weid.constant.WeIdConstant;
+
+/**
+ * Resolves the receipts of sent transactions. One thread watches the new blocks and completes
+ * the futures of the transactions they hold, so the chain is polled once per interval however
+ * many transactions are in flight. A transaction not seen in a block after
+ * RECEIPT_STRAGGLER_DELAY, e.g. as it was mined before being tracked, has its receipt polled
+ * with a doubling interval until it is in or TRANSACTION_RECEIPT_TIMEOUT is over.
+ *
+ * @author tonychen 2018.12
+ */
+public class ReceiptTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptTracker.class);
+
+    private final BlockSource source;
+
+    private final long pollInterval;
+
+    private final long stragglerDelay;
+
+    private final long maxBackoff;
+
+    private final long timeout;
+
+    /**
+     * The transactions waiting for their receipt, keyed by lower case transaction hash.
+     */
+    private final Map<String, PendingReceipt> pending = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService poller;
+
+    /**
+     * The last block looked at, -1 while no transaction is tracked. Only used by the poller.
+     */
+    private int lastBlock = -1;
+
+    /**
+     * Instantiates a new receipt tracker reading the chain through web3j.
+     *
+     * @param web3j the web3j
+     */
+    public ReceiptTracker(Web3j web3j) {
+        this(
+            new Web3jBlockSource(web3j),
+            WeIdConstant.RECEIPT_POLL_INTERVAL,
+            WeIdConstant.RECEIPT_STRAGGLER_DELAY,
+            WeIdConstant.RECEIPT_STRAGGLER_MAX_BACKOFF,
+            TimeUnit.SECONDS.toMillis(WeIdConstant.TRANSACTION_RECEIPT_TIMEOUT));
+    }
+
+    ReceiptTracker(
+        BlockSource source,
+        long pollInterval,
+        long stragglerDelay,
+        long maxBackoff,
+        long timeout) {
+
+        this.source = source;
+        this.pollInterval = pollInterval;
+        this.stragglerDelay = stragglerDelay;
+        this.maxBackoff = maxBackoff;
+        this.timeout = timeout;
+        this.poller = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                .setNameFormat("weid-receipt-tracker-%d")
+                .setDaemon(true)
+                .build());
+        this.poller.scheduleWithFixedDelay(
+            this::poll, pollInterval, pollInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Track a sent transaction. Tracking the same transaction twice returns the same future.
+     *
+     * @param transactionHash the transaction hash
+     * @return the future of the receipt, failing with a TimeoutException if the receipt is not
+     *     in after TRANSACTION_RECEIPT_TIMEOUT
+     */
+    public CompletableFuture<TransactionReceipt> track(String transactionHash) {
+
+        long now = System.currentTimeMillis();
+        return pending.computeIfAbsent(
+            StringUtils.lowerCase(transactionHash),
+            hash -> new PendingReceipt(now + stragglerDelay, now + timeout)
+        ).future;
+    }
+
+    /**
+     * Get the longest time a future returned by track can stay pending while the tracker runs:
+     * the receipt timeout, plus one poll interval for the deadline to be noticed.
+     *
+     * @return the time in milliseconds
+     */
+    public long getMaxWait() {
+        return timeout + pollInterval;
+    }
+
+    /**
+     * Get the number of transactions waiting for their receipt.
+     *
+     * @return the number of transactions tracked
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    /**
+     * Stop tracking. The transactions still waiting for their receipt are left pending.
+     */
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+
+    private void poll() {
+
+        if (pending.isEmpty()) {
+            lastBlock = -1;
+            return;
+        }
+        try {
+            pollBlocks();
+        } catch (Exception e) {
+            logger.warn("[ReceiptTracker] poll blocks failed. ", e);
+        }
+        try {
+            pollStragglers(System.currentTimeMillis());
+        } catch (Exception e) {
+            logger.warn("[ReceiptTracker] poll stragglers failed. ", e);
+        }
+    }
+
+    private void pollBlocks() throws IOException {
+
+        int latestBlock = source.getLatestBlock();
+        if (lastBlock < 0) {
+            // the transactions just sent can not be older than the latest block
+            lastBlock = latestBlock - 1;
+        }
+        while (lastBlock < latestBlock && !pending.isEmpty()) {
+            int blockNumber = lastBlock + 1;
+            for (String transactionHash : source.getTransactionHashes(blockNumber)) {
+                PendingReceipt receipt = pending.get(StringUtils.lowerCase(transactionHash));
+                if (null != receipt) {
+                    fetchReceipt(transactionHash, receipt);
+                }
+            }
+            lastBlock = blockNumber;
+        }
+    }
+
+    private void pollStragglers(long now) throws IOException {
+
+        Iterator<Map.Entry<String, PendingReceipt>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, PendingReceipt> entry = iterator.next();
+            PendingReceipt receipt = entry.getValue();
+            if (now >= receipt.deadline) {
+                iterator.remove();
+                receipt.future.completeExceptionally(
+                    new TimeoutException("no receipt for transaction " + entry.getKey()));
+            } else if (now >= receipt.nextPoll && !fetchReceipt(entry.getKey(), receipt)) {
+                receipt.backoff = Math.min(receipt.backoff * 2, maxBackoff);
+                receipt.nextPoll = now + receipt.backoff;
+            }
+        }
+    }
+
+    private boolean fetchReceipt(String transactionHash, PendingReceipt receipt)
+        throws IOException {
+
+        Optional<TransactionReceipt> result = source.getReceipt(transactionHash);
+        if (!result.isPresent()) {
+            return false;
+        }
+        pending.remove(StringUtils.lowerCase(transactionHash));
+        receipt.future.complete(result.get());
+        return true;
+    }
+
+    private final class PendingReceipt {
+
+        private final CompletableFuture<TransactionReceipt> future = new CompletableFuture<>();
+
+        private final long deadline;
+
+        private long nextPoll;
+
+        private long backoff = stragglerDelay;
+
+        private PendingReceipt(long nextPoll, long deadline) {
+            this.nextPoll = nextPoll;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * The chain as seen by the tracker.
+     */
+    interface BlockSource {
+
+        int getLatestBlock() throws IOException;
+
+        List<String> getTransactionHashes(int blockNumber) throws IOException;
+
+        Optional<TransactionReceipt> getReceipt(String transactionHash) throws IOException;
+    }
+
+    private static final class Web3jBlockSource implements BlockSource {
+
+        private final Web3j web3j;
+
+        private Web3jBlockSource(Web3j web3j) {
+            this.web3j = web3j;
+        }
+
+        @Override
+        public int getLatestBlock() throws IOException {
+            return web3j.ethBlockNumber().send().getBlockNumber().intValue();
+        }
+
+        @Override
+        public List<String> getTransactionHashes(int blockNumber) throws IOException {
+
+            EthBlock.Block block = web3j
+                .ethGetBlockByNumber(new DefaultBlockParameterNumber(blockNumber), false)
+                .send()
+                .getBlock();
+            List<String> transactionHashes = new ArrayList<>();
+            if (null == block) {
+                return transactionHashes;
+            }
+            for (EthBlock.TransactionResult<?> transactionResult : block.getTransactions()) {
+                transactionHashes.add(String.valueOf(transactionResult.get()));
+            }
+            return transactionHashes;
+        }
+
+        @Override
+        public Optional<TransactionReceipt> getReceipt(String transactionHash)
+            throws IOException {
+            return web3j.ethGetTransactionReceipt(transactionHash).send().getTransactionReceipt();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.pipeline;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.bcos.web3j.crypto.Credentials;
+import org.bcos.web3j.protocol.Web3j;
+import org.bcos.web3j.protocol.core.methods.response.EthSendTransaction;
+import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.bcos.web3j.protocol.exceptions.TransactionTimeoutException;
+import org.bcos.web3j.tx.RawTransactionManager;
+import org.bcos.web3j.tx.TransactionConstant;
+
+import com.webank.weid.constant.WeIdConstant;
+
+/**
+ * Signs and sends transactions, leaving their receipts to a shared ReceiptTracker instead of
+ * polling the receipt of each transaction on its own.
+ *
+ * @author tonychen 2018.12
+ */
+public class TrackedTransactionManager extends RawTransactionManager {
+
+    private final ReceiptTracker tracker;
+
+    /**
+     * Instantiates a new tracked transaction manager.
+     *
+     * @param web3j the web3j
+     * @param credentials the credentials of the signer
+     * @param tracker the receipt tracker
+     */
+    public TrackedTransactionManager(
+        Web3j web3j,
+        Credentials credentials,
+        ReceiptTracker tracker) {
+
+        super(web3j, credentials);
+        this.tracker = tracker;
+    }
+
+    /**
+     * Send a transaction and wait for its receipt. Used by the blocking calls of the contracts.
+     * The wait is bounded by the tracker deadline, so a receipt left pending, e.g. by a tracker
+     * shut down meanwhile, times out as with the SDK transaction manager.
+     */
+    @Override
+    public TransactionReceipt executeTransaction(
+        BigInteger gasPrice,
+        BigInteger gasLimit,
+        String to,
+        String data,
+        BigInteger value,
+        BigInteger randomid,
+        boolean isInitByName)
+        throws InterruptedException, IOException, TransactionTimeoutException {
+
+        String transactionHash = getTransactionHash(
+            sendTransaction(gasPrice, gasLimit, to, data, value, randomid, isInitByName));
+        try {
+            return tracker
+                .track(transactionHash)
+                .get(tracker.getMaxWait(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new TransactionTimeoutException(
+                "Transaction receipt was not generated after "
+                    + TimeUnit.MILLISECONDS.toSeconds(tracker.getMaxWait())
+                    + " seconds for transaction: "
+                    + transactionHash);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new TransactionTimeoutException(e.getCause().getMessage(), e.getCause());
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Send a transaction calling a contract, without waiting for its receipt.
+     *
+     * @param to the contract address
+     * @param data the encoded function call
+     * @return the future of the receipt, failing with an IOException if the transaction could
+     *     not be sent
+     */
+    public CompletableFuture<TransactionReceipt> executeTransactionAsync(String to, String data) {
+
+        try {
+            String transactionHash = getTransactionHash(sendTransaction(
+                WeIdConstant.GAS_PRICE,
+                WeIdConstant.GAS_LIMIT,
+                to,
+                data,
+                BigInteger.ZERO,
+                TransactionConstant.callType,
+                false));
+            return tracker.track(transactionHash);
+        } catch (IOException e) {
+            CompletableFuture<TransactionReceipt> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+    }
+
+    private static String getTransactionHash(EthSendTransaction response) throws IOException {
+
+        if (response.hasError()) {
+            throw new IOException("send transaction failed: " + response.getError().getMessage());
+        }
+        return response.getTransactionHash();
+    }
+}
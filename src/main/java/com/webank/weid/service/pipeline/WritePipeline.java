@@ -0,0 +1,122 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.service.pipeline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import com.webank.weid.constant.WeIdConstant;
+
+/**
+ * Submits write operations without waiting for the receipts of the previous ones, keeping at
+ * most a fixed number of transactions in flight. The operations are the asynchronous methods
+ * of the services, which sign and send their transaction at once:
+ *
+ * <pre>
+ * WritePipeline pipeline = new WritePipeline(128);
+ * for (SetServiceArgs args : services) {
+ *     pipeline.submit(() -&gt; weIdService.setServiceAsync(args))
+ *         .thenAccept(response -&gt; ...);
+ * }
+ * pipeline.awaitCompletion();
+ * </pre>
+ *
+ * <p>submit blocks while the pipeline is full, so a bulk job is throttled by the chain instead
+ * of queueing an unbounded number of transactions.
+ *
+ * @author tonychen 2018.12
+ */
+public class WritePipeline {
+
+    private final int maxInFlight;
+
+    private final Semaphore permits;
+
+    /**
+     * Instantiates a new write pipeline keeping WRITE_PIPELINE_MAX_IN_FLIGHT transactions in
+     * flight.
+     */
+    public WritePipeline() {
+        this(WeIdConstant.WRITE_PIPELINE_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Instantiates a new write pipeline.
+     *
+     * @param maxInFlight the max number of transactions waiting for their receipt
+     */
+    public WritePipeline(int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight, true);
+    }
+
+    /**
+     * Submit a write operation, waiting for a free slot if maxInFlight operations are in flight.
+     *
+     * @param operation the operation, sending its transaction and returning the future of its
+     *     result
+     * @return the future of the result, completed once the receipt is in
+     * @throws InterruptedException if interrupted while waiting for a free slot
+     */
+    public <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> operation)
+        throws InterruptedException {
+
+        permits.acquire();
+        CompletableFuture<T> future;
+        try {
+            future = operation.get();
+        } catch (RuntimeException e) {
+            permits.release();
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        if (null == future) {
+            permits.release();
+            CompletableFuture<T> failed = new CompletableFuture<>();
+            failed.completeExceptionally(
+                new IllegalStateException("operation returned no future."));
+            return failed;
+        }
+        return future.whenComplete((result, e) -> permits.release());
+    }
+
+    /**
+     * Get the number of operations waiting for their receipt.
+     *
+     * @return the number of operations in flight
+     */
+    public int getInFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    /**
+     * Wait until every submitted operation has completed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitCompletion() throws InterruptedException {
+        permits.acquire(maxInFlight);
+        permits.release(maxInFlight);
+    }
+}
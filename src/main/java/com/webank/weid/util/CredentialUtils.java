@@ -33,6 +33,12 @@ import org.apache.commons.lang3.StringUtils;
  */
 public final class CredentialUtils {
 
+    /**
+     * The encoders of the credential fields hashes, reused by the thread.
+     */
+    private static final ThreadLocal<Utf8KeccakEncoder> fieldsEncoder =
+        ThreadLocal.withInitial(Utf8KeccakEncoder::new);
+
     /**
      * Concat all fields of Credential info.
      *
@@ -40,10 +46,7 @@ public final class CredentialUtils {
      * @return Hash value in String.
      */
     public static String getCredentialFields(Credential arg) {
-        if (arg == null
-            || arg.getCptId() == null
-            || arg.getIssuranceDate() == null
-            || arg.getExpirationDate() == null) {
+        if (!hasCredentialFields(arg)) {
             return StringUtils.EMPTY;
         }
         String rawData =
@@ -63,6 +66,45 @@ public final class CredentialUtils {
         return rawData;
     }
 
+    /**
+     * Hash all fields of Credential info, concatenated as getCredentialFields does and encoded
+     * in UTF-8, without building the concatenated String. This is the hash signed for the
+     * credential.
+     *
+     * @param arg target Credential object
+     * @return the Keccak-256 hash
+     */
+    public static byte[] getCredentialFieldsHash(Credential arg) {
+
+        Utf8KeccakEncoder encoder = fieldsEncoder.get();
+        encoder.reset();
+        if (!hasCredentialFields(arg)) {
+            return encoder.digest();
+        }
+        return encoder
+            .write(arg.getContext())
+            .write(WeIdConstant.PIPELINE)
+            .write(arg.getId())
+            .write(WeIdConstant.PIPELINE)
+            .write(Integer.toString(arg.getCptId()))
+            .write(WeIdConstant.PIPELINE)
+            .write(arg.getIssuer())
+            .write(WeIdConstant.PIPELINE)
+            .write(arg.getIssuranceDate().toString())
+            .write(WeIdConstant.PIPELINE)
+            .write(arg.getExpirationDate().toString())
+            .write(WeIdConstant.PIPELINE)
+            .write(arg.getClaim())
+            .digest();
+    }
+
+    private static boolean hasCredentialFields(Credential arg) {
+        return arg != null
+            && arg.getCptId() != null
+            && arg.getIssuranceDate() != null
+            && arg.getExpirationDate() != null;
+    }
+
     /**
      * Craft a non-masquerade hash which contains all fields of Credential info.
      *
@@ -85,6 +127,26 @@ public final class CredentialUtils {
         return WeIdConstant.DEFAULT_CERTIFICATE_CONTEXT;
     }
 
+    /**
+     * Get the Credential Context String of the Merkle batch mode, where the signature of a
+     * credential is the one of the Merkle root of its batch followed by its inclusion proof.
+     *
+     * @return Context value in String.
+     */
+    public static String getMerkleCredentialContext() {
+        return WeIdConstant.MERKLE_CERTIFICATE_CONTEXT;
+    }
+
+    /**
+     * Tell whether a credential was issued in the Merkle batch mode.
+     *
+     * @param arg the arg
+     * @return true if its context is the one of the Merkle batch mode
+     */
+    public static boolean isMerkleCredential(Credential arg) {
+        return arg != null && WeIdConstant.MERKLE_CERTIFICATE_CONTEXT.equals(arg.getContext());
+    }
+
     /**
      * Extract Credential from VerifyCredentialArgs.
      *
@@ -20,6 +20,7 @@
 package com.webank.weid.util;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 
 import com.webank.weid.constant.WeIdConstant;
@@ -31,7 +32,10 @@ import com.github.fge.jsonschema.core.report.ProcessingReport;
 import com.github.fge.jsonschema.main.JsonSchema;
 import com.github.fge.jsonschema.main.JsonSchemaFactory;
 import com.github.fge.jsonschema.processors.syntax.SyntaxValidator;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.utils.Numeric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +48,15 @@ public class JsonSchemaValidatorUtils {
 
     private static final Logger logger = LoggerFactory.getLogger(JsonSchemaValidatorUtils.class);
 
+    /**
+     * The loaded Json Schemas, keyed by cpt id and version for the schemas of CPTs, or by the
+     * hash of the schema otherwise. A loaded JsonSchema is immutable and shared by threads.
+     */
+    private static final Cache<String, JsonSchema> schemaCache =
+        CacheBuilder.newBuilder()
+            .maximumSize(WeIdConstant.JSON_SCHEMA_CACHE_SIZE)
+            .build();
+
     /**
      * Load Json Object. Can be used to return both Json Data and Json Schema.
      *
@@ -64,10 +77,76 @@ public class JsonSchemaValidatorUtils {
      * @throws Exception the exception
      */
     public static boolean validateJsonVersusSchema(String jsonData, String jsonSchema)
+        throws Exception {
+        return validateJsonVersusSchema(jsonData, loadJsonSchema(jsonSchema));
+    }
+
+    /**
+     * Load a Json Schema, to validate several Json Data against it without parsing it again.
+     * The schema is immutable and can be shared by threads.
+     *
+     * @param jsonSchema the json schema
+     * @return the JsonSchema
+     * @throws Exception the exception
+     */
+    public static JsonSchema loadJsonSchema(String jsonSchema) throws Exception {
+
+        String cacheKey = Numeric.toHexString(
+            HashUtils.sha3(jsonSchema.getBytes(StandardCharsets.UTF_8)));
+        JsonSchema schema = schemaCache.getIfPresent(cacheKey);
+        if (null == schema) {
+            schema = JsonSchemaFactory.byDefault().getJsonSchema(loadJsonObject(jsonSchema));
+            schemaCache.put(cacheKey, schema);
+        }
+        return schema;
+    }
+
+    /**
+     * Load the Json Schema of a CPT, checking its validity as isCptJsonSchemaValid does. A CPT
+     * version is never changed, so the schema is checked and loaded once per cpt id and version.
+     *
+     * @param cptId the cpt id
+     * @param cptVersion the cpt version
+     * @param cptJsonSchema the cpt json schema
+     * @return the JsonSchema, null if the cpt json schema is invalid
+     * @throws Exception the exception
+     */
+    public static JsonSchema loadCptJsonSchema(
+        Integer cptId,
+        Integer cptVersion,
+        String cptJsonSchema) throws Exception {
+
+        if (null == cptId || null == cptVersion) {
+            return isCptJsonSchemaValid(cptJsonSchema) ? loadJsonSchema(cptJsonSchema) : null;
+        }
+        String cacheKey = new StringBuilder()
+            .append(cptId)
+            .append(WeIdConstant.PIPELINE)
+            .append(cptVersion)
+            .toString();
+        JsonSchema schema = schemaCache.getIfPresent(cacheKey);
+        if (null != schema) {
+            return schema;
+        }
+        if (!isCptJsonSchemaValid(cptJsonSchema)) {
+            return null;
+        }
+        schema = JsonSchemaFactory.byDefault().getJsonSchema(loadJsonObject(cptJsonSchema));
+        schemaCache.put(cacheKey, schema);
+        return schema;
+    }
+
+    /**
+     * Validate Json Data versus a loaded Json Schema.
+     *
+     * @param jsonData the json data
+     * @param schema the json schema, as loaded by loadJsonSchema
+     * @return true if yes, false otherwise
+     * @throws Exception the exception
+     */
+    public static boolean validateJsonVersusSchema(String jsonData, JsonSchema schema)
         throws Exception {
         JsonNode jsonDataNode = loadJsonObject(jsonData);
-        JsonNode jsonSchemaNode = loadJsonObject(jsonSchema);
-        JsonSchema schema = JsonSchemaFactory.byDefault().getJsonSchema(jsonSchemaNode);
 
         ProcessingReport report = schema.validate(jsonDataNode);
         if (report.isSuccess()) {
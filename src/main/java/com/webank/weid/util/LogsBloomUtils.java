@@ -0,0 +1,123 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.bcos.web3j.utils.Numeric;
+
+/**
+ * The logs bloom related Utils class. A logs bloom is the 2048-bit filter carried by block
+ * headers and transaction receipts, where every log sets three bits for its emitting address and
+ * for each of its topics.
+ *
+ * @author tonychen
+ */
+public final class LogsBloomUtils {
+
+    /**
+     * The byte length of a logs bloom.
+     */
+    public static final int BLOOM_BYTE_LENGTH = 256;
+
+    /**
+     * The byte length of a log topic.
+     */
+    private static final int TOPIC_BYTE_LENGTH = 32;
+
+    /**
+     * The number of bits each item sets in a logs bloom.
+     */
+    private static final int BITS_PER_ITEM = 3;
+
+    /**
+     * Build the bloom bits set by the given items, e.g. a contract address and event topics.
+     *
+     * @param items the raw bytes of the items
+     * @return the bloom bits
+     */
+    public static byte[] buildBloom(byte[]... items) {
+        byte[] bloom = new byte[BLOOM_BYTE_LENGTH];
+        for (byte[] item : items) {
+            byte[] hash = HashUtils.sha3(item);
+            for (int i = 0; i < BITS_PER_ITEM; i++) {
+                int index = (((hash[2 * i] & 0xff) << 8) | (hash[2 * i + 1] & 0xff))
+                    & (BLOOM_BYTE_LENGTH * 8 - 1);
+                bloom[BLOOM_BYTE_LENGTH - 1 - index / 8] |= (byte) (1 << (index % 8));
+            }
+        }
+        return bloom;
+    }
+
+    /**
+     * Check whether a logs bloom may hold all the given bloom bits. A missing or all-zero logs
+     * bloom is treated as unknown, since not every node fills it in, so the answer is true.
+     *
+     * @param logsBloom the hex encoded logs bloom of a block or receipt
+     * @param bloomBits the bloom bits built by buildBloom
+     * @return false if the logs bloom can not hold the bits, true otherwise
+     */
+    public static boolean mightContain(String logsBloom, byte[] bloomBits) {
+        if (StringUtils.isBlank(logsBloom)) {
+            return true;
+        }
+        byte[] bloom;
+        try {
+            bloom = Numeric.hexStringToByteArray(logsBloom);
+        } catch (Exception e) {
+            return true;
+        }
+        if (bloom.length != BLOOM_BYTE_LENGTH || isAllZero(bloom)) {
+            return true;
+        }
+        for (int i = 0; i < BLOOM_BYTE_LENGTH; i++) {
+            if ((bloom[i] & bloomBits[i]) != bloomBits[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Convert an account address to the 32-byte form it takes as an indexed topic.
+     *
+     * @param address the hex encoded address
+     * @return the topic bytes
+     */
+    public static byte[] addressToTopic(String address) {
+        byte[] addressBytes = Numeric.hexStringToByteArray(address);
+        byte[] topic = new byte[TOPIC_BYTE_LENGTH];
+        System.arraycopy(
+            addressBytes,
+            0,
+            topic,
+            TOPIC_BYTE_LENGTH - addressBytes.length,
+            addressBytes.length);
+        return topic;
+    }
+
+    private static boolean isAllZero(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
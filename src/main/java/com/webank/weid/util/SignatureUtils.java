@@ -20,12 +20,22 @@
 package com.webank.weid.util;
 
 import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.Collections;
+import java.util.List;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.bcos.web3j.crypto.ECKeyPair;
+import org.bcos.web3j.crypto.Hash;
 import org.bcos.web3j.crypto.Keys;
 import org.bcos.web3j.crypto.Sign;
+import org.bcos.web3j.utils.Assertions;
 import org.bouncycastle.util.encoders.Base64;
 
+import com.webank.weid.constant.WeIdConstant;
+import com.webank.weid.crypto.Secp256k1;
+
 /**
  * The Signature related Utils class. Based on ECDSA Asymmetric Encryption + SHA256 Hash Algorithm.
  *
@@ -42,6 +52,14 @@ import org.bouncycastle.util.encoders.Base64;
  */
 public class SignatureUtils {
 
+    /**
+     * The decoded public keys, with the multiples precomputed for verification.
+     */
+    private static final Cache<BigInteger, Secp256k1.PublicKey> decodedPublicKeys =
+        CacheBuilder.newBuilder()
+            .maximumSize(WeIdConstant.PUBLIC_KEY_CACHE_SIZE)
+            .build();
+
     /**
      * Generate a new Key-pair.
      *
@@ -81,6 +99,36 @@ public class SignatureUtils {
         return Sign.signMessage(HashUtils.sha3(message.getBytes()), keyPair);
     }
 
+    /**
+     * Sign a message hash based on the given privateKey in Decimal String BigInt. Same
+     * signature as signMessage over a message of that hash.
+     *
+     * @param messageHash the Keccak-256 hash of the message
+     * @param privateKeyString the private key string
+     * @return SignatureData
+     * @throws Exception the exception
+     */
+    public static Sign.SignatureData signMessageHash(byte[] messageHash, String privateKeyString)
+        throws Exception {
+        BigInteger privateKey = new BigInteger(privateKeyString);
+        ECKeyPair keyPair = new ECKeyPair(privateKey, publicKeyFromPrivate(privateKey));
+        return Sign.signMessage(messageHash, keyPair);
+    }
+
+    /**
+     * Sign a message hash based on the given key-pair, saving the derivation of the public key
+     * when the key-pair signs many messages.
+     *
+     * @param messageHash the Keccak-256 hash of the message
+     * @param keyPair the key pair
+     * @return SignatureData
+     * @throws Exception the exception
+     */
+    public static Sign.SignatureData signMessageHash(byte[] messageHash, ECKeyPair keyPair)
+        throws Exception {
+        return Sign.signMessage(messageHash, keyPair);
+    }
+
     /**
      * Extract the Public Key from the message and the SignatureData.
      *
@@ -91,7 +139,30 @@ public class SignatureUtils {
      */
     public static BigInteger signatureToPublicKey(String message, Sign.SignatureData signatureData)
         throws Exception {
-        return Sign.signedMessageToKey(HashUtils.sha3(message.getBytes()), signatureData);
+        return signedMessageToKey(HashUtils.sha3(message.getBytes()), signatureData);
+    }
+
+    /**
+     * Recover the public key from a signature over the hash of a message hash, as
+     * Sign.signedMessageToKey does, on the Secp256k1 engine.
+     */
+    private static BigInteger signedMessageToKey(
+        byte[] messageHash, Sign.SignatureData signatureData) throws SignatureException {
+
+        byte[] r = signatureData.getR();
+        byte[] s = signatureData.getS();
+        Assertions.verifyPrecondition(r != null && r.length == 32, "r must be 32 bytes");
+        Assertions.verifyPrecondition(s != null && s.length == 32, "s must be 32 bytes");
+        int header = signatureData.getV() & 0xFF;
+        if (header < 27 || header > 34) {
+            throw new SignatureException("Header byte out of range: " + header);
+        }
+        BigInteger key = Secp256k1.recoverFromSignature(
+            header - 27, new BigInteger(1, r), new BigInteger(1, s), Hash.sha3(messageHash));
+        if (null == key) {
+            throw new SignatureException("Could not recover public key from signature");
+        }
+        return key;
     }
 
     /**
@@ -106,8 +177,161 @@ public class SignatureUtils {
      */
     public static boolean verifySignature(
         String message, Sign.SignatureData signatureData, BigInteger publicKey) throws Exception {
-        BigInteger extractedPublicKey = signatureToPublicKey(message, signatureData);
-        return extractedPublicKey.equals(publicKey);
+        return verifySignature(message, signatureData, Collections.singletonList(publicKey));
+    }
+
+    /**
+     * Verify whether the message and the Signature matches one of the given public Keys. A
+     * single key is verified against directly, without recovering the public key from the
+     * signature; for several keys the public key is recovered once and looked up.
+     *
+     * @param message This should be from the same plain-text source with the signature Data.
+     * @param signatureData This must be in SignatureData. Caller should call
+     * simpleSignatureDeserialization.
+     * @param publicKeys the candidate public keys in BigInteger
+     * @return true if yes, false otherwise
+     * @throws Exception the exception
+     */
+    public static boolean verifySignature(
+        String message, Sign.SignatureData signatureData, List<BigInteger> publicKeys)
+        throws Exception {
+
+        return verifyMessageHash(HashUtils.sha3(message.getBytes()), signatureData, publicKeys);
+    }
+
+    /**
+     * Verify whether the message hash and the Signature matches one of the given public Keys.
+     * Same outcome as verifySignature over a message of that hash.
+     *
+     * @param messageHash the Keccak-256 hash of the message
+     * @param signatureData This must be in SignatureData. Caller should call
+     * simpleSignatureDeserialization.
+     * @param publicKeys the candidate public keys in BigInteger
+     * @return true if yes, false otherwise
+     * @throws Exception the exception
+     */
+    public static boolean verifyMessageHash(
+        byte[] messageHash, Sign.SignatureData signatureData, List<BigInteger> publicKeys)
+        throws Exception {
+
+        if (publicKeys.isEmpty()) {
+            return false;
+        }
+        if (publicKeys.size() > 1) {
+            return publicKeys.contains(signedMessageToKey(messageHash, signatureData));
+        }
+        return verifyDigest(
+            Hash.sha3(messageHash), signatureData, decodePublicKey(publicKeys.get(0)));
+    }
+
+    /**
+     * Verify whether each of the message hashes and its Signature matches the given public
+     * Key, the signatures checked together in a batch. Same outcome for each signature as
+     * verifyMessageHash with the single public key, except for a signature no public key can
+     * be recovered from: verifyMessageHash throws, this reports false. See isRecoverable.
+     *
+     * @param messageHashes the Keccak-256 hashes of the messages
+     * @param signatures the signature data of each message hash
+     * @param publicKey the public key in BigInteger
+     * @return for each message hash, true if yes, false otherwise
+     * @throws Exception if a signature is malformed
+     */
+    public static boolean[] verifyMessageHashes(
+        List<byte[]> messageHashes, List<Sign.SignatureData> signatures, BigInteger publicKey)
+        throws Exception {
+
+        int count = messageHashes.size();
+        if (signatures.size() != count) {
+            throw new IllegalArgumentException("Each message hash must have a signature.");
+        }
+        byte[][] digests = new byte[count][];
+        int[] recIds = new int[count];
+        BigInteger[] r = new BigInteger[count];
+        BigInteger[] s = new BigInteger[count];
+        for (int i = 0; i < count; i++) {
+            Sign.SignatureData signatureData = signatures.get(i);
+            byte[] rBytes = signatureData.getR();
+            byte[] sBytes = signatureData.getS();
+            if (null == rBytes || rBytes.length != 32 || null == sBytes || sBytes.length != 32) {
+                throw new IllegalArgumentException("r and s must be 32 bytes in length.");
+            }
+            int header = signatureData.getV() & 0xFF;
+            if (header < 27 || header > 34) {
+                throw new SignatureException("Header byte out of range: " + header);
+            }
+            digests[i] = Hash.sha3(messageHashes.get(i));
+            recIds[i] = header - 27;
+            r[i] = new BigInteger(1, rBytes);
+            s[i] = new BigInteger(1, sBytes);
+        }
+        Secp256k1.PublicKey decoded = decodePublicKey(publicKey);
+        if (null == decoded) {
+            return new boolean[count];
+        }
+        return Secp256k1.verifyBatch(digests, recIds, r, s, decoded);
+    }
+
+    /**
+     * Verify a signature over a digest against a decoded public key, null if the key is not a
+     * point of the curve. Same outcome as recovering the public key with the header byte of the
+     * signature and comparing it, including the exception when it can not be recovered.
+     */
+    private static boolean verifyDigest(
+        byte[] digest, Sign.SignatureData signatureData, Secp256k1.PublicKey publicKey)
+        throws SignatureException {
+
+        byte[] rBytes = signatureData.getR();
+        byte[] sBytes = signatureData.getS();
+        if (null == rBytes || rBytes.length != 32 || null == sBytes || sBytes.length != 32) {
+            throw new IllegalArgumentException("r and s must be 32 bytes in length.");
+        }
+        int header = signatureData.getV() & 0xFF;
+        if (header < 27 || header > 34) {
+            throw new SignatureException("Header byte out of range: " + header);
+        }
+        BigInteger r = new BigInteger(1, rBytes);
+        if (null != publicKey
+            && Secp256k1.verify(digest, header - 27, r, new BigInteger(1, sBytes), publicKey)) {
+            return true;
+        }
+        // an error rather than a mismatch, as it was when the public key was recovered
+        if (!Secp256k1.isRecoverable(header - 27, r)) {
+            throw new SignatureException("Could not recover public key from signature");
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a public key can be recovered from the Signature. verifySignature and
+     * verifyMessageHash throw for a signature that can not, as recovering its key did.
+     *
+     * @param signatureData the signature data
+     * @return true if the public key can be recovered
+     */
+    public static boolean isRecoverable(Sign.SignatureData signatureData) {
+
+        byte[] rBytes = signatureData.getR();
+        int header = signatureData.getV() & 0xFF;
+        return null != rBytes && rBytes.length == 32 && header >= 27 && header <= 34
+            && Secp256k1.isRecoverable(header - 27, new BigInteger(1, rBytes));
+    }
+
+    /**
+     * Decode a public key, null if it is not a point of the curve.
+     */
+    private static Secp256k1.PublicKey decodePublicKey(BigInteger publicKey) {
+
+        if (null == publicKey) {
+            return null;
+        }
+        Secp256k1.PublicKey decoded = decodedPublicKeys.getIfPresent(publicKey);
+        if (null == decoded) {
+            decoded = Secp256k1.decodePublicKey(publicKey);
+            if (null != decoded) {
+                decodedPublicKeys.put(publicKey, decoded);
+            }
+        }
+        return decoded;
     }
 
     /**
@@ -0,0 +1,114 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import org.bouncycastle.crypto.digests.KeccakDigest;
+
+/**
+ * Encodes strings as UTF-8 straight into a Keccak-256 digest, through a small buffer instead
+ * of a byte array per string. The digest is the one of the UTF-8 bytes of the concatenated
+ * strings, unpaired surrogates encoded as '?' like String.getBytes does. Not thread safe.
+ *
+ * @author tonychen 2018.12
+ */
+public final class Utf8KeccakEncoder {
+
+    private static final int BUFFER_SIZE = 1024;
+
+    private final KeccakDigest digest;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    private int position;
+
+    /**
+     * Instantiates a new encoder with an empty digest.
+     */
+    public Utf8KeccakEncoder() {
+        this.digest = new KeccakDigest(256);
+    }
+
+    /**
+     * Encode a string, null is encoded as "null" like a string concatenation does.
+     *
+     * @param value the string
+     * @return this encoder
+     */
+    public Utf8KeccakEncoder write(String value) {
+
+        String string = String.valueOf(value);
+        int length = string.length();
+        for (int i = 0; i < length; i++) {
+            if (position > BUFFER_SIZE - 4) {
+                flush();
+            }
+            char c = string.charAt(i);
+            if (c < 0x80) {
+                buffer[position++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[position++] = (byte) (0xC0 | (c >> 6));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buffer[position++] = (byte) (0xE0 | (c >> 12));
+                buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c)
+                && i + 1 < length
+                && Character.isLowSurrogate(string.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, string.charAt(++i));
+                buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                buffer[position++] = (byte) '?';
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Finish the digest of what was encoded and reset the encoder.
+     *
+     * @return the Keccak-256 digest
+     */
+    public byte[] digest() {
+
+        flush();
+        byte[] hash = new byte[digest.getDigestSize()];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+
+    /**
+     * Drop what was encoded.
+     */
+    public void reset() {
+
+        position = 0;
+        digest.reset();
+    }
+
+    private void flush() {
+
+        digest.update(buffer, 0, position);
+        position = 0;
+    }
+}
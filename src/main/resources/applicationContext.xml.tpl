@@ -58,6 +58,21 @@
 
   <context:component-scan base-package="com.webank.weid.config"/>
 
+  <!-- Uncomment to resolve WeIdentity DID documents from a local index of the WeIdContract
+    events, kept under indexPath and followed in the background.
+  <bean class="com.webank.weid.service.indexer.WeIdEventIndexer" destroy-method="stop"
+    id="weIdEventIndexer">
+    <property name="indexPath" value="./weid-index/"/>
+  </bean>
+  -->
+
+  <!-- Uncomment to generate the key pairs of new WeIdentity DIDs ahead in background threads.
+  <bean class="com.webank.weid.service.keypair.KeyPairPool" destroy-method="stop"
+    id="keyPairPool">
+    <property name="capacity" value="256"/>
+  </bean>
+  -->
+
   <bean class="org.bcos.contract.tools.ToolConf" id="toolConf">
     <property name="systemProxyAddress" value="0x3ca60c68c6264ab08c05ae2df4bfc384c81ebcef"/>
     <property name="privKey"
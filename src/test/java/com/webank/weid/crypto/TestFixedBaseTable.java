@@ -0,0 +1,66 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECPoint;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test FixedBaseTable against the multiplication of Bouncy Castle.
+ *
+ * @author tonychen
+ */
+public class TestFixedBaseTable {
+
+    private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+
+    @Test
+    public void testMultiplyAgrees() {
+
+        BigInteger n = CURVE_PARAMS.getN();
+        ECPoint g = CURVE_PARAMS.getG();
+        Random random = new Random(2018);
+        for (int width : new int[]{1, 4, 6, 8}) {
+            FixedBaseTable table = new FixedBaseTable(g, n.bitLength(), width);
+            BigInteger[] scalars = {
+                BigInteger.ONE,
+                BigInteger.valueOf(2),
+                BigInteger.ONE.shiftLeft(width).subtract(BigInteger.ONE),
+                BigInteger.ONE.shiftLeft(width),
+                BigInteger.ONE.shiftLeft(255),
+                n.subtract(BigInteger.ONE)
+            };
+            for (BigInteger k : scalars) {
+                assertEquals(g.multiply(k).normalize(), table.multiply(k).normalize());
+            }
+            for (int i = 0; i < 50; i++) {
+                BigInteger k = new BigInteger(256, random).mod(n);
+                assertEquals(g.multiply(k).normalize(), table.multiply(k).normalize());
+            }
+        }
+    }
+}
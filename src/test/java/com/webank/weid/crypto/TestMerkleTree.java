@@ -0,0 +1,127 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.bcos.web3j.crypto.Hash;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test MerkleTree.
+ *
+ * @author tonychen
+ */
+public class TestMerkleTree {
+
+    private final Random random = new Random(20181224L);
+
+    @Test
+    public void testProofsGiveRoot() {
+
+        for (int size = 1; size <= 40; size++) {
+            List<byte[]> leafHashes = randomHashes(size);
+            MerkleTree tree = new MerkleTree(leafHashes);
+            byte[] root = tree.getRoot();
+            for (int i = 0; i < size; i++) {
+                byte[] proof = tree.getProof(i);
+                assertEquals(0, proof.length % MerkleTree.PROOF_STEP_LENGTH);
+                assertArrayEquals(root, MerkleTree.computeRoot(leafHashes.get(i), proof));
+                // another leaf, or the leaf with another proof, gives another root
+                if (size > 1) {
+                    int next = (i + 1) % size;
+                    assertFalse(Arrays.equals(
+                        root, MerkleTree.computeRoot(leafHashes.get(next), proof)));
+                    assertFalse(Arrays.equals(
+                        root, MerkleTree.computeRoot(leafHashes.get(i), tree.getProof(next))));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testNodeHashes() {
+
+        List<byte[]> leafHashes = randomHashes(3);
+        byte[] left = Hash.sha3(concat(new byte[]{0}, leafHashes.get(0)));
+        byte[] right = Hash.sha3(concat(new byte[]{0}, leafHashes.get(1)));
+        byte[] pair = Hash.sha3(concat(new byte[]{1}, concat(left, right)));
+        // the third leaf has no sibling and is carried up as is
+        byte[] last = Hash.sha3(concat(new byte[]{0}, leafHashes.get(2)));
+        byte[] root = Hash.sha3(concat(new byte[]{1}, concat(pair, last)));
+        assertArrayEquals(root, new MerkleTree(leafHashes).getRoot());
+    }
+
+    @Test
+    public void testTamperedProof() {
+
+        List<byte[]> leafHashes = randomHashes(13);
+        MerkleTree tree = new MerkleTree(leafHashes);
+        byte[] proof = tree.getProof(6);
+
+        byte[] flipped = proof.clone();
+        flipped[0] ^= 1;
+        assertFalse(Arrays.equals(
+            tree.getRoot(), MerkleTree.computeRoot(leafHashes.get(6), flipped)));
+        byte[] changed = proof.clone();
+        changed[proof.length - 1] ^= 1;
+        assertFalse(Arrays.equals(
+            tree.getRoot(), MerkleTree.computeRoot(leafHashes.get(6), changed)));
+
+        byte[] badSide = proof.clone();
+        badSide[0] = 2;
+        assertNull(MerkleTree.computeRoot(leafHashes.get(6), badSide));
+        assertNull(MerkleTree.computeRoot(
+            leafHashes.get(6), Arrays.copyOf(proof, proof.length - 1)));
+        assertNull(MerkleTree.computeRoot(new byte[31], proof));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLeaf() {
+        new MerkleTree(Collections.<byte[]>emptyList());
+    }
+
+    private static byte[] concat(byte[] first, byte[] second) {
+
+        byte[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+
+    private List<byte[]> randomHashes(int size) {
+
+        List<byte[]> hashes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            byte[] hash = new byte[MerkleTree.HASH_LENGTH];
+            random.nextBytes(hash);
+            hashes.add(hash);
+        }
+        return hashes;
+    }
+}
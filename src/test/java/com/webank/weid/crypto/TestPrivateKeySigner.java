@@ -0,0 +1,107 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.math.BigInteger;
+
+import org.bcos.web3j.crypto.ECKeyPair;
+import org.bcos.web3j.crypto.Sign;
+import org.junit.Test;
+
+import com.webank.weid.util.SignatureUtils;
+import com.webank.weid.util.WeIdUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Test PrivateKeySigner against SignatureUtils.
+ *
+ * @author tonychen
+ */
+public class TestPrivateKeySigner {
+
+    @Test
+    public void testSignaturesAgree() throws Exception {
+
+        for (int round = 0; round < 3; round++) {
+            ECKeyPair keyPair = SignatureUtils.createKeyPair();
+            String privateKey = keyPair.getPrivateKey().toString();
+            try (PrivateKeySigner signer = new PrivateKeySigner(privateKey)) {
+                assertEquals(keyPair.getPublicKey(), signer.getPublicKey());
+                assertEquals(
+                    WeIdUtils.convertPublicKeyToWeId(keyPair.getPublicKey().toString()),
+                    signer.getWeId());
+                assertEquals(WeIdUtils.convertWeIdToAddress(signer.getWeId()),
+                    signer.getAddress());
+                for (int i = 0; i < 100; i++) {
+                    String message = "credential fields " + round + "-" + i;
+                    assertSame(
+                        SignatureUtils.signMessage(message, privateKey),
+                        signer.signMessage(message));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSmallAndLargeKeys() throws Exception {
+
+        BigInteger n = new BigInteger(
+            "115792089237316195423570985008687907852837564279074904382605163141518161494337");
+        for (BigInteger key : new BigInteger[]{BigInteger.ONE, n.subtract(BigInteger.ONE)}) {
+            try (PrivateKeySigner signer = new PrivateKeySigner(key.toString())) {
+                assertEquals(SignatureUtils.publicKeyFromPrivate(key), signer.getPublicKey());
+                assertSame(
+                    SignatureUtils.signMessage("hello world", key.toString()),
+                    signer.signMessage("hello world"));
+            }
+        }
+        try {
+            new PrivateKeySigner(n.toString());
+            fail("a private key not below the order should be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testClosed() throws Exception {
+
+        PrivateKeySigner signer =
+            new PrivateKeySigner(SignatureUtils.createKeyPair().getPrivateKey().toString());
+        BigInteger publicKey = signer.getPublicKey();
+        signer.close();
+        try {
+            signer.signMessage("hello world");
+            fail("a closed signer should not sign.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(publicKey, signer.getPublicKey());
+    }
+
+    private static void assertSame(Sign.SignatureData expected, Sign.SignatureData actual) {
+        assertArrayEquals(
+            SignatureUtils.simpleSignatureSerialization(expected),
+            SignatureUtils.simpleSignatureSerialization(actual));
+    }
+}
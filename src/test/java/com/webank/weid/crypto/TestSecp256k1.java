@@ -0,0 +1,308 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.crypto;
+
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.Random;
+
+import org.bcos.web3j.crypto.ECKeyPair;
+import org.bcos.web3j.crypto.Hash;
+import org.bcos.web3j.crypto.Sign;
+import org.bcos.web3j.utils.Numeric;
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECPoint;
+import org.junit.Test;
+
+import com.webank.weid.util.HashUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test Secp256k1 against web3j and BouncyCastle over randomized inputs.
+ *
+ * @author tonychen
+ */
+public class TestSecp256k1 {
+
+    private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+
+    private static final BigInteger P = Secp256k1Field.P;
+
+    private static final BigInteger N = Secp256k1.N;
+
+    private final Random random = new Random(20181218L);
+
+    @Test
+    public void testFieldArithmetic() {
+
+        Secp256k1Field field = new Secp256k1Field();
+        BigInteger[] edges = {
+            BigInteger.ZERO, BigInteger.ONE, BigInteger.valueOf(2L), P.subtract(BigInteger.ONE),
+            P.subtract(BigInteger.valueOf(2L)), BigInteger.ONE.shiftLeft(255),
+            BigInteger.ONE.shiftLeft(32).add(BigInteger.valueOf(977L))
+        };
+        int[] z = Secp256k1Field.create();
+        for (int i = 0; i < 3000; i++) {
+            BigInteger a = i < edges.length * edges.length
+                ? edges[i % edges.length] : new BigInteger(256, random).mod(P);
+            BigInteger b = i < edges.length * edges.length
+                ? edges[i / edges.length] : new BigInteger(256, random).mod(P);
+            // a + p is weakly reduced too
+            int[] x = Secp256k1Field.fromBigInteger(i % 3 == 1 ? a.add(P) : a);
+            int[] y = Secp256k1Field.fromBigInteger(i % 5 == 1 ? b.add(P) : b);
+
+            Secp256k1Field.add(x, y, z);
+            assertEquals(a.add(b).mod(P), Secp256k1Field.toBigInteger(z));
+            Secp256k1Field.subtract(x, y, z);
+            assertEquals(a.subtract(b).mod(P), Secp256k1Field.toBigInteger(z));
+            Secp256k1Field.negate(x, z);
+            assertEquals(a.negate().mod(P), Secp256k1Field.toBigInteger(z));
+            field.multiply(x, y, z);
+            assertEquals(a.multiply(b).mod(P), Secp256k1Field.toBigInteger(z));
+            field.square(x, z);
+            assertEquals(a.multiply(a).mod(P), Secp256k1Field.toBigInteger(z));
+            if (a.signum() != 0) {
+                field.invert(x, z);
+                assertEquals(a.modInverse(P), Secp256k1Field.toBigInteger(z));
+            }
+            boolean isSquare = field.sqrt(x, z);
+            BigInteger root = Secp256k1Field.toBigInteger(z);
+            assertEquals(isSquare, root.multiply(root).mod(P).equals(a));
+            assertEquals(isSquare, a.modPow(P.shiftRight(1), P).compareTo(BigInteger.ONE) <= 0);
+        }
+    }
+
+    @Test
+    public void testEndomorphism() {
+
+        ECPoint g = CURVE_PARAMS.getG();
+        ECPoint lambdaG = g.multiply(Secp256k1.LAMBDA).normalize();
+        BigInteger beta = Secp256k1Field.toBigInteger(Secp256k1.BETA);
+        assertEquals(
+            g.getAffineXCoord().toBigInteger().multiply(beta).mod(P),
+            lambdaG.getAffineXCoord().toBigInteger());
+        assertEquals(g.getAffineYCoord().toBigInteger(), lambdaG.getAffineYCoord().toBigInteger());
+
+        for (int i = 0; i < 10000; i++) {
+            BigInteger k = i < 2 ? N.subtract(BigInteger.valueOf(i + 1))
+                : new BigInteger(256, random).mod(N);
+            BigInteger[] split = Secp256k1.decompose(k);
+            assertEquals(k, split[0].add(split[1].multiply(Secp256k1.LAMBDA)).mod(N));
+            assertTrue(split[0].bitLength() <= 129 && split[1].bitLength() <= 129);
+
+            int width = 2 + i % 7;
+            int[] digits = Secp256k1.wnaf(split[0], width);
+            BigInteger sum = BigInteger.ZERO;
+            int lastNonZero = -width;
+            for (int j = 0; j < digits.length; j++) {
+                if (digits[j] != 0) {
+                    assertTrue((digits[j] & 1) == 1 && Math.abs(digits[j]) < 1 << (width - 1));
+                    assertTrue(j - lastNonZero >= width);
+                    lastNonZero = j;
+                }
+                sum = sum.add(BigInteger.valueOf(digits[j]).shiftLeft(j));
+            }
+            assertEquals(split[0], sum);
+        }
+    }
+
+    @Test
+    public void testRecoveryAgrees() throws Exception {
+
+        for (int i = 0; i < 500; i++) {
+            ECKeyPair keyPair = ECKeyPair.create(new BigInteger(256, random).mod(N));
+            byte[] messageHash = HashUtils.sha3(("credential " + i).getBytes());
+            Sign.SignatureData signature = Sign.signMessage(messageHash, keyPair);
+            byte[] digest = Hash.sha3(messageHash);
+            BigInteger r = new BigInteger(1, signature.getR());
+            BigInteger s = new BigInteger(1, signature.getS());
+
+            assertEquals(keyPair.getPublicKey(),
+                Secp256k1.recoverFromSignature(signature.getV() - 27, r, s, digest));
+            Secp256k1.PublicKey publicKey = Secp256k1.decodePublicKey(keyPair.getPublicKey());
+            assertNotNull(publicKey);
+            // every recovery id, the one of the signature and the wrong ones
+            for (int recId = 0; recId < 8; recId++) {
+                BigInteger recovered = assertSameRecovery(recId, r, s, messageHash);
+                assertEquals(keyPair.getPublicKey().equals(recovered),
+                    Secp256k1.verify(digest, recId, r, s, publicKey));
+            }
+            // r and s swapped and another digest
+            assertSameRecovery(i % 4, s, r, messageHash);
+            assertSameRecovery(i % 4, r, s, digest);
+            assertEquals(false, Secp256k1.verify(messageHash, signature.getV() - 27, r, s,
+                publicKey));
+        }
+    }
+
+    @Test
+    public void testRecoveryAgreesOnRandomSignatures() {
+
+        for (int i = 0; i < 2000; i++) {
+            BigInteger r = new BigInteger(256, random);
+            BigInteger s = new BigInteger(256, random);
+            byte[] messageHash = new byte[32];
+            random.nextBytes(messageHash);
+            assertSameRecovery(i % 8, r, s, messageHash);
+        }
+        BigInteger[] edges = {
+            BigInteger.ZERO, BigInteger.ONE, N.subtract(BigInteger.ONE), N,
+            P.subtract(N), P.subtract(BigInteger.ONE)
+        };
+        byte[] messageHash = HashUtils.sha3("edges".getBytes());
+        for (BigInteger r : edges) {
+            for (BigInteger s : edges) {
+                for (int recId = 0; recId < 4; recId++) {
+                    assertSameRecovery(recId, r, s, messageHash);
+                    assertSameRecovery(recId, r, s, new byte[32]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testVerifyBatch() throws Exception {
+
+        ECKeyPair keyPair = ECKeyPair.create(new BigInteger(256, random).mod(N));
+        Secp256k1.PublicKey publicKey = Secp256k1.decodePublicKey(keyPair.getPublicKey());
+        for (int size : new int[]{0, 1, 2, 17, 64}) {
+            byte[][] digests = new byte[size][];
+            int[] recIds = new int[size];
+            BigInteger[] r = new BigInteger[size];
+            BigInteger[] s = new BigInteger[size];
+            for (int i = 0; i < size; i++) {
+                byte[] messageHash = HashUtils.sha3(("credential " + size + i).getBytes());
+                Sign.SignatureData signature = Sign.signMessage(messageHash, keyPair);
+                digests[i] = Hash.sha3(messageHash);
+                recIds[i] = signature.getV() - 27;
+                r[i] = new BigInteger(1, signature.getR());
+                s[i] = new BigInteger(1, signature.getS());
+            }
+            assertBatchAgrees(digests, recIds, r, s, publicKey);
+
+            // one signature of each kind broken at a time, then all of them together
+            for (int broken = 0; broken < 7 && size > 0; broken++) {
+                int i = random.nextInt(size);
+                byte[] digest = digests[i];
+                int recId = recIds[i];
+                BigInteger ri = r[i];
+                BigInteger si = s[i];
+                breakSignature(broken, i, digests, recIds, r, s);
+                assertBatchAgrees(digests, recIds, r, s, publicKey);
+                digests[i] = digest;
+                recIds[i] = recId;
+                r[i] = ri;
+                s[i] = si;
+            }
+            for (int i = 0; i < size; i += 3) {
+                breakSignature(i % 7, i, digests, recIds, r, s);
+            }
+            assertBatchAgrees(digests, recIds, r, s, publicKey);
+        }
+    }
+
+    @Test
+    public void testDecodePublicKey() throws Exception {
+
+        BigInteger publicKey = Sign.publicKeyFromPrivate(BigInteger.valueOf(12345L));
+        assertNotNull(Secp256k1.decodePublicKey(publicKey));
+        assertNull(Secp256k1.decodePublicKey(publicKey.add(BigInteger.ONE)));
+        assertNull(Secp256k1.decodePublicKey(BigInteger.ZERO));
+        assertNull(Secp256k1.decodePublicKey(BigInteger.ONE.shiftLeft(512)));
+        assertNull(Secp256k1.decodePublicKey(P.shiftLeft(256).add(BigInteger.ONE)));
+        assertNull(Secp256k1.decodePublicKey(null));
+    }
+
+    private void breakSignature(
+        int broken, int i, byte[][] digests, int[] recIds, BigInteger[] r, BigInteger[] s) {
+
+        switch (broken) {
+            case 0:
+                digests[i] = HashUtils.sha3(digests[i]);
+                break;
+            case 1:
+                recIds[i] ^= 1;
+                break;
+            case 2:
+                s[i] = s[i].add(BigInteger.ONE);
+                break;
+            case 3:
+                s[i] = N.subtract(s[i]);
+                break;
+            case 4:
+                r[i] = BigInteger.ZERO;
+                break;
+            case 5:
+                recIds[i] += 2;
+                break;
+            default:
+                r[i] = new BigInteger(256, random).mod(N);
+                break;
+        }
+    }
+
+    /**
+     * Assert the batch verification gives the outcome of verify for each signature.
+     */
+    private static void assertBatchAgrees(
+        byte[][] digests, int[] recIds, BigInteger[] r, BigInteger[] s,
+        Secp256k1.PublicKey publicKey) {
+
+        boolean[] results = Secp256k1.verifyBatch(digests, recIds, r, s, publicKey);
+        assertEquals(digests.length, results.length);
+        for (int i = 0; i < digests.length; i++) {
+            assertEquals(
+                Secp256k1.verify(digests[i], recIds[i], r[i], s[i], publicKey), results[i]);
+        }
+    }
+
+    /**
+     * Assert the recovery from a signature over the hash of a message hash gives the result,
+     * or throws the exception, web3j does, and isRecoverable tells which.
+     */
+    private static BigInteger assertSameRecovery(
+        int recId, BigInteger r, BigInteger s, byte[] messageHash) {
+
+        Object expected;
+        try {
+            expected = Sign.signedMessageToKey(messageHash, new Sign.SignatureData(
+                (byte) (recId + 27), Numeric.toBytesPadded(r, 32), Numeric.toBytesPadded(s, 32)));
+        } catch (SignatureException | RuntimeException e) {
+            expected = e.getClass();
+        }
+        Object actual;
+        try {
+            actual = Secp256k1.recoverFromSignature(recId, r, s, Hash.sha3(messageHash));
+            if (null == actual) {
+                actual = SignatureException.class;
+            }
+        } catch (RuntimeException e) {
+            actual = e.getClass();
+        }
+        assertEquals(expected, actual);
+        assertEquals(actual instanceof BigInteger, Secp256k1.isRecoverable(recId, r));
+        return actual instanceof BigInteger ? (BigInteger) actual : null;
+    }
+}
@@ -36,13 +36,22 @@ import com.webank.weid.protocol.request.SetServiceArgs;
 import com.webank.weid.protocol.request.UpdateCptArgs;
 import com.webank.weid.protocol.request.VerifyCredentialArgs;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
+import com.webank.weid.service.pipeline.TrackedTransactionManager;
 import java.io.BufferedReader;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.util.Date;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import mockit.Mock;
+import mockit.MockUp;
 import org.bcos.web3j.crypto.ECKeyPair;
 import org.bcos.web3j.crypto.Keys;
+import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 
 /**
  * testing basic entity object building classes.
@@ -234,6 +243,32 @@ public class TestBaseUtil {
         return removeAuthorityIssuerArgs;
     }
 
+    /**
+     * mock the transactions sent by the services, their receipts being got from the given future.
+     *
+     * @param receipt the future of the receipts
+     * @return the mock, to be torn down by the caller
+     */
+    public static MockUp<TrackedTransactionManager> mockSendTransaction(
+        final Future<TransactionReceipt> receipt) {
+
+        return new MockUp<TrackedTransactionManager>() {
+            @Mock
+            public CompletableFuture<TransactionReceipt> executeTransactionAsync(
+                String to,
+                String data) {
+
+                return new CompletableFuture<TransactionReceipt>() {
+                    @Override
+                    public TransactionReceipt get(long timeout, TimeUnit unit)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                        return receipt.get(timeout, unit);
+                    }
+                };
+            }
+        };
+    }
+
     /** 
      * create a new public key - private key.
      */
@@ -26,6 +26,7 @@ import com.webank.weid.full.TestBaseUtil;
 import com.webank.weid.protocol.request.RegisterAuthorityIssuerArgs;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.service.pipeline.TrackedTransactionManager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -33,11 +34,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import mockit.Mock;
 import mockit.MockUp;
-import org.bcos.web3j.abi.datatypes.Address;
-import org.bcos.web3j.abi.datatypes.DynamicBytes;
-import org.bcos.web3j.abi.datatypes.StaticArray;
-import org.bcos.web3j.abi.datatypes.generated.Bytes32;
-import org.bcos.web3j.abi.datatypes.generated.Int256;
 import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.junit.Assert;
 import org.junit.Test;
@@ -452,15 +448,8 @@ public class TestRegisterAuthorityIssuer extends TestBaseServcie {
                 }
             };
 
-        MockUp<AuthorityIssuerController> mockTest = new MockUp<AuthorityIssuerController>() {
-            @Mock
-            public Future<TransactionReceipt> addAuthorityIssuer(Address addr,
-                    StaticArray<Bytes32> attribBytes32, StaticArray<Int256> attribInt,
-                    DynamicBytes accValue) throws Exception {
-
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<Boolean> response =
                 authorityIssuerService.registerAuthorityIssuer(registerAuthorityIssuerArgs);
@@ -495,15 +484,8 @@ public class TestRegisterAuthorityIssuer extends TestBaseServcie {
                 }
             };
 
-        MockUp<AuthorityIssuerController> mockTest = new MockUp<AuthorityIssuerController>() {
-            @Mock
-            public Future<TransactionReceipt> addAuthorityIssuer(Address addr,
-                    StaticArray<Bytes32> attribBytes32, StaticArray<Int256> attribInt,
-                    DynamicBytes accValue) throws Exception {
-
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<Boolean> response =
                 authorityIssuerService.registerAuthorityIssuer(registerAuthorityIssuerArgs);
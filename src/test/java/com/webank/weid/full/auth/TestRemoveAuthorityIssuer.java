@@ -29,6 +29,7 @@ import com.webank.weid.protocol.request.RegisterAuthorityIssuerArgs;
 import com.webank.weid.protocol.request.RemoveAuthorityIssuerArgs;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.service.pipeline.TrackedTransactionManager;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Future;
@@ -36,7 +37,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import mockit.Mock;
 import mockit.MockUp;
-import org.bcos.web3j.abi.datatypes.Address;
 import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.junit.Assert;
 import org.junit.Test;
@@ -400,13 +400,8 @@ public class TestRemoveAuthorityIssuer extends TestBaseServcie {
                 }
             };
 
-        MockUp<AuthorityIssuerController> mockTest = new MockUp<AuthorityIssuerController>() {
-            @Mock
-            public Future<TransactionReceipt> removeAuthorityIssuer(Address addr) throws Exception {
-
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<Boolean> response1 =
             authorityIssuerService.removeAuthorityIssuer(removeAuthorityIssuerArgs);
@@ -441,13 +436,8 @@ public class TestRemoveAuthorityIssuer extends TestBaseServcie {
                 }
             };
 
-        MockUp<AuthorityIssuerController> mockTest = new MockUp<AuthorityIssuerController>() {
-            @Mock
-            public Future<TransactionReceipt> removeAuthorityIssuer(Address addr) throws Exception {
-
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<Boolean> response1 =
             authorityIssuerService.removeAuthorityIssuer(removeAuthorityIssuerArgs);
@@ -30,6 +30,7 @@ import com.webank.weid.protocol.request.UpdateCptArgs;
 import com.webank.weid.protocol.response.ResponseData;
 import java.util.List;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import mockit.Mock;
 import mockit.MockUp;
 import org.bcos.web3j.abi.datatypes.Type;
@@ -146,9 +147,12 @@ public class TestQueryCpt extends TestBaseServcie {
     @Test
     public void testQueryCptCase6() {
 
+        // a cpt not queried yet, so it is not served from the cpt cache
+        CptBaseInfo cptBaseInfoNew = super.registerCpt(createWeIdWithSetAttr);
+
         final MockUp<Future<List<Type<?>>>> mockFuture = new MockUp<Future<List<Type<?>>>>() {
             @Mock
-            public Future<List<Type<?>>> get() throws Exception {
+            public Future<List<Type<?>>> get(long timeout, TimeUnit unit) throws Exception {
                 throw new InterruptedException();
             }
         };
@@ -160,7 +164,7 @@ public class TestQueryCpt extends TestBaseServcie {
             }
         };
 
-        ResponseData<Cpt> response = cptService.queryCpt(cptBaseInfo.getCptId());
+        ResponseData<Cpt> response = cptService.queryCpt(cptBaseInfoNew.getCptId());
         System.out.println("\nqueryCpt result:");
         BeanUtil.print(response);
 
@@ -178,6 +182,9 @@ public class TestQueryCpt extends TestBaseServcie {
     @Test
     public void testQueryCptCase7() {
 
+        // a cpt not queried yet, so it is not served from the cpt cache
+        CptBaseInfo cptBaseInfoNew = super.registerCpt(createWeIdWithSetAttr);
+
         MockUp<CptController> mockTest = new MockUp<CptController>() {
             @Mock
             public Future<List<Type<?>>> queryCpt(Uint256 cptId) throws Exception {
@@ -185,7 +192,7 @@ public class TestQueryCpt extends TestBaseServcie {
             }
         };
 
-        ResponseData<Cpt> response = cptService.queryCpt(cptBaseInfo.getCptId());
+        ResponseData<Cpt> response = cptService.queryCpt(cptBaseInfoNew.getCptId());
         System.out.println("\nqueryCpt result:");
         BeanUtil.print(response);
 
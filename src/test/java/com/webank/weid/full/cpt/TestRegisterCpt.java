@@ -34,6 +34,7 @@ import com.webank.weid.protocol.base.CptBaseInfo;
 import com.webank.weid.protocol.request.RegisterCptArgs;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.service.pipeline.TrackedTransactionManager;
 import com.webank.weid.util.WeIdUtils;
 import java.io.IOException;
 import java.util.List;
@@ -42,11 +43,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import mockit.Mock;
 import mockit.MockUp;
-import org.bcos.web3j.abi.datatypes.Address;
-import org.bcos.web3j.abi.datatypes.StaticArray;
-import org.bcos.web3j.abi.datatypes.generated.Bytes32;
-import org.bcos.web3j.abi.datatypes.generated.Int256;
-import org.bcos.web3j.abi.datatypes.generated.Uint8;
 import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.junit.Assert;
 import org.junit.Test;
@@ -393,20 +389,8 @@ public class TestRegisterCpt extends TestBaseServcie {
                 }
             };
 
-        MockUp<CptController> mockTest = new MockUp<CptController>() {
-            @Mock
-            public Future<TransactionReceipt> registerCpt(
-                Address publisher,
-                StaticArray<Int256> intArray,
-                StaticArray<Bytes32> bytes32Array,
-                StaticArray<Bytes32> jsonSchemaArray,
-                Uint8 v,
-                Bytes32 r,
-                Bytes32 s)
-                throws Exception {
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<CptBaseInfo> response = cptService.registerCpt(registerCptArgs);
         System.out.println("\nregisterCpt result:");
@@ -437,20 +421,8 @@ public class TestRegisterCpt extends TestBaseServcie {
                 }
             };
 
-        MockUp<CptController> mockTest = new MockUp<CptController>() {
-            @Mock
-            public Future<TransactionReceipt> registerCpt(
-                Address publisher,
-                StaticArray<Int256> intArray,
-                StaticArray<Bytes32> bytes32Array,
-                StaticArray<Bytes32> jsonSchemaArray,
-                Uint8 v,
-                Bytes32 r,
-                Bytes32 s)
-                throws Exception {
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<CptBaseInfo> response = cptService.registerCpt(registerCptArgs);
         System.out.println("\nregisterCpt result:");
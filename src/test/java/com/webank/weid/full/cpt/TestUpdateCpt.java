@@ -25,7 +25,6 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.webank.weid.common.BeanUtil;
 import com.webank.weid.constant.ErrorCode;
-import com.webank.weid.contract.CptController;
 import com.webank.weid.full.TestBaseServcie;
 import com.webank.weid.full.TestBaseUtil;
 import com.webank.weid.full.TestData;
@@ -35,18 +34,13 @@ import com.webank.weid.protocol.request.UpdateCptArgs;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
 import com.webank.weid.util.WeIdUtils;
+import com.webank.weid.service.pipeline.TrackedTransactionManager;
 import java.io.IOException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import mockit.Mock;
 import mockit.MockUp;
-import org.bcos.web3j.abi.datatypes.Address;
-import org.bcos.web3j.abi.datatypes.StaticArray;
-import org.bcos.web3j.abi.datatypes.generated.Bytes32;
-import org.bcos.web3j.abi.datatypes.generated.Int256;
-import org.bcos.web3j.abi.datatypes.generated.Uint256;
-import org.bcos.web3j.abi.datatypes.generated.Uint8;
 import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
 import org.junit.Assert;
 import org.junit.Test;
@@ -481,21 +475,8 @@ public class TestUpdateCpt extends TestBaseServcie {
                 }
             };
 
-        MockUp<CptController> mockTest = new MockUp<CptController>() {
-            @Mock
-            public Future<TransactionReceipt> updateCpt(
-                Uint256 cptId,
-                Address publisher,
-                StaticArray<Int256> intArray,
-                StaticArray<Bytes32> bytes32Array,
-                StaticArray<Bytes32> jsonSchemaArray,
-                Uint8 v,
-                Bytes32 r,
-                Bytes32 s)
-                throws Exception {
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<CptBaseInfo> response = cptService.updateCpt(updateCptArgs);
         System.out.println("\nupdateCpt result:");
@@ -527,21 +508,8 @@ public class TestUpdateCpt extends TestBaseServcie {
                 }
             };
 
-        MockUp<CptController> mockTest = new MockUp<CptController>() {
-            @Mock
-            public Future<TransactionReceipt> updateCpt(
-                Uint256 cptId,
-                Address publisher,
-                StaticArray<Int256> intArray,
-                StaticArray<Bytes32> bytes32Array,
-                StaticArray<Bytes32> jsonSchemaArray,
-                Uint8 v,
-                Bytes32 r,
-                Bytes32 s)
-                throws Exception {
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<CptBaseInfo> response = cptService.updateCpt(updateCptArgs);
         System.out.println("\nupdateCpt result:");
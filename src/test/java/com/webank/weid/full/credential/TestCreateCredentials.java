@@ -0,0 +1,127 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.credential;
+
+import com.webank.weid.common.BeanUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseServcie;
+import com.webank.weid.full.TestBaseUtil;
+import com.webank.weid.protocol.base.Credential;
+import com.webank.weid.protocol.request.CreateCredentialArgs;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.CredentialUtils;
+import com.webank.weid.util.SignatureUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.bcos.web3j.crypto.Sign;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * createCredentials method for testing CredentialService.
+ *
+ * @author tonychen
+ *
+ */
+public class TestCreateCredentials extends TestBaseServcie {
+
+    @Override
+    public void testInit() throws Exception {
+
+        super.testInit();
+        if (cptBaseInfo == null) {
+            cptBaseInfo = super.registerCpt(createWeIdWithSetAttr);
+        }
+    }
+
+    /**
+     * case: credentials signed as createCredential signs them, in input order.
+     */
+    @Test
+    public void testCreateCredentialsCase1() throws Exception {
+
+        List<CreateCredentialArgs> args = new ArrayList<CreateCredentialArgs>();
+        for (int i = 0; i < 8; i++) {
+            args.add(TestBaseUtil.buildCreateCredentialArgs(createWeIdWithSetAttr, cptBaseInfo));
+        }
+        args.get(3).setClaim(null);
+
+        ResponseData<List<ResponseData<Credential>>> response =
+            credentialService.createCredentials(args);
+        System.out.println("\ncreateCredentials result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        List<ResponseData<Credential>> results = response.getResult();
+        Assert.assertEquals(args.size(), results.size());
+        Assert.assertEquals(ErrorCode.CREDENTIAL_CLAIM_NOT_EXISTS.getCode(),
+            results.get(3).getErrorCode().intValue());
+        for (int i = 0; i < results.size(); i++) {
+            if (i == 3) {
+                continue;
+            }
+            Credential credential = results.get(i).getResult();
+            Assert.assertEquals(args.get(i).getClaim(), credential.getClaim());
+            Sign.SignatureData sigData = SignatureUtils.signMessage(
+                CredentialUtils.getCredentialFields(credential),
+                args.get(i).getWeIdPrivateKey().getPrivateKey());
+            Assert.assertEquals(
+                new String(SignatureUtils.base64Encode(
+                    SignatureUtils.simpleSignatureSerialization(sigData))),
+                credential.getSignature());
+            Assert.assertTrue(credentialService.verifyCredential(credential).getResult());
+        }
+    }
+
+    /**
+     * case: args is null.
+     */
+    @Test
+    public void testCreateCredentialsCase2() {
+
+        ResponseData<List<ResponseData<Credential>>> response =
+            credentialService.createCredentials(null);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertNull(response.getResult());
+    }
+
+    /**
+     * case: an illegal private key fails its own credentials only.
+     */
+    @Test
+    public void testCreateCredentialsCase3() {
+
+        List<CreateCredentialArgs> args = new ArrayList<CreateCredentialArgs>();
+        args.add(TestBaseUtil.buildCreateCredentialArgs(createWeIdWithSetAttr, cptBaseInfo));
+        CreateCredentialArgs illegal =
+            TestBaseUtil.buildCreateCredentialArgs(createWeIdWithSetAttr, cptBaseInfo);
+        illegal.getWeIdPrivateKey().setPrivateKey("xxxxxxxxxx");
+        args.add(illegal);
+
+        ResponseData<List<ResponseData<Credential>>> response =
+            credentialService.createCredentials(args);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertNotNull(response.getResult().get(0).getResult());
+        Assert.assertEquals(ErrorCode.CREDENTIAL_ERROR.getCode(),
+            response.getResult().get(1).getErrorCode().intValue());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.credential;
+
+import com.webank.weid.common.BeanUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseServcie;
+import com.webank.weid.full.TestBaseUtil;
+import com.webank.weid.protocol.base.Credential;
+import com.webank.weid.protocol.request.CreateCredentialArgs;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.CredentialUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * createMerkleCredentials method for testing CredentialService.
+ *
+ * @author tonychen
+ *
+ */
+public class TestCreateMerkleCredentials extends TestBaseServcie {
+
+    @Override
+    public void testInit() throws Exception {
+
+        super.testInit();
+        if (cptBaseInfo == null) {
+            cptBaseInfo = super.registerCpt(createWeIdWithSetAttr);
+        }
+    }
+
+    /**
+     * case: credentials marked by their context, each verified on its own and in a batch.
+     */
+    @Test
+    public void testCreateMerkleCredentialsCase1() {
+
+        List<CreateCredentialArgs> args = new ArrayList<CreateCredentialArgs>();
+        for (int i = 0; i < 9; i++) {
+            args.add(TestBaseUtil.buildCreateCredentialArgs(createWeIdWithSetAttr, cptBaseInfo));
+        }
+        args.get(4).setClaim(null);
+
+        ResponseData<List<ResponseData<Credential>>> response =
+            credentialService.createMerkleCredentials(args);
+        System.out.println("\ncreateMerkleCredentials result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        List<ResponseData<Credential>> results = response.getResult();
+        Assert.assertEquals(args.size(), results.size());
+        Assert.assertEquals(ErrorCode.CREDENTIAL_CLAIM_NOT_EXISTS.getCode(),
+            results.get(4).getErrorCode().intValue());
+        List<Credential> credentials = new ArrayList<Credential>();
+        for (int i = 0; i < results.size(); i++) {
+            if (i == 4) {
+                continue;
+            }
+            Credential credential = results.get(i).getResult();
+            Assert.assertEquals(args.get(i).getClaim(), credential.getClaim());
+            Assert.assertTrue(CredentialUtils.isMerkleCredential(credential));
+            Assert.assertTrue(credentialService.verifyCredential(credential).getResult());
+            credentials.add(credential);
+        }
+        ResponseData<List<ResponseData<Boolean>>> verifyResponse =
+            credentialService.verifyCredentials(credentials);
+        for (ResponseData<Boolean> result : verifyResponse.getResult()) {
+            Assert.assertTrue(result.getResult());
+        }
+    }
+
+    /**
+     * case: a credential altered after issuance, or taken out of the Merkle batch mode, fails.
+     */
+    @Test
+    public void testCreateMerkleCredentialsCase2() {
+
+        List<CreateCredentialArgs> args = new ArrayList<CreateCredentialArgs>();
+        for (int i = 0; i < 3; i++) {
+            args.add(TestBaseUtil.buildCreateCredentialArgs(createWeIdWithSetAttr, cptBaseInfo));
+        }
+        List<ResponseData<Credential>> results =
+            credentialService.createMerkleCredentials(args).getResult();
+
+        Credential altered = results.get(0).getResult();
+        altered.setExpirationDate(altered.getExpirationDate() + 1);
+        ResponseData<Boolean> response = credentialService.verifyCredential(altered);
+        Assert.assertEquals(ErrorCode.CREDENTIAL_ISSUER_MISMATCH.getCode(),
+            response.getErrorCode().intValue());
+
+        Credential unmarked = results.get(1).getResult();
+        unmarked.setContext(CredentialUtils.getDefaultCredentialContext());
+        Assert.assertFalse(credentialService.verifyCredential(unmarked).getResult());
+
+        Assert.assertTrue(
+            credentialService.verifyCredential(results.get(2).getResult()).getResult());
+    }
+
+    /**
+     * case: args is null.
+     */
+    @Test
+    public void testCreateMerkleCredentialsCase3() {
+
+        ResponseData<List<ResponseData<Credential>>> response =
+            credentialService.createMerkleCredentials(null);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertNull(response.getResult());
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.credential;
+
+import com.webank.weid.common.BeanUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseServcie;
+import com.webank.weid.full.TestBaseUtil;
+import com.webank.weid.protocol.base.Credential;
+import com.webank.weid.protocol.request.CreateCredentialArgs;
+import com.webank.weid.protocol.response.CreateWeIdDataResult;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.SignatureUtils;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * verifyCredentials method for testing CredentialService.
+ *
+ * @author tonychen
+ *
+ */
+public class TestVerifyCredentials extends TestBaseServcie {
+
+    @Override
+    public void testInit() throws Exception {
+
+        super.testInit();
+        if (createCredentialArgs == null) {
+            registerCptArgs = TestBaseUtil.buildRegisterCptArgs(createWeIdWithSetAttr);
+            createCredentialArgs = TestBaseUtil.buildCreateCredentialArgs(createWeIdWithSetAttr);
+            cptBaseInfo = this.registerCpt(createWeIdWithSetAttr, registerCptArgs);
+            createCredentialArgs.setCptId(cptBaseInfo.getCptId());
+        }
+    }
+
+    /**
+     * case: results of valid and broken credentials, in input order.
+     */
+    @Test
+    public void testVerifyCredentialsCase1() {
+
+        List<Credential> credentials = new ArrayList<Credential>();
+        for (int i = 0; i < 8; i++) {
+            credentials.add(super.createCredential(createCredentialArgs));
+        }
+        credentials.get(2).setContext(null);
+        credentials.get(5).setClaim("{\"xxx\":\"xxx\"}");
+        credentials.get(6).setIssuer(createWeId.getWeId());
+
+        ResponseData<List<ResponseData<Boolean>>> response =
+            credentialService.verifyCredentials(credentials);
+        System.out.println("\nverifyCredentials result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        List<ResponseData<Boolean>> results = response.getResult();
+        Assert.assertEquals(credentials.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+            ResponseData<Boolean> result = results.get(i);
+            Assert.assertEquals(
+                credentialService.verifyCredential(credentials.get(i)).getErrorCode(),
+                result.getErrorCode());
+        }
+        Assert.assertEquals(true, results.get(0).getResult());
+        Assert.assertEquals(ErrorCode.CREDENTIAL_CONTEXT_NOT_EXISTS.getCode(),
+            results.get(2).getErrorCode().intValue());
+        Assert.assertEquals(false, results.get(5).getResult());
+        Assert.assertEquals(false, results.get(6).getResult());
+    }
+
+    /**
+     * case: credentials is null.
+     */
+    @Test
+    public void testVerifyCredentialsCase2() {
+
+        ResponseData<List<ResponseData<Boolean>>> response =
+            credentialService.verifyCredentials(null);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertNull(response.getResult());
+    }
+
+    /**
+     * case: credentials is empty.
+     */
+    @Test
+    public void testVerifyCredentialsCase3() {
+
+        ResponseData<List<ResponseData<Boolean>>> response =
+            credentialService.verifyCredentials(new ArrayList<Credential>());
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertTrue(response.getResult().isEmpty());
+    }
+
+    /**
+     * case: the issuer has two authentication public keys and signs with the second one. The
+     * batch check against the first key fails, so each credential is verified on its own.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testVerifyCredentialsCase4() throws Exception {
+
+        CreateWeIdDataResult issuer = super.createWeIdWithSetAttr();
+        String[] secondKey = TestBaseUtil.createEcKeyPair();
+        super.setPublicKey(issuer, secondKey[0], issuer.getWeId());
+        super.setAuthentication(issuer, secondKey[0], issuer.getWeId());
+        Assert.assertEquals(2,
+            weIdService.getWeIdDocument(issuer.getWeId()).getResult().getAuthentication().size());
+
+        CreateCredentialArgs args = TestBaseUtil.buildCreateCredentialArgs(issuer, cptBaseInfo);
+        args.getWeIdPrivateKey().setPrivateKey(secondKey[1]);
+        List<Credential> credentials = new ArrayList<Credential>();
+        for (int i = 0; i < 4; i++) {
+            credentials.add(super.createCredential(args));
+        }
+
+        ResponseData<List<ResponseData<Boolean>>> response =
+            credentialService.verifyCredentials(credentials);
+        System.out.println("\nverifyCredentials result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        for (ResponseData<Boolean> result : response.getResult()) {
+            Assert.assertEquals(ErrorCode.SUCCESS.getCode(), result.getErrorCode().intValue());
+            Assert.assertEquals(true, result.getResult());
+        }
+    }
+
+    /**
+     * case: no public key can be recovered from the signature. It is an error, as when the
+     * public key was recovered to verify it, not a mismatch, in a batch or on its own.
+     */
+    @Test
+    public void testVerifyCredentialsCase5() {
+
+        List<Credential> credentials = new ArrayList<Credential>();
+        for (int i = 0; i < 4; i++) {
+            credentials.add(super.createCredential(createCredentialArgs));
+        }
+        // with 2 more on the header byte the x of R is r + n, which is not below p
+        Credential credential = credentials.get(1);
+        byte[] signature = SignatureUtils.base64Decode(credential.getSignature().getBytes());
+        signature[0] += 2;
+        credential.setSignature(new String(SignatureUtils.base64Encode(signature)));
+
+        ResponseData<List<ResponseData<Boolean>>> response =
+            credentialService.verifyCredentials(credentials);
+        System.out.println("\nverifyCredentials result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.CREDENTIAL_ERROR.getCode(),
+            credentialService.verifyCredential(credential).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.CREDENTIAL_ERROR.getCode(),
+            response.getResult().get(1).getErrorCode().intValue());
+        Assert.assertEquals(true, response.getResult().get(0).getResult());
+    }
+}
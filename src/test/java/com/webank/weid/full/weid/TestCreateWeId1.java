@@ -24,8 +24,10 @@ import com.webank.weid.constant.ErrorCode;
 import com.webank.weid.contract.WeIdContract;
 import com.webank.weid.contract.WeIdContract.WeIdAttributeChangedEventResponse;
 import com.webank.weid.full.TestBaseServcie;
+import com.webank.weid.full.TestBaseUtil;
 import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.service.pipeline.TrackedTransactionManager;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
@@ -35,10 +37,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import mockit.Mock;
 import mockit.MockUp;
-import org.bcos.web3j.abi.datatypes.Address;
-import org.bcos.web3j.abi.datatypes.DynamicBytes;
-import org.bcos.web3j.abi.datatypes.generated.Bytes32;
-import org.bcos.web3j.abi.datatypes.generated.Int256;
 import org.bcos.web3j.crypto.ECKeyPair;
 import org.bcos.web3j.crypto.Keys;
 import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
@@ -87,17 +85,8 @@ public class TestCreateWeId1 extends TestBaseServcie {
                 }
             };
 
-        MockUp<WeIdContract> mockTest = new MockUp<WeIdContract>() {
-            @Mock
-            public Future<TransactionReceipt> setAttribute(
-                Address identity,
-                Bytes32 key,
-                DynamicBytes value,
-                Int256 updated)
-                throws Exception {
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<CreateWeIdDataResult> response = weIdService.createWeId();
         System.out.println("\ncreateWeId result:");
@@ -129,17 +118,8 @@ public class TestCreateWeId1 extends TestBaseServcie {
                 }
             };
 
-        MockUp<WeIdContract> mockTest = new MockUp<WeIdContract>() {
-            @Mock
-            public Future<TransactionReceipt> setAttribute(
-                Address identity,
-                Bytes32 key,
-                DynamicBytes value,
-                Int256 updated)
-                throws Exception {
-                return mockFuture.getMockInstance();
-            }
-        };
+        MockUp<TrackedTransactionManager> mockTest =
+            TestBaseUtil.mockSendTransaction(mockFuture.getMockInstance());
 
         ResponseData<CreateWeIdDataResult> response = weIdService.createWeId();
         System.out.println("\ncreateWeId result:");
@@ -25,10 +25,14 @@ import com.webank.weid.contract.WeIdContract;
 import com.webank.weid.full.TestBaseServcie;
 import com.webank.weid.full.TestBaseUtil;
 import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.response.CreateWeIdDataResult;
 import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.LogsBloomUtils;
+import com.webank.weid.util.WeIdUtils;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import mockit.Invocation;
 import mockit.Mock;
 import mockit.MockUp;
 import org.bcos.web3j.abi.datatypes.Address;
@@ -208,4 +212,39 @@ public class TestGetWeIdDocument extends TestBaseServcie {
             weIdDoc.getErrorCode().intValue());
         Assert.assertNull(weIdDoc.getResult());
     }
+
+    /**
+     * case: the logs bloom of a block on the attribute change chain does not hold the event,
+     * the history can not be walked and the resolution fails instead of being cut short.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentCase8() throws Exception {
+
+        CreateWeIdDataResult createResult = super.createWeId();
+        final byte[] identityBits = LogsBloomUtils.buildBloom(LogsBloomUtils.addressToTopic(
+            WeIdUtils.convertWeIdToAddress(createResult.getWeId())));
+        MockUp<LogsBloomUtils> mockTest = new MockUp<LogsBloomUtils>() {
+            @Mock
+            public boolean mightContain(Invocation invocation, String logsBloom, byte[] bloomBits) {
+                for (int i = 0; i < bloomBits.length; i++) {
+                    if ((bloomBits[i] & identityBits[i]) != identityBits[i]) {
+                        return invocation.proceed();
+                    }
+                }
+                return false;
+            }
+        };
+
+        ResponseData<WeIdDocument> weIdDoc = weIdService.getWeIdDocument(createResult.getWeId());
+        System.out.println("\ngetWeIdDocument result:");
+        BeanUtil.print(weIdDoc);
+
+        mockTest.tearDown();
+
+        Assert.assertEquals(ErrorCode.TRANSACTION_EXECUTE_ERROR.getCode(),
+            weIdDoc.getErrorCode().intValue());
+        Assert.assertNull(weIdDoc.getResult());
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.full.weid;
+
+import com.webank.weid.common.BeanUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseServcie;
+import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * getWeIdDocumentAsync method for testing WeIdService.
+ *
+ * @author tonychen 2018.12
+ */
+public class TestGetWeIdDocumentAsync extends TestBaseServcie {
+
+    /**
+     * case: the async document matches getWeIdDocument.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentAsyncCase1() throws Exception {
+
+        String weId = createWeIdForGetDoc.getWeId();
+        ResponseData<WeIdDocument> weIdDoc = weIdService
+            .getWeIdDocumentAsync(weId)
+            .get(30, TimeUnit.SECONDS);
+        System.out.println("\ngetWeIdDocumentAsync result:");
+        BeanUtil.print(weIdDoc);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), weIdDoc.getErrorCode().intValue());
+        Assert.assertEquals(weIdService.getWeIdDocument(weId).getResult(), weIdDoc.getResult());
+    }
+
+    /**
+     * case: weId is invalid, the future is completed at once.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentAsyncCase2() throws Exception {
+
+        CompletableFuture<ResponseData<WeIdDocument>> future =
+            weIdService.getWeIdDocumentAsync("xxxxxxxxxx");
+
+        Assert.assertTrue(future.isDone());
+        Assert.assertEquals(ErrorCode.WEID_INVALID.getCode(),
+            future.get().getErrorCode().intValue());
+        Assert.assertNull(future.get().getResult());
+    }
+
+    /**
+     * case: weId does not exist.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentAsyncCase3() throws Exception {
+
+        ResponseData<WeIdDocument> weIdDoc = weIdService
+            .getWeIdDocumentAsync("did:weid:0xa1c93e93622c6a0b2f52c90741e0b98ab77385a9")
+            .get(30, TimeUnit.SECONDS);
+        System.out.println("\ngetWeIdDocumentAsync result:");
+        BeanUtil.print(weIdDoc);
+
+        Assert.assertEquals(ErrorCode.WEID_DOES_NOT_EXIST.getCode(),
+            weIdDoc.getErrorCode().intValue());
+        Assert.assertNull(weIdDoc.getResult());
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.full.weid;
+
+import com.webank.weid.common.BeanUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseServcie;
+import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.response.CreateWeIdDataResult;
+import com.webank.weid.protocol.response.ResponseData;
+import com.webank.weid.util.LogsBloomUtils;
+import com.webank.weid.util.WeIdUtils;
+import java.util.Arrays;
+import java.util.List;
+import mockit.Invocation;
+import mockit.Mock;
+import mockit.MockUp;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * getWeIdDocuments method for testing WeIdService.
+ *
+ * @author tonychen 2018.12
+ */
+public class TestGetWeIdDocuments extends TestBaseServcie {
+
+    /**
+     * case: get the documents of several weIds, each result matches getWeIdDocument.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentsCase1() throws Exception {
+
+        List<String> weIds = Arrays.asList(
+            createWeIdForGetDoc.getWeId(),
+            createWeIdNew.getWeId(),
+            createWeIdForGetDoc.getWeId());
+        ResponseData<List<ResponseData<WeIdDocument>>> weIdDocs =
+            weIdService.getWeIdDocuments(weIds);
+        System.out.println("\ngetWeIdDocuments result:");
+        BeanUtil.print(weIdDocs);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), weIdDocs.getErrorCode().intValue());
+        Assert.assertEquals(weIds.size(), weIdDocs.getResult().size());
+        for (int i = 0; i < weIds.size(); i++) {
+            ResponseData<WeIdDocument> weIdDoc = weIdService.getWeIdDocument(weIds.get(i));
+            Assert.assertEquals(weIdDoc.getErrorCode(),
+                weIdDocs.getResult().get(i).getErrorCode());
+            Assert.assertEquals(weIdDoc.getResult(), weIdDocs.getResult().get(i).getResult());
+        }
+    }
+
+    /**
+     * case: invalid and not exists weIds get their own error codes.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentsCase2() throws Exception {
+
+        List<String> weIds = Arrays.asList(
+            "xxxxxxxxxx",
+            "did:weid:0xa1c93e93622c6a0b2f52c90741e0b98ab77385a9",
+            createWeIdForGetDoc.getWeId());
+        ResponseData<List<ResponseData<WeIdDocument>>> weIdDocs =
+            weIdService.getWeIdDocuments(weIds);
+        System.out.println("\ngetWeIdDocuments result:");
+        BeanUtil.print(weIdDocs);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), weIdDocs.getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.WEID_INVALID.getCode(),
+            weIdDocs.getResult().get(0).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.WEID_DOES_NOT_EXIST.getCode(),
+            weIdDocs.getResult().get(1).getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(),
+            weIdDocs.getResult().get(2).getErrorCode().intValue());
+        Assert.assertNotNull(weIdDocs.getResult().get(2).getResult());
+    }
+
+    /**
+     * case: weIds is null.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentsCase3() throws Exception {
+
+        ResponseData<List<ResponseData<WeIdDocument>>> weIdDocs =
+            weIdService.getWeIdDocuments(null);
+        System.out.println("\ngetWeIdDocuments result:");
+        BeanUtil.print(weIdDocs);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), weIdDocs.getErrorCode().intValue());
+        Assert.assertNull(weIdDocs.getResult());
+    }
+
+    /**
+     * case: the logs bloom of a block does not hold the event of one weId, only that weId fails
+     * and the others of the batch are still resolved.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testGetWeIdDocumentsCase4() throws Exception {
+
+        CreateWeIdDataResult mismatched = super.createWeId();
+        CreateWeIdDataResult resolved = super.createWeId();
+        final byte[] identityBits = LogsBloomUtils.buildBloom(LogsBloomUtils.addressToTopic(
+            WeIdUtils.convertWeIdToAddress(mismatched.getWeId())));
+        MockUp<LogsBloomUtils> mockTest = new MockUp<LogsBloomUtils>() {
+            @Mock
+            public boolean mightContain(Invocation invocation, String logsBloom, byte[] bloomBits) {
+                for (int i = 0; i < bloomBits.length; i++) {
+                    if ((bloomBits[i] & identityBits[i]) != identityBits[i]) {
+                        return invocation.proceed();
+                    }
+                }
+                return false;
+            }
+        };
+
+        List<String> weIds = Arrays.asList(mismatched.getWeId(), resolved.getWeId());
+        ResponseData<List<ResponseData<WeIdDocument>>> weIdDocs =
+            weIdService.getWeIdDocuments(weIds);
+        System.out.println("\ngetWeIdDocuments result:");
+        BeanUtil.print(weIdDocs);
+
+        mockTest.tearDown();
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), weIdDocs.getErrorCode().intValue());
+        Assert.assertEquals(ErrorCode.TRANSACTION_EXECUTE_ERROR.getCode(),
+            weIdDocs.getResult().get(0).getErrorCode().intValue());
+        Assert.assertNull(weIdDocs.getResult().get(0).getResult());
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(),
+            weIdDocs.getResult().get(1).getErrorCode().intValue());
+        Assert.assertEquals(resolved.getWeId(), weIdDocs.getResult().get(1).getResult().getId());
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.full.weid;
+
+import com.webank.weid.common.BeanUtil;
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.full.TestBaseServcie;
+import com.webank.weid.full.TestBaseUtil;
+import com.webank.weid.protocol.base.WeIdDocument;
+import com.webank.weid.protocol.base.WeIdPrivateKey;
+import com.webank.weid.protocol.request.SetServiceArgs;
+import com.webank.weid.protocol.request.UpdateWeIdAttributesArgs;
+import com.webank.weid.protocol.response.CreateWeIdDataResult;
+import com.webank.weid.protocol.response.ResponseData;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * updateWeIdAttributes method for testing WeIdService.
+ *
+ * @author tonychen 2018.12
+ */
+public class TestUpdateWeIdAttributes extends TestBaseServcie {
+
+    private static UpdateWeIdAttributesArgs buildUpdateWeIdAttributesArgs(
+        CreateWeIdDataResult createWeId) throws Exception {
+
+        SetServiceArgs otherService = TestBaseUtil.buildSetServiceArgs(createWeId);
+        otherService.setType("driving");
+
+        UpdateWeIdAttributesArgs args = new UpdateWeIdAttributesArgs();
+        args.setWeId(createWeId.getWeId());
+        args.setPublicKeys(
+            Collections.singletonList(TestBaseUtil.buildSetPublicKeyArgs(createWeId)));
+        args.setAuthentications(
+            Collections.singletonList(TestBaseUtil.buildSetAuthenticationArgs(createWeId)));
+        args.setServices(
+            Arrays.asList(TestBaseUtil.buildSetServiceArgs(createWeId), otherService));
+        args.setUserWeIdPrivateKey(new WeIdPrivateKey());
+        args.getUserWeIdPrivateKey()
+            .setPrivateKey(createWeId.getUserWeIdPrivateKey().getPrivateKey());
+        return args;
+    }
+
+    /**
+     * case: all attributes are set in one block.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testUpdateWeIdAttributesCase1() throws Exception {
+
+        CreateWeIdDataResult createWeId = super.createWeId();
+        ResponseData<Boolean> response =
+            weIdService.updateWeIdAttributes(buildUpdateWeIdAttributesArgs(createWeId));
+        System.out.println("\nupdateWeIdAttributes result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.SUCCESS.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(true, response.getResult());
+
+        WeIdDocument weIdDocument =
+            weIdService.getWeIdDocument(createWeId.getWeId()).getResult();
+        Assert.assertEquals(1, weIdDocument.getPublicKey().size());
+        Assert.assertEquals(1, weIdDocument.getAuthentication().size());
+        Assert.assertEquals(2, weIdDocument.getService().size());
+    }
+
+    /**
+     * case: no attribute given.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testUpdateWeIdAttributesCase2() throws Exception {
+
+        UpdateWeIdAttributesArgs args = buildUpdateWeIdAttributesArgs(createWeId);
+        args.setPublicKeys(null);
+        args.setAuthentications(null);
+        args.setServices(Collections.emptyList());
+
+        ResponseData<Boolean> response = weIdService.updateWeIdAttributes(args);
+        System.out.println("\nupdateWeIdAttributes result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(false, response.getResult());
+    }
+
+    /**
+     * case: the private key does not match the weIdentity DID.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testUpdateWeIdAttributesCase3() throws Exception {
+
+        UpdateWeIdAttributesArgs args = buildUpdateWeIdAttributesArgs(createWeId);
+        args.getUserWeIdPrivateKey()
+            .setPrivateKey(createWeIdNew.getUserWeIdPrivateKey().getPrivateKey());
+
+        ResponseData<Boolean> response = weIdService.updateWeIdAttributes(args);
+        System.out.println("\nupdateWeIdAttributes result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.WEID_PRIVATEKEY_DOES_NOT_MATCH.getCode(),
+            response.getErrorCode().intValue());
+        Assert.assertEquals(false, response.getResult());
+    }
+
+    /**
+     * case: the updateWeIdAttributesArgs is null.
+     *
+     * @throws Exception may be throw Exception
+     */
+    @Test
+    public void testUpdateWeIdAttributesCase4() throws Exception {
+
+        ResponseData<Boolean> response = weIdService.updateWeIdAttributes(null);
+        System.out.println("\nupdateWeIdAttributes result:");
+        BeanUtil.print(response);
+
+        Assert.assertEquals(ErrorCode.ILLEGAL_INPUT.getCode(), response.getErrorCode().intValue());
+        Assert.assertEquals(false, response.getResult());
+    }
+}
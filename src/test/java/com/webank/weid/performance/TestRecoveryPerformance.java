@@ -0,0 +1,111 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.performance;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.bcos.web3j.crypto.ECKeyPair;
+import org.bcos.web3j.crypto.Sign;
+import org.junit.Test;
+
+import com.webank.weid.util.HashUtils;
+import com.webank.weid.util.SignatureUtils;
+
+/**
+ * performance testing of public key recovery and signature verification, one by one and in
+ * batches, in SignatureUtils against web3j.
+ *
+ * @author tonychen
+ *
+ */
+public class TestRecoveryPerformance {
+
+    private static final int WARM_UP = 1000;
+
+    private static final int COUNT = 3000;
+
+    @Test
+    public void testRecovery() throws Exception {
+
+        ECKeyPair keyPair = SignatureUtils.createKeyPair();
+        BigInteger publicKey = keyPair.getPublicKey();
+        String[] messages = new String[COUNT];
+        Sign.SignatureData[] signatures = new Sign.SignatureData[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            messages[i] = "credential " + i;
+            signatures[i] = SignatureUtils.signMessage(messages[i], keyPair);
+        }
+
+        for (int i = 0; i < WARM_UP; i++) {
+            Sign.signedMessageToKey(HashUtils.sha3(messages[i].getBytes()), signatures[i]);
+            SignatureUtils.signatureToPublicKey(messages[i], signatures[i]);
+            SignatureUtils.verifySignature(messages[i], signatures[i], publicKey);
+        }
+
+        long startTime = System.nanoTime();
+        for (int i = 0; i < COUNT; i++) {
+            Sign.signedMessageToKey(HashUtils.sha3(messages[i].getBytes()), signatures[i]);
+        }
+        long web3jTime = System.nanoTime() - startTime;
+        System.out.println("Sign.signedMessageToKey: "
+            + web3jTime / COUNT / 1000 + "us per signature");
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < COUNT; i++) {
+            SignatureUtils.signatureToPublicKey(messages[i], signatures[i]);
+        }
+        long recoveryTime = System.nanoTime() - startTime;
+        System.out.println("SignatureUtils.signatureToPublicKey: "
+            + recoveryTime / COUNT / 1000 + "us per signature, "
+            + String.format("%.1f", (double) web3jTime / recoveryTime) + "x faster");
+
+        startTime = System.nanoTime();
+        for (int i = 0; i < COUNT; i++) {
+            SignatureUtils.verifySignature(messages[i], signatures[i], publicKey);
+        }
+        long verifyTime = System.nanoTime() - startTime;
+        System.out.println("SignatureUtils.verifySignature: "
+            + verifyTime / COUNT / 1000 + "us per signature, "
+            + String.format("%.1f", (double) web3jTime / verifyTime) + "x faster");
+
+        List<byte[]> messageHashes = new ArrayList<>(COUNT);
+        for (int i = 0; i < COUNT; i++) {
+            messageHashes.add(HashUtils.sha3(messages[i].getBytes()));
+        }
+        for (int batchSize : new int[]{16, 64, 256}) {
+            startTime = System.nanoTime();
+            for (int i = 0; i + batchSize <= COUNT; i += batchSize) {
+                SignatureUtils.verifyMessageHashes(
+                    messageHashes.subList(i, i + batchSize),
+                    Arrays.asList(signatures).subList(i, i + batchSize),
+                    publicKey);
+            }
+            long batchTime = System.nanoTime() - startTime;
+            int verified = COUNT / batchSize * batchSize;
+            System.out.println("SignatureUtils.verifyMessageHashes in batches of " + batchSize
+                + ": " + batchTime / verified / 1000 + "us per signature, "
+                + String.format("%.1f", (double) web3jTime * verified / COUNT / batchTime)
+                + "x faster");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.performance;
+
+import com.webank.weid.crypto.PrivateKeySigner;
+import com.webank.weid.util.SignatureUtils;
+import org.junit.Test;
+
+/**
+ * performance testing of signing with a private key signer against SignatureUtils.
+ *
+ * @author tonychen
+ *
+ */
+public class TestSigningPerformance {
+
+    private static final int WARM_UP = 500;
+
+    private static final int COUNT = 3000;
+
+    @Test
+    public void testSignMessage() throws Exception {
+
+        String privateKey = SignatureUtils.createKeyPair().getPrivateKey().toString();
+
+        for (int i = 0; i < WARM_UP; i++) {
+            SignatureUtils.signMessage("warm up " + i, privateKey);
+        }
+        long startTime = System.nanoTime();
+        for (int i = 0; i < COUNT; i++) {
+            SignatureUtils.signMessage("credential " + i, privateKey);
+        }
+        long signatureUtilsTime = System.nanoTime() - startTime;
+        System.out.println("SignatureUtils.signMessage: "
+            + signatureUtilsTime / COUNT / 1000 + "us per signature");
+
+        startTime = System.nanoTime();
+        try (PrivateKeySigner signer = new PrivateKeySigner(privateKey)) {
+            long buildTime = System.nanoTime() - startTime;
+            String otherKey = SignatureUtils.createKeyPair().getPrivateKey().toString();
+            startTime = System.nanoTime();
+            new PrivateKeySigner(otherKey).close();
+            long secondBuildTime = System.nanoTime() - startTime;
+            for (int i = 0; i < WARM_UP; i++) {
+                signer.signMessage("warm up " + i);
+            }
+            startTime = System.nanoTime();
+            for (int i = 0; i < COUNT; i++) {
+                signer.signMessage("credential " + i);
+            }
+            long signerTime = System.nanoTime() - startTime;
+            System.out.println("PrivateKeySigner.signMessage: "
+                + signerTime / COUNT / 1000 + "us per signature, "
+                + buildTime / 1000000 + "ms to build the first signer and the shared table, "
+                + secondBuildTime / 1000 + "us to build another signer, "
+                + String.format("%.1f", (double) signatureUtilsTime / signerTime)
+                + "x faster");
+        }
+    }
+}
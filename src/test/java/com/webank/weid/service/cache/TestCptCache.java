@@ -0,0 +1,111 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Ticker;
+import org.junit.Test;
+
+import com.webank.weid.constant.ErrorCode;
+import com.webank.weid.protocol.base.Cpt;
+import com.webank.weid.protocol.response.ResponseData;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Test CptCache.
+ *
+ * @author tonychen
+ */
+public class TestCptCache {
+
+    @Test
+    public void testCptKeptUntilVersionChanges() {
+
+        CptCache cache = new CptCache(10, 1000L, Ticker.systemTicker());
+        cache.put(1, new ResponseData<>(buildCpt(1, 1), ErrorCode.SUCCESS), 0L);
+
+        ResponseData<Cpt> cached = cache.get(1);
+        assertEquals(ErrorCode.SUCCESS.getCode(), cached.getErrorCode().intValue());
+        assertEquals("{\"title\":\"1\"}", cached.getResult().getCptJsonSchema());
+        // the caller gets a copy
+        cached.getResult().setCptJsonSchema("{}");
+        assertNotSame(cached.getResult(), cache.get(1).getResult());
+        assertEquals("{\"title\":\"1\"}", cache.get(1).getResult().getCptJsonSchema());
+
+        cache.onCptChanged(1, 1);
+        assertEquals(Integer.valueOf(1), cache.get(1).getResult().getCptVersion());
+        cache.onCptChanged(1, 2);
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    public void testNotExistsExpires() {
+
+        AtomicLong nanos = new AtomicLong();
+        Ticker ticker = new Ticker() {
+            @Override
+            public long read() {
+                return nanos.get();
+            }
+        };
+        CptCache cache = new CptCache(10, 1000L, ticker);
+        cache.put(2, new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS), 0L);
+        cache.put(3, new ResponseData<>(null, ErrorCode.TRANSACTION_TIMEOUT), 0L);
+
+        assertEquals(ErrorCode.CPT_NOT_EXISTS.getCode(), cache.get(2).getErrorCode().intValue());
+        assertNull(cache.get(3));
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1001L));
+        assertNull(cache.get(2));
+
+        cache.put(2, new ResponseData<>(null, ErrorCode.CPT_NOT_EXISTS), 0L);
+        cache.onCptChanged(2, 1);
+        assertNull(cache.get(2));
+    }
+
+    @Test
+    public void testStaleQueryNotCached() {
+
+        CptCache cache = new CptCache(10, 1000L, Ticker.systemTicker());
+        long generation = cache.getGeneration();
+        // the cpt is updated while the query is in flight
+        cache.onCptChanged(4, 2);
+        cache.put(4, new ResponseData<>(buildCpt(4, 1), ErrorCode.SUCCESS), generation);
+        assertNull(cache.get(4));
+
+        cache.put(4, new ResponseData<>(buildCpt(4, 2), ErrorCode.SUCCESS), cache.getGeneration());
+        cache.invalidateAll();
+        assertNull(cache.get(4));
+    }
+
+    private static Cpt buildCpt(int cptId, int cptVersion) {
+
+        Cpt cpt = new Cpt();
+        cpt.setCptId(cptId);
+        cpt.setCptVersion(cptVersion);
+        cpt.setCptJsonSchema("{\"title\":\"" + cptId + "\"}");
+        return cpt;
+    }
+}
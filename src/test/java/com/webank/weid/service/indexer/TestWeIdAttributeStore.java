@@ -0,0 +1,178 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.indexer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.webank.weid.protocol.base.WeIdAttributeChange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test WeIdAttributeStore.
+ *
+ * @author tonychen
+ */
+public class TestWeIdAttributeStore {
+
+    private static final String WEID = "did:weid:0x0518f2b92fad9da7807a78b58af64db8997357db";
+
+    private static final String OTHER_WEID = "did:weid:0x1914dc80628aaabd66cf23297fbd6feb14da6ce7";
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static WeIdAttributeChange change(String weId, String key, int previousBlock) {
+        WeIdAttributeChange change = new WeIdAttributeChange();
+        change.setWeId(weId);
+        change.setKey(key);
+        change.setValue("value-" + key);
+        change.setUpdated(1544000000000L);
+        change.setPreviousBlock(previousBlock);
+        return change;
+    }
+
+    @Test
+    public void testGetHistory() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        try (WeIdAttributeStore store = new WeIdAttributeStore(directory, SEGMENT_SIZE)) {
+            store.append(3, Arrays.asList(change(WEID, "a", 0), change(OTHER_WEID, "b", 0)));
+            store.append(5, Collections.singletonList(change(WEID, "c", 3)));
+
+            assertEquals(5, store.getIndexedBlock());
+            assertTrue(store.contains(WEID));
+            assertFalse(store.contains("did:weid:0xa1c93e93622c6a0b2f52c90741e0b98ab77385a9"));
+
+            List<WeIdAttributeChange> history = store.getHistory(WEID, 5);
+            assertEquals(2, history.size());
+            assertEquals("c", history.get(0).getKey());
+            assertEquals(Integer.valueOf(5), history.get(0).getBlockNumber());
+            assertEquals(Integer.valueOf(3), history.get(0).getPreviousBlock());
+            assertEquals("value-a", history.get(1).getValue());
+            assertEquals(WEID, history.get(1).getWeId());
+
+            assertEquals(1, store.getHistory(WEID, 4).size());
+        }
+    }
+
+    @Test
+    public void testReopenResumesFromCheckpoint() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        WeIdAttributeStore store = new WeIdAttributeStore(directory, SEGMENT_SIZE);
+        store.append(3, Collections.singletonList(change(WEID, "a", 0)));
+        store.flush();
+        store.append(7, Collections.singletonList(change(WEID, "b", 3)));
+
+        // the block appended after the flush is dropped when reopened
+        WeIdAttributeStore reopened = new WeIdAttributeStore(directory, SEGMENT_SIZE);
+        assertEquals(3, reopened.getIndexedBlock());
+        assertEquals(1, reopened.getHistory(WEID, Integer.MAX_VALUE).size());
+
+        reopened.append(8, Collections.singletonList(change(WEID, "c", 3)));
+        reopened.close();
+        assertEquals(2, new WeIdAttributeStore(directory, SEGMENT_SIZE)
+            .getHistory(WEID, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testSegmentRollover() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        WeIdAttributeStore store = new WeIdAttributeStore(directory, SEGMENT_SIZE);
+        for (int block = 1; block <= 200; block++) {
+            store.append(block, Collections.singletonList(change(WEID, "key" + block, block - 1)));
+        }
+        store.close();
+
+        List<WeIdAttributeChange> history =
+            new WeIdAttributeStore(directory, SEGMENT_SIZE).getHistory(WEID, Integer.MAX_VALUE);
+        assertEquals(200, history.size());
+        assertEquals("key200", history.get(0).getKey());
+        assertEquals("key1", history.get(199).getKey());
+    }
+
+    @Test
+    public void testOversizeEventAppendsNothing() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        WeIdAttributeStore store = new WeIdAttributeStore(directory, SEGMENT_SIZE);
+        store.append(3, Collections.singletonList(change(WEID, "a", 0)));
+
+        WeIdAttributeChange oversize = change(WEID, "c", 3);
+        oversize.setValue(StringUtils.repeat('x', SEGMENT_SIZE));
+        try {
+            store.append(5, Arrays.asList(change(WEID, "b", 3), oversize));
+            fail("an event larger than a segment should be rejected.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(3, store.getIndexedBlock());
+        assertEquals(1, store.getHistory(WEID, Integer.MAX_VALUE).size());
+
+        store.append(5, Collections.singletonList(change(WEID, "b", 3)));
+        store.close();
+        assertEquals(2, new WeIdAttributeStore(directory, SEGMENT_SIZE)
+            .getHistory(WEID, Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    public void testFailedSegmentAppendsNothing() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        WeIdAttributeStore store = new WeIdAttributeStore(directory, SEGMENT_SIZE);
+        // records of 56 bytes, 72 of them leave room for one more in the first segment
+        for (int block = 1; block <= 72; block++) {
+            store.append(block, Collections.singletonList(change(WEID, "k", 0)));
+        }
+
+        // the first event of the block fits in the first segment, the second one needs a
+        // segment that can not be mapped
+        Files.createDirectory(directory.resolve("segment-00001.dat"));
+        List<WeIdAttributeChange> changes = Arrays.asList(
+            change(OTHER_WEID, "a", 0), change(OTHER_WEID, "b", 0), change(OTHER_WEID, "c", 0));
+        try {
+            store.append(73, changes);
+            fail("a segment that can not be mapped should fail the block.");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(72, store.getIndexedBlock());
+        assertFalse(store.contains(OTHER_WEID));
+
+        Files.delete(directory.resolve("segment-00001.dat"));
+        store.append(73, changes);
+        assertEquals(3, store.getHistory(OTHER_WEID, Integer.MAX_VALUE).size());
+        store.close();
+        assertEquals(3, new WeIdAttributeStore(directory, SEGMENT_SIZE)
+            .getHistory(OTHER_WEID, Integer.MAX_VALUE).size());
+    }
+}
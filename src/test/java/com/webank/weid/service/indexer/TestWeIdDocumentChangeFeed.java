@@ -0,0 +1,94 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.service.indexer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.webank.weid.protocol.base.WeIdAttributeChange;
+import com.webank.weid.protocol.base.WeIdDocumentChange;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test WeIdDocumentChangeFeed.
+ *
+ * @author tonychen
+ */
+public class TestWeIdDocumentChangeFeed {
+
+    private static final String WEID = "did:weid:0x0518f2b92fad9da7807a78b58af64db8997357db";
+
+    private static final String OTHER_WEID = "did:weid:0x1914dc80628aaabd66cf23297fbd6feb14da6ce7";
+
+    private static final int BLOCK = 42;
+
+    private static WeIdAttributeChange change(String weId, String key) {
+        WeIdAttributeChange change = new WeIdAttributeChange();
+        change.setWeId(weId);
+        change.setKey(key);
+        change.setValue("value-" + key);
+        change.setUpdated(1544000000000L);
+        change.setBlockNumber(BLOCK);
+        change.setPreviousBlock(0);
+        return change;
+    }
+
+    @Test
+    public void testChangesGroupedByWeIdInOrder() {
+
+        List<WeIdAttributeChange> changes = Arrays.asList(
+            change(OTHER_WEID, "a"), change(WEID, "b"), change(OTHER_WEID, "c"));
+
+        List<WeIdDocumentChange> documentChanges =
+            WeIdDocumentChangeFeed.toDocumentChanges(changes, Collections.emptySet());
+
+        assertEquals(2, documentChanges.size());
+        assertEquals(OTHER_WEID, documentChanges.get(0).getWeId());
+        assertEquals(BLOCK, documentChanges.get(0).getBlockNumber().intValue());
+        assertEquals(Arrays.asList(changes.get(0), changes.get(2)),
+            documentChanges.get(0).getChanges());
+        assertEquals(WEID, documentChanges.get(1).getWeId());
+        assertEquals(Collections.singletonList(changes.get(1)),
+            documentChanges.get(1).getChanges());
+    }
+
+    @Test
+    public void testOnlySubscribedWeIdsKept() {
+
+        List<WeIdAttributeChange> changes = Arrays.asList(
+            change(OTHER_WEID, "a"), change(WEID, "b"));
+
+        List<WeIdDocumentChange> documentChanges = WeIdDocumentChangeFeed.toDocumentChanges(
+            changes,
+            new HashSet<>(Collections.singletonList(
+                "0x0518f2b92fad9da7807a78b58af64db8997357db")));
+
+        assertEquals(1, documentChanges.size());
+        assertEquals(WEID, documentChanges.get(0).getWeId());
+        assertTrue(WeIdDocumentChangeFeed
+            .toDocumentChanges(Collections.emptyList(), Collections.emptySet())
+            .isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.keypair;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.bcos.web3j.crypto.ECKeyPair;
+import org.bcos.web3j.crypto.Keys;
+import org.bcos.web3j.crypto.Sign;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test KeyPairPool.
+ *
+ * @author tonychen
+ */
+public class TestKeyPairPool {
+
+    @Test
+    public void testTakeFromFilledPool() throws Exception {
+
+        KeyPairPool pool = new KeyPairPool();
+        pool.setCapacity(8);
+        pool.setWorkers(2);
+        pool.start();
+        try {
+            long deadline = System.currentTimeMillis() + 30000L;
+            while (pool.getReady() < 8 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10L);
+            }
+            assertEquals(8, pool.getReady());
+
+            Set<ECKeyPair> taken = new HashSet<>();
+            for (int i = 0; i < 20; i++) {
+                ECKeyPair keyPair = pool.take();
+                assertEquals(
+                    Sign.publicKeyFromPrivate(keyPair.getPrivateKey()), keyPair.getPublicKey());
+                taken.add(keyPair);
+            }
+            assertEquals(20, taken.size());
+        } finally {
+            pool.stop();
+        }
+        assertEquals(0, pool.getReady());
+    }
+
+    @Test
+    public void testTakeWithoutStart() throws Exception {
+
+        ECKeyPair keyPair = new KeyPairPool().take();
+        assertEquals(
+            Sign.publicKeyFromPrivate(keyPair.getPrivateKey()), keyPair.getPublicKey());
+    }
+
+    @Test
+    public void testPooledBytesWiped() throws Exception {
+
+        ECKeyPair generated = Keys.createEcKeyPair();
+        byte[] pooled = Keys.serialize(generated);
+        ECKeyPair keyPair = KeyPairPool.toKeyPair(pooled);
+
+        assertEquals(generated, keyPair);
+        assertArrayEquals(new byte[pooled.length], pooled);
+        assertTrue(pooled.length > 0);
+    }
+}
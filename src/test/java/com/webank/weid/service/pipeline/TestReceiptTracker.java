@@ -0,0 +1,179 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.service.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bcos.web3j.protocol.core.methods.response.TransactionReceipt;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test ReceiptTracker against an in-memory chain.
+ *
+ * @author tonychen
+ */
+public class TestReceiptTracker {
+
+    @Test
+    public void testReceiptsResolvedFromNewBlocks() throws Exception {
+
+        FakeChain chain = new FakeChain();
+        ReceiptTracker tracker = new ReceiptTracker(chain, 10L, 60000L, 60000L, 60000L);
+        try {
+            List<CompletableFuture<TransactionReceipt>> receipts = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                receipts.add(tracker.track("0xA" + i));
+            }
+            assertSame(receipts.get(0), tracker.track("0xa0"));
+            Thread.sleep(50L);
+            chain.mine("0xa0", "0xa1");
+            chain.mine();
+            List<String> rest = new ArrayList<>();
+            for (int i = 2; i < 50; i++) {
+                rest.add("0xa" + i);
+            }
+            chain.mine(rest.toArray(new String[0]));
+
+            for (int i = 0; i < 50; i++) {
+                assertEquals(
+                    "0xa" + i,
+                    receipts.get(i).get(5, TimeUnit.SECONDS).getTransactionHash());
+            }
+            assertEquals(0, tracker.getPending());
+            // one receipt fetch per transaction, no receipt polled before its block
+            assertEquals(50, chain.receiptCalls.get());
+        } finally {
+            tracker.shutdown();
+        }
+    }
+
+    @Test
+    public void testStragglerPolledWithBackoff() throws Exception {
+
+        FakeChain chain = new FakeChain();
+        // mined before being tracked, so the block watching misses it
+        chain.mine("0xb0");
+        ReceiptTracker tracker = new ReceiptTracker(chain, 10L, 100L, 400L, 60000L);
+        try {
+            Thread.sleep(50L);
+            chain.mine();
+            CompletableFuture<TransactionReceipt> receipt = tracker.track("0xb0");
+            assertEquals("0xb0", receipt.get(5, TimeUnit.SECONDS).getTransactionHash());
+            assertEquals(1, chain.receiptCalls.get());
+        } finally {
+            tracker.shutdown();
+        }
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+
+        FakeChain chain = new FakeChain();
+        ReceiptTracker tracker = new ReceiptTracker(chain, 10L, 20L, 100L, 300L);
+        try {
+            CompletableFuture<TransactionReceipt> receipt = tracker.track("0xc0");
+            try {
+                receipt.get(5, TimeUnit.SECONDS);
+                fail("the receipt should time out.");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof TimeoutException);
+            }
+            assertEquals(0, tracker.getPending());
+            // the straggler polls back off: far fewer than one per poll interval
+            assertTrue(chain.receiptCalls.get() <= 6);
+        } finally {
+            tracker.shutdown();
+        }
+    }
+
+    @Test
+    public void testMaxWaitAfterShutdown() throws Exception {
+
+        FakeChain chain = new FakeChain();
+        ReceiptTracker tracker = new ReceiptTracker(chain, 10L, 20L, 100L, 300L);
+        assertEquals(310L, tracker.getMaxWait());
+        tracker.shutdown();
+        // nothing fails the receipt any more, the caller has to bound its wait
+        CompletableFuture<TransactionReceipt> receipt = tracker.track("0xd0");
+        try {
+            receipt.get(tracker.getMaxWait(), TimeUnit.MILLISECONDS);
+            fail("the wait should time out.");
+        } catch (TimeoutException e) {
+            assertEquals(1, tracker.getPending());
+        }
+    }
+
+    private static final class FakeChain implements ReceiptTracker.BlockSource {
+
+        private final List<List<String>> blocks =
+            Collections.synchronizedList(new ArrayList<>());
+
+        private final Map<String, TransactionReceipt> receipts = new ConcurrentHashMap<>();
+
+        private final AtomicInteger receiptCalls = new AtomicInteger();
+
+        private FakeChain() {
+            blocks.add(Collections.emptyList());
+        }
+
+        private void mine(String... transactionHashes) {
+
+            List<String> block = new ArrayList<>();
+            for (String transactionHash : transactionHashes) {
+                TransactionReceipt receipt = new TransactionReceipt();
+                receipt.setTransactionHash(transactionHash);
+                receipts.put(transactionHash, receipt);
+                block.add(transactionHash);
+            }
+            blocks.add(block);
+        }
+
+        @Override
+        public int getLatestBlock() {
+            return blocks.size() - 1;
+        }
+
+        @Override
+        public List<String> getTransactionHashes(int blockNumber) {
+            return blocks.get(blockNumber);
+        }
+
+        @Override
+        public Optional<TransactionReceipt> getReceipt(String transactionHash) {
+            receiptCalls.incrementAndGet();
+            return Optional.ofNullable(receipts.get(transactionHash));
+        }
+    }
+}
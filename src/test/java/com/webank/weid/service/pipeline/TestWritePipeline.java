@@ -0,0 +1,115 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.service.pipeline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test WritePipeline.
+ *
+ * @author tonychen
+ */
+public class TestWritePipeline {
+
+    @Test
+    public void testSubmitBlocksWhenFull() throws Exception {
+
+        WritePipeline pipeline = new WritePipeline(2);
+        List<CompletableFuture<Integer>> receipts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            receipts.add(new CompletableFuture<>());
+        }
+        pipeline.submit(() -> receipts.get(0));
+        pipeline.submit(() -> receipts.get(1));
+        assertEquals(2, pipeline.getInFlight());
+
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread submitter = new Thread(() -> {
+            try {
+                pipeline.submit(() -> receipts.get(2));
+                submitted.countDown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        submitter.start();
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+        receipts.get(0).complete(0);
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        assertEquals(2, pipeline.getInFlight());
+        submitter.join();
+    }
+
+    @Test
+    public void testResultsAndFailuresReported() throws Exception {
+
+        WritePipeline pipeline = new WritePipeline(4);
+        CompletableFuture<Integer> receipt = new CompletableFuture<>();
+        CompletableFuture<Integer> result = pipeline.submit(() -> receipt);
+        CompletableFuture<Integer> failure = pipeline.submit(() -> {
+            throw new IllegalStateException("send failed");
+        });
+        assertEquals(1, pipeline.getInFlight());
+
+        receipt.complete(42);
+        assertEquals(42, result.get().intValue());
+        assertEquals(0, pipeline.getInFlight());
+        try {
+            failure.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void testAwaitCompletion() throws Exception {
+
+        WritePipeline pipeline = new WritePipeline(3);
+        CompletableFuture<Integer> receipt = new CompletableFuture<>();
+        pipeline.submit(() -> receipt);
+
+        Thread completer = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            receipt.complete(1);
+        });
+        completer.start();
+        pipeline.awaitCompletion();
+        assertTrue(receipt.isDone());
+        assertEquals(0, pipeline.getInFlight());
+        completer.join();
+    }
+}
@@ -23,12 +23,23 @@ import com.webank.weid.protocol.base.Credential;
 import com.webank.weid.protocol.request.CreateCredentialArgs;
 import com.webank.weid.protocol.request.VerifyCredentialArgs;
 import com.webank.weid.util.CredentialUtils;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import org.bcos.web3j.crypto.ECKeyPair;
+import org.bcos.web3j.crypto.Sign;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * test crentialUtils.
@@ -47,6 +58,107 @@ public class TestCredentialUtils {
         assertEquals(result, "");
     }
 
+    @Test
+    public void getCredentialFieldsHashTest() throws Exception {
+
+        StringBuilder largeClaim = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            largeClaim.append("{\"name\":\"\u5f20\u4e09\",\"emoji\":\"\ud83d\ude00\"}");
+        }
+        String[] claims = {
+            "sfsfs", "\u5f20\u4e09", "\ud83d\ude00", "\ud83d", "a\ude00b", null,
+            largeClaim.toString()
+        };
+        for (String claim : claims) {
+            Credential arg = new Credential();
+            arg.setContext(CredentialUtils.getDefaultCredentialContext());
+            arg.setId(UUID.randomUUID().toString());
+            arg.setCptId(14356);
+            arg.setIssuer("did:weid:0x2a1cd97b8a3d1e6e0d0f3d2e5e9c8f3a1b2c3d4e");
+            arg.setIssuranceDate(System.currentTimeMillis());
+            arg.setExpirationDate(System.currentTimeMillis() + 1000L);
+            arg.setClaim(claim);
+            byte[] expected = HashUtils.sha3(
+                CredentialUtils.getCredentialFields(arg).getBytes(StandardCharsets.UTF_8));
+            assertArrayEquals(expected, CredentialUtils.getCredentialFieldsHash(arg));
+        }
+        assertArrayEquals(
+            HashUtils.sha3(new byte[0]), CredentialUtils.getCredentialFieldsHash(null));
+    }
+
+    @Test
+    public void getCredentialFieldsHashConcurrentTest() {
+
+        List<Credential> credentials = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            Credential arg = new Credential();
+            arg.setContext(CredentialUtils.getDefaultCredentialContext());
+            arg.setId(UUID.randomUUID().toString());
+            arg.setCptId(14356);
+            arg.setIssuer("gdsgshher");
+            arg.setIssuranceDate(System.currentTimeMillis());
+            arg.setExpirationDate(System.currentTimeMillis());
+            arg.setClaim("{\"name\":\"\u5f20\u4e09\",\"no\":" + i + "}");
+            credentials.add(arg);
+        }
+        List<byte[]> expected = new ArrayList<>();
+        for (Credential arg : credentials) {
+            expected.add(CredentialUtils.getCredentialFieldsHash(arg));
+        }
+
+        // hashed on a parallel stream, the way createCredentials does
+        List<byte[]> hashes = credentials
+            .parallelStream()
+            .map(CredentialUtils::getCredentialFieldsHash)
+            .collect(Collectors.toList());
+        for (int i = 0; i < credentials.size(); i++) {
+            assertArrayEquals(expected.get(i), hashes.get(i));
+        }
+    }
+
+    @Test
+    public void isMerkleCredentialTest() {
+
+        Credential arg = new Credential();
+        assertFalse(CredentialUtils.isMerkleCredential(null));
+        assertFalse(CredentialUtils.isMerkleCredential(arg));
+        arg.setContext(CredentialUtils.getDefaultCredentialContext());
+        assertFalse(CredentialUtils.isMerkleCredential(arg));
+        arg.setContext(CredentialUtils.getMerkleCredentialContext());
+        assertTrue(CredentialUtils.isMerkleCredential(arg));
+    }
+
+    @Test
+    public void signCredentialFieldsHashTest() throws Exception {
+
+        Credential arg = new Credential();
+        arg.setContext(CredentialUtils.getDefaultCredentialContext());
+        arg.setId(UUID.randomUUID().toString());
+        arg.setCptId(14356);
+        arg.setIssuer("gdsgshher");
+        arg.setIssuranceDate(System.currentTimeMillis());
+        arg.setExpirationDate(System.currentTimeMillis());
+        arg.setClaim("sfsfs");
+        ECKeyPair keyPair = SignatureUtils.createKeyPair();
+
+        // a signature over the concatenated fields verifies against the streamed hash
+        Sign.SignatureData sigData = SignatureUtils.signMessage(
+            CredentialUtils.getCredentialFields(arg), keyPair);
+        assertTrue(SignatureUtils.verifyMessageHash(
+            CredentialUtils.getCredentialFieldsHash(arg),
+            sigData,
+            Collections.singletonList(keyPair.getPublicKey())));
+
+        Sign.SignatureData hashSigData = SignatureUtils.signMessageHash(
+            CredentialUtils.getCredentialFieldsHash(arg), keyPair.getPrivateKey().toString());
+        assertArrayEquals(
+            SignatureUtils.simpleSignatureSerialization(sigData),
+            SignatureUtils.simpleSignatureSerialization(hashSigData));
+        BigInteger publicKey = SignatureUtils.signatureToPublicKey(
+            CredentialUtils.getCredentialFields(arg), hashSigData);
+        assertEquals(keyPair.getPublicKey(), publicKey);
+    }
+
     @Test
     public void extractCredentialResultTest() {
         VerifyCredentialArgs args = null;
@@ -0,0 +1,65 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.webank.weid.util;
+
+import com.github.fge.jsonschema.main.JsonSchema;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * test JsonSchemaValidatorUtils.
+ *
+ * @author tonychen
+ *
+ */
+public class TestJsonSchemaValidatorUtils {
+
+    private static final String SCHEMA =
+        "{\"$schema\":\"http://json-schema.org/draft-04/schema#\",\"type\":\"object\","
+            + "\"properties\":{\"name\":{\"type\":\"string\"}},\"required\":[\"name\"]}";
+
+    @Test
+    public void testLoadJsonSchemaCached() throws Exception {
+
+        JsonSchema schema = JsonSchemaValidatorUtils.loadJsonSchema(SCHEMA);
+        Assert.assertSame(schema, JsonSchemaValidatorUtils.loadJsonSchema(new String(SCHEMA)));
+
+        Assert.assertTrue(
+            JsonSchemaValidatorUtils.validateJsonVersusSchema("{\"name\":\"a\"}", schema));
+        Assert.assertFalse(
+            JsonSchemaValidatorUtils.validateJsonVersusSchema("{\"age\":1}", schema));
+        Assert.assertTrue(
+            JsonSchemaValidatorUtils.validateJsonVersusSchema("{\"name\":\"a\"}", SCHEMA));
+    }
+
+    @Test
+    public void testLoadCptJsonSchema() throws Exception {
+
+        JsonSchema schema = JsonSchemaValidatorUtils.loadCptJsonSchema(1001, 1, SCHEMA);
+        Assert.assertNotNull(schema);
+        Assert.assertSame(schema, JsonSchemaValidatorUtils.loadCptJsonSchema(1001, 1, SCHEMA));
+        Assert.assertNotSame(schema, JsonSchemaValidatorUtils.loadCptJsonSchema(1001, 2, SCHEMA));
+
+        // a schema without $schema is not a valid cpt json schema, and is not cached
+        String invalid = "{\"type\":\"object\"}";
+        Assert.assertNull(JsonSchemaValidatorUtils.loadCptJsonSchema(1002, 1, invalid));
+        Assert.assertNull(JsonSchemaValidatorUtils.loadCptJsonSchema(null, null, invalid));
+        Assert.assertNotNull(JsonSchemaValidatorUtils.loadCptJsonSchema(1002, 1, SCHEMA));
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *       Copyright© (2018) WeBank Co., Ltd.
+ *
+ *       This file is part of weidentity-java-sdk.
+ *
+ *       weidentity-java-sdk is free software: you can redistribute it and/or modify
+ *       it under the terms of the GNU Lesser General Public License as published by
+ *       the Free Software Foundation, either version 3 of the License, or
+ *       (at your option) any later version.
+ *
+ *       weidentity-java-sdk is distributed in the hope that it will be useful,
+ *       but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *       MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *       GNU Lesser General Public License for more details.
+ *
+ *       You should have received a copy of the GNU Lesser General Public License
+ *       along with weidentity-java-sdk.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.webank.weid.util;
+
+import java.nio.charset.StandardCharsets;
+
+import org.bcos.web3j.utils.Numeric;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test LogsBloomUtils.
+ *
+ * @author tonychen
+ */
+public class TestLogsBloomUtils {
+
+    private static final String ADDRESS = "0x0518f2b92fad9da7807a78b58af64db8997357db";
+
+    @Test
+    public void testBuildBloom() {
+        byte[] bloom = LogsBloomUtils.buildBloom(Numeric.hexStringToByteArray(ADDRESS));
+        assertEquals(LogsBloomUtils.BLOOM_BYTE_LENGTH, bloom.length);
+        int bitCount = 0;
+        for (byte b : bloom) {
+            bitCount += Integer.bitCount(b & 0xff);
+        }
+        assertTrue(bitCount >= 1 && bitCount <= 3);
+    }
+
+    @Test
+    public void testMightContain() {
+        byte[] address = Numeric.hexStringToByteArray(ADDRESS);
+        byte[] topic = LogsBloomUtils.addressToTopic(ADDRESS);
+        byte[] logsBloom = LogsBloomUtils.buildBloom(address, topic);
+
+        String logsBloomHex = Numeric.toHexString(logsBloom);
+        assertTrue(LogsBloomUtils.mightContain(logsBloomHex, LogsBloomUtils.buildBloom(address)));
+        assertTrue(LogsBloomUtils.mightContain(logsBloomHex, LogsBloomUtils.buildBloom(topic)));
+
+        byte[] other = LogsBloomUtils.addressToTopic("0x1914dc80628aaabd66cf23297fbd6feb14da6ce7");
+        assertFalse(LogsBloomUtils.mightContain(logsBloomHex, LogsBloomUtils.buildBloom(other)));
+    }
+
+    /**
+     * Known answers of the rule FISCO BCOS takes from cpp-ethereum: the three bits of an item
+     * are the low 11 bits of the first three byte pairs of its Keccak-256 hash, counted from
+     * the last byte of the bloom. The hashes of these items are well known, so the expected
+     * bits do not depend on this class or on HashUtils.
+     */
+    @Test
+    public void testBuildBloomKnownAnswer() {
+        // Keccak-256 of the empty input is c5d2 4601 86f7 ..., giving bits 1490, 1537 and 1783
+        byte[] expected = new byte[LogsBloomUtils.BLOOM_BYTE_LENGTH];
+        expected[69] = 0x04;
+        expected[63] = 0x02;
+        expected[33] = (byte) 0x80;
+        assertArrayEquals(expected, LogsBloomUtils.buildBloom(new byte[0]));
+
+        // the Transfer event topic is ddf2 52ad 1be2 ..., giving bits 1522, 685 and 994
+        byte[] transfer = "Transfer(address,address,uint256)".getBytes(StandardCharsets.UTF_8);
+        assertEquals(
+            "0xddf252ad1be2c89b69c2b068fc378daa952ba7f163c4a11628f55a4df523b3ef",
+            Numeric.toHexString(HashUtils.sha3(transfer)));
+        expected[65] = 0x04;
+        expected[170] = 0x20;
+        expected[131] = 0x04;
+        byte[] logsBloom = LogsBloomUtils.buildBloom(new byte[0], transfer);
+        assertArrayEquals(expected, logsBloom);
+
+        String logsBloomHex = Numeric.toHexString(logsBloom);
+        assertTrue(LogsBloomUtils.mightContain(logsBloomHex, LogsBloomUtils.buildBloom(transfer)));
+        expected[131] = 0;
+        assertFalse(LogsBloomUtils.mightContain(
+            Numeric.toHexString(expected), LogsBloomUtils.buildBloom(transfer)));
+    }
+
+    @Test
+    public void testMightContainUnknownBloom() {
+        byte[] bits = LogsBloomUtils.buildBloom(Numeric.hexStringToByteArray(ADDRESS));
+        assertTrue(LogsBloomUtils.mightContain(null, bits));
+        assertTrue(LogsBloomUtils.mightContain("", bits));
+        assertTrue(LogsBloomUtils.mightContain(
+            Numeric.toHexString(new byte[LogsBloomUtils.BLOOM_BYTE_LENGTH]), bits));
+    }
+
+    @Test
+    public void testAddressToTopic() {
+        byte[] topic = LogsBloomUtils.addressToTopic(ADDRESS);
+        assertEquals(32, topic.length);
+        assertEquals(
+            "0x0000000000000000000000000518f2b92fad9da7807a78b58af64db8997357db",
+            Numeric.toHexString(topic));
+    }
+}
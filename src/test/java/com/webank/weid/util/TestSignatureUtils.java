@@ -20,11 +20,20 @@
 package com.webank.weid.util;
 
 import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
 import org.bcos.web3j.crypto.ECKeyPair;
 import org.bcos.web3j.crypto.Sign;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 /**
  * Test SignatureUtils.
  * 
@@ -65,4 +74,129 @@ public class TestSignatureUtils {
         Sign.SignatureData newSigData = SignatureUtils.simpleSignatureDeserialization(serialized);
         System.out.println(newSigData);
     }
+
+    @Test
+    public void testVerifySignatureAgreesWithRecovery() throws Exception {
+
+        ECKeyPair other = SignatureUtils.createKeyPair();
+        for (int i = 0; i < 50; i++) {
+            ECKeyPair keyPair = SignatureUtils.createKeyPair();
+            String message = "credential fields " + i;
+            Sign.SignatureData sigData = SignatureUtils.signMessage(message, keyPair);
+            BigInteger recovered = SignatureUtils.signatureToPublicKey(message, sigData);
+            assertEquals(keyPair.getPublicKey(), recovered);
+
+            assertTrue(SignatureUtils.verifySignature(message, sigData, keyPair.getPublicKey()));
+            assertFalse(SignatureUtils.verifySignature(message, sigData, other.getPublicKey()));
+            assertFalse(
+                SignatureUtils.verifySignature(message + ".", sigData, keyPair.getPublicKey()));
+
+            // the other header byte recovers another public key, so it does not verify either
+            Sign.SignatureData flipped = new Sign.SignatureData(
+                (byte) (sigData.getV() == 27 ? 28 : 27), sigData.getR(), sigData.getS());
+            assertFalse(SignatureUtils.verifySignature(message, flipped, keyPair.getPublicKey()));
+        }
+    }
+
+    @Test
+    public void testVerifySignatureWithSeveralKeys() throws Exception {
+
+        ECKeyPair keyPair = SignatureUtils.createKeyPair();
+        ECKeyPair other = SignatureUtils.createKeyPair();
+        String message = "hello world";
+        Sign.SignatureData sigData = SignatureUtils.signMessage(message, keyPair);
+
+        assertTrue(SignatureUtils.verifySignature(
+            message, sigData, Arrays.asList(other.getPublicKey(), keyPair.getPublicKey())));
+        assertFalse(SignatureUtils.verifySignature(
+            message, sigData, Arrays.asList(other.getPublicKey(), BigInteger.ONE)));
+        assertFalse(SignatureUtils.verifySignature(
+            message, sigData, Collections.<BigInteger>emptyList()));
+        // not a point of the curve
+        assertFalse(SignatureUtils.verifySignature(message, sigData, BigInteger.TEN));
+    }
+
+    @Test
+    public void testVerifySignatureUnrecoverable() throws Exception {
+
+        ECKeyPair keyPair = SignatureUtils.createKeyPair();
+        List<BigInteger> publicKeys = Collections.singletonList(keyPair.getPublicKey());
+        Random random = new Random(20181218L);
+        for (int i = 0; i < 500; i++) {
+            byte[] messageHash = HashUtils.sha3(("credential fields " + i).getBytes());
+            byte[] r = new byte[32];
+            byte[] s = new byte[32];
+            random.nextBytes(r);
+            random.nextBytes(s);
+            if (i % 10 == 0) {
+                Arrays.fill(r, (byte) 0);
+            }
+            Sign.SignatureData sigData = new Sign.SignatureData((byte) (27 + i % 4), r, s);
+
+            // the outcome of recovering the public key and comparing it
+            Object expected;
+            try {
+                expected = keyPair.getPublicKey().equals(
+                    Sign.signedMessageToKey(messageHash, sigData));
+            } catch (Exception e) {
+                expected = Exception.class;
+            }
+            Object actual;
+            try {
+                actual = SignatureUtils.verifyMessageHash(messageHash, sigData, publicKeys);
+            } catch (Exception e) {
+                actual = Exception.class;
+            }
+            assertEquals(expected, actual);
+            assertEquals(expected != Exception.class, SignatureUtils.isRecoverable(sigData));
+        }
+
+        // r + n is not below p, so nothing can be recovered with the header bytes 29 and 30
+        Sign.SignatureData sigData = SignatureUtils.signMessage("hello world", keyPair);
+        Sign.SignatureData unrecoverable =
+            new Sign.SignatureData((byte) (sigData.getV() + 2), sigData.getR(), sigData.getS());
+        assertFalse(SignatureUtils.isRecoverable(unrecoverable));
+        try {
+            SignatureUtils.verifySignature("hello world", unrecoverable, keyPair.getPublicKey());
+            fail("the public key should not be recoverable.");
+        } catch (SignatureException e) {
+            assertEquals("Could not recover public key from signature", e.getMessage());
+        }
+        boolean[] results = SignatureUtils.verifyMessageHashes(
+            Collections.singletonList(HashUtils.sha3("hello world".getBytes())),
+            Collections.singletonList(unrecoverable),
+            keyPair.getPublicKey());
+        assertFalse(results[0]);
+    }
+
+    @Test
+    public void testVerifyMessageHashes() throws Exception {
+
+        ECKeyPair keyPair = SignatureUtils.createKeyPair();
+        ECKeyPair other = SignatureUtils.createKeyPair();
+        List<byte[]> messageHashes = new ArrayList<>();
+        List<Sign.SignatureData> signatures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            byte[] messageHash = HashUtils.sha3(("credential fields " + i).getBytes());
+            messageHashes.add(messageHash);
+            // every fifth signature is the one of another key
+            signatures.add(SignatureUtils.signMessageHash(
+                messageHash, i % 5 == 4 ? other : keyPair));
+        }
+
+        boolean[] results =
+            SignatureUtils.verifyMessageHashes(messageHashes, signatures, keyPair.getPublicKey());
+        for (int i = 0; i < results.length; i++) {
+            assertEquals(i % 5 != 4, results[i]);
+            assertEquals(results[i], SignatureUtils.verifyMessageHash(
+                messageHashes.get(i),
+                signatures.get(i),
+                Collections.singletonList(keyPair.getPublicKey())));
+        }
+        results = SignatureUtils.verifyMessageHashes(messageHashes, signatures, BigInteger.TEN);
+        assertEquals(20, results.length);
+        for (boolean result : results) {
+            assertFalse(result);
+        }
+    }
 }